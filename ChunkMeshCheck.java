@@ -0,0 +1,277 @@
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import net.minecraft.client.renderer.ChunkBuilder;
+import net.minecraft.client.renderer.ChunkMesh;
+import net.minecraft.client.renderer.ChunkMesher;
+import net.minecraft.client.renderer.Tesselator;
+import net.minecraft.client.renderer.TileRenderer;
+import net.minecraft.client.renderer.VertexData;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.Region;
+import net.minecraft.world.level.RegionSnapshot;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.tile.Tile;
+
+public class ChunkMeshCheck {
+   private static final int SIZE = 16;
+   private static final int MAX_REPORTED = 10;
+   private static final String[] FIELDS = new String[]{"x", "y", "z", "u", "v", "color", "normal", "pad"};
+   private static final int[] SHARED_SHAPES = new int[]{Tile.stairs_wood.id, Tile.fence.id, Tile.lever.id, Tile.stairs_stone.id};
+   private final Level level;
+   private final ChunkMesher mesher = new ChunkMesher(false);
+   private final Tesselator tesselator = Tesselator.instance.getUniqueInstance(ChunkMesher.BUFFER_SIZE);
+   private final ChunkBuilder builder = new ChunkBuilder(ChunkBuilder.THREADS);
+   private int reported;
+
+   public ChunkMeshCheck(Level level) {
+      this.level = level;
+   }
+
+   public int run(int radius) throws InterruptedException, ExecutionException {
+      int xc = this.level.xSpawn >> 4;
+      int zc = this.level.zSpawn >> 4;
+      int chunks = 0;
+      int mismatched = 0;
+      int workerMismatched = 0;
+      int extraSkyLit = 0;
+      long vertices = 0L;
+      System.out.println("Placed " + this.placeSharedShapes(radius) + " stairs, fences and levers, which the worker path leaves for the main thread");
+
+      for(int cx = xc - radius; cx <= xc + radius; ++cx) {
+         for(int cz = zc - radius; cz <= zc + radius; ++cz) {
+            int x = cx * SIZE;
+            int z = cz * SIZE;
+            Future<ChunkMesh>[] workerMeshes = new Future[128 / SIZE];
+
+            for(int y = 0; y < 128; y += SIZE) {
+               workerMeshes[y / SIZE] = this.builder.mesh(new RegionSnapshot(this.level, x - 1, y - 1, z - 1, x + SIZE + 1, y + SIZE + 1, z + SIZE + 1), x, y, z, SIZE);
+            }
+
+            for(int y = 0; y < 128; y += SIZE) {
+               VertexData[] expected = new VertexData[2];
+               boolean[] empty = new boolean[]{true, true};
+               boolean skyLit = this.renderLegacy(x, y, z, expected, empty);
+               RegionSnapshot region = new RegionSnapshot(this.level, x - 1, y - 1, z - 1, x + SIZE + 1, y + SIZE + 1, z + SIZE + 1);
+               ChunkMesh mesh = this.mesher.mesh(region, x, y, z, SIZE, SIZE, SIZE);
+               boolean matches = true;
+
+               for(int l = 0; l < 2; ++l) {
+                  matches &= this.compare(x, y, z, l, expected[l], mesh.layers[l]);
+                  if (empty[l] != mesh.empty[l]) {
+                     this.report(x + " " + y + " " + z + " layer " + l + ": legacy empty " + empty[l] + ", mesher empty " + mesh.empty[l]);
+                     matches = false;
+                  }
+
+                  if (expected[l] != null) {
+                     vertices += (long)expected[l].vertices;
+                  }
+               }
+
+               if (skyLit && !mesh.skyLit) {
+                  this.report(x + " " + y + " " + z + ": sky lit in legacy but not in the mesher");
+                  matches = false;
+               } else if (!skyLit && mesh.skyLit) {
+                  ++extraSkyLit;
+               }
+
+               ++chunks;
+               if (!matches) {
+                  ++mismatched;
+               }
+
+               if (!this.compareWorker(mesh, (ChunkMesh)workerMeshes[y / SIZE].get())) {
+                  ++workerMismatched;
+               }
+            }
+         }
+      }
+
+      System.out.println("Compared " + chunks + " render chunks, " + vertices + " legacy vertices, " + mismatched + " mismatched");
+      System.out.println(extraSkyLit + " render chunks are marked sky lit only by the mesher, which copies sky light the tiles never sample");
+      System.out.println("ChunkBuilder workers on " + ChunkBuilder.THREADS + " threads: " + workerMismatched + " render chunks differ from the synchronous mesher");
+      return mismatched + workerMismatched;
+   }
+
+   private int placeSharedShapes(int radius) {
+      int x0 = ((this.level.xSpawn >> 4) - radius) * SIZE;
+      int z0 = ((this.level.zSpawn >> 4) - radius) * SIZE;
+      int width = (radius * 2 + 1) * SIZE;
+      int placed = 0;
+
+      for(int x = x0; x < x0 + width; ++x) {
+         for(int z = z0; z < z0 + width; ++z) {
+            int y = this.level.getChunk(x >> 4, z >> 4).getHeightmap(x & 15, z & 15);
+            if ((x * 31 + z * 17 & 15) == 0 && y > 0 && y < 127) {
+               int tileId = SHARED_SHAPES[placed % SHARED_SHAPES.length];
+               this.level.setTileAndDataNoUpdate(x, y, z, tileId, tileId == Tile.lever.id ? 5 : placed & 3);
+               ++placed;
+            }
+         }
+      }
+
+      return placed;
+   }
+
+   private boolean compareWorker(ChunkMesh expected, ChunkMesh actual) {
+      Tesselator t = this.tesselator;
+      TileRenderer tileRenderer = new TileRenderer(actual.region, t);
+      String at = actual.x + " " + actual.y + " " + actual.z;
+      boolean matches = true;
+
+      for(int l = 0; l < 2; ++l) {
+         boolean rendered = !actual.empty[l];
+         if (actual.layers[l] != null) {
+            t.capture(actual.layers[l]);
+            rendered |= ChunkMesher.tesselateDeferred(actual, tileRenderer, t, l);
+            t.capture((VertexData)null);
+         }
+
+         if (rendered == expected.empty[l]) {
+            this.report(at + " layer " + l + ": worker empty " + !rendered + ", synchronous empty " + expected.empty[l]);
+            matches = false;
+         }
+
+         int[][] expectedPrimitives = primitives(expected.layers[l]);
+         int[][] actualPrimitives = primitives(actual.layers[l]);
+         if (expectedPrimitives.length != actualPrimitives.length) {
+            this.report(at + " layer " + l + ": worker has " + actualPrimitives.length + " primitives, synchronous " + expectedPrimitives.length);
+            matches = false;
+         } else {
+            for(int i = 0; i < expectedPrimitives.length; ++i) {
+               if (!Arrays.equals(expectedPrimitives[i], actualPrimitives[i])) {
+                  this.report(at + " layer " + l + ": sorted primitive " + i + " of " + actualPrimitives.length + " differs, synchronous " + describe(expectedPrimitives[i], 0) + ", worker " + describe(actualPrimitives[i], 0));
+                  matches = false;
+                  break;
+               }
+            }
+         }
+      }
+
+      if (expected.skyLit != actual.skyLit || expected.visibility != actual.visibility || expected.entityTiles.size() != actual.entityTiles.size()) {
+         this.report(at + ": worker sky lit " + actual.skyLit + ", visibility " + Long.toHexString(actual.visibility) + ", " + actual.entityTiles.size() + " entity tiles; synchronous " + expected.skyLit + ", " + Long.toHexString(expected.visibility) + ", " + expected.entityTiles.size());
+         matches = false;
+      }
+
+      return matches;
+   }
+
+   private static int[][] primitives(VertexData data) {
+      int size = data != null && Tesselator.getDrawMode(data.mode) == 4 ? 24 : 32;
+      int count = data == null ? 0 : data.ints / size;
+      int[][] primitives = new int[count][];
+
+      for(int i = 0; i < count; ++i) {
+         primitives[i] = Arrays.copyOfRange(data.array, i * size, i * size + size);
+      }
+
+      Arrays.sort(primitives, new Comparator<int[]>() {
+         public int compare(int[] a, int[] b) {
+            for(int i = 0; i < a.length; ++i) {
+               if (a[i] != b[i]) {
+                  return a[i] < b[i] ? -1 : 1;
+               }
+            }
+
+            return 0;
+         }
+      });
+      return primitives;
+   }
+
+   private boolean renderLegacy(int x0, int y0, int z0, VertexData[] layers, boolean[] empty) {
+      Tesselator t = this.tesselator;
+      Region region = new Region(this.level, x0 - 1, y0 - 1, z0 - 1, x0 + SIZE + 1, y0 + SIZE + 1, z0 + SIZE + 1);
+      TileRenderer tileRenderer = new TileRenderer(region, t);
+      LevelChunk.touchedSky = false;
+
+      for(int l = 0; l < 2; ++l) {
+         boolean renderNextLayer = false;
+         boolean rendered = false;
+         boolean started = false;
+
+         for(int y = y0; y < y0 + SIZE; ++y) {
+            for(int z = z0; z < z0 + SIZE; ++z) {
+               for(int x = x0; x < x0 + SIZE; ++x) {
+                  int tileId = region.getTile(x, y, z);
+                  if (tileId > 0) {
+                     if (!started) {
+                        started = true;
+                        layers[l] = new VertexData();
+                        t.capture(layers[l]);
+                        t.begin();
+                        t.offset((double)(-x0), (double)(-y0), (double)(-z0));
+                     }
+
+                     Tile tile = Tile.tiles[tileId];
+                     if (tile.getRenderLayer() != l) {
+                        renderNextLayer = true;
+                     } else {
+                        rendered |= tileRenderer.tesselateInWorld(tile, x, y, z);
+                     }
+                  }
+               }
+            }
+         }
+
+         if (started) {
+            t.end();
+            t.offset(0.0D, 0.0D, 0.0D);
+            t.capture((VertexData)null);
+         }
+
+         empty[l] = !rendered;
+         if (!renderNextLayer) {
+            break;
+         }
+      }
+
+      return LevelChunk.touchedSky;
+   }
+
+   private boolean compare(int x, int y, int z, int layer, VertexData expected, VertexData actual) {
+      int expectedInts = expected == null ? 0 : expected.ints;
+      int actualInts = actual == null ? 0 : actual.ints;
+      int ints = Math.min(expectedInts, actualInts);
+
+      for(int i = 0; i < ints; ++i) {
+         if (expected.array[i] != actual.array[i]) {
+            this.report(x + " " + y + " " + z + " layer " + layer + ": vertex " + i / 8 + " of " + expectedInts / 8 + " differs in " + FIELDS[i % 8] + ", legacy " + describe(expected.array, i) + ", mesher " + describe(actual.array, i));
+            return false;
+         }
+      }
+
+      if (expectedInts != actualInts) {
+         this.report(x + " " + y + " " + z + " layer " + layer + ": legacy has " + expectedInts / 8 + " vertices, mesher " + actualInts / 8);
+         return false;
+      } else {
+         return true;
+      }
+   }
+
+   private static String describe(int[] array, int index) {
+      int vertex = index - index % 8;
+      return "(" + Float.intBitsToFloat(array[vertex]) + ", " + Float.intBitsToFloat(array[vertex + 1]) + ", " + Float.intBitsToFloat(array[vertex + 2]) + " uv " + Float.intBitsToFloat(array[vertex + 3]) + ", " + Float.intBitsToFloat(array[vertex + 4]) + " color " + Integer.toHexString(array[vertex + 5]) + ")";
+   }
+
+   private void report(String message) {
+      if (this.reported++ < MAX_REPORTED) {
+         System.out.println("  " + message);
+      }
+
+   }
+
+   public static void main(String[] args) throws Exception {
+      if (args.length != 3) {
+         System.out.println("Usage: ChunkMeshCheck <saves dir> <world> <radius>");
+         System.out.println("Meshes the render chunks around spawn with the per-tile Region loop, ChunkMesher and ChunkBuilder's worker threads, without GL, and reports the first difference in each render chunk.");
+         System.exit(1);
+      }
+
+      Level level = new Level(new File(args[0]), args[1]);
+      int mismatched = (new ChunkMeshCheck(level)).run(Integer.parseInt(args[2]));
+      System.exit(mismatched == 0 ? 0 : 1);
+   }
+}
@@ -0,0 +1,62 @@
+import java.io.File;
+import java.util.zip.CRC32;
+import net.minecraft.client.renderer.ChunkMesh;
+import net.minecraft.client.renderer.ChunkMesher;
+import net.minecraft.client.renderer.VertexData;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.RegionSnapshot;
+
+public class ChunkMeshDump {
+   public static void main(String[] args) {
+      if (args.length != 3 && args.length != 4) {
+         System.out.println("Usage: ChunkMeshDump <saves dir> <world> <radius> [defer]");
+         System.out.println("Meshes the 16x16x16 render chunks around spawn without GL and prints a checksum per layer, for diffing renderer changes.");
+         System.exit(1);
+      }
+
+      Level level = new Level(new File(args[0]), args[1]);
+      int radius = Integer.parseInt(args[2]);
+      ChunkMesher mesher = new ChunkMesher(args.length == 4 && args[3].equals("defer"));
+      int xc = level.xSpawn >> 4;
+      int zc = level.zSpawn >> 4;
+      CRC32 total = new CRC32();
+      long vertices = 0L;
+      int deferred = 0;
+      long start = System.nanoTime();
+
+      for(int cx = xc - radius; cx <= xc + radius; ++cx) {
+         for(int cz = zc - radius; cz <= zc + radius; ++cz) {
+            for(int y = 0; y < 128; y += 16) {
+               int x = cx * 16;
+               int z = cz * 16;
+               RegionSnapshot region = new RegionSnapshot(level, x - 1, y - 1, z - 1, x + 17, y + 17, z + 17);
+               ChunkMesh mesh = mesher.mesh(region, x, y, z, 16, 16, 16);
+               deferred += mesh.deferredTiles.size();
+
+               for(int l = 0; l < 2; ++l) {
+                  VertexData data = mesh.layers[l];
+                  if (data != null && data.vertices > 0) {
+                     CRC32 crc = new CRC32();
+
+                     for(int i = 0; i < data.ints; ++i) {
+                        int v = data.array[i];
+                        crc.update(v >>> 24);
+                        crc.update(v >>> 16);
+                        crc.update(v >>> 8);
+                        crc.update(v);
+                     }
+
+                     System.out.println(x + " " + y + " " + z + " " + l + " " + data.vertices + " " + Long.toHexString(crc.getValue()) + (mesh.skyLit ? " sky" : ""));
+                     total.update((int)crc.getValue());
+                     vertices += (long)data.vertices;
+                  }
+               }
+            }
+         }
+      }
+
+      long time = (System.nanoTime() - start) / 1000000L;
+      System.out.println("Meshed " + (radius * 2 + 1) * (radius * 2 + 1) * 8 + " render chunks in " + time + " ms: " + vertices + " vertices, " + deferred + " deferred tiles, checksum " + Long.toHexString(total.getValue()));
+      System.exit(0);
+   }
+}
@@ -0,0 +1,158 @@
+import java.io.File;
+import java.util.Random;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.animal.Chicken;
+import net.minecraft.world.entity.animal.Cow;
+import net.minecraft.world.entity.animal.Pig;
+import net.minecraft.world.entity.animal.Sheep;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.entity.monster.Creeper;
+import net.minecraft.world.entity.monster.Skeleton;
+import net.minecraft.world.entity.monster.Zombie;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemInstance;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.TickProfiler;
+import net.minecraft.world.level.tile.Tile;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+
+public class LevelTickProfiler {
+   private static final int RADIUS = 128;
+   private static final int WARMUP_TICKS = 200;
+   private static final int MOBS = 120;
+   private static final int ITEMS = 80;
+   private static final int LIQUIDS = 40;
+   private final int ticks;
+   private final long seed;
+   private final File outDir;
+   private Level level;
+   private File workDir = new File("leveldata");
+
+   public LevelTickProfiler(int ticks, long seed, File outDir) {
+      this.ticks = ticks;
+      this.seed = seed;
+      this.outDir = outDir;
+   }
+
+   public TickProfiler run() {
+      if (!this.workDir.exists()) {
+         this.workDir.mkdir();
+      }
+
+      String name = "TickTest";
+      Level.deleteLevel(this.workDir, name);
+      this.level = new Level(new File(this.workDir, "saves"), name, this.seed);
+      this.prepareLevel();
+      this.populate();
+
+      for(int i = 0; i < WARMUP_TICKS; ++i) {
+         this.step();
+      }
+
+      TickProfiler profiler = this.level.profiler;
+      profiler.reset();
+      profiler.setEnabled(true);
+
+      for(int i = 0; i < this.ticks; ++i) {
+         this.step();
+      }
+
+      System.out.println(profiler.dump(this.outDir));
+      profiler.setEnabled(false);
+      System.out.print(profiler.toText());
+      return profiler;
+   }
+
+   private void prepareLevel() {
+      int x = this.level.xSpawn;
+      int z = this.level.zSpawn;
+
+      for(int dx = -RADIUS; dx <= RADIUS; dx += 16) {
+         for(int dz = -RADIUS; dz <= RADIUS; dz += 16) {
+            this.level.getTile(x + dx, 64, z + dz);
+         }
+      }
+
+      while(this.level.updateLights()) {
+      }
+
+   }
+
+   private void populate() {
+      Random random = new Random(this.seed);
+      this.level.addEntity(new Player(this.level) {
+      });
+
+      for(int i = 0; i < MOBS; ++i) {
+         Entity mob;
+         switch(i % 7) {
+         case 0:
+            mob = new Pig(this.level);
+            break;
+         case 1:
+            mob = new Sheep(this.level);
+            break;
+         case 2:
+            mob = new Cow(this.level);
+            break;
+         case 3:
+            mob = new Chicken(this.level);
+            break;
+         case 4:
+            mob = new Zombie(this.level);
+            break;
+         case 5:
+            mob = new Skeleton(this.level);
+            break;
+         default:
+            mob = new Creeper(this.level);
+         }
+
+         this.place(mob, random, 48);
+      }
+
+      for(int i = 0; i < ITEMS; ++i) {
+         ItemEntity item = new ItemEntity(this.level, 0.0D, 0.0D, 0.0D, new ItemInstance(Tile.dirt));
+         this.place(item, random, 24);
+      }
+
+      for(int i = 0; i < LIQUIDS; ++i) {
+         int x = this.level.xSpawn + random.nextInt(64) - 32;
+         int z = this.level.zSpawn + random.nextInt(64) - 32;
+         this.level.setTile(x, this.level.getHeightmap(x, z) + 1, z, i % 4 == 0 ? Tile.lava.id : Tile.water.id);
+      }
+
+   }
+
+   private void place(Entity entity, Random random, int spread) {
+      int x = this.level.xSpawn + random.nextInt(spread * 2) - spread;
+      int z = this.level.zSpawn + random.nextInt(spread * 2) - spread;
+      entity.moveTo((double)x + 0.5D, (double)(this.level.getHeightmap(x, z) + 1), (double)z + 0.5D, random.nextFloat() * 360.0F, 0.0F);
+      this.level.addEntity(entity);
+   }
+
+   private void step() {
+      AABB.resetPool();
+      Vec3.resetPool();
+      this.level.tickEntities();
+      this.level.tick();
+
+      while(this.level.updateLights()) {
+      }
+
+   }
+
+   public static void main(String[] args) {
+      int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+      long seed = args.length > 1 ? Long.parseLong(args[1]) : 8675309L;
+      File outDir = new File(args.length > 2 ? args[2] : "tickprofiles");
+      TickProfiler profiler = (new LevelTickProfiler(ticks, seed, outDir)).run();
+      if (args.length > 3 && profiler.getMeanTickMillis() > Double.parseDouble(args[3])) {
+         System.out.println("Mean tick time " + profiler.getMeanTickMillis() + " ms exceeds budget of " + args[3] + " ms");
+         System.exit(1);
+      }
+
+      System.exit(0);
+   }
+}
@@ -0,0 +1,423 @@
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.tile.Tile;
+
+public class LightEngineCheck {
+   private static final int RADIUS = 6;
+   private static final int COMPARE_RADIUS = 3;
+   private static final int EDITS = 400;
+   private static final int MAX_REPORTED = 10;
+   private static final String[] VIOLATIONS = new String[]{"sky light violations", "block light cells too dark", "block light cells too bright"};
+   private final long seed;
+   private final int edits;
+   private File workDir = new File("leveldata");
+   private int wrongDiffs;
+
+   public LightEngineCheck(long seed, int edits) {
+      this.seed = seed;
+      this.edits = edits;
+   }
+
+   public boolean run() {
+      System.out.println("Seed " + this.seed + ", " + (RADIUS * 2 + 1) + "x" + (RADIUS * 2 + 1) + " chunks, " + this.edits + " edits, comparing the inner " + (COMPARE_RADIUS * 2 + 1) + "x" + (COMPARE_RADIUS * 2 + 1));
+      Level current = this.createLevel("LightCheck", false);
+      Level legacy = this.createLevel("LightCheckLegacy", true);
+      this.runWorkload("engine", current);
+      this.runWorkload("legacy", legacy);
+      int[] currentViolations = this.countViolations("engine", current);
+      int[] legacyViolations = this.countViolations("legacy", legacy);
+      int skyDiffs = this.compare(LightLayer.Sky, current, legacy);
+      int blockDiffs = this.compare(LightLayer.Block, current, legacy);
+      int cells = (COMPARE_RADIUS * 2 + 1) * (COMPARE_RADIUS * 2 + 1) * 32768;
+      System.out.println("Compared " + cells + " cells, " + (skyDiffs + blockDiffs) + " differ, " + this.wrongDiffs + " of them violate the fixpoint in the engine result");
+      boolean passed = true;
+      if (this.wrongDiffs > 0) {
+         System.out.println("FAIL: the engine differs from legacy in cells the fixpoint does not allow");
+         passed = false;
+      }
+
+      for(int i = 0; i < 3; ++i) {
+         if (currentViolations[i] > legacyViolations[i]) {
+            System.out.println("FAIL: the engine has more " + VIOLATIONS[i] + " than legacy");
+            passed = false;
+         }
+      }
+
+      return passed;
+   }
+
+   private Level createLevel(String name, boolean legacy) {
+      File saves = new File(this.workDir, "saves");
+      if (!saves.exists()) {
+         saves.mkdirs();
+      }
+
+      Level.deleteLevel(saves, name);
+      Level level = legacy ? new LightEngineCheck.LegacyLightLevel(saves, name, this.seed) : new Level(saves, name, this.seed);
+      level.random.setSeed(this.seed);
+      return level;
+   }
+
+   private void runWorkload(String label, Level level) {
+      long start = System.nanoTime();
+
+      for(int x = -RADIUS; x <= RADIUS; ++x) {
+         for(int z = -RADIUS; z <= RADIUS; ++z) {
+            level.getTile(x * 16, 64, z * 16);
+            this.drainLights(level);
+         }
+      }
+
+      long generated = System.nanoTime();
+      Random random = new Random(this.seed);
+      int[] tiles = new int[]{Tile.torch.id, Tile.lightGem.id, Tile.rock.id, 0, Tile.glass.id, 0};
+
+      for(int i = 0; i < this.edits; ++i) {
+         int x = random.nextInt(RADIUS * 16) - RADIUS * 8;
+         int z = random.nextInt(RADIUS * 16) - RADIUS * 8;
+         int y = random.nextInt(120) + 4;
+         int tile = tiles[random.nextInt(tiles.length)];
+         if (random.nextInt(4) == 0) {
+            for(int dx = 0; dx < 5; ++dx) {
+               for(int dz = 0; dz < 5; ++dz) {
+                  level.setTile(x + dx, y, z + dz, tile);
+               }
+            }
+         } else {
+            level.setTile(x, y, z, tile);
+         }
+
+         this.drainLights(level);
+      }
+
+      long end = System.nanoTime();
+      System.out.println(label + ": generation " + (generated - start) / 1000000L + " ms, edits " + (end - generated) / 1000000L + " ms");
+   }
+
+   private void drainLights(Level level) {
+      while(level.updateLights()) {
+      }
+
+   }
+
+   private int compare(LightLayer layer, Level current, Level legacy) {
+      int diffs = 0;
+      int currentWrong = 0;
+      int legacyWrong = 0;
+      int min = -COMPARE_RADIUS * 16;
+      int max = (COMPARE_RADIUS + 1) * 16;
+
+      for(int x = min; x < max; ++x) {
+         for(int z = min; z < max; ++z) {
+            for(int y = 0; y < 128; ++y) {
+               int a = current.getBrightness(layer, x, y, z);
+               int b = legacy.getBrightness(layer, x, y, z);
+               if (a != b) {
+                  boolean currentViolation = this.isViolation(current, layer, x, y, z);
+                  boolean legacyViolation = this.isViolation(legacy, layer, x, y, z);
+                  if (diffs < MAX_REPORTED) {
+                     System.out.println("  " + (layer == LightLayer.Sky ? "sky" : "block") + " " + x + "," + y + "," + z + " tile " + current.getTile(x, y, z) + ": engine " + a + (currentViolation ? " (violation)" : "") + ", legacy " + b + (legacyViolation ? " (violation)" : ""));
+                  }
+
+                  if (currentViolation) {
+                     ++currentWrong;
+                  }
+
+                  if (legacyViolation) {
+                     ++legacyWrong;
+                  }
+
+                  ++diffs;
+               }
+            }
+         }
+      }
+
+      System.out.println((layer == LightLayer.Sky ? "Sky" : "Block") + " light: " + diffs + " cells differ, " + currentWrong + " of them violate the fixpoint in the engine result, " + legacyWrong + " in the legacy result");
+      this.wrongDiffs += currentWrong;
+      return diffs;
+   }
+
+   private int[] countViolations(String label, Level level) {
+      int sky = 0;
+      int dark = 0;
+      int bright = 0;
+      int min = -COMPARE_RADIUS * 16;
+      int max = (COMPARE_RADIUS + 1) * 16;
+
+      for(int x = min; x < max; ++x) {
+         for(int z = min; z < max; ++z) {
+            for(int y = 0; y < 128; ++y) {
+               if (this.isViolation(level, LightLayer.Sky, x, y, z)) {
+                  ++sky;
+               }
+
+               int light = level.getBrightness(LightLayer.Block, x, y, z);
+               int expected = expectedLight(level, LightLayer.Block, x, y, z);
+               if (light < expected) {
+                  ++dark;
+               } else if (light > expected) {
+                  ++bright;
+               }
+            }
+         }
+      }
+
+      int[] violations = new int[]{sky, dark, bright};
+
+      for(int i = 0; i < 3; ++i) {
+         System.out.println(label + ": " + violations[i] + " " + VIOLATIONS[i]);
+      }
+
+      return violations;
+   }
+
+   private boolean isViolation(Level level, LightLayer layer, int x, int y, int z) {
+      return level.getBrightness(layer, x, y, z) != expectedLight(level, layer, x, y, z);
+   }
+
+   static int expectedLight(Level level, LightLayer layer, int x, int y, int z) {
+      int tile = level.getTile(x, y, z);
+      int opacity = Tile.lightBlock[tile];
+      if (opacity == 0) {
+         opacity = 1;
+      }
+
+      int emitted = 0;
+      if (layer == LightLayer.Sky) {
+         if (level.isSkyLit(x, y, z)) {
+            emitted = 15;
+         }
+      } else {
+         emitted = Tile.lightEmission[tile];
+      }
+
+      if (opacity >= 15 && emitted == 0) {
+         return 0;
+      } else {
+         int light = level.getBrightness(layer, x - 1, y, z);
+         light = Math.max(light, level.getBrightness(layer, x + 1, y, z));
+         light = Math.max(light, level.getBrightness(layer, x, y - 1, z));
+         light = Math.max(light, level.getBrightness(layer, x, y + 1, z));
+         light = Math.max(light, level.getBrightness(layer, x, y, z - 1));
+         light = Math.max(light, level.getBrightness(layer, x, y, z + 1));
+         return Math.max(emitted, Math.max(light - opacity, 0));
+      }
+   }
+
+   public static void main(String[] args) {
+      long seed = args.length > 0 ? Long.parseLong(args[0]) : 8675309L;
+      int edits = args.length > 1 ? Integer.parseInt(args[1]) : EDITS;
+      System.exit((new LightEngineCheck(seed, edits)).run() ? 0 : 1);
+   }
+
+   private static class LegacyLightLevel extends Level {
+      private List<LightEngineCheck.LegacyLightUpdate> lightUpdates;
+      private int maxRecurse;
+      private int maxLoop;
+
+      public LegacyLightLevel(File dir, String name, long seed) {
+         super(dir, name, seed);
+      }
+
+      private List<LightEngineCheck.LegacyLightUpdate> getLightUpdates() {
+         if (this.lightUpdates == null) {
+            this.lightUpdates = new ArrayList();
+         }
+
+         return this.lightUpdates;
+      }
+
+      public int getLightsToUpdate() {
+         return this.getLightUpdates().size();
+      }
+
+      public boolean updateLights() {
+         if (this.maxRecurse >= 50) {
+            return false;
+         } else {
+            ++this.maxRecurse;
+
+            try {
+               int budget = 500;
+               List<LightEngineCheck.LegacyLightUpdate> updates = this.getLightUpdates();
+
+               while(updates.size() > 0) {
+                  --budget;
+                  if (budget <= 0) {
+                     return true;
+                  }
+
+                  ((LightEngineCheck.LegacyLightUpdate)updates.remove(updates.size() - 1)).update(this);
+               }
+
+               return false;
+            } finally {
+               --this.maxRecurse;
+            }
+         }
+      }
+
+      public void lightWritten(LightLayer layer, int x, int y, int z, int oldLight) {
+         if (layer == LightLayer.Sky) {
+            this.updateLight(layer, x - 1, y, z - 1, x + 1, y, z + 1);
+         }
+
+      }
+
+      public void updateLight(LightLayer layer, int x0, int y0, int z0, int x1, int y1, int z1, boolean merge) {
+         if (!this.dimension.hasCeiling || layer != LightLayer.Sky) {
+            ++this.maxLoop;
+            if (this.maxLoop == 50) {
+               --this.maxLoop;
+            } else {
+               int x = (x1 + x0) / 2;
+               int z = (z1 + z0) / 2;
+               if (!this.hasChunkAt(x, 64, z)) {
+                  --this.maxLoop;
+               } else if (!this.getChunkAt(x, z).isEmpty()) {
+                  List<LightEngineCheck.LegacyLightUpdate> updates = this.getLightUpdates();
+                  if (merge) {
+                     int count = Math.min(5, updates.size());
+
+                     for(int i = 0; i < count; ++i) {
+                        LightEngineCheck.LegacyLightUpdate update = (LightEngineCheck.LegacyLightUpdate)updates.get(updates.size() - i - 1);
+                        if (update.layer == layer && update.expandToContain(x0, y0, z0, x1, y1, z1)) {
+                           --this.maxLoop;
+                           return;
+                        }
+                     }
+                  }
+
+                  updates.add(new LightEngineCheck.LegacyLightUpdate(layer, x0, y0, z0, x1, y1, z1));
+                  if (updates.size() > 1000000) {
+                     System.out.println("More than 1000000 updates, aborting lighting updates");
+                     updates.clear();
+                  }
+
+                  --this.maxLoop;
+               }
+            }
+         }
+      }
+   }
+
+   private static class LegacyLightUpdate {
+      public final LightLayer layer;
+      public int x0;
+      public int y0;
+      public int z0;
+      public int x1;
+      public int y1;
+      public int z1;
+
+      public LegacyLightUpdate(LightLayer layer, int x0, int y0, int z0, int x1, int y1, int z1) {
+         this.layer = layer;
+         this.x0 = x0;
+         this.y0 = y0;
+         this.z0 = z0;
+         this.x1 = x1;
+         this.y1 = y1;
+         this.z1 = z1;
+      }
+
+      public void update(Level level) {
+         int volume = (this.x1 - this.x0 + 1) * (this.y1 - this.y0 + 1) * (this.z1 - this.z0 + 1);
+         if (volume > 32768) {
+            System.out.println("Light too large, skipping!");
+         } else {
+            int lastX = 0;
+            int lastZ = 0;
+            boolean hasLast = false;
+            boolean lastLoaded = false;
+
+            for(int x = this.x0; x <= this.x1; ++x) {
+               for(int z = this.z0; z <= this.z1; ++z) {
+                  boolean loaded;
+                  if (hasLast && x >> 4 == lastX && z >> 4 == lastZ) {
+                     loaded = lastLoaded;
+                  } else {
+                     loaded = level.hasChunksAt(x, 0, z, 1);
+                     if (loaded) {
+                        LevelChunk chunk = level.getChunk(x >> 4, z >> 4);
+                        if (chunk.isEmpty()) {
+                           loaded = false;
+                        }
+                     }
+
+                     lastLoaded = loaded;
+                     lastX = x >> 4;
+                     lastZ = z >> 4;
+                  }
+
+                  if (loaded) {
+                     if (this.y0 < 0) {
+                        this.y0 = 0;
+                     }
+
+                     if (this.y1 >= 128) {
+                        this.y1 = 127;
+                     }
+
+                     for(int y = this.y0; y <= this.y1; ++y) {
+                        int old = level.getBrightness(this.layer, x, y, z);
+                        int light = LightEngineCheck.expectedLight(level, this.layer, x, y, z);
+                        if (old != light) {
+                           level.setBrightness(this.layer, x, y, z, light);
+                           int spread = Math.max(light - 1, 0);
+                           level.updateLightIfOtherThan(this.layer, x - 1, y, z, spread);
+                           level.updateLightIfOtherThan(this.layer, x, y - 1, z, spread);
+                           level.updateLightIfOtherThan(this.layer, x, y, z - 1, spread);
+                           if (x + 1 >= this.x1) {
+                              level.updateLightIfOtherThan(this.layer, x + 1, y, z, spread);
+                           }
+
+                           if (y + 1 >= this.y1) {
+                              level.updateLightIfOtherThan(this.layer, x, y + 1, z, spread);
+                           }
+
+                           if (z + 1 >= this.z1) {
+                              level.updateLightIfOtherThan(this.layer, x, y, z + 1, spread);
+                           }
+                        }
+                     }
+                  }
+               }
+            }
+
+         }
+      }
+
+      public boolean expandToContain(int x0, int y0, int z0, int x1, int y1, int z1) {
+         if (x0 >= this.x0 && y0 >= this.y0 && z0 >= this.z0 && x1 <= this.x1 && y1 <= this.y1 && z1 <= this.z1) {
+            return true;
+         } else if (x0 >= this.x0 - 1 && y0 >= this.y0 - 1 && z0 >= this.z0 - 1 && x1 <= this.x1 + 1 && y1 <= this.y1 + 1 && z1 <= this.z1 + 1) {
+            int oldVolume = (this.x1 - this.x0) * (this.y1 - this.y0) * (this.z1 - this.z0);
+            x0 = Math.min(x0, this.x0);
+            y0 = Math.min(y0, this.y0);
+            z0 = Math.min(z0, this.z0);
+            x1 = Math.max(x1, this.x1);
+            y1 = Math.max(y1, this.y1);
+            z1 = Math.max(z1, this.z1);
+            if ((x1 - x0) * (y1 - y0) * (z1 - z0) - oldVolume <= 2) {
+               this.x0 = x0;
+               this.y0 = y0;
+               this.z0 = z0;
+               this.x1 = x1;
+               this.y1 = y1;
+               this.z1 = z1;
+               return true;
+            } else {
+               return false;
+            }
+         } else {
+            return false;
+         }
+      }
+   }
+}
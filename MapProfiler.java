@@ -0,0 +1,294 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import util.IntHashMap;
+import util.LongHashMap;
+
+public class MapProfiler {
+   private static final int[] SIZES = new int[]{64, 4096, 262144};
+   private static final int WARMUP_KEYS = 2000000;
+   private static final int KEYS_PER_SIZE = 5000000;
+   private final int keys;
+   private int[] intKeys;
+   private long[] longKeys;
+   private int[] intMisses;
+   private long[] longMisses;
+   private Object value = new Object();
+   private long sink;
+
+   public MapProfiler(int keys) {
+      this.keys = keys;
+      this.intKeys = new int[keys];
+      this.longKeys = new long[keys];
+      this.intMisses = new int[keys];
+      this.longMisses = new long[keys];
+   }
+
+   public void run() {
+      Random random = new Random(8675309L);
+
+      for(int i = 0; i < this.keys; ++i) {
+         this.intKeys[i] = random.nextInt(1024) | random.nextInt(128) << 10 | random.nextInt(1024) << 20;
+         this.intMisses[i] = this.intKeys[i] ^ 1023;
+         this.longKeys[i] = (long)(random.nextInt(512) - 256) & 4294967295L | ((long)(random.nextInt(512) - 256) & 4294967295L) << 32;
+         this.longMisses[i] = this.longKeys[i] + 4294967296000L;
+      }
+
+      MapProfiler.Workload[] workloads = new MapProfiler.Workload[]{new MapProfiler.IntMap(), new MapProfiler.BoxedIntMap(), new MapProfiler.LongMap(), new MapProfiler.BoxedLongMap()};
+
+      for(int round = 0; round < WARMUP_KEYS / this.keys + 1; ++round) {
+         for(int i = 0; i < workloads.length; ++i) {
+            workloads[i].fill();
+            workloads[i].lookup();
+            workloads[i].iterate();
+            workloads[i].drain();
+         }
+      }
+
+      System.out.println("Keys: " + this.keys);
+
+      for(int i = 0; i < workloads.length; ++i) {
+         this.report(workloads[i]);
+      }
+
+      System.out.println("(checksum " + this.sink + ")");
+   }
+
+   private void report(MapProfiler.Workload workload) {
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean)threads : null;
+      long[] times = new long[4];
+      long allocatedBefore = allocations == null ? 0L : allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+      int rounds = KEYS_PER_SIZE / this.keys;
+
+      for(int round = 0; round < rounds; ++round) {
+         long start = System.nanoTime();
+         workload.fill();
+         long filled = System.nanoTime();
+         workload.lookup();
+         long looked = System.nanoTime();
+         workload.iterate();
+         long iterated = System.nanoTime();
+         workload.drain();
+         long drained = System.nanoTime();
+         times[0] += filled - start;
+         times[1] += looked - filled;
+         times[2] += iterated - looked;
+         times[3] += drained - iterated;
+      }
+
+      long allocated = allocations == null ? 0L : allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+      long ops = (long)rounds * (long)this.keys;
+      System.out.println(workload.name() + ": put " + times[0] / ops + " ns, get " + times[1] / (ops * 2L) + " ns, iterate " + times[2] / ops + " ns, remove " + times[3] / ops + " ns per key, " + (allocations == null ? "n/a" : allocated / ops + " B/key"));
+   }
+
+   private abstract static class Workload {
+      private Workload() {
+      }
+
+      abstract String name();
+
+      abstract void fill();
+
+      abstract void lookup();
+
+      abstract void iterate();
+
+      abstract void drain();
+   }
+
+   private class IntMap extends MapProfiler.Workload {
+      private IntHashMap<Object> map = new IntHashMap();
+
+      private IntMap() {
+      }
+
+      String name() {
+         return "IntHashMap         ";
+      }
+
+      void fill() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            this.map.put(MapProfiler.this.intKeys[i], MapProfiler.this.value);
+         }
+
+      }
+
+      void lookup() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            if (this.map.get(MapProfiler.this.intKeys[i]) != null) {
+               ++MapProfiler.this.sink;
+            }
+
+            if (this.map.get(MapProfiler.this.intMisses[i]) != null) {
+               ++MapProfiler.this.sink;
+            }
+         }
+
+      }
+
+      void iterate() {
+         for(int i = this.map.nextIndex(-1); i >= 0; i = this.map.nextIndex(i)) {
+            MapProfiler.this.sink += (long)this.map.keyAt(i);
+         }
+
+      }
+
+      void drain() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            this.map.remove(MapProfiler.this.intKeys[i]);
+         }
+
+      }
+   }
+
+   private class BoxedIntMap extends MapProfiler.Workload {
+      private Map<Integer, Object> map = new HashMap();
+
+      private BoxedIntMap() {
+      }
+
+      String name() {
+         return "HashMap<Integer, ?>";
+      }
+
+      void fill() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            this.map.put(MapProfiler.this.intKeys[i], MapProfiler.this.value);
+         }
+
+      }
+
+      void lookup() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            if (this.map.get(MapProfiler.this.intKeys[i]) != null) {
+               ++MapProfiler.this.sink;
+            }
+
+            if (this.map.get(MapProfiler.this.intMisses[i]) != null) {
+               ++MapProfiler.this.sink;
+            }
+         }
+
+      }
+
+      void iterate() {
+         Iterator<Integer> it = this.map.keySet().iterator();
+
+         while(it.hasNext()) {
+            MapProfiler.this.sink += (long)(Integer)it.next();
+         }
+
+      }
+
+      void drain() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            this.map.remove(MapProfiler.this.intKeys[i]);
+         }
+
+      }
+   }
+
+   private class LongMap extends MapProfiler.Workload {
+      private LongHashMap<Object> map = new LongHashMap();
+
+      private LongMap() {
+      }
+
+      String name() {
+         return "LongHashMap        ";
+      }
+
+      void fill() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            this.map.put(MapProfiler.this.longKeys[i], MapProfiler.this.value);
+         }
+
+      }
+
+      void lookup() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            if (this.map.get(MapProfiler.this.longKeys[i]) != null) {
+               ++MapProfiler.this.sink;
+            }
+
+            if (this.map.get(MapProfiler.this.longMisses[i]) != null) {
+               ++MapProfiler.this.sink;
+            }
+         }
+
+      }
+
+      void iterate() {
+         for(int i = this.map.nextIndex(-1); i >= 0; i = this.map.nextIndex(i)) {
+            MapProfiler.this.sink += this.map.keyAt(i);
+         }
+
+      }
+
+      void drain() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            this.map.remove(MapProfiler.this.longKeys[i]);
+         }
+
+      }
+   }
+
+   private class BoxedLongMap extends MapProfiler.Workload {
+      private Map<Long, Object> map = new HashMap();
+
+      private BoxedLongMap() {
+      }
+
+      String name() {
+         return "HashMap<Long, ?>   ";
+      }
+
+      void fill() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            this.map.put(MapProfiler.this.longKeys[i], MapProfiler.this.value);
+         }
+
+      }
+
+      void lookup() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            if (this.map.get(MapProfiler.this.longKeys[i]) != null) {
+               ++MapProfiler.this.sink;
+            }
+
+            if (this.map.get(MapProfiler.this.longMisses[i]) != null) {
+               ++MapProfiler.this.sink;
+            }
+         }
+
+      }
+
+      void iterate() {
+         Iterator<Long> it = this.map.keySet().iterator();
+
+         while(it.hasNext()) {
+            MapProfiler.this.sink += (Long)it.next();
+         }
+
+      }
+
+      void drain() {
+         for(int i = 0; i < MapProfiler.this.keys; ++i) {
+            this.map.remove(MapProfiler.this.longKeys[i]);
+         }
+
+      }
+   }
+
+   public static void main(String[] args) {
+      for(int i = 0; i < SIZES.length; ++i) {
+         (new MapProfiler(SIZES[i])).run();
+      }
+
+   }
+}
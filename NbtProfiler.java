@@ -0,0 +1,178 @@
+import com.mojang.nbt.CompoundTag;
+import com.mojang.nbt.NbtIo;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.storage.ChunkData;
+import net.minecraft.world.level.chunk.storage.OldChunkStorage;
+
+public class NbtProfiler {
+   private static final int RADIUS = 4;
+   private static final int WARMUP_ROUNDS = 20;
+   private static final int ROUNDS = 50;
+   private Level level;
+   private File workDir = new File("leveldata");
+   private LevelChunk[] chunks;
+   private byte[][] payloads;
+
+   public void run() throws IOException {
+      if (!this.workDir.exists()) {
+         this.workDir.mkdir();
+      }
+
+      String name = "NbtTest";
+      Level.deleteLevel(this.workDir, name);
+      this.level = new Level(new File(this.workDir, "saves"), name, 8675309L);
+      int size = RADIUS * 2 + 1;
+      this.chunks = new LevelChunk[size * size];
+      this.payloads = new byte[this.chunks.length][];
+
+      for(int x = -RADIUS - 1; x <= RADIUS + 1; ++x) {
+         for(int z = -RADIUS - 1; z <= RADIUS + 1; ++z) {
+            this.level.getChunk(x, z);
+         }
+      }
+
+      for(int i = 0; i < this.chunks.length; ++i) {
+         this.chunks[i] = this.level.getChunk(i % size - RADIUS, i / size - RADIUS);
+         this.payloads[i] = this.writeTree(this.chunks[i]);
+      }
+
+      this.verify();
+      System.out.println("Chunks: " + this.chunks.length + ", payload " + this.payloads[0].length + " bytes");
+
+      for(int round = 0; round < WARMUP_ROUNDS; ++round) {
+         this.readTree();
+         this.readStream();
+         this.writeTreeAll();
+         this.writeStreamAll();
+      }
+
+      this.report("read  Tag.readNamedTag", 0);
+      this.report("read  NbtReader       ", 1);
+      this.report("write Tag.writeNamedTag", 2);
+      this.report("write NbtWriter        ", 3);
+   }
+
+   private void verify() throws IOException {
+      for(int i = 0; i < this.chunks.length; ++i) {
+         LevelChunk chunk = this.chunks[i];
+         LevelChunk tree = this.readTree(this.payloads[i]);
+         LevelChunk stream = this.readStream(chunk, this.payloads[i]);
+         LevelChunk rewritten = this.readStream(chunk, this.writeStream(chunk));
+         ByteArrayOutputStream bytes = new ByteArrayOutputStream(100000);
+         OldChunkStorage.writeChunkTag(OldChunkStorage.createSnapshot(this.level, chunk), new DataOutputStream(bytes));
+         LevelChunk snapshot = this.readStream(chunk, bytes.toByteArray());
+         if (!this.sameBlocks(chunk, tree) || !this.sameBlocks(chunk, stream) || !this.sameBlocks(chunk, rewritten) || !this.sameBlocks(chunk, snapshot)) {
+            throw new IllegalStateException("Streaming codec disagrees with the tag codec at chunk " + chunk.x + ", " + chunk.z);
+         }
+      }
+
+   }
+
+   private boolean sameBlocks(LevelChunk a, LevelChunk b) {
+      return a.x == b.x && a.z == b.z && a.terrainPopulated == b.terrainPopulated && Arrays.equals(a.blocks, b.blocks) && Arrays.equals(a.data.data, b.data.data) && Arrays.equals(a.skyLight.data, b.skyLight.data) && Arrays.equals(a.blockLight.data, b.blockLight.data) && Arrays.equals(a.heightmap, b.heightmap);
+   }
+
+   private void report(String label, int mode) throws IOException {
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean)threads : null;
+      long allocatedBefore = allocations == null ? 0L : allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+      long start = System.nanoTime();
+
+      for(int round = 0; round < ROUNDS; ++round) {
+         if (mode == 0) {
+            this.readTree();
+         } else if (mode == 1) {
+            this.readStream();
+         } else if (mode == 2) {
+            this.writeTreeAll();
+         } else {
+            this.writeStreamAll();
+         }
+      }
+
+      long time = System.nanoTime() - start;
+      long allocated = allocations == null ? 0L : allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+      long ops = (long)ROUNDS * (long)this.chunks.length;
+      System.out.println(label + ": " + time / ops / 1000L + " us/chunk, " + (allocations == null ? "n/a" : allocated / ops + " B/chunk"));
+   }
+
+   private void readTree() throws IOException {
+      for(int i = 0; i < this.payloads.length; ++i) {
+         this.readTree(this.payloads[i]);
+      }
+
+   }
+
+   private LevelChunk readTree(byte[] payload) throws IOException {
+      CompoundTag tag = NbtIo.read(this.input(payload)).getCompound("Level");
+      LevelChunk chunk = new LevelChunk(this.level, tag.getInt("xPos"), tag.getInt("zPos"));
+      chunk.blocks = tag.getByteArray("Blocks");
+      chunk.data = new DataLayer(tag.getByteArray("Data"));
+      chunk.skyLight = new DataLayer(tag.getByteArray("SkyLight"));
+      chunk.blockLight = new DataLayer(tag.getByteArray("BlockLight"));
+      chunk.heightmap = tag.getByteArray("HeightMap");
+      chunk.terrainPopulated = tag.getBoolean("TerrainPopulated");
+      return OldChunkStorage.load(this.level, chunk, tag);
+   }
+
+   private void readStream() throws IOException {
+      for(int i = 0; i < this.payloads.length; ++i) {
+         this.readStream(this.chunks[i], this.payloads[i]);
+      }
+
+   }
+
+   private LevelChunk readStream(LevelChunk chunk, byte[] payload) throws IOException {
+      ChunkData data = OldChunkStorage.readChunk(this.level, chunk.x, chunk.z, this.input(payload));
+      return OldChunkStorage.load(this.level, data.chunk, data.tag);
+   }
+
+   private void writeTreeAll() throws IOException {
+      for(int i = 0; i < this.chunks.length; ++i) {
+         this.writeTree(this.chunks[i]);
+      }
+
+   }
+
+   private void writeStreamAll() throws IOException {
+      for(int i = 0; i < this.chunks.length; ++i) {
+         this.writeStream(this.chunks[i]);
+      }
+
+   }
+
+   private byte[] writeTree(LevelChunk chunk) throws IOException {
+      CompoundTag root = new CompoundTag();
+      CompoundTag tag = new CompoundTag();
+      root.put("Level", tag);
+      OldChunkStorage.save(chunk, this.level, tag);
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(100000);
+      NbtIo.write(root, new DataOutputStream(bytes));
+      return bytes.toByteArray();
+   }
+
+   private byte[] writeStream(LevelChunk chunk) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(100000);
+      OldChunkStorage.writeChunk(this.level, chunk, new DataOutputStream(bytes));
+      return bytes.toByteArray();
+   }
+
+   private DataInputStream input(byte[] payload) {
+      return new DataInputStream(new ByteArrayInputStream(payload));
+   }
+
+   public static void main(String[] args) throws IOException {
+      (new NbtProfiler()).run();
+   }
+}
@@ -0,0 +1,488 @@
+import com.mojang.nbt.CompoundTag;
+import com.mojang.nbt.NbtIo;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.minecraft.world.entity.monster.Zombie;
+import net.minecraft.world.level.Collider;
+import net.minecraft.world.level.Explosion;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.storage.ChunkStorage;
+import net.minecraft.world.level.chunk.storage.CompressedZonedChunkStorage;
+import net.minecraft.world.level.chunk.storage.OldChunkStorage;
+import net.minecraft.world.level.chunk.storage.ZonedChunkStorage;
+import net.minecraft.world.level.levelgen.RandomLevelSource;
+import net.minecraft.world.level.pathfinder.Path;
+import net.minecraft.world.level.tile.Tile;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.Vec3;
+
+public class WorldBenchmark {
+   private static final long SEED = 8675309L;
+   private static final int RADIUS = 3;
+   private static final int WARMUP_ITERATIONS = 5;
+   private static final int ITERATIONS = 10;
+   private File workDir = new File("leveldata");
+   private Level level;
+   private List<LevelChunk> chunks = new ArrayList();
+   private long sink;
+
+   public void run(String[] filters) throws IOException {
+      WorldBenchmark.Benchmark[] benchmarks = new WorldBenchmark.Benchmark[]{new WorldBenchmark.ChunkGeneration(), new WorldBenchmark.PostProcess(), new WorldBenchmark.LightPropagation(), new WorldBenchmark.GetCubes(), new WorldBenchmark.ColliderSweep(), new WorldBenchmark.FindPath(), new WorldBenchmark.Explode(), new WorldBenchmark.NbtRoundTrip(), new WorldBenchmark.ZoneSave(false), new WorldBenchmark.ZoneLoad(false), new WorldBenchmark.ZoneSave(true), new WorldBenchmark.ZoneLoad(true)};
+      this.level = this.createLevel("Bench");
+
+      for(int x = -RADIUS; x <= RADIUS; ++x) {
+         for(int z = -RADIUS; z <= RADIUS; ++z) {
+            this.chunks.add(this.level.getChunk(x, z));
+         }
+      }
+
+      this.drainLights(this.level);
+      System.out.println("Seed " + SEED + ", " + this.chunks.size() + " fixture chunks, " + WARMUP_ITERATIONS + " warmup + " + ITERATIONS + " measured iterations");
+
+      for(int i = 0; i < benchmarks.length; ++i) {
+         if (this.selected(benchmarks[i].name(), filters)) {
+            this.report(benchmarks[i]);
+         }
+      }
+
+      System.out.println("(checksum " + this.sink + ")");
+   }
+
+   private boolean selected(String name, String[] filters) {
+      if (filters.length == 0) {
+         return true;
+      } else {
+         for(int i = 0; i < filters.length; ++i) {
+            if (name.contains(filters[i])) {
+               return true;
+            }
+         }
+
+         return false;
+      }
+   }
+
+   private Level createLevel(String name) {
+      if (!this.workDir.exists()) {
+         this.workDir.mkdir();
+      }
+
+      Level.deleteLevel(this.workDir, name);
+      Level level = new Level(new File(this.workDir, "saves"), name, SEED);
+      level.random.setSeed(SEED);
+      return level;
+   }
+
+   private void drainLights(Level level) {
+      while(level.updateLights()) {
+      }
+
+   }
+
+   private void report(WorldBenchmark.Benchmark benchmark) throws IOException {
+      ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+      com.sun.management.ThreadMXBean allocations = threads instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean)threads : null;
+      benchmark.setup();
+      this.level.random.setSeed(SEED);
+
+      for(int i = 0; i < WARMUP_ITERATIONS; ++i) {
+         benchmark.iteration();
+         AABB.resetPool();
+         Vec3.resetPool();
+      }
+
+      double[] perOp = new double[ITERATIONS];
+      long allocatedBefore = allocations == null ? 0L : allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+
+      for(int i = 0; i < ITERATIONS; ++i) {
+         long start = System.nanoTime();
+         benchmark.iteration();
+         perOp[i] = (double)(System.nanoTime() - start) / (double)benchmark.ops();
+         AABB.resetPool();
+         Vec3.resetPool();
+      }
+
+      long allocated = allocations == null ? 0L : allocations.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocatedBefore;
+      double mean = 0.0D;
+      double min = Double.MAX_VALUE;
+
+      for(int i = 0; i < ITERATIONS; ++i) {
+         mean += perOp[i] / (double)ITERATIONS;
+         min = Math.min(min, perOp[i]);
+      }
+
+      double variance = 0.0D;
+
+      for(int i = 0; i < ITERATIONS; ++i) {
+         variance += (perOp[i] - mean) * (perOp[i] - mean) / (double)ITERATIONS;
+      }
+
+      long ops = (long)ITERATIONS * (long)benchmark.ops();
+      System.out.println(String.format("%-28s %12.1f ns/op +- %10.1f (min %12.1f), %s", benchmark.name(), mean, Math.sqrt(variance), min, allocations == null ? "n/a" : allocated / ops + " B/op"));
+   }
+
+   public static void main(String[] args) throws IOException {
+      (new WorldBenchmark()).run(args);
+      System.exit(0);
+   }
+
+   private abstract static class Benchmark {
+      private Benchmark() {
+      }
+
+      abstract String name();
+
+      abstract int ops();
+
+      void setup() throws IOException {
+      }
+
+      abstract void iteration() throws IOException;
+   }
+
+   private class ChunkGeneration extends WorldBenchmark.Benchmark {
+      private RandomLevelSource source;
+
+      private ChunkGeneration() {
+      }
+
+      String name() {
+         return "RandomLevelSource.getChunk";
+      }
+
+      int ops() {
+         return 16;
+      }
+
+      void setup() {
+         this.source = new RandomLevelSource(WorldBenchmark.this.level, SEED);
+      }
+
+      void iteration() {
+         for(int i = 0; i < 16; ++i) {
+            WorldBenchmark.this.sink += (long)this.source.getChunk(100 + i % 4, 100 + i / 4).heightmap[0];
+         }
+
+      }
+   }
+
+   private class PostProcess extends WorldBenchmark.Benchmark {
+      private Level decorated;
+      private RandomLevelSource source;
+
+      private PostProcess() {
+      }
+
+      String name() {
+         return "RandomLevelSource.postProcess";
+      }
+
+      int ops() {
+         return 9;
+      }
+
+      void setup() {
+         this.decorated = WorldBenchmark.this.createLevel("BenchDecorate");
+
+         for(int x = -2; x <= 2; ++x) {
+            for(int z = -2; z <= 2; ++z) {
+               this.decorated.getChunk(x, z);
+            }
+         }
+
+         this.source = new RandomLevelSource(this.decorated, SEED);
+      }
+
+      void iteration() {
+         for(int i = 0; i < 9; ++i) {
+            this.source.postProcess(this.decorated.getChunkSource(), i % 3 - 1, i / 3 - 1);
+         }
+
+         WorldBenchmark.this.drainLights(this.decorated);
+      }
+   }
+
+   private class LightPropagation extends WorldBenchmark.Benchmark {
+      private int[] positions = new int[48];
+      private int[] tiles = new int[16];
+
+      private LightPropagation() {
+      }
+
+      String name() {
+         return "Light update (place+remove)";
+      }
+
+      int ops() {
+         return 32;
+      }
+
+      void setup() {
+         Random random = new Random(SEED);
+
+         for(int i = 0; i < 16; ++i) {
+            this.positions[i * 3] = random.nextInt(64) - 32;
+            this.positions[i * 3 + 1] = 20 + random.nextInt(40);
+            this.positions[i * 3 + 2] = random.nextInt(64) - 32;
+            this.tiles[i] = WorldBenchmark.this.level.getTile(this.positions[i * 3], this.positions[i * 3 + 1], this.positions[i * 3 + 2]);
+         }
+
+      }
+
+      void iteration() {
+         Level level = WorldBenchmark.this.level;
+
+         for(int i = 0; i < 16; ++i) {
+            int x = this.positions[i * 3];
+            int y = this.positions[i * 3 + 1];
+            int z = this.positions[i * 3 + 2];
+            level.setTile(x, y, z, Tile.lightGem.id);
+            WorldBenchmark.this.drainLights(level);
+            level.setTile(x, y, z, this.tiles[i]);
+            WorldBenchmark.this.drainLights(level);
+            WorldBenchmark.this.sink += (long)level.getRawBrightness(x, y + 1, z);
+         }
+
+      }
+   }
+
+   private class GetCubes extends WorldBenchmark.Benchmark {
+      protected AABB[] boxes = new AABB[1000];
+      protected double[] moves = new double[3000];
+
+      private GetCubes() {
+      }
+
+      String name() {
+         return "Level.getCubes";
+      }
+
+      int ops() {
+         return this.boxes.length;
+      }
+
+      void setup() {
+         Random random = new Random(SEED);
+
+         for(int i = 0; i < this.boxes.length; ++i) {
+            double x = random.nextDouble() * 80.0D - 40.0D;
+            double z = random.nextDouble() * 80.0D - 40.0D;
+            double y = (double)WorldBenchmark.this.level.getHeightmap((int)Math.floor(x), (int)Math.floor(z)) + random.nextDouble() * 2.0D - 0.5D;
+            this.boxes[i] = AABB.newPermanent(x - 0.3D, y, z - 0.3D, x + 0.3D, y + 1.8D, z + 0.3D);
+            this.moves[i * 3] = random.nextGaussian() * 0.3D;
+            this.moves[i * 3 + 1] = random.nextGaussian() * 0.3D;
+            this.moves[i * 3 + 2] = random.nextGaussian() * 0.3D;
+         }
+
+      }
+
+      void iteration() {
+         for(int i = 0; i < this.boxes.length; ++i) {
+            AABB box = this.boxes[i];
+            List<AABB> cubes = WorldBenchmark.this.level.getCubes((Zombie)null, box.expand(this.moves[i * 3], this.moves[i * 3 + 1], this.moves[i * 3 + 2]));
+            double dy = this.moves[i * 3 + 1];
+
+            for(int j = 0; j < cubes.size(); ++j) {
+               dy = ((AABB)cubes.get(j)).clipYCollide(box, dy);
+            }
+
+            WorldBenchmark.this.sink += (long)(dy * 1000.0D);
+            AABB.resetPool();
+         }
+
+      }
+   }
+
+   private class ColliderSweep extends WorldBenchmark.GetCubes {
+      private ColliderSweep() {
+      }
+
+      String name() {
+         return "Level.getCollider";
+      }
+
+      void iteration() {
+         for(int i = 0; i < this.boxes.length; ++i) {
+            AABB box = this.boxes[i];
+            Collider collider = WorldBenchmark.this.level.getCollider((Zombie)null, box.expand(this.moves[i * 3], this.moves[i * 3 + 1], this.moves[i * 3 + 2]));
+            WorldBenchmark.this.sink += (long)(collider.clipYCollide(box, this.moves[i * 3 + 1]) * 1000.0D);
+            AABB.resetPool();
+         }
+
+      }
+   }
+
+   private class FindPath extends WorldBenchmark.Benchmark {
+      private Zombie zombie;
+      private int[] targets = new int[48];
+
+      private FindPath() {
+      }
+
+      String name() {
+         return "PathFinder.findPath";
+      }
+
+      int ops() {
+         return 16;
+      }
+
+      void setup() {
+         Level level = WorldBenchmark.this.level;
+         this.zombie = new Zombie(level);
+         this.zombie.moveTo(0.5D, (double)(level.getHeightmap(0, 0) + 1), 0.5D, 0.0F, 0.0F);
+         Random random = new Random(SEED);
+
+         for(int i = 0; i < 16; ++i) {
+            int x = random.nextInt(32) - 16;
+            int z = random.nextInt(32) - 16;
+            this.targets[i * 3] = x;
+            this.targets[i * 3 + 1] = level.getHeightmap(x, z);
+            this.targets[i * 3 + 2] = z;
+         }
+
+      }
+
+      void iteration() {
+         for(int i = 0; i < 16; ++i) {
+            Path path = WorldBenchmark.this.level.findPath(this.zombie, this.targets[i * 3], this.targets[i * 3 + 1], this.targets[i * 3 + 2], 16.0F);
+            if (path != null) {
+               WorldBenchmark.this.sink += (long)path.length;
+            }
+         }
+
+      }
+   }
+
+   private class Explode extends WorldBenchmark.Benchmark {
+      private Explode() {
+      }
+
+      String name() {
+         return "Explosion.explode";
+      }
+
+      int ops() {
+         return 8;
+      }
+
+      void iteration() {
+         Level level = WorldBenchmark.this.level;
+
+         for(int i = 0; i < 8; ++i) {
+            int x = i * 6 - 24;
+            Explosion explosion = new Explosion(level, (Zombie)null, (double)x + 0.5D, (double)(level.getHeightmap(x, 0) + 1), 0.5D, 4.0F);
+            explosion.explode();
+            WorldBenchmark.this.sink += (long)explosion.toBlow.size();
+         }
+
+      }
+   }
+
+   private class NbtRoundTrip extends WorldBenchmark.Benchmark {
+      private CompoundTag[] tags;
+
+      private NbtRoundTrip() {
+      }
+
+      String name() {
+         return "NbtIo compressed round trip";
+      }
+
+      int ops() {
+         return this.tags.length;
+      }
+
+      void setup() {
+         this.tags = new CompoundTag[WorldBenchmark.this.chunks.size()];
+
+         for(int i = 0; i < this.tags.length; ++i) {
+            CompoundTag tag = new CompoundTag();
+            OldChunkStorage.save((LevelChunk)WorldBenchmark.this.chunks.get(i), WorldBenchmark.this.level, tag);
+            this.tags[i] = new CompoundTag();
+            this.tags[i].put("Level", tag);
+         }
+
+      }
+
+      void iteration() throws IOException {
+         for(int i = 0; i < this.tags.length; ++i) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(32768);
+            NbtIo.writeCompressed(this.tags[i], bytes);
+            CompoundTag read = NbtIo.readCompressed(new ByteArrayInputStream(bytes.toByteArray()));
+            WorldBenchmark.this.sink += (long)read.getCompound("Level").getInt("xPos");
+         }
+
+      }
+   }
+
+   private class ZoneSave extends WorldBenchmark.Benchmark {
+      protected final boolean compressed;
+      protected ChunkStorage storage;
+
+      private ZoneSave(boolean compressed) {
+         this.compressed = compressed;
+      }
+
+      String name() {
+         return (this.compressed ? "CompressedZoned" : "Zoned") + " save";
+      }
+
+      int ops() {
+         return WorldBenchmark.this.chunks.size();
+      }
+
+      void setup() throws IOException {
+         File dir = new File(WorldBenchmark.this.workDir, "bench_" + (this.compressed ? "compressed" : "zoned"));
+         File[] files = dir.listFiles();
+         if (files != null) {
+            for(int i = 0; i < files.length; ++i) {
+               files[i].delete();
+            }
+         }
+
+         dir.mkdirs();
+         this.storage = (ChunkStorage)(this.compressed ? new CompressedZonedChunkStorage(dir) : new ZonedChunkStorage(dir));
+      }
+
+      void iteration() throws IOException {
+         for(int i = 0; i < WorldBenchmark.this.chunks.size(); ++i) {
+            this.storage.save(WorldBenchmark.this.level, (LevelChunk)WorldBenchmark.this.chunks.get(i));
+         }
+
+         this.storage.flush();
+      }
+   }
+
+   private class ZoneLoad extends WorldBenchmark.ZoneSave {
+      private ZoneLoad(boolean compressed) {
+         super(compressed);
+      }
+
+      String name() {
+         return (this.compressed ? "CompressedZoned" : "Zoned") + " load";
+      }
+
+      void setup() throws IOException {
+         super.setup();
+         super.iteration();
+      }
+
+      void iteration() throws IOException {
+         for(int i = 0; i < WorldBenchmark.this.chunks.size(); ++i) {
+            LevelChunk chunk = (LevelChunk)WorldBenchmark.this.chunks.get(i);
+            LevelChunk loaded = this.storage.load(WorldBenchmark.this.level, chunk.x, chunk.z);
+            WorldBenchmark.this.sink += (long)loaded.blocks[i & 32767];
+         }
+
+      }
+   }
+}
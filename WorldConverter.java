@@ -0,0 +1,26 @@
+import java.io.File;
+import net.minecraft.world.level.chunk.storage.ZoneConverter;
+
+public class WorldConverter {
+   public static void main(String[] args) throws InterruptedException {
+      if (args.length < 1) {
+         System.out.println("Usage: WorldConverter <world dir> [threads]");
+         System.exit(1);
+      }
+
+      File dir = new File(args[0]);
+      int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+      if (!(new File(dir, "level.dat")).exists()) {
+         System.out.println("No level.dat in " + dir);
+         System.exit(1);
+      }
+
+      int failed = (new ZoneConverter(dir, threads)).run();
+      File hell = new File(dir, "DIM-1");
+      if (hell.isDirectory()) {
+         failed += (new ZoneConverter(hell, threads)).run();
+      }
+
+      System.exit(failed == 0 ? 0 : 2);
+   }
+}
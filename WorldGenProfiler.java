@@ -1,9 +1,14 @@
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
 
 public class WorldGenProfiler {
    private Level level;
    private File workDir = new File("leveldata");
+   private ForkJoinPool lightPool;
 
    public void run() {
       if (!this.workDir.exists()) {
@@ -25,7 +30,10 @@ public class WorldGenProfiler {
 
    public void selectLevel(String var1) {
       this.level = new Level(new File(this.workDir, "saves"), var1);
-      this.prepareLevel();
+      List var2 = this.prepareLevel();
+      if (this.lightPool != null) {
+         this.level.relightChunks(var2, this.lightPool);
+      }
 
       while(this.level.getLightsToUpdate() > 0) {
          this.level.updateLights();
@@ -33,20 +41,30 @@ public class WorldGenProfiler {
 
    }
 
-   private void prepareLevel() {
+   private List<LevelChunk> prepareLevel() {
       short var1 = 128;
       int var2 = this.level.xSpawn;
       int var3 = this.level.zSpawn;
+      ArrayList var4 = new ArrayList();
 
-      for(int var4 = -var1; var4 <= var1; var4 += 16) {
-         for(int var5 = -var1; var5 <= var1; var5 += 16) {
-            this.level.getTile(var2 + var4, 64, var3 + var5);
+      for(int var5 = -var1; var5 <= var1; var5 += 16) {
+         for(int var6 = -var1; var6 <= var1; var6 += 16) {
+            this.level.getTile(var2 + var5, 64, var3 + var6);
+            var4.add(this.level.getChunkAt(var2 + var5, var3 + var6));
          }
       }
 
+      return var4;
    }
 
    public static void main(String[] var0) {
-      (new WorldGenProfiler()).run();
+      WorldGenProfiler var1 = new WorldGenProfiler();
+      if (var0.length == 0) {
+         var1.lightPool = new ForkJoinPool();
+      } else if (!var0[0].equals("serial")) {
+         var1.lightPool = new ForkJoinPool(Integer.parseInt(var0[0]));
+      }
+
+      var1.run();
    }
 }
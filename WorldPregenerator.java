@@ -0,0 +1,34 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelPregenerator;
+
+public class WorldPregenerator {
+   public static void main(String[] args) throws IOException {
+      if (args.length != 3 && args.length != 4 && args.length != 6 && args.length != 7) {
+         System.out.println("Usage: WorldPregenerator <saves dir> <world> <radius> [threads]");
+         System.out.println("       WorldPregenerator <saves dir> <world> <x0> <z0> <x1> <z1> [threads]");
+         System.out.println("Coordinates are in chunks. A new world is created if <world> does not exist yet, seeded from -Dseed=<n> if given.");
+         System.exit(1);
+      }
+
+      boolean rect = args.length >= 6;
+      int threads = args.length == (rect ? 7 : 4) ? Integer.parseInt(args[args.length - 1]) : Runtime.getRuntime().availableProcessors();
+      long seed = Long.getLong("seed", (new Random()).nextLong()).longValue();
+      Level level = new Level(new File(args[0]), args[1], seed);
+      ForkJoinPool pool = new ForkJoinPool(threads);
+      LevelPregenerator pregenerator;
+      if (rect) {
+         pregenerator = new LevelPregenerator(level, Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]), Integer.parseInt(args[5]), pool);
+      } else {
+         pregenerator = LevelPregenerator.around(level, Integer.parseInt(args[2]), pool);
+      }
+
+      System.out.println("Generating " + pregenerator.getTotalChunks() + " chunks in " + pregenerator.getZones() + " zones of " + level.dir + " with " + threads + " threads");
+      pregenerator.run();
+      pool.shutdown();
+      System.exit(0);
+   }
+}
@@ -0,0 +1,154 @@
+package com.mojang.nbt;
+
+import java.io.DataInput;
+import java.io.IOException;
+
+public class NbtReader {
+   private final DataInput input;
+   private byte type;
+   private String name;
+   private byte listType;
+
+   public NbtReader(DataInput input) {
+      this.input = input;
+   }
+
+   public String readRootCompound() throws IOException {
+      if (this.next() != 10) {
+         throw new IOException("Root tag must be a named compound tag");
+      } else {
+         return this.name;
+      }
+   }
+
+   public byte next() throws IOException {
+      this.type = this.input.readByte();
+      this.name = this.type == 0 ? "" : this.input.readUTF();
+      return this.type;
+   }
+
+   public byte getType() {
+      return this.type;
+   }
+
+   public String getName() {
+      return this.name;
+   }
+
+   public byte getListType() {
+      return this.listType;
+   }
+
+   public byte readByte() throws IOException {
+      return this.input.readByte();
+   }
+
+   public short readShort() throws IOException {
+      return this.input.readShort();
+   }
+
+   public int readInt() throws IOException {
+      return this.input.readInt();
+   }
+
+   public long readLong() throws IOException {
+      return this.input.readLong();
+   }
+
+   public float readFloat() throws IOException {
+      return this.input.readFloat();
+   }
+
+   public double readDouble() throws IOException {
+      return this.input.readDouble();
+   }
+
+   public String readString() throws IOException {
+      return this.input.readUTF();
+   }
+
+   public byte[] readByteArray() throws IOException {
+      byte[] data = new byte[this.input.readInt()];
+      this.input.readFully(data);
+      return data;
+   }
+
+   public int beginList() throws IOException {
+      this.listType = this.input.readByte();
+      return this.input.readInt();
+   }
+
+   public CompoundTag readCompound() throws IOException {
+      CompoundTag tag = new CompoundTag();
+      tag.load(this.input);
+      return tag;
+   }
+
+   public void skip() throws IOException {
+      this.skip(this.type);
+   }
+
+   public void skipListElement() throws IOException {
+      this.skip(this.listType);
+   }
+
+   private void skip(byte type) throws IOException {
+      switch(type) {
+      case 0:
+         break;
+      case 1:
+         this.skipBytes(1);
+         break;
+      case 2:
+         this.skipBytes(2);
+         break;
+      case 3:
+      case 5:
+         this.skipBytes(4);
+         break;
+      case 4:
+      case 6:
+         this.skipBytes(8);
+         break;
+      case 7:
+         this.skipBytes(this.input.readInt());
+         break;
+      case 8:
+         this.skipBytes(this.input.readUnsignedShort());
+         break;
+      case 9:
+         byte elementType = this.input.readByte();
+         int count = this.input.readInt();
+
+         for(int i = 0; i < count; ++i) {
+            this.skip(elementType);
+         }
+
+         return;
+      case 10:
+         byte fieldType;
+         while((fieldType = this.input.readByte()) != 0) {
+            this.skipBytes(this.input.readUnsignedShort());
+            this.skip(fieldType);
+         }
+
+         return;
+      default:
+         throw new IOException("Unknown tag type: " + type);
+      }
+
+   }
+
+   private void skipBytes(int count) throws IOException {
+      while(count > 0) {
+         int skipped = this.input.skipBytes(count);
+         if (skipped <= 0) {
+            this.input.readByte();
+            skipped = 1;
+         }
+
+         count -= skipped;
+      }
+
+   }
+}
@@ -0,0 +1,80 @@
+package com.mojang.nbt;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+public class NbtWriter {
+   private final DataOutput output;
+
+   public NbtWriter(DataOutput output) {
+      this.output = output;
+   }
+
+   private void writeHeader(byte type, String name) throws IOException {
+      this.output.writeByte(type);
+      this.output.writeUTF(name);
+   }
+
+   public void beginCompound(String name) throws IOException {
+      this.writeHeader((byte)10, name);
+   }
+
+   public void endCompound() throws IOException {
+      this.output.writeByte(0);
+   }
+
+   public void writeByte(String name, byte value) throws IOException {
+      this.writeHeader((byte)1, name);
+      this.output.writeByte(value);
+   }
+
+   public void writeBoolean(String name, boolean value) throws IOException {
+      this.writeByte(name, (byte)(value ? 1 : 0));
+   }
+
+   public void writeShort(String name, short value) throws IOException {
+      this.writeHeader((byte)2, name);
+      this.output.writeShort(value);
+   }
+
+   public void writeInt(String name, int value) throws IOException {
+      this.writeHeader((byte)3, name);
+      this.output.writeInt(value);
+   }
+
+   public void writeLong(String name, long value) throws IOException {
+      this.writeHeader((byte)4, name);
+      this.output.writeLong(value);
+   }
+
+   public void writeFloat(String name, float value) throws IOException {
+      this.writeHeader((byte)5, name);
+      this.output.writeFloat(value);
+   }
+
+   public void writeDouble(String name, double value) throws IOException {
+      this.writeHeader((byte)6, name);
+      this.output.writeDouble(value);
+   }
+
+   public void writeByteArray(String name, byte[] value) throws IOException {
+      this.writeHeader((byte)7, name);
+      this.output.writeInt(value.length);
+      this.output.write(value);
+   }
+
+   public void writeString(String name, String value) throws IOException {
+      this.writeHeader((byte)8, name);
+      this.output.writeUTF(value);
+   }
+
+   public void beginList(String name, byte elementType, int count) throws IOException {
+      this.writeHeader((byte)9, name);
+      this.output.writeByte(count == 0 ? 1 : elementType);
+      this.output.writeInt(count);
+   }
+
+   public void writeListElement(Tag tag) throws IOException {
+      tag.write(this.output);
+   }
+}
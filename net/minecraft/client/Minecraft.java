@@ -13,6 +13,9 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import net.minecraft.client.gamemode.CreativeMode;
 import net.minecraft.client.gamemode.GameMode;
 import net.minecraft.client.gamemode.SurvivalMode;
@@ -52,11 +55,14 @@ import net.minecraft.client.title.TitleScreen;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemInstance;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelConflictException;
 import net.minecraft.world.level.PortalForcer;
+import net.minecraft.world.level.TickProfiler;
 import net.minecraft.world.level.chunk.ChunkCache;
 import net.minecraft.world.level.chunk.ChunkSource;
+import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.dimension.Dimension;
 import net.minecraft.world.level.dimension.HellDimension;
 import net.minecraft.world.level.tile.Tile;
@@ -685,6 +691,21 @@ public abstract class Minecraft implements Runnable {
 
    }
 
+   private void toggleTickProfiler() {
+      if (this.level != null) {
+         TickProfiler var1 = this.level.profiler;
+         if (var1.isEnabled()) {
+            this.gui.addMessage(var1.dump(new File(workDir, "tickprofiles")));
+            var1.setEnabled(false);
+         } else {
+            var1.reset();
+            var1.setEnabled(true);
+            this.gui.addMessage("Tick profiler started, press F3+P again to save");
+         }
+
+      }
+   }
+
    private String grabHugeScreenshot(File var1, int var2, int var3, int var4, int var5) {
       try {
          ByteBuffer var6 = BufferUtils.createByteBuffer(var2 * var3 * 3);
@@ -1096,6 +1117,10 @@ public abstract class Minecraft implements Runnable {
                                        this.reloadSound();
                                     }
 
+                                    if (Keyboard.getEventKey() == 25 && Keyboard.isKeyDown(61)) {
+                                       this.toggleTickProfiler();
+                                    }
+
                                     if (Keyboard.getEventKey() == 63) {
                                        this.options.thirdPersonView = !this.options.thirdPersonView;
                                     }
@@ -1275,6 +1300,9 @@ public abstract class Minecraft implements Runnable {
       this.soundEngine.playStreaming((String)null, 0.0F, 0.0F, 0.0F, 0.0F, 0.0F);
       if (this.level != null) {
          this.level.forceSave(this.progressRenderer);
+         if (!this.level.isOnline && this.level != var1) {
+            this.level.disconnect();
+         }
       }
 
       this.level = var1;
@@ -1355,14 +1383,33 @@ public abstract class Minecraft implements Runnable {
       if (var5 instanceof ChunkCache) {
          ChunkCache var8 = (ChunkCache)var5;
          var8.centerOn(var6 >> 4, var7 >> 4);
-      }
+         List<LevelChunk> var12 = new ArrayList();
 
-      for(int var11 = -var2; var11 <= var2; var11 += 16) {
-         for(int var9 = -var2; var9 <= var2; var9 += 16) {
-            this.progressRenderer.progressStagePercentage(var3++ * 100 / var4);
-            this.level.getTile(var6 + var11, 64, var7 + var9);
+         for(int var11 = -var2; var11 <= var2; var11 += 16) {
+            this.progressRenderer.progressStagePercentage(var3 * 100 / var4);
+            List<ChunkPos> var13 = new ArrayList();
 
-            while(this.level.updateLights()) {
+            for(int var9 = -var2; var9 <= var2; var9 += 16) {
+               var13.add(new ChunkPos(var6 + var11 >> 4, var7 + var9 >> 4));
+            }
+
+            var3 += var13.size();
+            var12.addAll(var8.generateChunks(var13, ForkJoinPool.commonPool()));
+         }
+
+         this.progressRenderer.progressStage("Lighting terrain");
+         this.level.relightChunks(var12, ForkJoinPool.commonPool());
+
+         while(this.level.updateLights()) {
+         }
+      } else {
+         for(int var14 = -var2; var14 <= var2; var14 += 16) {
+            for(int var15 = -var2; var15 <= var2; var15 += 16) {
+               this.progressRenderer.progressStagePercentage(var3++ * 100 / var4);
+               this.level.getTile(var6 + var14, 64, var7 + var15);
+
+               while(this.level.updateLights()) {
+               }
             }
          }
       }
@@ -8,4 +8,8 @@ public class OpenGLCapabilities {
    public boolean hasOcclusionChecks() {
       return USE_OCCLUSION_QUERY && GLContext.getCapabilities().GL_ARB_occlusion_query;
    }
+
+   public boolean hasVertexBuffers() {
+      return GLContext.getCapabilities().GL_ARB_vertex_buffer_object;
+   }
 }
@@ -20,6 +20,7 @@ public class Options {
    public boolean anaglyph3d = false;
    public boolean limitFramerate = false;
    public boolean fancyGraphics = true;
+   public boolean useVbo = false;
    public String skin = "Default";
    public KeyMapping keyUp = new KeyMapping("key.forward", 17);
    public KeyMapping keyLeft = new KeyMapping("key.left", 30);
@@ -114,6 +115,11 @@ public class Options {
          this.minecraft.levelRenderer.allChanged();
       }
 
+      if (var1 == Options.Option.USE_VBO) {
+         this.useVbo = !this.useVbo;
+         this.minecraft.levelRenderer.allChanged();
+      }
+
       this.save();
    }
 
@@ -137,6 +143,8 @@ public class Options {
          return this.anaglyph3d;
       case LIMIT_FRAMERATE:
          return this.limitFramerate;
+      case USE_VBO:
+         return this.useVbo;
       default:
          return false;
       }
@@ -221,6 +229,10 @@ public class Options {
                this.fancyGraphics = var3[1].equals("true");
             }
 
+            if (var3[0].equals("useVbo")) {
+               this.useVbo = var3[1].equals("true");
+            }
+
             if (var3[0].equals("skin")) {
                this.skin = var3[1];
             }
@@ -265,6 +277,7 @@ public class Options {
          var1.println("limitFramerate:" + this.limitFramerate);
          var1.println("difficulty:" + this.difficulty);
          var1.println("fancyGraphics:" + this.fancyGraphics);
+         var1.println("useVbo:" + this.useVbo);
          var1.println("skin:" + this.skin);
          var1.println("lastServer:" + this.lastMpIp);
 
@@ -290,7 +303,8 @@ public class Options {
       ANAGLYPH("options.anaglyph", false, true),
       LIMIT_FRAMERATE("options.limitFramerate", false, true),
       DIFFICULTY("options.difficulty", false, false),
-      GRAPHICS("options.graphics", false, false);
+      GRAPHICS("options.graphics", false, false),
+      USE_VBO("options.vbo", false, true);
 
       private final boolean isProgress;
       private final boolean isBoolean;
@@ -13,6 +13,7 @@ import net.minecraft.world.entity.player.Inventory;
 import net.minecraft.world.item.ItemInstance;
 import net.minecraft.world.level.material.Material;
 import net.minecraft.world.level.tile.Tile;
+import net.minecraft.world.phys.TempPool;
 import org.lwjgl.input.Keyboard;
 import org.lwjgl.opengl.GL11;
 
@@ -171,6 +172,8 @@ public class Gui extends GuiComponent {
          this.drawString(var8, var23, var6 - var8.width(var23) - 2, 2, 14737632);
          var23 = "Allocated memory: " + var29 * 100L / var24 + "% (" + var29 / 1024L / 1024L + "MB)";
          this.drawString(var8, var23, var6 - var8.width(var23) - 2, 12, 14737632);
+         var23 = TempPool.gatherStats();
+         this.drawString(var8, var23, var6 - var8.width(var23) - 2, 22, 14737632);
          this.drawString(var8, "x: " + this.minecraft.player.x, 2, 64, 14737632);
          this.drawString(var8, "y: " + this.minecraft.player.y, 2, 72, 14737632);
          this.drawString(var8, "z: " + this.minecraft.player.z, 2, 80, 14737632);
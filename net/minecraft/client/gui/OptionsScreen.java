@@ -29,7 +29,7 @@ public class OptionsScreen extends Screen {
          }
       }
 
-      this.buttons.add(new Button(100, this.width / 2 - 100, this.height / 6 + 120 + 12, language.getElement("options.controls")));
+      this.buttons.add(new Button(100, this.width / 2 - 100, this.height / 6 + 144, language.getElement("options.controls")));
       this.buttons.add(new Button(200, this.width / 2 - 100, this.height / 6 + 168, language.getElement("gui.done")));
    }
 
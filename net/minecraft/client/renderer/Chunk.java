@@ -9,10 +9,8 @@ import net.minecraft.client.renderer.entity.ItemRenderer;
 import net.minecraft.client.renderer.tileentity.TileEntityRenderDispatcher;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.LevelSource;
-import net.minecraft.world.level.Region;
-import net.minecraft.world.level.chunk.LevelChunk;
-import net.minecraft.world.level.tile.Tile;
+import net.minecraft.world.level.RegionSnapshot;
+import net.minecraft.world.level.TilePos;
 import net.minecraft.world.level.tile.entity.TileEntity;
 import net.minecraft.world.phys.AABB;
 import org.lwjgl.opengl.GL11;
@@ -22,6 +20,7 @@ public class Chunk {
    public Level level;
    private int lists = -1;
    private static Tesselator t;
+   private static ChunkMesher mesher;
    public static int updates;
    public int x;
    public int y;
@@ -48,17 +47,27 @@ public class Chunk {
    public boolean occlusion_querying;
    public int occlusion_id;
    public boolean skyLit;
+   public long visibility = VisibilityGraph.ALL;
+   public boolean reachable = true;
    private boolean compiled = false;
+   private volatile int version;
+   private int uploadedVersion;
+   private VertexBuffer[] vertexBuffers;
    public List<TileEntity> renderableTileEntities = new ArrayList();
    private List<TileEntity> globalRenderableTileEntities;
 
    static {
       t = Tesselator.instance;
+      mesher = new ChunkMesher(false);
       updates = 0;
    }
 
-   public Chunk(Level level, List<TileEntity> globalRenderableTileEntities, int x, int y, int z, int size, int lists) {
+   public Chunk(Level level, List<TileEntity> globalRenderableTileEntities, int x, int y, int z, int size, int lists, boolean useVbo) {
       this.level = level;
+      if (useVbo) {
+         this.vertexBuffers = new VertexBuffer[]{new VertexBuffer(), new VertexBuffer()};
+      }
+
       this.globalRenderableTileEntities = globalRenderableTileEntities;
       this.xs = this.ys = this.zs = size;
       this.radius = Mth.sqrt((float)(this.xs * this.xs + this.ys * this.ys + this.zs * this.zs)) / 2.0F;
@@ -99,83 +108,72 @@ public class Chunk {
    public void rebuild() {
       if (this.dirty) {
          ++updates;
-         int x0 = this.x;
-         int y0 = this.y;
-         int z0 = this.z;
-         int x1 = this.x + this.xs;
-         int y1 = this.y + this.ys;
-         int z1 = this.z + this.zs;
+         this.upload(mesher.mesh(this.createSnapshot(), this.x, this.y, this.z, this.xs, this.ys, this.zs), ++this.version);
+      }
+   }
 
-         for(int l = 0; l < 2; ++l) {
-            this.empty[l] = true;
-         }
+   public void rebuild(ChunkBuilder builder) {
+      if (this.dirty) {
+         ++updates;
+         builder.submit(this, this.createSnapshot(), ++this.version);
+      }
+   }
+
+   private RegionSnapshot createSnapshot() {
+      int r = 1;
+      return new RegionSnapshot(this.level, this.x - r, this.y - r, this.z - r, this.x + this.xs + r, this.y + this.ys + r, this.z + this.zs + r);
+   }
 
-         LevelChunk.touchedSky = false;
+   public boolean isCurrent(int version) {
+      return this.level != null && this.version == version;
+   }
+
+   public void upload(ChunkMesh mesh, int version) {
+      if (this.level != null && version > this.uploadedVersion && mesh.x == this.x && mesh.y == this.y && mesh.z == this.z) {
+         this.uploadedVersion = version;
          Set<TileEntity> oldTileEntities = new HashSet();
          oldTileEntities.addAll(this.renderableTileEntities);
          this.renderableTileEntities.clear();
-         int r = 1;
-         LevelSource region = new Region(this.level, x0 - r, y0 - r, z0 - r, x1 + r, y1 + r, z1 + r);
-         TileRenderer tileRenderer = new TileRenderer(region);
 
-         for(int l = 0; l < 2; ++l) {
-            boolean renderNextLayer = false;
-            boolean rendered = false;
-            boolean started = false;
-
-            for(int y = y0; y < y1; ++y) {
-               for(int z = z0; z < z1; ++z) {
-                  for(int x = x0; x < x1; ++x) {
-                     int tileId = region.getTile(x, y, z);
-                     if (tileId > 0) {
-                        if (!started) {
-                           started = true;
-                           GL11.glNewList(this.lists + l, 4864);
-                           GL11.glPushMatrix();
-                           this.translateToPos();
-                           float ss = 1.000001F;
-                           GL11.glTranslatef((float)(-this.zs) / 2.0F, (float)(-this.ys) / 2.0F, (float)(-this.zs) / 2.0F);
-                           GL11.glScalef(ss, ss, ss);
-                           GL11.glTranslatef((float)this.zs / 2.0F, (float)this.ys / 2.0F, (float)this.zs / 2.0F);
-                           t.begin();
-                           t.offset((double)(-this.x), (double)(-this.y), (double)(-this.z));
-                        }
-
-                        if (l == 0 && Tile.isEntityTile[tileId]) {
-                           TileEntity et = region.getTileEntity(x, y, z);
-                           if (TileEntityRenderDispatcher.instance.hasRenderer(et)) {
-                              this.renderableTileEntities.add(et);
-                           }
-                        }
-
-                        Tile tile = Tile.tiles[tileId];
-                        int renderLayer = tile.getRenderLayer();
-                        if (renderLayer != l) {
-                           renderNextLayer = true;
-                        } else if (renderLayer == l) {
-                           rendered |= tileRenderer.tesselateInWorld(tile, x, y, z);
-                        }
-                     }
-                  }
-               }
+         for(int i = 0; i < mesh.entityTiles.size(); ++i) {
+            TilePos pos = (TilePos)mesh.entityTiles.get(i);
+            TileEntity et = this.level.getTileEntity(pos.x, pos.y, pos.z);
+            if (TileEntityRenderDispatcher.instance.hasRenderer(et)) {
+               this.renderableTileEntities.add(et);
             }
+         }
 
-            if (started) {
-               t.end();
-               GL11.glPopMatrix();
-               GL11.glEndList();
-               t.offset(0.0D, 0.0D, 0.0D);
-            } else {
-               rendered = false;
-            }
+         TileRenderer tileRenderer = new TileRenderer(mesh.region);
 
-            if (rendered) {
-               this.empty[l] = false;
-            }
+         for(int l = 0; l < 2; ++l) {
+            boolean rendered = !mesh.empty[l];
+            if (mesh.layers[l] != null) {
+               if (this.vertexBuffers != null) {
+                  t.capture(mesh.layers[l]);
+                  rendered |= ChunkMesher.tesselateDeferred(mesh, tileRenderer, t, l);
+                  t.capture((VertexData)null);
+                  this.vertexBuffers[l].upload(mesh.layers[l]);
+               } else {
+                  GL11.glNewList(this.lists + l, 4864);
+                  GL11.glPushMatrix();
+                  this.translateToPos();
+                  float ss = 1.000001F;
+                  GL11.glTranslatef((float)(-this.zs) / 2.0F, (float)(-this.ys) / 2.0F, (float)(-this.zs) / 2.0F);
+                  GL11.glScalef(ss, ss, ss);
+                  GL11.glTranslatef((float)this.zs / 2.0F, (float)this.ys / 2.0F, (float)this.zs / 2.0F);
+                  if (mesh.layers[l].vertices > 0) {
+                     t.draw(mesh.layers[l]);
+                  }
 
-            if (!renderNextLayer) {
-               break;
+                  rendered |= ChunkMesher.tesselateDeferred(mesh, tileRenderer, t, l);
+                  GL11.glPopMatrix();
+                  GL11.glEndList();
+               }
+            } else if (this.vertexBuffers != null) {
+               this.vertexBuffers[l].upload((VertexData)null);
             }
+
+            this.empty[l] = !rendered;
          }
 
          Set<TileEntity> newTileEntities = new HashSet();
@@ -184,7 +182,8 @@ public class Chunk {
          this.globalRenderableTileEntities.addAll(newTileEntities);
          oldTileEntities.removeAll(this.renderableTileEntities);
          this.globalRenderableTileEntities.removeAll(oldTileEntities);
-         this.skyLit = LevelChunk.touchedSky;
+         this.skyLit = mesh.skyLit;
+         this.visibility = mesh.visibility;
          this.compiled = true;
       }
    }
@@ -210,11 +209,18 @@ public class Chunk {
 
       this.visible = false;
       this.compiled = false;
+      this.visibility = VisibilityGraph.ALL;
    }
 
    public void delete() {
       this.reset();
       this.level = null;
+      if (this.vertexBuffers != null) {
+         for(int i = 0; i < this.vertexBuffers.length; ++i) {
+            this.vertexBuffers[i].delete();
+         }
+      }
+
    }
 
    public int getList(int layer) {
@@ -237,6 +243,17 @@ public class Chunk {
       }
    }
 
+   public void renderVbo(int layer, double xOff, double yOff, double zOff) {
+      if (this.vertexBuffers != null && !this.vertexBuffers[layer].isEmpty()) {
+         GL11.glPushMatrix();
+         GL11.glTranslatef((float)((double)this.x - xOff), (float)((double)this.y - yOff), (float)((double)this.z - zOff));
+         GL11.glScalef(1.0F / VertexBuffer.POSITION_SCALE, 1.0F / VertexBuffer.POSITION_SCALE, 1.0F / VertexBuffer.POSITION_SCALE);
+         this.vertexBuffers[layer].draw();
+         GL11.glPopMatrix();
+      }
+
+   }
+
    public void cull(Culler culler) {
       this.visible = culler.isVisible(this.bb);
    }
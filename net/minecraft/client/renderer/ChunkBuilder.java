@@ -0,0 +1,107 @@
+package net.minecraft.client.renderer;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import net.minecraft.world.level.RegionSnapshot;
+import net.minecraft.world.phys.TempPool;
+
+public class ChunkBuilder {
+   public static final int THREADS = Integer.getInteger("chunkbuilder.threads", Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+   private final ThreadLocal<ChunkMesher> meshers = new ThreadLocal<ChunkMesher>() {
+      protected ChunkMesher initialValue() {
+         return new ChunkMesher(true);
+      }
+   };
+   private final ConcurrentLinkedQueue<ChunkBuilder.Job> finished = new ConcurrentLinkedQueue();
+   private final ExecutorService executor;
+
+   public ChunkBuilder(int threads) {
+      this.executor = Executors.newFixedThreadPool(threads, new ChunkBuilder.BuilderThreadFactory());
+   }
+
+   public void submit(Chunk chunk, RegionSnapshot region, int version) {
+      this.executor.execute(new ChunkBuilder.Job(chunk, region, version));
+   }
+
+   public Future<ChunkMesh> mesh(final RegionSnapshot region, final int x, final int y, final int z, final int size) {
+      return this.executor.submit(new Callable<ChunkMesh>() {
+         public ChunkMesh call() {
+            return ChunkBuilder.this.build(region, x, y, z, size);
+         }
+      });
+   }
+
+   private ChunkMesh build(RegionSnapshot region, int x, int y, int z, int size) {
+      TempPool pool = TempPool.get();
+      long mark = pool.mark();
+
+      try {
+         return ((ChunkMesher)this.meshers.get()).mesh(region, x, y, z, size, size, size);
+      } catch (RuntimeException e) {
+         this.meshers.remove();
+         throw e;
+      } finally {
+         pool.release(mark);
+      }
+   }
+
+   public void uploadFinished(List<Chunk> failed) {
+      ChunkBuilder.Job job;
+      while((job = (ChunkBuilder.Job)this.finished.poll()) != null) {
+         if (job.mesh != null) {
+            job.chunk.upload(job.mesh, job.version);
+         } else if (job.chunk.isCurrent(job.version)) {
+            failed.add(job.chunk);
+         }
+      }
+
+   }
+
+   private class Job implements Runnable {
+      private final Chunk chunk;
+      private final RegionSnapshot region;
+      private final int version;
+      private final int x;
+      private final int y;
+      private final int z;
+      private final int size;
+      private ChunkMesh mesh;
+
+      public Job(Chunk chunk, RegionSnapshot region, int version) {
+         this.chunk = chunk;
+         this.region = region;
+         this.version = version;
+         this.x = chunk.x;
+         this.y = chunk.y;
+         this.z = chunk.z;
+         this.size = chunk.xs;
+      }
+
+      public void run() {
+         if (this.chunk.isCurrent(this.version)) {
+            try {
+               this.mesh = ChunkBuilder.this.build(this.region, this.x, this.y, this.z, this.size);
+            } catch (RuntimeException var2) {
+            }
+
+            ChunkBuilder.this.finished.add(this);
+         }
+      }
+   }
+
+   static class BuilderThreadFactory implements ThreadFactory {
+      private int count = 0;
+
+      public synchronized Thread newThread(Runnable runnable) {
+         Thread thread = new Thread(runnable, "Chunk builder #" + ++this.count);
+         thread.setDaemon(true);
+         thread.setPriority(4);
+         return thread;
+      }
+   }
+}
@@ -0,0 +1,26 @@
+package net.minecraft.client.renderer;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.world.level.RegionSnapshot;
+import net.minecraft.world.level.TilePos;
+
+public class ChunkMesh {
+   public final RegionSnapshot region;
+   public final int x;
+   public final int y;
+   public final int z;
+   public final VertexData[] layers = new VertexData[2];
+   public final boolean[] empty = new boolean[]{true, true};
+   public final List<TilePos> entityTiles = new ArrayList();
+   public final List<TilePos> deferredTiles = new ArrayList();
+   public boolean skyLit;
+   public long visibility = VisibilityGraph.ALL;
+
+   public ChunkMesh(RegionSnapshot region, int x, int y, int z) {
+      this.region = region;
+      this.x = x;
+      this.y = y;
+      this.z = z;
+   }
+}
@@ -0,0 +1,188 @@
+package net.minecraft.client.renderer;
+
+import net.minecraft.world.level.LevelSource;
+import net.minecraft.world.level.RegionSnapshot;
+import net.minecraft.world.level.TilePos;
+import net.minecraft.world.level.tile.Tile;
+
+public class ChunkMesher {
+   public static final int BUFFER_SIZE = 262144;
+   private static final boolean[] SHARED_SHAPE = new boolean[256];
+   private static final boolean[] CUBE = new boolean[256];
+   private final Tesselator tesselator;
+   private final boolean deferSharedShapes;
+   private final VisibilityGraph visibilityGraph = new VisibilityGraph();
+   private final boolean[] solidTiles = new boolean[256];
+   private long[] solid = new long[0];
+   private long[] cubes = new long[0];
+   private int rowsZ;
+
+   static {
+      for(int id = 0; id < 256; ++id) {
+         Tile tile = Tile.tiles[id];
+         if (tile != null) {
+            int shape = tile.getRenderShape();
+            SHARED_SHAPE[id] = shape == 10 || shape == 11 || shape == 12 || !isDefault(tile.getClass(), "updateShape");
+            CUBE[id] = shape == 0 && tile.getRenderLayer() == 0 && !SHARED_SHAPE[id] && tile.xx0 == 0.0D && tile.yy0 == 0.0D && tile.zz0 == 0.0D && tile.xx1 == 1.0D && tile.yy1 == 1.0D && tile.zz1 == 1.0D && isDefault(tile.getClass(), "shouldRenderFace") && isDefault(tile.getClass(), "getBrightness");
+         }
+      }
+
+   }
+
+   public ChunkMesher(boolean deferSharedShapes) {
+      this.tesselator = Tesselator.instance.getUniqueInstance(BUFFER_SIZE);
+      this.deferSharedShapes = deferSharedShapes;
+   }
+
+   private static boolean isDefault(Class<?> type, String name) {
+      try {
+         Class<?>[] params = name.equals("shouldRenderFace") ? new Class[]{LevelSource.class, Integer.TYPE, Integer.TYPE, Integer.TYPE, Integer.TYPE} : new Class[]{LevelSource.class, Integer.TYPE, Integer.TYPE, Integer.TYPE};
+         return type.getMethod(name, params).getDeclaringClass() == Tile.class;
+      } catch (NoSuchMethodException var3) {
+         return false;
+      }
+   }
+
+   public ChunkMesh mesh(RegionSnapshot region, int x0, int y0, int z0, int xs, int ys, int zs) {
+      ChunkMesh mesh = new ChunkMesh(region, x0, y0, z0);
+      Tesselator t = this.tesselator;
+      TileRenderer tileRenderer = new TileRenderer(region, t);
+      int x1 = x0 + xs;
+      int y1 = y0 + ys;
+      int z1 = z0 + zs;
+      this.buildMasks(region, x0, y0, z0, xs, ys, zs);
+
+      for(int l = 0; l < 2; ++l) {
+         boolean renderNextLayer = false;
+         boolean rendered = false;
+         boolean started = false;
+
+         for(int y = y0; y < y1; ++y) {
+            for(int z = z0; z < z1; ++z) {
+               int row = (y - y0 + 1) * this.rowsZ + z - z0 + 1;
+               long cubes = this.cubes[row];
+               long open = ~this.solid[row];
+               long down = cubes & ~this.solid[row - this.rowsZ];
+               long up = cubes & ~this.solid[row + this.rowsZ];
+               long north = cubes & ~this.solid[row - 1];
+               long south = cubes & ~this.solid[row + 1];
+               long west = cubes & open << 1;
+               long east = cubes & open >>> 1;
+
+               for(int x = x0; x < x1; ++x) {
+                  int tileId = region.getTile(x, y, z);
+                  if (tileId > 0) {
+                     if (!started) {
+                        started = true;
+                        mesh.layers[l] = new VertexData();
+                        t.capture(mesh.layers[l]);
+                        t.begin();
+                        t.offset((double)(-x0), (double)(-y0), (double)(-z0));
+                     }
+
+                     if (l == 0 && Tile.isEntityTile[tileId]) {
+                        mesh.entityTiles.add(new TilePos(x, y, z));
+                     }
+
+                     Tile tile = Tile.tiles[tileId];
+                     int renderLayer = tile.getRenderLayer();
+                     if (renderLayer != l) {
+                        renderNextLayer = true;
+                     } else if (CUBE[tileId]) {
+                        int i = x - x0 + 1;
+                        int faces = (int)(down >>> i & 1L | (up >>> i & 1L) << 1 | (north >>> i & 1L) << 2 | (south >>> i & 1L) << 3 | (west >>> i & 1L) << 4 | (east >>> i & 1L) << 5);
+                        if (faces != 0) {
+                           rendered |= tileRenderer.tesselateBlockFacesInWorld(tile, x, y, z, faces);
+                        }
+                     } else if (this.deferSharedShapes && SHARED_SHAPE[tileId]) {
+                        mesh.deferredTiles.add(new TilePos(x, y, z));
+                     } else {
+                        rendered |= tileRenderer.tesselateInWorld(tile, x, y, z);
+                     }
+                  }
+               }
+            }
+         }
+
+         if (started) {
+            t.end();
+            t.offset(0.0D, 0.0D, 0.0D);
+            t.capture((VertexData)null);
+         }
+
+         mesh.empty[l] = !rendered;
+         if (!renderNextLayer) {
+            break;
+         }
+      }
+
+      mesh.skyLit = region.hasSkyLight();
+      mesh.visibility = this.visibilityGraph.compute(this.solid, this.rowsZ, xs, ys, zs);
+      return mesh;
+   }
+
+   public static boolean tesselateDeferred(ChunkMesh mesh, TileRenderer tileRenderer, Tesselator t, int layer) {
+      boolean rendered = false;
+      boolean started = false;
+
+      for(int i = 0; i < mesh.deferredTiles.size(); ++i) {
+         TilePos pos = (TilePos)mesh.deferredTiles.get(i);
+         Tile tile = Tile.tiles[mesh.region.getTile(pos.x, pos.y, pos.z)];
+         if (tile != null && tile.getRenderLayer() == layer) {
+            if (!started) {
+               started = true;
+               t.begin();
+               t.offset((double)(-mesh.x), (double)(-mesh.y), (double)(-mesh.z));
+            }
+
+            rendered |= tileRenderer.tesselateInWorld(tile, pos.x, pos.y, pos.z);
+         }
+      }
+
+      if (started) {
+         t.end();
+         t.offset(0.0D, 0.0D, 0.0D);
+      }
+
+      return rendered;
+   }
+
+   private void buildMasks(RegionSnapshot region, int x0, int y0, int z0, int xs, int ys, int zs) {
+      if (xs + 2 > 64) {
+         throw new IllegalArgumentException("Chunk too wide to mesh: " + xs);
+      } else {
+         for(int id = 0; id < 256; ++id) {
+            this.solidTiles[id] = Tile.tiles[id] != null && Tile.tiles[id].isSolidRender();
+         }
+
+         this.rowsZ = zs + 2;
+         int rows = (ys + 2) * this.rowsZ;
+         if (this.solid.length < rows) {
+            this.solid = new long[rows];
+            this.cubes = new long[rows];
+         }
+
+         for(int y = 0; y < ys + 2; ++y) {
+            for(int z = 0; z < zs + 2; ++z) {
+               long solid = 0L;
+               long cubes = 0L;
+
+               for(int x = 0; x < xs + 2; ++x) {
+                  int tileId = region.getTile(x0 - 1 + x, y0 - 1 + y, z0 - 1 + z);
+                  if (this.solidTiles[tileId]) {
+                     solid |= 1L << x;
+                  }
+
+                  if (CUBE[tileId] && x > 0 && x <= xs && y > 0 && y <= ys && z > 0 && z <= zs) {
+                     cubes |= 1L << x;
+                  }
+               }
+
+               this.solid[y * this.rowsZ + z] = solid;
+               this.cubes[y * this.rowsZ + z] = cubes;
+            }
+         }
+
+      }
+   }
+}
@@ -27,6 +27,7 @@ import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemInstance;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelListener;
+import net.minecraft.world.level.chunk.ChunkCache;
 import net.minecraft.world.level.tile.Tile;
 import net.minecraft.world.level.tile.entity.TileEntity;
 import net.minecraft.world.phys.AABB;
@@ -40,6 +41,7 @@ public class LevelRenderer implements LevelListener {
    public static final int CHUNK_SIZE = 16;
    public static final int MAX_VISIBLE_REBUILDS_PER_FRAME = 3;
    public static final int MAX_INVISIBLE_REBUILDS_PER_FRAME = 1;
+   public static final boolean CAVE_CULLING = !Boolean.getBoolean("caveculling.disable");
    public List<TileEntity> renderableTileEntities = new ArrayList();
    private Level level;
    private Textures textures;
@@ -52,8 +54,11 @@ public class LevelRenderer implements LevelListener {
    private int chunkLists;
    private Minecraft mc;
    private TileRenderer tileRenderer;
+   private ChunkBuilder chunkBuilder;
+   private VisibilityGraph visibilityGraph = new VisibilityGraph();
    private IntBuffer occlusionCheckIds;
    private boolean occlusionCheck = false;
+   private boolean useVbo = false;
    private int ticks = 0;
    private int starList;
    private int skyList;
@@ -102,6 +107,10 @@ public class LevelRenderer implements LevelListener {
          ARBOcclusionQuery.glGenQueriesARB(this.occlusionCheckIds);
       }
 
+      if (ChunkBuilder.THREADS > 0) {
+         this.chunkBuilder = new ChunkBuilder(ChunkBuilder.THREADS);
+      }
+
       this.starList = MemoryTracker.genLists(3);
       GL11.glPushMatrix();
       GL11.glNewList(this.starList, 4864);
@@ -215,6 +224,7 @@ public class LevelRenderer implements LevelListener {
    public void allChanged() {
       Tile.leaves.setFancy(this.mc.options.fancyGraphics);
       this.lastViewDistance = this.mc.options.viewDistance;
+      this.useVbo = this.mc.options.useVbo && this.mc.getOpenGLCapabilities().hasVertexBuffers();
       int dist;
       if (this.chunks != null) {
          for(dist = 0; dist < this.chunks.length; ++dist) {
@@ -252,7 +262,7 @@ public class LevelRenderer implements LevelListener {
       for(x = 0; x < this.xChunks; ++x) {
          for(int y = 0; y < this.yChunks; ++y) {
             for(int z = 0; z < this.zChunks; ++z) {
-               this.chunks[(z * this.yChunks + y) * this.xChunks + x] = new Chunk(this.level, this.renderableTileEntities, x * 16, y * 16, z * 16, 16, this.chunkLists + id);
+               this.chunks[(z * this.yChunks + y) * this.xChunks + x] = new Chunk(this.level, this.renderableTileEntities, x * 16, y * 16, z * 16, 16, this.chunkLists + id, this.useVbo);
                if (this.occlusionCheck) {
                   this.chunks[(z * this.yChunks + y) * this.xChunks + x].occlusion_id = this.occlusionCheckIds.get(count);
                }
@@ -270,6 +280,10 @@ public class LevelRenderer implements LevelListener {
       }
 
       if (this.level != null) {
+         if (this.level.getChunkSource() instanceof ChunkCache) {
+            ((ChunkCache)this.level.getChunkSource()).setViewRadius(Math.max(ChunkCache.MIN_VIEW_RADIUS, this.xChunks / 2 + 1));
+         }
+
          Entity player = this.mc.player;
          if (player != null) {
             this.resortChunks(Mth.floor(player.x), Mth.floor(player.y), Mth.floor(player.z));
@@ -427,6 +441,10 @@ public class LevelRenderer implements LevelListener {
          Arrays.sort(this.sortedChunks, new DistanceChunkSorter(player));
       }
 
+      if (CAVE_CULLING && layer == 0) {
+         this.visibilityGraph.traverse(this.chunks, this.xChunks, this.yChunks, this.zChunks, xOff, yOff, zOff);
+      }
+
       int count = 0;
       int count;
       if (this.occlusionCheck && !this.mc.options.anaglyph3d && layer == 0) {
@@ -467,7 +485,7 @@ public class LevelRenderer implements LevelListener {
                      this.sortedChunks[i].occlusion_visible = true;
                   }
 
-                  if (this.sortedChunks[i].visible && !this.sortedChunks[i].occlusion_querying) {
+                  if (this.sortedChunks[i].visible && this.sortedChunks[i].reachable && !this.sortedChunks[i].occlusion_querying) {
                      float dist = Mth.sqrt(this.sortedChunks[i].distanceToSqr(player));
                      int frequency = (int)(1.0F + dist / 128.0F);
                      if (this.ticks % frequency == i % frequency) {
@@ -536,14 +554,14 @@ public class LevelRenderer implements LevelListener {
                ++this.emptyChunks;
             } else if (!this.sortedChunks[i].visible) {
                ++this.offscreenChunks;
-            } else if (this.occlusionCheck && !this.sortedChunks[i].occlusion_visible) {
+            } else if (!this.sortedChunks[i].reachable || this.occlusionCheck && !this.sortedChunks[i].occlusion_visible) {
                ++this.occludedChunks;
             } else {
                ++this.renderedChunks;
             }
          }
 
-         if (!this.sortedChunks[i].empty[layer] && this.sortedChunks[i].visible && this.sortedChunks[i].occlusion_visible) {
+         if (!this.sortedChunks[i].empty[layer] && this.sortedChunks[i].visible && this.sortedChunks[i].reachable && this.sortedChunks[i].occlusion_visible) {
             int list = this.sortedChunks[i].getList(layer);
             if (list >= 0) {
                this.renderChunks.add(this.sortedChunks[i]);
@@ -552,6 +570,11 @@ public class LevelRenderer implements LevelListener {
          }
       }
 
+      if (this.useVbo) {
+         this.renderSameAsLast(layer, alpha);
+         return count;
+      }
+
       Player player = this.mc.player;
       double xOff = player.xOld + (player.x - player.xOld) * alpha;
       double yOff = player.yOld + (player.y - player.yOld) * alpha;
@@ -586,8 +609,22 @@ public class LevelRenderer implements LevelListener {
    }
 
    public void renderSameAsLast(int layer, double alpha) {
-      for(int i = 0; i < this.renderLists.length; ++i) {
-         this.renderLists[i].render();
+      if (this.useVbo) {
+         Player player = this.mc.player;
+         double xOff = player.xOld + (player.x - player.xOld) * alpha;
+         double yOff = player.yOld + (player.y - player.yOld) * alpha;
+         double zOff = player.zOld + (player.z - player.zOld) * alpha;
+         VertexBuffer.begin();
+
+         for(int i = 0; i < this.renderChunks.size(); ++i) {
+            ((Chunk)this.renderChunks.get(i)).renderVbo(layer, xOff, yOff, zOff);
+         }
+
+         VertexBuffer.end();
+      } else {
+         for(int i = 0; i < this.renderLists.length; ++i) {
+            this.renderLists[i].render();
+         }
       }
 
    }
@@ -887,7 +924,35 @@ public class LevelRenderer implements LevelListener {
       GL11.glEnable(2884);
    }
 
+   private void rebuild(Chunk chunk, boolean force) {
+      if (this.chunkBuilder != null && !force) {
+         chunk.rebuild(this.chunkBuilder);
+      } else {
+         chunk.rebuild();
+      }
+
+   }
+
+   private void uploadChunks() {
+      List<Chunk> failed = new ArrayList();
+      this.chunkBuilder.uploadFinished(failed);
+
+      for(int i = 0; i < failed.size(); ++i) {
+         Chunk chunk = (Chunk)failed.get(i);
+         if (!chunk.dirty) {
+            chunk.setDirty();
+            chunk.rebuild();
+            chunk.dirty = false;
+         }
+      }
+
+   }
+
    public boolean updateDirtyChunks(Player player, boolean force) {
+      if (this.chunkBuilder != null) {
+         this.uploadChunks();
+      }
+
       boolean slow = false;
       if (slow) {
          Collections.sort(this.dirtyChunks, new DirtyChunkSorter(player));
@@ -910,7 +975,7 @@ public class LevelRenderer implements LevelListener {
                continue;
             }
 
-            chunk.rebuild();
+            this.rebuild(chunk, force);
             this.dirtyChunks.remove(chunk);
             chunk.dirty = false;
          }
@@ -976,7 +1041,7 @@ public class LevelRenderer implements LevelListener {
 
             for(secondaryRemoved = nearChunks.size() - 1; secondaryRemoved >= 0; --secondaryRemoved) {
                chunk = (Chunk)nearChunks.get(secondaryRemoved);
-               chunk.rebuild();
+               this.rebuild(chunk, force);
                chunk.dirty = false;
             }
          }
@@ -993,7 +1058,7 @@ public class LevelRenderer implements LevelListener {
                   break;
                }
 
-               toAdd[cursor].rebuild();
+               this.rebuild(toAdd[cursor], force);
                toAdd[cursor].dirty = false;
                ++secondaryRemoved;
             }
@@ -40,6 +40,7 @@ public class Tesselator {
    private int vboId = 0;
    private int vboCounts = 10;
    private int size;
+   private VertexData capture;
 
    private Tesselator(int size) {
       this.size = size;
@@ -59,85 +60,108 @@ public class Tesselator {
       return new Tesselator(size);
    }
 
+   public void capture(VertexData capture) {
+      this.capture = capture;
+   }
+
    public void end() {
       if (!this.tesselating) {
          throw new IllegalStateException("Not tesselating!");
       } else {
          this.tesselating = false;
          if (this.vertices > 0) {
-            this.ib.clear();
-            this.ib.put(this.array, 0, this.p);
-            this.buffer.position(0);
-            this.buffer.limit(this.p * 4);
-            if (this.vboMode) {
-               this.vboId = (this.vboId + 1) % this.vboCounts;
-               ARBVertexBufferObject.glBindBufferARB(34962, this.vboIds.get(this.vboId));
-               ARBVertexBufferObject.glBufferDataARB(34962, this.buffer, 35040);
+            if (this.capture != null) {
+               this.capture.add(this.array, this.p, this.mode, this.hasTexture, this.hasColor, this.hasNormal);
+            } else {
+               this.draw(this.array, 0, this.p, this.vertices, this.mode, this.hasTexture, this.hasColor, this.hasNormal);
             }
+         }
 
-            if (this.hasTexture) {
-               if (this.vboMode) {
-                  GL11.glTexCoordPointer(2, 5126, 32, 12L);
-               } else {
-                  this.fb.position(3);
-                  GL11.glTexCoordPointer(2, 32, this.fb);
-               }
-
-               GL11.glEnableClientState(32888);
-            }
+         this.clear();
+      }
+   }
 
-            if (this.hasColor) {
-               if (this.vboMode) {
-                  GL11.glColorPointer(4, 5121, 32, 20L);
-               } else {
-                  this.buffer.position(20);
-                  GL11.glColorPointer(4, true, 32, this.buffer);
-               }
-
-               GL11.glEnableClientState(32886);
-            }
+   public void draw(VertexData data) {
+      int slice = this.size - this.size % 96;
 
-            if (this.hasNormal) {
-               if (this.vboMode) {
-                  GL11.glNormalPointer(5120, 32, 24L);
-               } else {
-                  this.buffer.position(24);
-                  GL11.glNormalPointer(32, this.buffer);
-               }
+      for(int offset = 0; offset < data.ints; offset += slice) {
+         int ints = Math.min(slice, data.ints - offset);
+         this.draw(data.array, offset, ints, ints / 8, data.mode, data.hasTexture, data.hasColor, data.hasNormal);
+      }
 
-               GL11.glEnableClientState(32885);
-            }
+   }
 
-            if (this.vboMode) {
-               GL11.glVertexPointer(3, 5126, 32, 0L);
-            } else {
-               this.fb.position(0);
-               GL11.glVertexPointer(3, 32, this.fb);
-            }
+   private void draw(int[] array, int offset, int ints, int vertices, int mode, boolean hasTexture, boolean hasColor, boolean hasNormal) {
+      this.ib.clear();
+      this.ib.put(array, offset, ints);
+      this.buffer.position(0);
+      this.buffer.limit(ints * 4);
+      if (this.vboMode) {
+         this.vboId = (this.vboId + 1) % this.vboCounts;
+         ARBVertexBufferObject.glBindBufferARB(34962, this.vboIds.get(this.vboId));
+         ARBVertexBufferObject.glBufferDataARB(34962, this.buffer, 35040);
+      }
 
-            GL11.glEnableClientState(32884);
-            if (this.mode == 7 && TRIANGLE_MODE) {
-               GL11.glDrawArrays(4, 0, this.vertices);
-            } else {
-               GL11.glDrawArrays(this.mode, 0, this.vertices);
-            }
+      if (hasTexture) {
+         if (this.vboMode) {
+            GL11.glTexCoordPointer(2, 5126, 32, 12L);
+         } else {
+            this.fb.position(3);
+            GL11.glTexCoordPointer(2, 32, this.fb);
+         }
 
-            GL11.glDisableClientState(32884);
-            if (this.hasTexture) {
-               GL11.glDisableClientState(32888);
-            }
+         GL11.glEnableClientState(32888);
+      }
 
-            if (this.hasColor) {
-               GL11.glDisableClientState(32886);
-            }
+      if (hasColor) {
+         if (this.vboMode) {
+            GL11.glColorPointer(4, 5121, 32, 20L);
+         } else {
+            this.buffer.position(20);
+            GL11.glColorPointer(4, true, 32, this.buffer);
+         }
 
-            if (this.hasNormal) {
-               GL11.glDisableClientState(32885);
-            }
+         GL11.glEnableClientState(32886);
+      }
+
+      if (hasNormal) {
+         if (this.vboMode) {
+            GL11.glNormalPointer(5120, 32, 24L);
+         } else {
+            this.buffer.position(24);
+            GL11.glNormalPointer(32, this.buffer);
          }
 
-         this.clear();
+         GL11.glEnableClientState(32885);
+      }
+
+      if (this.vboMode) {
+         GL11.glVertexPointer(3, 5126, 32, 0L);
+      } else {
+         this.fb.position(0);
+         GL11.glVertexPointer(3, 32, this.fb);
+      }
+
+      GL11.glEnableClientState(32884);
+      GL11.glDrawArrays(getDrawMode(mode), 0, vertices);
+
+      GL11.glDisableClientState(32884);
+      if (hasTexture) {
+         GL11.glDisableClientState(32888);
+      }
+
+      if (hasColor) {
+         GL11.glDisableClientState(32886);
+      }
+
+      if (hasNormal) {
+         GL11.glDisableClientState(32885);
       }
+
+   }
+
+   public static int getDrawMode(int mode) {
+      return mode == 7 && TRIANGLE_MODE ? 4 : mode;
    }
 
    private void clear() {
@@ -2,6 +2,7 @@ package net.minecraft.client.renderer;
 
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelSource;
+import net.minecraft.world.level.biome.BiomeBlock;
 import net.minecraft.world.level.material.Material;
 import net.minecraft.world.level.tile.DoorTile;
 import net.minecraft.world.level.tile.LiquidTile;
@@ -16,11 +17,18 @@ public class TileRenderer {
    private int fixedTexture = -1;
    private boolean xFlipTexture = false;
    private boolean noCulling = false;
+   private Tesselator tesselator = Tesselator.instance;
+   private final BiomeBlock biomeBlock = new BiomeBlock();
 
    public TileRenderer(LevelSource level) {
       this.level = level;
    }
 
+   public TileRenderer(LevelSource level, Tesselator tesselator) {
+      this.level = level;
+      this.tesselator = tesselator;
+   }
+
    public TileRenderer() {
    }
 
@@ -72,7 +80,7 @@ public class TileRenderer {
 
    public boolean tesselateTorchInWorld(Tile tt, int x, int y, int z) {
       int dir = this.level.getData(x, y, z);
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       float br = tt.getBrightness(this.level, x, y, z);
       if (Tile.lightEmission[tt.id] > 0) {
          br = 1.0F;
@@ -101,7 +109,7 @@ public class TileRenderer {
       int data = this.level.getData(x, y, z);
       int dir = data & 7;
       boolean flipped = (data & 8) > 0;
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       boolean hadFixed = this.fixedTexture >= 0;
       if (!hadFixed) {
          this.fixedTexture = Tile.stoneBrick.tex;
@@ -261,7 +269,7 @@ public class TileRenderer {
    }
 
    public boolean tesselateFireInWorld(Tile tt, int x, int y, int z) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       int tex = tt.getTexture(0);
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
@@ -449,7 +457,7 @@ public class TileRenderer {
    }
 
    public boolean tesselateDustInWorld(Tile tt, int x, int y, int z) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       int tex = tt.getTexture(1, this.level.getData(x, y, z));
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
@@ -601,7 +609,7 @@ public class TileRenderer {
    }
 
    public boolean tesselateRailInWorld(Tile tt, int x, int y, int z) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       int data = this.level.getData(x, y, z);
       int tex = tt.getTexture(0, data);
       if (this.fixedTexture >= 0) {
@@ -670,7 +678,7 @@ public class TileRenderer {
    }
 
    public boolean tesselateLadderInWorld(Tile tt, int x, int y, int z) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       int tex = tt.getTexture(0);
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
@@ -719,7 +727,7 @@ public class TileRenderer {
    }
 
    public boolean tesselateCrossInWorld(Tile tt, int x, int y, int z) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       float br = tt.getBrightness(this.level, x, y, z);
       t.color(br, br, br);
       this.tesselateCrossTexture(tt, this.level.getData(x, y, z), (double)x, (double)y, (double)z);
@@ -727,7 +735,7 @@ public class TileRenderer {
    }
 
    public boolean tesselateRowInWorld(Tile tt, int x, int y, int z) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       float br = tt.getBrightness(this.level, x, y, z);
       t.color(br, br, br);
       this.tesselateRowTexture(tt, this.level.getData(x, y, z), (double)x, (double)((float)y - 0.0625F), (double)z);
@@ -735,7 +743,7 @@ public class TileRenderer {
    }
 
    public void tesselateTorch(Tile tt, double x, double y, double z, double xxa, double zza) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       int tex = tt.getTexture(0);
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
@@ -782,7 +790,7 @@ public class TileRenderer {
    }
 
    public void tesselateCrossTexture(Tile tt, int data, double x, double y, double z) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       int tex = tt.getTexture(0, data);
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
@@ -817,7 +825,7 @@ public class TileRenderer {
    }
 
    public void tesselateRowTexture(Tile tt, int data, double x, double y, double z) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       int tex = tt.getTexture(0, data);
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
@@ -872,7 +880,7 @@ public class TileRenderer {
    }
 
    public boolean tesselateWaterInWorld(Tile tt, int x, int y, int z) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       boolean up = tt.shouldRenderFace(this.level, x, y + 1, z, 1);
       boolean down = tt.shouldRenderFace(this.level, x, y - 1, z, 0);
       boolean[] dirs = new boolean[]{tt.shouldRenderFace(this.level, x, y, z - 1, 2), tt.shouldRenderFace(this.level, x, y, z + 1, 3), tt.shouldRenderFace(this.level, x - 1, y, z, 4), tt.shouldRenderFace(this.level, x + 1, y, z, 5)};
@@ -1051,7 +1059,7 @@ public class TileRenderer {
       float c11 = 1.0F;
       float c2 = 0.8F;
       float c3 = 0.6F;
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       t.begin();
       float center = tt.getBrightness(level, x, y, z);
       float br = tt.getBrightness(level, x, y - 1, z);
@@ -1100,15 +1108,55 @@ public class TileRenderer {
    }
 
    public boolean tesselateBlockInWorld(Tile tt, int x, int y, int z) {
-      int col = tt.getColor(this.level, x, y, z);
+      int col = tt.getColor(this.level, x, y, z, this.biomeBlock);
       float r = (float)(col >> 16 & 255) / 255.0F;
       float g = (float)(col >> 8 & 255) / 255.0F;
       float b = (float)(col & 255) / 255.0F;
       return this.tesselateBlockInWorld(tt, x, y, z, r, g, b);
    }
 
+   public boolean tesselateBlockFacesInWorld(Tile tt, int x, int y, int z, int faces) {
+      int col = tt.getColor(this.level, x, y, z, this.biomeBlock);
+      float r = (float)(col >> 16 & 255) / 255.0F;
+      float g = (float)(col >> 8 & 255) / 255.0F;
+      float b = (float)(col & 255) / 255.0F;
+      return this.tesselateBlockInWorld(tt, x, y, z, r, g, b, faces);
+   }
+
    public boolean tesselateBlockInWorld(Tile tt, int x, int y, int z, float r, float g, float b) {
-      Tesselator t = Tesselator.instance;
+      int faces = 63;
+      if (!this.noCulling) {
+         faces = 0;
+         if (tt.shouldRenderFace(this.level, x, y - 1, z, 0)) {
+            faces |= 1;
+         }
+
+         if (tt.shouldRenderFace(this.level, x, y + 1, z, 1)) {
+            faces |= 2;
+         }
+
+         if (tt.shouldRenderFace(this.level, x, y, z - 1, 2)) {
+            faces |= 4;
+         }
+
+         if (tt.shouldRenderFace(this.level, x, y, z + 1, 3)) {
+            faces |= 8;
+         }
+
+         if (tt.shouldRenderFace(this.level, x - 1, y, z, 4)) {
+            faces |= 16;
+         }
+
+         if (tt.shouldRenderFace(this.level, x + 1, y, z, 5)) {
+            faces |= 32;
+         }
+      }
+
+      return this.tesselateBlockInWorld(tt, x, y, z, r, g, b, faces);
+   }
+
+   private boolean tesselateBlockInWorld(Tile tt, int x, int y, int z, float r, float g, float b, int faces) {
+      Tesselator t = this.tesselator;
       boolean changed = false;
       float c10 = 0.5F;
       float c11 = 1.0F;
@@ -1134,14 +1182,14 @@ public class TileRenderer {
       float b3 = c3 * b;
       float centerBrightness = tt.getBrightness(this.level, x, y, z);
       float br;
-      if (this.noCulling || tt.shouldRenderFace(this.level, x, y - 1, z, 0)) {
+      if ((faces & 1) != 0) {
          br = tt.getBrightness(this.level, x, y - 1, z);
          t.color(r10 * br, g10 * br, b10 * br);
          this.renderFaceUp(tt, (double)x, (double)y, (double)z, tt.getTexture(this.level, x, y, z, 0));
          changed = true;
       }
 
-      if (this.noCulling || tt.shouldRenderFace(this.level, x, y + 1, z, 1)) {
+      if ((faces & 2) != 0) {
          br = tt.getBrightness(this.level, x, y + 1, z);
          if (tt.yy1 != 1.0D && !tt.material.isLiquid()) {
             br = centerBrightness;
@@ -1152,7 +1200,7 @@ public class TileRenderer {
          changed = true;
       }
 
-      if (this.noCulling || tt.shouldRenderFace(this.level, x, y, z - 1, 2)) {
+      if ((faces & 4) != 0) {
          br = tt.getBrightness(this.level, x, y, z - 1);
          if (tt.zz0 > 0.0D) {
             br = centerBrightness;
@@ -1163,7 +1211,7 @@ public class TileRenderer {
          changed = true;
       }
 
-      if (this.noCulling || tt.shouldRenderFace(this.level, x, y, z + 1, 3)) {
+      if ((faces & 8) != 0) {
          br = tt.getBrightness(this.level, x, y, z + 1);
          if (tt.zz1 < 1.0D) {
             br = centerBrightness;
@@ -1174,7 +1222,7 @@ public class TileRenderer {
          changed = true;
       }
 
-      if (this.noCulling || tt.shouldRenderFace(this.level, x - 1, y, z, 4)) {
+      if ((faces & 16) != 0) {
          br = tt.getBrightness(this.level, x - 1, y, z);
          if (tt.xx0 > 0.0D) {
             br = centerBrightness;
@@ -1185,7 +1233,7 @@ public class TileRenderer {
          changed = true;
       }
 
-      if (this.noCulling || tt.shouldRenderFace(this.level, x + 1, y, z, 5)) {
+      if ((faces & 32) != 0) {
          br = tt.getBrightness(this.level, x + 1, y, z);
          if (tt.xx1 < 1.0D) {
             br = centerBrightness;
@@ -1200,7 +1248,7 @@ public class TileRenderer {
    }
 
    public boolean tesselateCactusInWorld(Tile tt, int x, int y, int z) {
-      int col = tt.getColor(this.level, x, y, z);
+      int col = tt.getColor(this.level, x, y, z, this.biomeBlock);
       float r = (float)(col >> 16 & 255) / 255.0F;
       float g = (float)(col >> 8 & 255) / 255.0F;
       float b = (float)(col & 255) / 255.0F;
@@ -1208,7 +1256,7 @@ public class TileRenderer {
    }
 
    public boolean tesselateCactusInWorld(Tile tt, int x, int y, int z, float r, float g, float b) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       boolean changed = false;
       float c10 = 0.5F;
       float c11 = 1.0F;
@@ -1390,7 +1438,7 @@ public class TileRenderer {
    }
 
    public boolean tesselateDoorInWorld(Tile tt, int x, int y, int z) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       DoorTile dt = (DoorTile)tt;
       boolean changed = false;
       float c10 = 0.5F;
@@ -1502,7 +1550,7 @@ public class TileRenderer {
    }
 
    public void renderFaceUp(Tile tt, double x, double y, double z, int tex) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
       }
@@ -1535,7 +1583,7 @@ public class TileRenderer {
    }
 
    public void renderFaceDown(Tile tt, double x, double y, double z, int tex) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
       }
@@ -1568,7 +1616,7 @@ public class TileRenderer {
    }
 
    public void renderNorth(Tile tt, double x, double y, double z, int tex) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
       }
@@ -1608,7 +1656,7 @@ public class TileRenderer {
    }
 
    public void renderSouth(Tile tt, double x, double y, double z, int tex) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
       }
@@ -1648,7 +1696,7 @@ public class TileRenderer {
    }
 
    public void renderWest(Tile tt, double x, double y, double z, int tex) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
       }
@@ -1688,7 +1736,7 @@ public class TileRenderer {
    }
 
    public void renderEast(Tile tt, double x, double y, double z, int tex) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       if (this.fixedTexture >= 0) {
          tex = this.fixedTexture;
       }
@@ -1729,7 +1777,7 @@ public class TileRenderer {
 
    public void renderCube(Tile tile, float alpha) {
       int shape = tile.getRenderShape();
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       if (shape == 0) {
          tile.updateDefaultShape();
          GL11.glTranslatef(-0.5F, -0.5F, -0.5F);
@@ -1755,7 +1803,7 @@ public class TileRenderer {
    }
 
    public void renderTile(Tile tile, int data) {
-      Tesselator t = Tesselator.instance;
+      Tesselator t = this.tesselator;
       int shape = tile.getRenderShape();
       if (shape == 0) {
          tile.updateDefaultShape();
@@ -0,0 +1,131 @@
+package net.minecraft.client.renderer;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import net.minecraft.client.MemoryTracker;
+import org.lwjgl.opengl.ARBVertexBufferObject;
+import org.lwjgl.opengl.GL11;
+
+public class VertexBuffer {
+   public static final int STRIDE = 16;
+   public static final float POSITION_SCALE = 1024.0F;
+   public static final float UV_SCALE = 32768.0F;
+   private static ByteBuffer scratch;
+   private static IntBuffer ids = MemoryTracker.createIntBuffer(1);
+   private int id = -1;
+   private int capacity;
+   private int vertices;
+   private int mode;
+   private boolean hasTexture;
+   private boolean hasColor;
+
+   public static ByteBuffer pack(VertexData data, ByteBuffer buffer) {
+      int size = data.vertices * STRIDE;
+      if (buffer == null || buffer.capacity() < size) {
+         buffer = MemoryTracker.createByteBuffer(Math.max(size, buffer == null ? 65536 : buffer.capacity() * 2));
+      }
+
+      buffer.clear();
+      int[] array = data.array;
+
+      for(int i = 0; i < data.vertices; ++i) {
+         int p = i * 8;
+         buffer.putShort(toShort(Float.intBitsToFloat(array[p + 0]) * POSITION_SCALE));
+         buffer.putShort(toShort(Float.intBitsToFloat(array[p + 1]) * POSITION_SCALE));
+         buffer.putShort(toShort(Float.intBitsToFloat(array[p + 2]) * POSITION_SCALE));
+         buffer.putShort((short)0);
+         buffer.putShort(toShort(Float.intBitsToFloat(array[p + 3]) * UV_SCALE));
+         buffer.putShort(toShort(Float.intBitsToFloat(array[p + 4]) * UV_SCALE));
+         buffer.putInt(array[p + 5]);
+      }
+
+      buffer.flip();
+      return buffer;
+   }
+
+   private static short toShort(float value) {
+      int i = Math.round(value);
+      return (short)(i < -32768 ? -32768 : (i > 32767 ? 32767 : i));
+   }
+
+   public void upload(VertexData data) {
+      this.vertices = data == null ? 0 : data.vertices;
+      if (this.vertices > 0) {
+         scratch = pack(data, scratch);
+         if (this.id < 0) {
+            ids.clear();
+            ARBVertexBufferObject.glGenBuffersARB(ids);
+            this.id = ids.get(0);
+         }
+
+         this.mode = Tesselator.getDrawMode(data.mode);
+         this.hasTexture = data.hasTexture;
+         this.hasColor = data.hasColor;
+         ARBVertexBufferObject.glBindBufferARB(34962, this.id);
+         if (scratch.limit() > this.capacity) {
+            this.capacity = scratch.limit() + scratch.limit() / 4;
+            ARBVertexBufferObject.glBufferDataARB(34962, (long)this.capacity, 35044);
+         }
+
+         ARBVertexBufferObject.glBufferSubDataARB(34962, 0L, scratch);
+         ARBVertexBufferObject.glBindBufferARB(34962, 0);
+      }
+   }
+
+   public boolean isEmpty() {
+      return this.vertices == 0;
+   }
+
+   public void draw() {
+      if (this.vertices > 0) {
+         ARBVertexBufferObject.glBindBufferARB(34962, this.id);
+         GL11.glVertexPointer(3, 5122, STRIDE, 0L);
+         if (this.hasTexture) {
+            GL11.glTexCoordPointer(2, 5122, STRIDE, 8L);
+            GL11.glEnableClientState(32888);
+         } else {
+            GL11.glDisableClientState(32888);
+         }
+
+         if (this.hasColor) {
+            GL11.glColorPointer(4, 5121, STRIDE, 12L);
+            GL11.glEnableClientState(32886);
+         } else {
+            GL11.glDisableClientState(32886);
+         }
+
+         GL11.glDrawArrays(this.mode, 0, this.vertices);
+      }
+   }
+
+   public static void begin() {
+      GL11.glMatrixMode(5890);
+      GL11.glPushMatrix();
+      GL11.glScalef(1.0F / UV_SCALE, 1.0F / UV_SCALE, 1.0F);
+      GL11.glMatrixMode(5888);
+      GL11.glEnableClientState(32884);
+   }
+
+   public static void end() {
+      ARBVertexBufferObject.glBindBufferARB(34962, 0);
+      GL11.glDisableClientState(32884);
+      GL11.glDisableClientState(32888);
+      GL11.glDisableClientState(32886);
+      GL11.glMatrixMode(5890);
+      GL11.glPopMatrix();
+      GL11.glMatrixMode(5888);
+   }
+
+   public void delete() {
+      if (this.id >= 0) {
+         ids.clear();
+         ids.put(this.id);
+         ids.flip();
+         ARBVertexBufferObject.glDeleteBuffersARB(ids);
+         this.id = -1;
+         this.capacity = 0;
+         this.vertices = 0;
+      }
+
+   }
+}
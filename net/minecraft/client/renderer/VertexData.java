@@ -0,0 +1,43 @@
+package net.minecraft.client.renderer;
+
+import java.util.Arrays;
+
+public class VertexData {
+   public int[] array;
+   public int ints;
+   public int vertices;
+   public int mode = 7;
+   public boolean hasTexture;
+   public boolean hasColor;
+   public boolean hasNormal;
+
+   public VertexData() {
+      this(4096);
+   }
+
+   public VertexData(int size) {
+      this.array = new int[size];
+   }
+
+   public void add(int[] src, int ints, int mode, boolean hasTexture, boolean hasColor, boolean hasNormal) {
+      if (this.ints + ints > this.array.length) {
+         this.array = Arrays.copyOf(this.array, Math.max(this.array.length * 2, this.ints + ints));
+      }
+
+      System.arraycopy(src, 0, this.array, this.ints, ints);
+      this.ints += ints;
+      this.vertices += ints / 8;
+      this.mode = mode;
+      this.hasTexture |= hasTexture;
+      this.hasColor |= hasColor;
+      this.hasNormal |= hasNormal;
+   }
+
+   public void clear() {
+      this.ints = 0;
+      this.vertices = 0;
+      this.hasTexture = false;
+      this.hasColor = false;
+      this.hasNormal = false;
+   }
+}
@@ -0,0 +1,149 @@
+package net.minecraft.client.renderer;
+
+public class VisibilityGraph {
+   public static final long ALL = (1L << 36) - 1L;
+   private static final int[] OPPOSITE = new int[]{1, 0, 3, 2, 5, 4};
+   private static final int[] DX = new int[]{0, 0, 0, 0, -1, 1};
+   private static final int[] DY = new int[]{-1, 1, 0, 0, 0, 0};
+   private static final int[] DZ = new int[]{0, 0, -1, 1, 0, 0};
+   private int[] queue = new int[0];
+   private boolean[] visited = new boolean[0];
+
+   public static boolean connects(long visibility, int from, int to) {
+      return (visibility >>> from * 6 + to & 1L) != 0L;
+   }
+
+   public long compute(long[] solid, int rowsZ, int xs, int ys, int zs) {
+      int cells = xs * ys * zs;
+      if (this.queue.length < cells) {
+         this.queue = new int[cells];
+         this.visited = new boolean[cells];
+      }
+
+      for(int i = 0; i < cells; ++i) {
+         this.visited[i] = false;
+      }
+
+      long visibility = 0L;
+
+      for(int start = 0; start < cells && visibility != ALL; ++start) {
+         if (!this.visited[start] && !isSolid(solid, rowsZ, start, xs, zs)) {
+            this.visited[start] = true;
+            this.queue[0] = start;
+            int head = 0;
+            int tail = 1;
+            int faces = 0;
+
+            while(head < tail) {
+               int cell = this.queue[head++];
+               int x = cell % xs;
+               int z = cell / xs % zs;
+               int y = cell / xs / zs;
+               faces |= (y == 0 ? 1 : 0) | (y == ys - 1 ? 2 : 0) | (z == 0 ? 4 : 0) | (z == zs - 1 ? 8 : 0) | (x == 0 ? 16 : 0) | (x == xs - 1 ? 32 : 0);
+
+               for(int d = 0; d < 6; ++d) {
+                  int nx = x + DX[d];
+                  int ny = y + DY[d];
+                  int nz = z + DZ[d];
+                  if (nx >= 0 && ny >= 0 && nz >= 0 && nx < xs && ny < ys && nz < zs) {
+                     int next = (ny * zs + nz) * xs + nx;
+                     if (!this.visited[next] && !isSolid(solid, rowsZ, next, xs, zs)) {
+                        this.visited[next] = true;
+                        this.queue[tail++] = next;
+                     }
+                  }
+               }
+            }
+
+            for(int from = 0; from < 6; ++from) {
+               if ((faces & 1 << from) != 0) {
+                  for(int to = 0; to < 6; ++to) {
+                     if ((faces & 1 << to) != 0) {
+                        visibility |= 1L << from * 6 + to;
+                     }
+                  }
+               }
+            }
+         }
+      }
+
+      return visibility;
+   }
+
+   private static boolean isSolid(long[] solid, int rowsZ, int cell, int xs, int zs) {
+      int x = cell % xs;
+      int z = cell / xs % zs;
+      int y = cell / xs / zs;
+      return (solid[(y + 1) * rowsZ + z + 1] >>> x + 1 & 1L) != 0L;
+   }
+
+   public int traverse(Chunk[] chunks, int xChunks, int yChunks, int zChunks, double xCam, double yCam, double zCam) {
+      int xc = (int)Math.floor(xCam) >> 4;
+      int yc = Math.max(0, Math.min(yChunks - 1, (int)Math.floor(yCam) >> 4));
+      int zc = (int)Math.floor(zCam) >> 4;
+      Chunk start = getChunk(chunks, xChunks, yChunks, zChunks, xc, yc, zc);
+
+      for(int i = 0; i < chunks.length; ++i) {
+         chunks[i].reachable = start == null;
+      }
+
+      if (start == null) {
+         return chunks.length;
+      } else {
+         if (this.queue.length < chunks.length) {
+            this.queue = new int[chunks.length];
+         }
+
+         start.reachable = true;
+         int reached = 1;
+         int head = 0;
+         int tail = 0;
+
+         for(int d = 0; d < 6; ++d) {
+            Chunk next = getChunk(chunks, xChunks, yChunks, zChunks, xc + DX[d], yc + DY[d], zc + DZ[d]);
+            if (next != null && !next.reachable) {
+               next.reachable = true;
+               ++reached;
+               this.queue[tail++] = indexOf(xChunks, yChunks, zChunks, xc + DX[d], yc + DY[d], zc + DZ[d]) << 9 | 1 << d << 3 | OPPOSITE[d];
+            }
+         }
+
+         while(head < tail) {
+            int entry = this.queue[head++];
+            int index = entry >>> 9;
+            int dirs = entry >> 3 & 63;
+            int from = entry & 7;
+            Chunk chunk = chunks[index];
+
+            for(int d = 0; d < 6; ++d) {
+               if ((dirs & 1 << OPPOSITE[d]) == 0 && connects(chunk.visibility, from, d)) {
+                  int x = (chunk.x >> 4) + DX[d];
+                  int y = (chunk.y >> 4) + DY[d];
+                  int z = (chunk.z >> 4) + DZ[d];
+                  Chunk next = getChunk(chunks, xChunks, yChunks, zChunks, x, y, z);
+                  if (next != null && !next.reachable) {
+                     next.reachable = true;
+                     ++reached;
+                     this.queue[tail++] = indexOf(xChunks, yChunks, zChunks, x, y, z) << 9 | (dirs | 1 << d) << 3 | OPPOSITE[d];
+                  }
+               }
+            }
+         }
+
+         return reached;
+      }
+   }
+
+   private static int indexOf(int xChunks, int yChunks, int zChunks, int x, int y, int z) {
+      return ((z % zChunks + zChunks) % zChunks * yChunks + y) * xChunks + (x % xChunks + xChunks) % xChunks;
+   }
+
+   private static Chunk getChunk(Chunk[] chunks, int xChunks, int yChunks, int zChunks, int x, int y, int z) {
+      if (y >= 0 && y < yChunks) {
+         Chunk chunk = chunks[indexOf(xChunks, yChunks, zChunks, x, y, z)];
+         return chunk.x == x << 4 && chunk.y == y << 4 && chunk.z == z << 4 ? chunk : null;
+      } else {
+         return null;
+      }
+   }
+}
@@ -4,11 +4,11 @@ import com.mojang.nbt.CompoundTag;
 import com.mojang.nbt.DoubleTag;
 import com.mojang.nbt.FloatTag;
 import com.mojang.nbt.ListTag;
-import java.util.List;
 import java.util.Random;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.item.ItemInstance;
+import net.minecraft.world.level.Collider;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.material.Material;
 import net.minecraft.world.level.tile.LiquidTile;
@@ -86,6 +86,8 @@ public abstract class Entity {
    public int xChunk;
    public int yChunk;
    public int zChunk;
+   public long indexCell;
+   public int indexSlot;
    public int xp;
    public int yp;
    public int zp;
@@ -125,6 +127,7 @@ public abstract class Entity {
       this.fireImmune = false;
       this.entityData = new SynchedEntityData();
       this.inChunk = false;
+      this.indexSlot = -1;
       this.level = var1;
       this.setPos(0.0D, 0.0D, 0.0D);
       this.entityData.define(0, (byte)0);
@@ -153,7 +156,7 @@ public abstract class Entity {
       if (this.level != null) {
          while(this.y > 0.0D) {
             this.setPos(this.x, this.y, this.z);
-            if (this.level.getCubes(this, this.bb).size() == 0) {
+            if (!this.level.hasCubes(this, this.bb)) {
                break;
             }
 
@@ -329,8 +332,7 @@ public abstract class Entity {
 
    public boolean isFree(float var1, float var2, float var3, float var4) {
       AABB var5 = this.bb.grow((double)var4, (double)var4, (double)var4).cloneMove((double)var1, (double)var2, (double)var3);
-      List var6 = this.level.getCubes(this, var5);
-      if (var6.size() > 0) {
+      if (this.level.hasCubes(this, var5)) {
          return false;
       } else {
          return !this.level.containsAnyLiquid(var5);
@@ -339,8 +341,7 @@ public abstract class Entity {
 
    public boolean isFree(double var1, double var3, double var5) {
       AABB var7 = this.bb.cloneMove(var1, var3, var5);
-      List var8 = this.level.getCubes(this, var7);
-      if (var8.size() > 0) {
+      if (this.level.hasCubes(this, var7)) {
          return false;
       } else {
          return !this.level.containsAnyLiquid(var7);
@@ -363,7 +364,7 @@ public abstract class Entity {
          boolean var18 = this.onGround && this.isSneaking();
          if (var18) {
             double var19;
-            for(var19 = 0.05D; var1 != 0.0D && this.level.getCubes(this, this.bb.cloneMove(var1, -1.0D, 0.0D)).size() == 0; var11 = var1) {
+            for(var19 = 0.05D; var1 != 0.0D && !this.level.hasCubes(this, this.bb.cloneMove(var1, -1.0D, 0.0D)); var11 = var1) {
                if (var1 < var19 && var1 >= -var19) {
                   var1 = 0.0D;
                } else if (var1 > 0.0D) {
@@ -373,7 +374,7 @@ public abstract class Entity {
                }
             }
 
-            for(; var5 != 0.0D && this.level.getCubes(this, this.bb.cloneMove(0.0D, -1.0D, var5)).size() == 0; var15 = var5) {
+            for(; var5 != 0.0D && !this.level.hasCubes(this, this.bb.cloneMove(0.0D, -1.0D, var5)); var15 = var5) {
                if (var5 < var19 && var5 >= -var19) {
                   var5 = 0.0D;
                } else if (var5 > 0.0D) {
@@ -384,11 +385,8 @@ public abstract class Entity {
             }
          }
 
-         List var35 = this.level.getCubes(this, this.bb.expand(var1, var3, var5));
-
-         for(int var20 = 0; var20 < var35.size(); ++var20) {
-            var3 = ((AABB)var35.get(var20)).clipYCollide(this.bb, var3);
-         }
+         Collider var35 = this.level.getCollider(this, this.bb.expand(var1, var3, var5));
+         var3 = var35.clipYCollide(this.bb, var3);
 
          this.bb.move(0.0D, var3, 0.0D);
          if (!this.slide && var13 != var3) {
@@ -399,10 +397,7 @@ public abstract class Entity {
 
          boolean var36 = this.onGround || var13 != var3 && var13 < 0.0D;
 
-         int var21;
-         for(var21 = 0; var21 < var35.size(); ++var21) {
-            var1 = ((AABB)var35.get(var21)).clipXCollide(this.bb, var1);
-         }
+         var1 = var35.clipXCollide(this.bb, var1);
 
          this.bb.move(var1, 0.0D, 0.0D);
          if (!this.slide && var11 != var1) {
@@ -411,9 +406,7 @@ public abstract class Entity {
             var1 = 0.0D;
          }
 
-         for(var21 = 0; var21 < var35.size(); ++var21) {
-            var5 = ((AABB)var35.get(var21)).clipZCollide(this.bb, var5);
-         }
+         var5 = var35.clipZCollide(this.bb, var5);
 
          this.bb.move(0.0D, 0.0D, var5);
          if (!this.slide && var15 != var5) {
@@ -434,11 +427,8 @@ public abstract class Entity {
             var5 = var15;
             AABB var27 = this.bb.copy();
             this.bb.set(var17);
-            var35 = this.level.getCubes(this, this.bb.expand(var11, var3, var15));
-
-            for(var28 = 0; var28 < var35.size(); ++var28) {
-               var3 = ((AABB)var35.get(var28)).clipYCollide(this.bb, var3);
-            }
+            var35 = this.level.getCollider(this, this.bb.expand(var11, var3, var15));
+            var3 = var35.clipYCollide(this.bb, var3);
 
             this.bb.move(0.0D, var3, 0.0D);
             if (!this.slide && var13 != var3) {
@@ -447,9 +437,7 @@ public abstract class Entity {
                var1 = 0.0D;
             }
 
-            for(var28 = 0; var28 < var35.size(); ++var28) {
-               var1 = ((AABB)var35.get(var28)).clipXCollide(this.bb, var1);
-            }
+            var1 = var35.clipXCollide(this.bb, var1);
 
             this.bb.move(var1, 0.0D, 0.0D);
             if (!this.slide && var11 != var1) {
@@ -458,9 +446,7 @@ public abstract class Entity {
                var1 = 0.0D;
             }
 
-            for(var28 = 0; var28 < var35.size(); ++var28) {
-               var5 = ((AABB)var35.get(var28)).clipZCollide(this.bb, var5);
-            }
+            var5 = var35.clipZCollide(this.bb, var5);
 
             this.bb.move(0.0D, 0.0D, var5);
             if (!this.slide && var15 != var5) {
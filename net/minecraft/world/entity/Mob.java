@@ -727,7 +727,7 @@ public abstract class Mob extends Entity {
    }
 
    public boolean canSpawn() {
-      return this.level.isUnobstructed(this.bb) && this.level.getCubes(this, this.bb).size() == 0 && !this.level.containsAnyLiquid(this.bb);
+      return this.level.isUnobstructed(this.bb) && !this.level.hasCubes(this, this.bb) && !this.level.containsAnyLiquid(this.bb);
    }
 
    protected void outOfWorld() {
@@ -151,7 +151,7 @@ public class Painting extends Entity {
    }
 
    public boolean survives() {
-      if (this.level.getCubes(this, this.bb).size() > 0) {
+      if (this.level.hasCubes(this, this.bb)) {
          return false;
       } else {
          int var1 = this.motive.w / 16;
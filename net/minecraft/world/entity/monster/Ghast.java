@@ -110,7 +110,7 @@ public class Ghast extends FlyingMob implements Enemy {
 
       for(int var16 = 1; (double)var16 < var7; ++var16) {
          var15.move(var9, var11, var13);
-         if (this.level.getCubes(this, var15).size() > 0) {
+         if (this.level.hasCubes(this, var15)) {
             return false;
          }
       }
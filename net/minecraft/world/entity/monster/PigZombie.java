@@ -31,7 +31,7 @@ public class PigZombie extends Zombie {
    }
 
    public boolean canSpawn() {
-      return this.level.difficulty > 0 && this.level.isUnobstructed(this.bb) && this.level.getCubes(this, this.bb).size() == 0 && !this.level.containsAnyLiquid(this.bb);
+      return this.level.difficulty > 0 && this.level.isUnobstructed(this.bb) && !this.level.hasCubes(this, this.bb) && !this.level.containsAnyLiquid(this.bb);
    }
 
    public void addAdditonalSaveData(CompoundTag var1) {
@@ -0,0 +1,291 @@
+package net.minecraft.world.level;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.chunk.EmptyLevelChunk;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.tile.Tile;
+import net.minecraft.world.phys.AABB;
+import util.Mth;
+
+public class Collider {
+   public static final double ENTITY_MARGIN = 0.25D;
+   private static final long[] FULL_CUBES = new long[4];
+   private final Level level;
+   private final ArrayList<AABB> scratch = new ArrayList();
+   private final List<Entity> entities = new ArrayList();
+   private final AABB query = AABB.newPermanent(0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D);
+   private int[] cubes = new int[192];
+   private int cubeCount;
+   private double[] tileBoxes = new double[96];
+   private int tileBoxCount;
+   private double[] entityBoxes = new double[48];
+   private int entityBoxCount;
+
+   static {
+      for(int id = 0; id < 256; ++id) {
+         Tile tile = Tile.tiles[id];
+         if (tile != null && tile.xx0 == 0.0D && tile.yy0 == 0.0D && tile.zz0 == 0.0D && tile.xx1 == 1.0D && tile.yy1 == 1.0D && tile.zz1 == 1.0D && usesDefaultShape(tile.getClass())) {
+            FULL_CUBES[id >> 6] |= 1L << id;
+         }
+      }
+
+   }
+
+   public Collider(Level level) {
+      this.level = level;
+   }
+
+   public static boolean isFullCube(int id) {
+      return (FULL_CUBES[id >> 6 & 3] & 1L << id) != 0L;
+   }
+
+   private static boolean usesDefaultShape(Class<?> type) {
+      try {
+         return type.getMethod("getAABB", Level.class, Integer.TYPE, Integer.TYPE, Integer.TYPE).getDeclaringClass() == Tile.class && type.getMethod("addAABBs", Level.class, Integer.TYPE, Integer.TYPE, Integer.TYPE, AABB.class, ArrayList.class).getDeclaringClass() == Tile.class;
+      } catch (NoSuchMethodException var2) {
+         return false;
+      }
+   }
+
+   public Collider collect(Entity entity, AABB box) {
+      this.cubeCount = 0;
+      this.tileBoxCount = 0;
+      this.entityBoxCount = 0;
+      this.scanTiles(box, false);
+      this.scanEntities(entity, box, false);
+      return this;
+   }
+
+   public boolean isColliding(Entity entity, AABB box) {
+      this.cubeCount = 0;
+      this.tileBoxCount = 0;
+      this.entityBoxCount = 0;
+      return this.scanTiles(box, true) || this.scanEntities(entity, box, true);
+   }
+
+   public boolean isEmpty() {
+      return this.cubeCount == 0 && this.tileBoxCount == 0 && this.entityBoxCount == 0;
+   }
+
+   private boolean scanTiles(AABB box, boolean any) {
+      int x0 = Mth.floor(box.x0);
+      int x1 = Mth.floor(box.x1 + 1.0D);
+      int y0 = Mth.floor(box.y0) - 1;
+      int y1 = Mth.floor(box.y1 + 1.0D);
+      int z0 = Mth.floor(box.z0);
+      int z1 = Mth.floor(box.z1 + 1.0D);
+      if (y0 < 0) {
+         y0 = 0;
+      }
+
+      if (y1 > 128) {
+         y1 = 128;
+      }
+
+      if (y0 >= y1) {
+         return false;
+      } else {
+         for(int cx = x0 >> 4; cx <= x1 - 1 >> 4; ++cx) {
+            for(int cz = z0 >> 4; cz <= z1 - 1 >> 4; ++cz) {
+               if (this.level.hasChunkAt(cx << 4, 64, cz << 4)) {
+                  LevelChunk chunk = this.level.getChunk(cx, cz);
+                  if (!(chunk instanceof EmptyLevelChunk)) {
+                     byte[] blocks = chunk.blocks;
+                     int xFrom = Math.max(x0, cx << 4);
+                     int xTo = Math.min(x1, (cx << 4) + 16);
+                     int zFrom = Math.max(z0, cz << 4);
+                     int zTo = Math.min(z1, (cz << 4) + 16);
+
+                     for(int x = xFrom; x < xTo; ++x) {
+                        for(int z = zFrom; z < zTo; ++z) {
+                           if (x >= -32000000 && z >= -32000000 && x < 32000000 && z <= 32000000) {
+                              int column = (x & 15) << 11 | (z & 15) << 7;
+
+                              for(int y = y0; y < y1; ++y) {
+                                 int id = blocks[column | y] & 255;
+                                 if (id != 0 && this.addTile(id, x, y, z, box) && any) {
+                                    return true;
+                                 }
+                              }
+                           }
+                        }
+                     }
+                  }
+               }
+            }
+         }
+
+         return false;
+      }
+   }
+
+   private boolean addTile(int id, int x, int y, int z, AABB box) {
+      if (isFullCube(id)) {
+         if (!box.intersects((double)x, (double)y, (double)z, (double)(x + 1), (double)(y + 1), (double)(z + 1))) {
+            return false;
+         } else {
+            if (this.cubeCount * 3 == this.cubes.length) {
+               int[] grown = new int[this.cubes.length * 2];
+               System.arraycopy(this.cubes, 0, grown, 0, this.cubes.length);
+               this.cubes = grown;
+            }
+
+            int i = this.cubeCount++ * 3;
+            this.cubes[i] = x;
+            this.cubes[i + 1] = y;
+            this.cubes[i + 2] = z;
+            return true;
+         }
+      } else {
+         Tile tile = Tile.tiles[id];
+         if (tile == null) {
+            return false;
+         } else {
+            this.scratch.clear();
+            tile.addAABBs(this.level, x, y, z, box, this.scratch);
+
+            for(int i = 0; i < this.scratch.size(); ++i) {
+               this.tileBoxes = this.push(this.tileBoxes, this.tileBoxCount++, (AABB)this.scratch.get(i));
+            }
+
+            boolean found = !this.scratch.isEmpty();
+            this.scratch.clear();
+            return found;
+         }
+      }
+   }
+
+   private boolean scanEntities(Entity entity, AABB box, boolean any) {
+      this.query.set(box.x0 - ENTITY_MARGIN, box.y0 - ENTITY_MARGIN, box.z0 - ENTITY_MARGIN, box.x1 + ENTITY_MARGIN, box.y1 + ENTITY_MARGIN, box.z1 + ENTITY_MARGIN);
+      this.entities.clear();
+      this.level.entityIndex.getEntities(entity, this.query, (Class)null, this.entities);
+      boolean found = false;
+
+      for(int i = 0; i < this.entities.size() && !(found && any); ++i) {
+         Entity other = (Entity)this.entities.get(i);
+         AABB collide = other.getCollideBox();
+         if (collide != null && collide.intersects(box)) {
+            this.entityBoxes = this.push(this.entityBoxes, this.entityBoxCount++, collide);
+            found = true;
+         }
+
+         collide = entity.getCollideAgainstBox(other);
+         if (collide != null && collide.intersects(box)) {
+            this.entityBoxes = this.push(this.entityBoxes, this.entityBoxCount++, collide);
+            found = true;
+         }
+      }
+
+      this.entities.clear();
+      return found;
+   }
+
+   private double[] push(double[] boxes, int index, AABB box) {
+      int i = index * 6;
+      if (i == boxes.length) {
+         double[] grown = new double[boxes.length * 2];
+         System.arraycopy(boxes, 0, grown, 0, boxes.length);
+         boxes = grown;
+      }
+
+      boxes[i] = box.x0;
+      boxes[i + 1] = box.y0;
+      boxes[i + 2] = box.z0;
+      boxes[i + 3] = box.x1;
+      boxes[i + 4] = box.y1;
+      boxes[i + 5] = box.z1;
+      return boxes;
+   }
+
+   public double clipXCollide(AABB bb, double dx) {
+      for(int i = 0; i < this.cubeCount * 3; i += 3) {
+         int x = this.cubes[i];
+         int y = this.cubes[i + 1];
+         int z = this.cubes[i + 2];
+         if (bb.y1 > (double)y && bb.y0 < (double)(y + 1) && bb.z1 > (double)z && bb.z0 < (double)(z + 1)) {
+            dx = clip(dx, bb.x0, bb.x1, (double)x, (double)(x + 1));
+         }
+      }
+
+      dx = clipX(this.tileBoxes, this.tileBoxCount, bb, dx);
+      return clipX(this.entityBoxes, this.entityBoxCount, bb, dx);
+   }
+
+   public double clipYCollide(AABB bb, double dy) {
+      for(int i = 0; i < this.cubeCount * 3; i += 3) {
+         int x = this.cubes[i];
+         int y = this.cubes[i + 1];
+         int z = this.cubes[i + 2];
+         if (bb.x1 > (double)x && bb.x0 < (double)(x + 1) && bb.z1 > (double)z && bb.z0 < (double)(z + 1)) {
+            dy = clip(dy, bb.y0, bb.y1, (double)y, (double)(y + 1));
+         }
+      }
+
+      dy = clipY(this.tileBoxes, this.tileBoxCount, bb, dy);
+      return clipY(this.entityBoxes, this.entityBoxCount, bb, dy);
+   }
+
+   public double clipZCollide(AABB bb, double dz) {
+      for(int i = 0; i < this.cubeCount * 3; i += 3) {
+         int x = this.cubes[i];
+         int y = this.cubes[i + 1];
+         int z = this.cubes[i + 2];
+         if (bb.x1 > (double)x && bb.x0 < (double)(x + 1) && bb.y1 > (double)y && bb.y0 < (double)(y + 1)) {
+            dz = clip(dz, bb.z0, bb.z1, (double)z, (double)(z + 1));
+         }
+      }
+
+      dz = clipZ(this.tileBoxes, this.tileBoxCount, bb, dz);
+      return clipZ(this.entityBoxes, this.entityBoxCount, bb, dz);
+   }
+
+   private static double clipX(double[] boxes, int count, AABB bb, double dx) {
+      for(int i = 0; i < count * 6; i += 6) {
+         if (bb.y1 > boxes[i + 1] && bb.y0 < boxes[i + 4] && bb.z1 > boxes[i + 2] && bb.z0 < boxes[i + 5]) {
+            dx = clip(dx, bb.x0, bb.x1, boxes[i], boxes[i + 3]);
+         }
+      }
+
+      return dx;
+   }
+
+   private static double clipY(double[] boxes, int count, AABB bb, double dy) {
+      for(int i = 0; i < count * 6; i += 6) {
+         if (bb.x1 > boxes[i] && bb.x0 < boxes[i + 3] && bb.z1 > boxes[i + 2] && bb.z0 < boxes[i + 5]) {
+            dy = clip(dy, bb.y0, bb.y1, boxes[i + 1], boxes[i + 4]);
+         }
+      }
+
+      return dy;
+   }
+
+   private static double clipZ(double[] boxes, int count, AABB bb, double dz) {
+      for(int i = 0; i < count * 6; i += 6) {
+         if (bb.x1 > boxes[i] && bb.x0 < boxes[i + 3] && bb.y1 > boxes[i + 1] && bb.y0 < boxes[i + 4]) {
+            dz = clip(dz, bb.z0, bb.z1, boxes[i + 2], boxes[i + 5]);
+         }
+      }
+
+      return dz;
+   }
+
+   private static double clip(double d, double min, double max, double boxMin, double boxMax) {
+      if (d > 0.0D && max <= boxMin) {
+         double gap = boxMin - max;
+         if (gap < d) {
+            d = gap;
+         }
+      }
+
+      if (d < 0.0D && min >= boxMax) {
+         double gap = boxMax - min;
+         if (gap > d) {
+            d = gap;
+         }
+      }
+
+      return d;
+   }
+}
@@ -0,0 +1,204 @@
+package net.minecraft.world.level;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.phys.AABB;
+import util.LongHashMap;
+import util.Mth;
+
+public class EntityIndex {
+   public static final int CELL_BITS = 3;
+   private static final int MAX_CELL_Y = 127 >> CELL_BITS;
+   private final LongHashMap<List<Entity>> cells = new LongHashMap();
+   private final Map<Class<?>, int[]> classCounts = new HashMap();
+   private final Map<Class<?>, int[]> baseCounts = new HashMap();
+   private final Map<Class<?>, int[][]> counters = new HashMap();
+   private int size;
+   private double extent;
+
+   public int size() {
+      return this.size;
+   }
+
+   public void add(Entity entity) {
+      if (entity.indexSlot < 0) {
+         this.grow(entity);
+         this.insert(entity, cellKey(entity.x, entity.y, entity.z));
+         int[][] counters = this.getCounters(entity.getClass());
+
+         for(int i = 0; i < counters.length; ++i) {
+            ++counters[i][0];
+         }
+
+         ++this.size;
+      }
+   }
+
+   public void remove(Entity entity) {
+      if (entity.indexSlot >= 0) {
+         this.extract(entity);
+         int[][] counters = this.getCounters(entity.getClass());
+
+         for(int i = 0; i < counters.length; ++i) {
+            --counters[i][0];
+         }
+
+         --this.size;
+      }
+   }
+
+   public void move(Entity entity) {
+      if (entity.indexSlot >= 0) {
+         this.grow(entity);
+         long cell = cellKey(entity.x, entity.y, entity.z);
+         if (cell != entity.indexCell) {
+            this.extract(entity);
+            this.insert(entity, cell);
+         }
+
+      }
+   }
+
+   public int countInstanceOf(Class<?> base) {
+      int[] count = (int[])this.baseCounts.get(base);
+      if (count == null) {
+         count = new int[1];
+         Iterator<Map.Entry<Class<?>, int[]>> it = this.classCounts.entrySet().iterator();
+
+         while(it.hasNext()) {
+            Map.Entry<Class<?>, int[]> entry = (Map.Entry)it.next();
+            if (base.isAssignableFrom((Class)entry.getKey())) {
+               count[0] += ((int[])entry.getValue())[0];
+            }
+         }
+
+         this.baseCounts.put(base, count);
+         this.counters.clear();
+      }
+
+      return count[0];
+   }
+
+   public void getEntities(Entity except, AABB box, Class<?> type, List<Entity> out) {
+      double margin = this.extent;
+      int x0 = Mth.floor(box.x0 - margin) >> CELL_BITS;
+      int y0 = clampY(Mth.floor(box.y0 - margin) >> CELL_BITS);
+      int z0 = Mth.floor(box.z0 - margin) >> CELL_BITS;
+      int x1 = Mth.floor(box.x1 + margin) >> CELL_BITS;
+      int y1 = clampY(Mth.floor(box.y1 + margin) >> CELL_BITS);
+      int z1 = Mth.floor(box.z1 + margin) >> CELL_BITS;
+      long span = (long)(x1 - x0 + 1) * (long)(y1 - y0 + 1) * (long)(z1 - z0 + 1);
+      if (span > (long)this.cells.size()) {
+         for(int i = this.cells.nextIndex(-1); i >= 0; i = this.cells.nextIndex(i)) {
+            long key = this.cells.keyAt(i);
+            int x = (int)(key >> 36);
+            int y = (int)(key & 255L);
+            int z = (int)(key << 28 >> 36);
+            if (x >= x0 && x <= x1 && y >= y0 && y <= y1 && z >= z0 && z <= z1) {
+               this.collect((List)this.cells.valueAt(i), except, box, type, out);
+            }
+         }
+      } else {
+         for(int x = x0; x <= x1; ++x) {
+            for(int z = z0; z <= z1; ++z) {
+               for(int y = y0; y <= y1; ++y) {
+                  List<Entity> cell = (List)this.cells.get(cellKey(x, y, z));
+                  if (cell != null) {
+                     this.collect(cell, except, box, type, out);
+                  }
+               }
+            }
+         }
+      }
+
+   }
+
+   private void collect(List<Entity> cell, Entity except, AABB box, Class<?> type, List<Entity> out) {
+      for(int i = 0; i < cell.size(); ++i) {
+         Entity entity = (Entity)cell.get(i);
+         if (entity != except && (type == null || type.isInstance(entity)) && entity.bb.intersects(box)) {
+            out.add(entity);
+         }
+      }
+
+   }
+
+   private void grow(Entity entity) {
+      AABB bb = entity.bb;
+      double extent = Math.max(Math.max(entity.x - bb.x0, bb.x1 - entity.x), Math.max(Math.max(entity.y - bb.y0, bb.y1 - entity.y), Math.max(entity.z - bb.z0, bb.z1 - entity.z)));
+      if (extent > this.extent) {
+         this.extent = extent;
+      }
+
+   }
+
+   private void insert(Entity entity, long cell) {
+      List<Entity> entities = (List)this.cells.get(cell);
+      if (entities == null) {
+         entities = new ArrayList(4);
+         this.cells.put(cell, entities);
+      }
+
+      entity.indexCell = cell;
+      entity.indexSlot = entities.size();
+      entities.add(entity);
+   }
+
+   private void extract(Entity entity) {
+      List<Entity> entities = (List)this.cells.get(entity.indexCell);
+      Entity last = (Entity)entities.remove(entities.size() - 1);
+      if (last != entity) {
+         entities.set(entity.indexSlot, last);
+         last.indexSlot = entity.indexSlot;
+      }
+
+      if (entities.isEmpty()) {
+         this.cells.remove(entity.indexCell);
+      }
+
+      entity.indexSlot = -1;
+   }
+
+   private int[][] getCounters(Class<?> type) {
+      int[][] found = (int[][])this.counters.get(type);
+      if (found == null) {
+         int[] own = (int[])this.classCounts.get(type);
+         if (own == null) {
+            own = new int[1];
+            this.classCounts.put(type, own);
+         }
+
+         List<int[]> matching = new ArrayList();
+         matching.add(own);
+         Iterator<Map.Entry<Class<?>, int[]>> it = this.baseCounts.entrySet().iterator();
+
+         while(it.hasNext()) {
+            Map.Entry<Class<?>, int[]> entry = (Map.Entry)it.next();
+            if (((Class)entry.getKey()).isAssignableFrom(type)) {
+               matching.add((int[])entry.getValue());
+            }
+         }
+
+         found = (int[][])matching.toArray(new int[matching.size()][]);
+         this.counters.put(type, found);
+      }
+
+      return found;
+   }
+
+   private static long cellKey(double x, double y, double z) {
+      return cellKey(Mth.floor(x) >> CELL_BITS, clampY(Mth.floor(y) >> CELL_BITS), Mth.floor(z) >> CELL_BITS);
+   }
+
+   private static long cellKey(int x, int y, int z) {
+      return ((long)x & 268435455L) << 36 | ((long)z & 268435455L) << 8 | (long)y;
+   }
+
+   private static int clampY(int y) {
+      return y < 0 ? 0 : (y > MAX_CELL_Y ? MAX_CELL_Y : y);
+   }
+}
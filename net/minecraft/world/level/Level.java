@@ -2,8 +2,6 @@ package net.minecraft.world.level;
 
 import com.mojang.nbt.CompoundTag;
 import com.mojang.nbt.NbtIo;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -14,13 +12,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.biome.BiomeSource;
 import net.minecraft.world.level.chunk.ChunkCache;
 import net.minecraft.world.level.chunk.ChunkSource;
 import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.storage.ThreadedChunkStorage;
 import net.minecraft.world.level.dimension.Dimension;
 import net.minecraft.world.level.dimension.HellDimension;
 import net.minecraft.world.level.material.Material;
@@ -31,7 +30,9 @@ import net.minecraft.world.level.tile.Tile;
 import net.minecraft.world.level.tile.entity.TileEntity;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.HitResult;
+import net.minecraft.world.phys.TempPool;
 import net.minecraft.world.phys.Vec3;
+import util.LongHashMap;
 import util.Mth;
 import util.ProgressListener;
 
@@ -43,11 +44,16 @@ public class Level implements LevelSource {
    public boolean instaTick;
    public static final int MAX_BRIGHTNESS = 15;
    public static final int TICKS_PER_DAY = 24000;
-   private List<LightUpdate> lightUpdates;
+   private static final int LIGHT_UPDATE_BUDGET = 100000;
+   private LightEngine skyLightEngine;
+   private LightEngine blockLightEngine;
    public List<Entity> entities;
+   public EntityIndex entityIndex;
+   private Collider collider;
+   public TickProfiler profiler;
    private List<Entity> entitiesToRemove;
-   private TreeSet<TickNextTickData> tickNextTickList;
-   private Set<TickNextTickData> tickNextTickSet;
+   private TickScheduler tickScheduler;
+   private final TickNextTickData polledTick = new TickNextTickData(0, 0, 0, 0);
    public List<TileEntity> tileEntityList;
    public List<Player> players;
    public long time;
@@ -57,6 +63,7 @@ public class Level implements LevelSource {
    protected int addend;
    public boolean noNeighborUpdate;
    private long sessionId;
+   private SessionLock session;
    protected int saveInterval;
    public int difficulty;
    public Random random;
@@ -75,10 +82,8 @@ public class Level implements LevelSource {
    public final String name;
    public boolean isFindingSpawn;
    private ArrayList<AABB> boxes;
-   private int maxRecurse;
    private boolean spawnEnemies;
    private boolean spawnFriendlies;
-   static int maxLoop = 0;
    private Set<ChunkPos> chunksToPoll;
    private int delayUntilNextMoodSound;
    private List<Entity> es;
@@ -155,11 +160,14 @@ public class Level implements LevelSource {
 
    public Level(String var1, Dimension var2, long var3) {
       this.instaTick = false;
-      this.lightUpdates = new ArrayList();
+      this.skyLightEngine = new LightEngine(this, LightLayer.Sky);
+      this.blockLightEngine = new LightEngine(this, LightLayer.Block);
       this.entities = new ArrayList();
+      this.entityIndex = new EntityIndex();
+      this.collider = new Collider(this);
+      this.profiler = new TickProfiler();
       this.entitiesToRemove = new ArrayList();
-      this.tickNextTickList = new TreeSet();
-      this.tickNextTickSet = new HashSet();
+      this.tickScheduler = new TickScheduler();
       this.tileEntityList = new ArrayList();
       this.players = new ArrayList();
       this.time = 0L;
@@ -176,7 +184,6 @@ public class Level implements LevelSource {
       this.seed = 0L;
       this.sizeOnDisk = 0L;
       this.boxes = new ArrayList();
-      this.maxRecurse = 0;
       this.spawnEnemies = true;
       this.spawnFriendlies = true;
       this.chunksToPoll = new HashSet();
@@ -193,11 +200,14 @@ public class Level implements LevelSource {
 
    public Level(Level var1, Dimension var2) {
       this.instaTick = false;
-      this.lightUpdates = new ArrayList();
+      this.skyLightEngine = new LightEngine(this, LightLayer.Sky);
+      this.blockLightEngine = new LightEngine(this, LightLayer.Block);
       this.entities = new ArrayList();
+      this.entityIndex = new EntityIndex();
+      this.collider = new Collider(this);
+      this.profiler = new TickProfiler();
       this.entitiesToRemove = new ArrayList();
-      this.tickNextTickList = new TreeSet();
-      this.tickNextTickSet = new HashSet();
+      this.tickScheduler = new TickScheduler();
       this.tileEntityList = new ArrayList();
       this.players = new ArrayList();
       this.time = 0L;
@@ -214,7 +224,6 @@ public class Level implements LevelSource {
       this.seed = 0L;
       this.sizeOnDisk = 0L;
       this.boxes = new ArrayList();
-      this.maxRecurse = 0;
       this.spawnEnemies = true;
       this.spawnFriendlies = true;
       this.chunksToPoll = new HashSet();
@@ -222,6 +231,7 @@ public class Level implements LevelSource {
       this.es = new ArrayList();
       this.isOnline = false;
       this.sessionId = var1.sessionId;
+      this.session = var1.session == null ? null : var1.session.share();
       this.workDir = var1.workDir;
       this.dir = var1.dir;
       this.name = var1.name;
@@ -243,11 +253,14 @@ public class Level implements LevelSource {
 
    public Level(File var1, String var2, long var3, Dimension var5) {
       this.instaTick = false;
-      this.lightUpdates = new ArrayList();
+      this.skyLightEngine = new LightEngine(this, LightLayer.Sky);
+      this.blockLightEngine = new LightEngine(this, LightLayer.Block);
       this.entities = new ArrayList();
+      this.entityIndex = new EntityIndex();
+      this.collider = new Collider(this);
+      this.profiler = new TickProfiler();
       this.entitiesToRemove = new ArrayList();
-      this.tickNextTickList = new TreeSet();
-      this.tickNextTickSet = new HashSet();
+      this.tickScheduler = new TickScheduler();
       this.tileEntityList = new ArrayList();
       this.players = new ArrayList();
       this.time = 0L;
@@ -264,7 +277,6 @@ public class Level implements LevelSource {
       this.seed = 0L;
       this.sizeOnDisk = 0L;
       this.boxes = new ArrayList();
-      this.maxRecurse = 0;
       this.spawnEnemies = true;
       this.spawnFriendlies = true;
       this.chunksToPoll = new HashSet();
@@ -278,14 +290,7 @@ public class Level implements LevelSource {
       this.dir.mkdirs();
 
       try {
-         File var6 = new File(this.dir, "session.lock");
-         DataOutputStream var7 = new DataOutputStream(new FileOutputStream(var6));
-
-         try {
-            var7.writeLong(this.sessionId);
-         } finally {
-            var7.close();
-         }
+         this.session = SessionLock.acquire(this.dir, this.sessionId);
       } catch (IOException var16) {
          var16.printStackTrace();
          throw new RuntimeException("Failed to check session lock, aborting");
@@ -345,7 +350,7 @@ public class Level implements LevelSource {
    }
 
    protected ChunkSource createChunkSource(File var1) {
-      return new ChunkCache(this, this.dimension.createStorage(var1), this.dimension.createRandomLevelSource());
+      return new ChunkCache(this, new ThreadedChunkStorage(this.dimension.createStorage(var1)), this.dimension.createRandomLevelSource());
    }
 
    public void validateSpawn() {
@@ -834,6 +839,13 @@ public class Level implements LevelSource {
       }
    }
 
+   void lightChanged(int var1, int var2, int var3) {
+      for(int var4 = 0; var4 < this.listeners.size(); ++var4) {
+         ((LevelListener)this.listeners.get(var4)).tileChanged(var1, var2, var3);
+      }
+
+   }
+
    public float getBrightness(int var1, int var2, int var3) {
       return this.dimension.brightnessRamp[this.getRawBrightness(var1, var2, var3)];
    }
@@ -856,8 +868,11 @@ public class Level implements LevelSource {
             int var8 = Mth.floor(var1.y);
             int var9 = Mth.floor(var1.z);
             int var10 = 200;
+            TempPool var36 = TempPool.get();
+            long var37 = var36.mark();
 
             while(var10-- >= 0) {
+               var36.release(var37);
                if (Double.isNaN(var1.x) || Double.isNaN(var1.y) || Double.isNaN(var1.z)) {
                   return null;
                }
@@ -1133,6 +1148,14 @@ public class Level implements LevelSource {
       return this.boxes;
    }
 
+   public Collider getCollider(Entity var1, AABB var2) {
+      return this.collider.collect(var1, var2);
+   }
+
+   public boolean hasCubes(Entity var1, AABB var2) {
+      return this.collider.isColliding(var1, var2);
+   }
+
    public int getSkyDarken(float var1) {
       float var2 = this.getTimeOfDay(var1);
       float var3 = 1.0F - (Mth.cos(var2 * 3.1415927F * 2.0F) * 2.0F + 0.5F);
@@ -1243,32 +1266,43 @@ public class Level implements LevelSource {
    }
 
    public void addToTickNextTick(int var1, int var2, int var3, int var4) {
-      TickNextTickData var5 = new TickNextTickData(var1, var2, var3, var4);
-      byte var6 = 8;
+      byte var5 = 8;
       if (this.instaTick) {
-         if (this.hasChunksAt(var5.x - var6, var5.y - var6, var5.z - var6, var5.x + var6, var5.y + var6, var5.z + var6)) {
-            int var7 = this.getTile(var5.x, var5.y, var5.z);
-            if (var7 == var5.tileId && var7 > 0) {
-               Tile.tiles[var7].tick(this, var5.x, var5.y, var5.z, this.random);
+         if (this.hasChunksAt(var1 - var5, var2 - var5, var3 - var5, var1 + var5, var2 + var5, var3 + var5)) {
+            int var6 = this.getTile(var1, var2, var3);
+            if (var6 == var4 && var6 > 0) {
+               Tile.tiles[var6].tick(this, var1, var2, var3, this.random);
             }
          }
 
       } else {
-         if (this.hasChunksAt(var1 - var6, var2 - var6, var3 - var6, var1 + var6, var2 + var6, var3 + var6)) {
+         if (this.hasChunksAt(var1 - var5, var2 - var5, var3 - var5, var1 + var5, var2 + var5, var3 + var5)) {
+            long var7 = 0L;
             if (var4 > 0) {
-               var5.delay((long)Tile.tiles[var4].getTickDelay() + this.time);
+               var7 = (long)Tile.tiles[var4].getTickDelay() + this.time;
             }
 
-            if (!this.tickNextTickSet.contains(var5)) {
-               this.tickNextTickSet.add(var5);
-               this.tickNextTickList.add(var5);
-            }
+            this.tickScheduler.schedule(var1, var2, var3, var4, var7);
          }
 
       }
    }
 
+   public List<TickNextTickData> getTicksInChunk(int var1, int var2, boolean var3) {
+      return this.tickScheduler.getChunk(var1, var2, this.time, var3);
+   }
+
+   public void scheduleTicks(List<TickNextTickData> var1) {
+      for(int var2 = 0; var2 < var1.size(); ++var2) {
+         TickNextTickData var3 = (TickNextTickData)var1.get(var2);
+         this.tickScheduler.schedule(var3.x, var3.y, var3.z, var3.tileId, this.time + var3.delay);
+      }
+
+   }
+
    public void tickEntities() {
+      this.profiler.push("entities");
+      this.profiler.push("remove");
       this.entities.removeAll(this.entitiesToRemove);
 
       int var1;
@@ -1289,6 +1323,7 @@ public class Level implements LevelSource {
       }
 
       this.entitiesToRemove.clear();
+      this.profiler.popPush("tick");
 
       for(var1 = 0; var1 < this.entities.size(); ++var1) {
          var2 = (Entity)this.entities.get(var1);
@@ -1302,7 +1337,9 @@ public class Level implements LevelSource {
          }
 
          if (!var2.removed) {
+            long var5 = this.profiler.begin();
             this.tick(var2);
+            this.profiler.entityTicked(var2, var5);
          }
 
          if (var2.removed) {
@@ -1317,11 +1354,15 @@ public class Level implements LevelSource {
          }
       }
 
+      this.profiler.popPush("tileEntities");
+
       for(var1 = 0; var1 < this.tileEntityList.size(); ++var1) {
-         TileEntity var5 = (TileEntity)this.tileEntityList.get(var1);
-         var5.tick();
+         TileEntity var7 = (TileEntity)this.tileEntityList.get(var1);
+         var7.tick();
       }
 
+      this.profiler.pop();
+      this.profiler.pop();
    }
 
    public void tick(Entity var1) {
@@ -1382,6 +1423,8 @@ public class Level implements LevelSource {
             }
          }
 
+         this.entityIndex.move(var1);
+
          if (var2 && var1.inChunk && var1.rider != null) {
             if (!var1.rider.removed && var1.rider.riding == var1) {
                this.tick(var1.rider);
@@ -1573,6 +1616,8 @@ public class Level implements LevelSource {
       double var7 = 1.0D / ((var2.z1 - var2.z0) * 2.0D + 1.0D);
       int var9 = 0;
       int var10 = 0;
+      TempPool var20 = TempPool.get();
+      long var21 = var20.mark();
 
       for(float var11 = 0.0F; var11 <= 1.0F; var11 = (float)((double)var11 + var3)) {
          for(float var12 = 0.0F; var12 <= 1.0F; var12 = (float)((double)var12 + var5)) {
@@ -1584,6 +1629,7 @@ public class Level implements LevelSource {
                   ++var9;
                }
 
+               var20.release(var21);
                ++var10;
             }
          }
@@ -1667,36 +1713,58 @@ public class Level implements LevelSource {
    }
 
    public int getLightsToUpdate() {
-      return this.lightUpdates.size();
+      return this.skyLightEngine.getPending() + this.blockLightEngine.getPending();
    }
 
    public boolean updateLights() {
-      if (this.maxRecurse >= 50) {
-         return false;
-      } else {
-         ++this.maxRecurse;
+      boolean var1 = this.skyLightEngine.run(LIGHT_UPDATE_BUDGET);
+      boolean var2 = this.blockLightEngine.run(LIGHT_UPDATE_BUDGET);
+      return var1 || var2;
+   }
 
-         boolean var2;
-         try {
-            int var1 = 500;
+   public void relightChunks(List<LevelChunk> var1, ForkJoinPool var2) {
+      LongHashMap<LevelChunk> var3 = new LongHashMap(var1.size());
 
-            while(this.lightUpdates.size() > 0) {
-               --var1;
-               if (var1 <= 0) {
-                  var2 = true;
-                  return var2;
-               }
+      for(int var4 = 0; var4 < var1.size(); ++var4) {
+         LevelChunk var5 = (LevelChunk)var1.get(var4);
+         var3.put((long)var5.x & 4294967295L | ((long)var5.z & 4294967295L) << 32, var5);
+      }
 
-               ((LightUpdate)this.lightUpdates.remove(this.lightUpdates.size() - 1)).update(this);
-            }
+      if (!this.dimension.hasCeiling) {
+         (new RegionLighter(var2, LightLayer.Sky)).relight(var1);
+         this.skyLightEngine.discard(var3);
+      }
 
-            var2 = false;
-         } finally {
-            --this.maxRecurse;
+      (new RegionLighter(var2, LightLayer.Block)).relight(var1);
+      this.blockLightEngine.discard(var3);
+
+      for(int var9 = 0; var9 < var1.size(); ++var9) {
+         LevelChunk var10 = (LevelChunk)var1.get(var9);
+         int var6 = var10.x << 4;
+         int var7 = var10.z << 4;
+         if (!var3.containsKey((long)(var10.x - 1) & 4294967295L | ((long)var10.z & 4294967295L) << 32)) {
+            this.updateLight(LightLayer.Sky, var6 - 1, 0, var7, var6, 127, var7 + 15);
+            this.updateLight(LightLayer.Block, var6 - 1, 0, var7, var6, 127, var7 + 15);
          }
 
-         return var2;
+         if (!var3.containsKey((long)(var10.x + 1) & 4294967295L | ((long)var10.z & 4294967295L) << 32)) {
+            this.updateLight(LightLayer.Sky, var6 + 15, 0, var7, var6 + 16, 127, var7 + 15);
+            this.updateLight(LightLayer.Block, var6 + 15, 0, var7, var6 + 16, 127, var7 + 15);
+         }
+
+         if (!var3.containsKey((long)var10.x & 4294967295L | ((long)(var10.z - 1) & 4294967295L) << 32)) {
+            this.updateLight(LightLayer.Sky, var6, 0, var7 - 1, var6 + 15, 127, var7);
+            this.updateLight(LightLayer.Block, var6, 0, var7 - 1, var6 + 15, 127, var7);
+         }
+
+         if (!var3.containsKey((long)var10.x & 4294967295L | ((long)(var10.z + 1) & 4294967295L) << 32)) {
+            this.updateLight(LightLayer.Sky, var6, 0, var7 + 15, var6 + 15, 127, var7 + 16);
+            this.updateLight(LightLayer.Block, var6, 0, var7 + 15, var6 + 15, 127, var7 + 16);
+         }
+
+         this.setTilesDirty(var6, 0, var7, var6 + 15, 127, var7 + 15);
       }
+
    }
 
    public void updateLight(LightLayer var1, int var2, int var3, int var4, int var5, int var6, int var7) {
@@ -1704,44 +1772,25 @@ public class Level implements LevelSource {
    }
 
    public void updateLight(LightLayer var1, int var2, int var3, int var4, int var5, int var6, int var7, boolean var8) {
-      if (!this.dimension.hasCeiling || var1 != LightLayer.Sky) {
-         ++maxLoop;
-         if (maxLoop == 50) {
-            --maxLoop;
-         } else {
-            int var9 = (var5 + var2) / 2;
-            int var10 = (var7 + var4) / 2;
-            if (!this.hasChunkAt(var9, 64, var10)) {
-               --maxLoop;
-            } else if (!this.getChunkAt(var9, var10).isEmpty()) {
-               int var11 = this.lightUpdates.size();
-               int var12;
-               if (var8) {
-                  var12 = 5;
-                  if (var12 > var11) {
-                     var12 = var11;
-                  }
-
-                  for(int var13 = 0; var13 < var12; ++var13) {
-                     LightUpdate var14 = (LightUpdate)this.lightUpdates.get(this.lightUpdates.size() - var13 - 1);
-                     if (var14.layer == var1 && var14.expandToContain(var2, var3, var4, var5, var6, var7)) {
-                        --maxLoop;
-                        return;
-                     }
-                  }
-               }
+      if (var1 == LightLayer.Sky) {
+         if (!this.dimension.hasCeiling) {
+            this.skyLightEngine.checkBox(var2, var3, var4, var5, var6, var7);
+         }
+      } else {
+         this.blockLightEngine.checkBox(var2, var3, var4, var5, var6, var7);
+      }
 
-               this.lightUpdates.add(new LightUpdate(var1, var2, var3, var4, var5, var6, var7));
-               var12 = 1000000;
-               if (this.lightUpdates.size() > 1000000) {
-                  System.out.println("More than " + var12 + " updates, aborting lighting updates");
-                  this.lightUpdates.clear();
-               }
+   }
 
-               --maxLoop;
-            }
+   public void lightWritten(LightLayer var1, int var2, int var3, int var4, int var5) {
+      if (var1 == LightLayer.Sky) {
+         if (!this.dimension.hasCeiling) {
+            this.skyLightEngine.lightWritten(var2, var3, var4, var5);
          }
+      } else {
+         this.blockLightEngine.lightWritten(var2, var3, var4, var5);
       }
+
    }
 
    public void updateSkyBrightness() {
@@ -1758,8 +1807,12 @@ public class Level implements LevelSource {
    }
 
    public void tick() {
+      this.profiler.startTick();
+      this.profiler.push("spawner");
       MobSpawner.tick(this, this.spawnEnemies, this.spawnFriendlies);
+      this.profiler.popPush("chunkSource");
       this.chunkSource.tick();
+      this.profiler.pop();
       int var1 = this.getSkyDarken(1.0F);
       if (var1 != this.skyDarken) {
          this.skyDarken = var1;
@@ -1771,11 +1824,16 @@ public class Level implements LevelSource {
 
       ++this.time;
       if (this.time % (long)this.saveInterval == 0L) {
+         this.profiler.push("save");
          this.save(false, (ProgressListener)null);
+         this.profiler.pop();
       }
 
+      this.profiler.push("pendingTicks");
       this.tickPendingTicks(false);
+      this.profiler.popPush("randomTicks");
       this.tickTiles();
+      this.profiler.pop();
    }
 
    protected void tickTiles() {
@@ -1838,7 +1896,9 @@ public class Level implements LevelSource {
             var10 = var7 >> 16 & 127;
             byte var15 = var14.blocks[var8 << 11 | var9 << 7 | var10];
             if (Tile.shouldTick[var15]) {
+               long var16 = this.profiler.begin();
                Tile.tiles[var15].tick(this, var8 + var3, var10, var9 + var4, this.random);
+               this.profiler.tileTicked(var15, var16);
             }
          }
       }
@@ -1846,33 +1906,20 @@ public class Level implements LevelSource {
    }
 
    public boolean tickPendingTicks(boolean var1) {
-      int var2 = this.tickNextTickList.size();
-      if (var2 != this.tickNextTickSet.size()) {
-         throw new IllegalStateException("TickNextTick list out of synch");
-      } else {
-         if (var2 > 1000) {
-            var2 = 1000;
-         }
-
-         for(int var3 = 0; var3 < var2; ++var3) {
-            TickNextTickData var4 = (TickNextTickData)this.tickNextTickList.first();
-            if (!var1 && var4.delay > this.time) {
-               break;
-            }
-
-            this.tickNextTickList.remove(var4);
-            this.tickNextTickSet.remove(var4);
-            byte var5 = 8;
-            if (this.hasChunksAt(var4.x - var5, var4.y - var5, var4.z - var5, var4.x + var5, var4.y + var5, var4.z + var5)) {
-               int var6 = this.getTile(var4.x, var4.y, var4.z);
-               if (var6 == var4.tileId && var6 > 0) {
-                  Tile.tiles[var6].tick(this, var4.x, var4.y, var4.z, this.random);
-               }
+      for(int var2 = 0; var2 < 1000 && this.tickScheduler.poll(this.time, var1, this.polledTick); ++var2) {
+         TickNextTickData var3 = this.polledTick;
+         byte var4 = 8;
+         if (this.hasChunksAt(var3.x - var4, var3.y - var4, var3.z - var4, var3.x + var4, var3.y + var4, var3.z + var4)) {
+            int var5 = this.getTile(var3.x, var3.y, var3.z);
+            if (var5 == var3.tileId && var5 > 0) {
+               long var6 = this.profiler.begin();
+               Tile.tiles[var5].tick(this, var3.x, var3.y, var3.z, this.random);
+               this.profiler.tileTicked(var5, var6);
             }
          }
-
-         return this.tickNextTickList.size() != 0;
       }
+
+      return this.tickScheduler.size() != 0;
    }
 
    public void animateTick(int var1, int var2, int var3) {
@@ -1893,38 +1940,14 @@ public class Level implements LevelSource {
 
    public List<Entity> getEntities(Entity var1, AABB var2) {
       this.es.clear();
-      int var3 = Mth.floor((var2.x0 - 2.0D) / 16.0D);
-      int var4 = Mth.floor((var2.x1 + 2.0D) / 16.0D);
-      int var5 = Mth.floor((var2.z0 - 2.0D) / 16.0D);
-      int var6 = Mth.floor((var2.z1 + 2.0D) / 16.0D);
-
-      for(int var7 = var3; var7 <= var4; ++var7) {
-         for(int var8 = var5; var8 <= var6; ++var8) {
-            if (this.hasChunk(var7, var8)) {
-               this.getChunk(var7, var8).getEntities(var1, var2, this.es);
-            }
-         }
-      }
-
+      this.entityIndex.getEntities(var1, var2, (Class)null, this.es);
       return this.es;
    }
 
    public List<Entity> getEntitiesOfClass(Class<? extends Entity> var1, AABB var2) {
-      int var3 = Mth.floor((var2.x0 - 2.0D) / 16.0D);
-      int var4 = Mth.floor((var2.x1 + 2.0D) / 16.0D);
-      int var5 = Mth.floor((var2.z0 - 2.0D) / 16.0D);
-      int var6 = Mth.floor((var2.z1 + 2.0D) / 16.0D);
-      ArrayList var7 = new ArrayList();
-
-      for(int var8 = var3; var8 <= var4; ++var8) {
-         for(int var9 = var5; var9 <= var6; ++var9) {
-            if (this.hasChunk(var8, var9)) {
-               this.getChunk(var8, var9).getEntitiesOfClass(var1, var2, var7);
-            }
-         }
-      }
-
-      return var7;
+      ArrayList var3 = new ArrayList();
+      this.entityIndex.getEntities((Entity)null, var2, var1, var3);
+      return var3;
    }
 
    public List<Entity> getAllEntities() {
@@ -1943,16 +1966,7 @@ public class Level implements LevelSource {
    }
 
    public int countInstanceOf(Class<?> var1) {
-      int var2 = 0;
-
-      for(int var3 = 0; var3 < this.entities.size(); ++var3) {
-         Entity var4 = (Entity)this.entities.get(var3);
-         if (var1.isAssignableFrom(var4.getClass())) {
-            ++var2;
-         }
-      }
-
-      return var2;
+      return this.entityIndex.countInstanceOf(var1);
    }
 
    public void addEntities(List<Entity> var1) {
@@ -2184,23 +2198,22 @@ public class Level implements LevelSource {
    }
 
    public void disconnect() {
-   }
+      if (this.chunkSource instanceof ChunkCache) {
+         ((ChunkCache)this.chunkSource).close();
+      }
 
-   public void checkSession() {
-      try {
-         File var1 = new File(this.dir, "session.lock");
-         DataInputStream var2 = new DataInputStream(new FileInputStream(var1));
+      if (this.session != null) {
+         this.session.release();
+         this.session = null;
+      }
 
-         try {
-            if (var2.readLong() != this.sessionId) {
-               throw new LevelConflictException("The save is being accessed from another location, aborting");
-            }
-         } finally {
-            var2.close();
-         }
+   }
 
-      } catch (IOException var7) {
+   public void checkSession() {
+      if (this.session == null) {
          throw new LevelConflictException("Failed to check session lock, aborting");
+      } else if (!this.session.isHeld()) {
+         throw new LevelConflictException("The save is being accessed from another location, aborting");
       }
    }
 
@@ -0,0 +1,180 @@
+package net.minecraft.world.level;
+
+import com.mojang.nbt.CompoundTag;
+import com.mojang.nbt.NbtIo;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import net.minecraft.world.level.chunk.ChunkCache;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.storage.ZonedChunkStorage;
+
+public class LevelPregenerator {
+   public static final String CHECKPOINT = "pregen.dat";
+   public static final long REPORT_INTERVAL_MS = 2000L;
+   private static final int ZONE_BITS = ZonedChunkStorage.CHUNKS_PER_ZONE_BITS;
+   private static final int ZONE_SIZE = ZonedChunkStorage.CHUNKS_PER_ZONE;
+   private final Level level;
+   private final ForkJoinPool pool;
+   private final int x0;
+   private final int z0;
+   private final int x1;
+   private final int z1;
+   private final int zoneX0;
+   private final int zoneZ0;
+   private final int zonesWide;
+   private final int zones;
+   private int zonesDone;
+   private long chunksDone;
+
+   public LevelPregenerator(Level level, int x0, int z0, int x1, int z1, ForkJoinPool pool) {
+      this.level = level;
+      this.pool = pool;
+      this.x0 = Math.min(x0, x1);
+      this.z0 = Math.min(z0, z1);
+      this.x1 = Math.max(x0, x1);
+      this.z1 = Math.max(z0, z1);
+      this.zoneX0 = this.x0 >> ZONE_BITS;
+      this.zoneZ0 = this.z0 >> ZONE_BITS;
+      this.zonesWide = (this.x1 >> ZONE_BITS) - this.zoneX0 + 1;
+      this.zones = this.zonesWide * ((this.z1 >> ZONE_BITS) - this.zoneZ0 + 1);
+   }
+
+   public static LevelPregenerator around(Level level, int radius, ForkJoinPool pool) {
+      int x = level.xSpawn >> 4;
+      int z = level.zSpawn >> 4;
+      return new LevelPregenerator(level, x - radius, z - radius, x + radius, z + radius, pool);
+   }
+
+   public long getTotalChunks() {
+      return (long)(this.x1 - this.x0 + 1) * (long)(this.z1 - this.z0 + 1);
+   }
+
+   public long getChunksDone() {
+      return this.chunksDone;
+   }
+
+   public int getZones() {
+      return this.zones;
+   }
+
+   public int getZonesDone() {
+      return this.zonesDone;
+   }
+
+   public void run() throws IOException {
+      if (!(this.level.getChunkSource() instanceof ChunkCache)) {
+         throw new IllegalStateException("Level " + this.level.name + " has no chunk cache to generate into");
+      }
+
+      ChunkCache cache = (ChunkCache)this.level.getChunkSource();
+      File checkpoint = new File(this.level.dir, CHECKPOINT);
+      this.readCheckpoint(checkpoint);
+      if (this.zonesDone > 0) {
+         System.out.println("Resuming at zone " + this.zonesDone + "/" + this.zones + ", " + this.chunksDone + "/" + this.getTotalChunks() + " chunks done");
+      }
+
+      long start = System.currentTimeMillis();
+      long lastReport = start;
+      long startChunks = this.chunksDone;
+      ChunkCache.Ticket ticket = cache.addTicket(this.zoneX(this.zonesDone), this.zoneZ(this.zonesDone), ZONE_SIZE / 2 + 1);
+
+      try {
+         while(this.zonesDone < this.zones) {
+            int centerX = this.zoneX(this.zonesDone);
+            int centerZ = this.zoneZ(this.zonesDone);
+            cache.moveTicket(ticket, centerX, centerZ);
+            cache.unloadUnused();
+            this.chunksDone += (long)this.generateZone(cache, centerX - ZONE_SIZE / 2, centerZ - ZONE_SIZE / 2);
+            this.level.save(true, null);
+            ++this.zonesDone;
+            this.writeCheckpoint(checkpoint);
+            long now = System.currentTimeMillis();
+            if (now - lastReport >= REPORT_INTERVAL_MS || this.zonesDone == this.zones) {
+               this.report(this.chunksDone - startChunks, now - start);
+               lastReport = now;
+            }
+         }
+      } finally {
+         cache.releaseTicket(ticket);
+      }
+
+      cache.unloadUnused();
+      this.level.save(true, null);
+      checkpoint.delete();
+      long time = Math.max(System.currentTimeMillis() - start, 1L);
+      System.out.println("Generated " + (this.chunksDone - startChunks) + " chunks in " + time / 1000L + "." + time % 1000L / 100L + " s, " + (this.chunksDone - startChunks) * 1000L / time + " chunks/s");
+   }
+
+   private int zoneX(int zone) {
+      return (this.zoneX0 + zone % this.zonesWide << ZONE_BITS) + ZONE_SIZE / 2;
+   }
+
+   private int zoneZ(int zone) {
+      return (this.zoneZ0 + zone / this.zonesWide << ZONE_BITS) + ZONE_SIZE / 2;
+   }
+
+   private int generateZone(ChunkCache cache, int zoneX, int zoneZ) {
+      int fromX = Math.max(this.x0, zoneX);
+      int fromZ = Math.max(this.z0, zoneZ);
+      int toX = Math.min(this.x1, zoneX + ZONE_SIZE - 1);
+      int toZ = Math.min(this.z1, zoneZ + ZONE_SIZE - 1);
+      List<ChunkPos> positions = new ArrayList();
+
+      for(int z = fromZ; z <= toZ + 1; ++z) {
+         for(int x = fromX; x <= toX + 1; ++x) {
+            positions.add(new ChunkPos(x, z));
+         }
+      }
+
+      List<LevelChunk> chunks = cache.generateChunks(positions, this.pool);
+      this.level.relightChunks(chunks, this.pool);
+
+      while(this.level.updateLights()) {
+      }
+
+      return (toX - fromX + 1) * (toZ - fromZ + 1);
+   }
+
+   private void report(long chunks, long time) {
+      time = Math.max(time, 1L);
+      long rate = chunks * 1000L / time;
+      long left = this.getTotalChunks() - this.chunksDone;
+      String eta = rate == 0L ? "?" : left / rate + " s";
+      System.out.println("Generated " + this.chunksDone + "/" + this.getTotalChunks() + " chunks, " + this.zonesDone + "/" + this.zones + " zones, " + rate + " chunks/s, eta " + eta);
+   }
+
+   private void readCheckpoint(File file) throws IOException {
+      if (file.exists()) {
+         CompoundTag tag = NbtIo.readCompressed(new FileInputStream(file));
+         if (tag.getInt("X0") == this.x0 && tag.getInt("Z0") == this.z0 && tag.getInt("X1") == this.x1 && tag.getInt("Z1") == this.z1) {
+            this.zonesDone = Math.min(tag.getInt("ZonesDone"), this.zones);
+            this.chunksDone = tag.getLong("ChunksDone");
+         } else {
+            System.out.println("Checkpoint in " + file + " is for a different area, starting over");
+         }
+
+      }
+   }
+
+   private void writeCheckpoint(File file) throws IOException {
+      CompoundTag tag = new CompoundTag();
+      tag.putInt("X0", this.x0);
+      tag.putInt("Z0", this.z0);
+      tag.putInt("X1", this.x1);
+      tag.putInt("Z1", this.z1);
+      tag.putInt("ZonesDone", this.zonesDone);
+      tag.putLong("ChunksDone", this.chunksDone);
+      File tmp = new File(file.getParentFile(), file.getName() + "_new");
+      NbtIo.writeCompressed(tag, new FileOutputStream(tmp));
+      if (file.exists()) {
+         file.delete();
+      }
+
+      tmp.renameTo(file);
+   }
+}
@@ -0,0 +1,411 @@
+package net.minecraft.world.level;
+
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.tile.Tile;
+import util.LongHashMap;
+
+public class LightEngine {
+   private static final int SLOT_BITS = 13;
+   private static final int MAX_SLOTS = 1 << SLOT_BITS;
+   private static final int SEED_SLOT_LIMIT = MAX_SLOTS / 9;
+   private static final int UNKNOWN = -1;
+   private static final int UNAVAILABLE = -2;
+   private final Level level;
+   private final LightLayer layer;
+   private final LevelChunk[] slots = new LevelChunk[MAX_SLOTS];
+   private final int[] neighbors = new int[MAX_SLOTS * 4];
+   private final LongHashMap<Integer> slotsByPos = new LongHashMap();
+   private int slotCount;
+   private final LightEngine.IntQueue boxes = new LightEngine.IntQueue();
+   private final LightEngine.IntQueue checks = new LightEngine.IntQueue();
+   private final LightEngine.IntQueue decreases = new LightEngine.IntQueue();
+   private final LightEngine.IntQueue increases = new LightEngine.IntQueue();
+
+   public LightEngine(Level level, LightLayer layer) {
+      this.level = level;
+      this.layer = layer;
+   }
+
+   public int getPending() {
+      return this.boxes.size() / 6 + this.checks.size() + this.decreases.size() + this.increases.size();
+   }
+
+   public void checkBox(int x0, int y0, int z0, int x1, int y1, int z1) {
+      this.boxes.push(x0);
+      this.boxes.push(y0 < 0 ? 0 : y0);
+      this.boxes.push(z0);
+      this.boxes.push(x1);
+      this.boxes.push(y1 > 127 ? 127 : y1);
+      this.boxes.push(z1);
+   }
+
+   public void lightWritten(int x, int y, int z, int oldLight) {
+      int slot = this.slotAt(x >> 4, z >> 4);
+      if (slot >= 0 && y >= 0 && y < 128) {
+         int pos = slot << 19 | (x & 15) << 11 | (z & 15) << 7 | y;
+         if (this.get(pos) < oldLight) {
+            this.decreases.push(pos | oldLight << 15);
+         } else {
+            this.increases.push(pos);
+         }
+
+      }
+   }
+
+   public boolean run(int budget) {
+      while(budget-- > 0) {
+         if (!this.decreases.isEmpty()) {
+            this.decrease(this.decreases.pop());
+         } else if (!this.increases.isEmpty()) {
+            this.increase(this.increases.pop());
+         } else if (!this.checks.isEmpty()) {
+            this.check(this.checks.pop());
+         } else {
+            if (this.boxes.isEmpty()) {
+               this.reset();
+               return false;
+            }
+
+            if (this.slotCount > SEED_SLOT_LIMIT) {
+               this.reset();
+            }
+
+            this.seed(this.boxes.pop(), this.boxes.pop(), this.boxes.pop(), this.boxes.pop(), this.boxes.pop(), this.boxes.pop());
+         }
+      }
+
+      return true;
+   }
+
+   public void discard(LongHashMap<?> chunks) {
+      for(int i = this.boxes.size() / 6; i > 0; --i) {
+         int x0 = this.boxes.pop();
+         int y0 = this.boxes.pop();
+         int z0 = this.boxes.pop();
+         int x1 = this.boxes.pop();
+         int y1 = this.boxes.pop();
+         int z1 = this.boxes.pop();
+         if (!this.covers(chunks, x0 >> 4, z0 >> 4, x1 >> 4, z1 >> 4)) {
+            this.checkBox(x0, y0, z0, x1, y1, z1);
+         }
+      }
+
+      this.discard(chunks, this.checks);
+      this.discard(chunks, this.decreases);
+      this.discard(chunks, this.increases);
+   }
+
+   private void discard(LongHashMap<?> chunks, LightEngine.IntQueue queue) {
+      for(int i = queue.size(); i > 0; --i) {
+         int entry = queue.pop();
+         LevelChunk chunk = this.slots[entry >>> 19];
+         if (!chunks.containsKey((long)chunk.x & 4294967295L | ((long)chunk.z & 4294967295L) << 32)) {
+            queue.push(entry);
+         }
+      }
+
+   }
+
+   private boolean covers(LongHashMap<?> chunks, int chunkX0, int chunkZ0, int chunkX1, int chunkZ1) {
+      for(int chunkX = chunkX0; chunkX <= chunkX1; ++chunkX) {
+         for(int chunkZ = chunkZ0; chunkZ <= chunkZ1; ++chunkZ) {
+            if (!chunks.containsKey((long)chunkX & 4294967295L | ((long)chunkZ & 4294967295L) << 32)) {
+               return false;
+            }
+         }
+      }
+
+      return true;
+   }
+
+   private void seed(int x0, int y0, int z0, int x1, int y1, int z1) {
+      for(int x = x0; x <= x1; ++x) {
+         for(int z = z0; z <= z1; ++z) {
+            int slot = this.slotAt(x >> 4, z >> 4);
+            if (slot >= 0) {
+               int column = slot << 19 | (x & 15) << 11 | (z & 15) << 7;
+
+               for(int y = y0; y <= y1; ++y) {
+                  this.checks.push(column | y);
+               }
+            }
+         }
+      }
+
+   }
+
+   private void reset() {
+      for(int i = 0; i < this.slotCount; ++i) {
+         this.slots[i] = null;
+      }
+
+      this.slotsByPos.clear();
+      this.slotCount = 0;
+   }
+
+   private int slotAt(int chunkX, int chunkZ) {
+      long key = (long)chunkX & 4294967295L | ((long)chunkZ & 4294967295L) << 32;
+      Integer slot = (Integer)this.slotsByPos.get(key);
+      if (slot != null) {
+         return slot;
+      } else if (this.level.hasChunkAt(chunkX << 4, 64, chunkZ << 4) && !this.level.getChunk(chunkX, chunkZ).isEmpty()) {
+         if (this.slotCount == MAX_SLOTS) {
+            throw new IllegalStateException("Light engine ran out of chunk slots");
+         } else {
+            int index = this.slotCount++;
+            this.slots[index] = this.level.getChunk(chunkX, chunkZ);
+
+            for(int i = 0; i < 4; ++i) {
+               this.neighbors[index * 4 + i] = UNKNOWN;
+            }
+
+            this.slotsByPos.put(key, index);
+            return index;
+         }
+      } else {
+         return UNAVAILABLE;
+      }
+   }
+
+   private int neighborSlot(int slot, int side) {
+      int neighbor = this.neighbors[slot * 4 + side];
+      if (neighbor == UNKNOWN) {
+         LevelChunk chunk = this.slots[slot];
+         neighbor = this.slotAt(chunk.x + (side == 0 ? -1 : (side == 1 ? 1 : 0)), chunk.z + (side == 2 ? -1 : (side == 3 ? 1 : 0)));
+         if (neighbor >= 0) {
+            this.neighbors[slot * 4 + side] = neighbor;
+         }
+      }
+
+      return neighbor;
+   }
+
+   private int neighbor(int pos, int dir) {
+      int slot = pos >>> 19;
+      int index = pos & 32767;
+      switch(dir) {
+      case 0:
+         return (index & 127) == 0 ? -1 : pos - 1;
+      case 1:
+         return (index & 127) == 127 ? -1 : pos + 1;
+      case 2:
+         if ((index & 30720) != 0) {
+            return pos - 2048;
+         }
+
+         slot = this.neighborSlot(slot, 0);
+         return slot < 0 ? -1 : slot << 19 | index + 30720;
+      case 3:
+         if ((index & 30720) != 30720) {
+            return pos + 2048;
+         }
+
+         slot = this.neighborSlot(slot, 1);
+         return slot < 0 ? -1 : slot << 19 | index - 30720;
+      case 4:
+         if ((index & 1920) != 0) {
+            return pos - 128;
+         }
+
+         slot = this.neighborSlot(slot, 2);
+         return slot < 0 ? -1 : slot << 19 | index + 1920;
+      default:
+         if ((index & 1920) != 1920) {
+            return pos + 128;
+         }
+
+         slot = this.neighborSlot(slot, 3);
+         return slot < 0 ? -1 : slot << 19 | index - 1920;
+      }
+   }
+
+   private byte[] lightData(LevelChunk chunk) {
+      return this.layer == LightLayer.Sky ? chunk.skyLight.data : chunk.blockLight.data;
+   }
+
+   private int get(int pos) {
+      int index = pos & 32767;
+      byte packed = this.lightData(this.slots[pos >>> 19])[index >> 1];
+      return (index & 1) == 0 ? packed & 15 : packed >> 4 & 15;
+   }
+
+   private void set(int pos, int light) {
+      LevelChunk chunk = this.slots[pos >>> 19];
+      byte[] data = this.lightData(chunk);
+      int index = pos & 32767;
+      if ((index & 1) == 0) {
+         data[index >> 1] = (byte)(data[index >> 1] & 240 | light);
+      } else {
+         data[index >> 1] = (byte)(data[index >> 1] & 15 | light << 4);
+      }
+
+      chunk.unsaved = true;
+      this.level.lightChanged(chunk.x << 4 | index >> 11, index & 127, chunk.z << 4 | index >> 7 & 15);
+   }
+
+   private int opacity(int pos) {
+      int block = Tile.lightBlock[this.slots[pos >>> 19].blocks[pos & 32767] & 255];
+      return block == 0 ? 1 : block;
+   }
+
+   private int emission(int pos) {
+      LevelChunk chunk = this.slots[pos >>> 19];
+      int index = pos & 32767;
+      if (this.layer == LightLayer.Sky) {
+         return (index & 127) >= (chunk.heightmap[(index >> 7 & 15) << 4 | index >> 11] & 255) ? 15 : 0;
+      } else {
+         return Tile.lightEmission[chunk.blocks[index] & 255];
+      }
+   }
+
+   private int baseLight(int pos, int opacity) {
+      int light = this.emission(pos);
+      int y = pos & 127;
+      if (y == 0 || y == 127) {
+         int outside = this.layer.surrounding - opacity;
+         if (outside > light) {
+            light = outside;
+         }
+      }
+
+      return light;
+   }
+
+   private boolean isLoaded(int pos) {
+      return this.slots[pos >>> 19].loaded;
+   }
+
+   private void check(int pos) {
+      if (this.isLoaded(pos)) {
+         int current = this.get(pos);
+         int opacity = this.opacity(pos);
+         int expected = this.baseLight(pos, opacity);
+
+         for(int dir = 0; dir < 6; ++dir) {
+            int next = this.neighbor(pos, dir);
+            if (next != -1) {
+               int light = this.get(next) - opacity;
+               if (light > expected) {
+                  expected = light;
+               }
+            }
+         }
+
+         if (expected > current) {
+            this.set(pos, expected);
+            this.increases.push(pos);
+         } else if (expected < current) {
+            this.remove(pos, current, opacity);
+         }
+
+      }
+   }
+
+   private void remove(int pos, int light, int opacity) {
+      int base = this.baseLight(pos, opacity);
+      if (base < light) {
+         this.set(pos, base);
+         this.decreases.push(pos | light << 15);
+      }
+
+      if (base > 0) {
+         this.increases.push(pos);
+      }
+
+   }
+
+   private void decrease(int entry) {
+      int light = entry >>> 15 & 15;
+      int pos = entry & -491521;
+      if (this.isLoaded(pos)) {
+         for(int dir = 0; dir < 6; ++dir) {
+            int next = this.neighbor(pos, dir);
+            if (next != -1) {
+               int nextLight = this.get(next);
+               if (nextLight > 0) {
+                  if (nextLight < light) {
+                     this.remove(next, nextLight, this.opacity(next));
+                  } else {
+                     this.increases.push(next);
+                  }
+               }
+            }
+         }
+
+      }
+   }
+
+   private void increase(int pos) {
+      if (this.isLoaded(pos)) {
+         int light = this.get(pos);
+
+         for(int dir = 0; dir < 6; ++dir) {
+            int next = this.neighbor(pos, dir);
+            if (next != -1) {
+               int opacity = this.opacity(next);
+               int nextLight = light - opacity;
+               if (nextLight > this.get(next)) {
+                  nextLight = this.brightestNeighbor(next, opacity, nextLight);
+                  this.set(next, nextLight);
+                  if (nextLight > 1) {
+                     this.increases.push(next);
+                  }
+               }
+            }
+         }
+
+      }
+   }
+
+   private int brightestNeighbor(int pos, int opacity, int light) {
+      for(int dir = 0; dir < 6; ++dir) {
+         int next = this.neighbor(pos, dir);
+         if (next != -1) {
+            int nextLight = this.get(next) - opacity;
+            if (nextLight > light) {
+               light = nextLight;
+            }
+         }
+      }
+
+      return light;
+   }
+
+   static class IntQueue {
+      private int[] elements = new int[1024];
+      private int head;
+      private int tail;
+
+      IntQueue() {
+      }
+
+      public boolean isEmpty() {
+         return this.head == this.tail;
+      }
+
+      public int size() {
+         return this.tail - this.head & this.elements.length - 1;
+      }
+
+      public void push(int element) {
+         this.elements[this.tail] = element;
+         this.tail = this.tail + 1 & this.elements.length - 1;
+         if (this.tail == this.head) {
+            int[] grown = new int[this.elements.length * 2];
+            int split = this.elements.length - this.head;
+            System.arraycopy(this.elements, this.head, grown, 0, split);
+            System.arraycopy(this.elements, 0, grown, split, this.head);
+            this.head = 0;
+            this.tail = this.elements.length;
+            this.elements = grown;
+         }
+
+      }
+
+      public int pop() {
+         int element = this.elements[this.head];
+         this.head = this.head + 1 & this.elements.length - 1;
+         return element;
+      }
+   }
+}
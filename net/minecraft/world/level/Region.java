@@ -36,11 +36,10 @@ public class Region implements LevelSource {
       } else {
          int var4 = (var1 >> 4) - this.xc1;
          int var5 = (var3 >> 4) - this.zc1;
-
-         try {
+         if (var4 >= 0 && var5 >= 0 && var4 < this.chunks.length && var5 < this.chunks[var4].length) {
             LevelChunk var6 = this.chunks[var4][var5];
             return var6 == null ? 0 : var6.getTile(var1 & 15, var2, var3 & 15);
-         } catch (ArrayIndexOutOfBoundsException var7) {
+         } else {
             return 0;
          }
       }
@@ -0,0 +1,307 @@
+package net.minecraft.world.level;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.tile.Tile;
+import util.LongHashMap;
+
+public class RegionLighter {
+   public static final int REGIONS_PER_TASK = 4;
+   private static final int PHASE_LIGHT = 0;
+   private static final int PHASE_PUBLISH = 1;
+   private static final int PHASE_EXCHANGE = 2;
+   private final ForkJoinPool pool;
+   private final LightLayer layer;
+   private RegionLighter.Region[] regions;
+   private int rounds;
+
+   public RegionLighter(ForkJoinPool pool, LightLayer layer) {
+      this.pool = pool;
+      this.layer = layer;
+   }
+
+   public int getRounds() {
+      return this.rounds;
+   }
+
+   public void relight(List<LevelChunk> chunks) {
+      LongHashMap<RegionLighter.Region> byPos = new LongHashMap(chunks.size());
+      this.regions = new RegionLighter.Region[chunks.size()];
+
+      for(int i = 0; i < this.regions.length; ++i) {
+         LevelChunk chunk = (LevelChunk)chunks.get(i);
+         this.regions[i] = new RegionLighter.Region(chunk);
+         byPos.put(key(chunk.x, chunk.z), this.regions[i]);
+      }
+
+      for(int i = 0; i < this.regions.length; ++i) {
+         RegionLighter.Region region = this.regions[i];
+         int x = region.chunk.x;
+         int z = region.chunk.z;
+         region.neighbors[0] = (RegionLighter.Region)byPos.get(key(x - 1, z));
+         region.neighbors[1] = (RegionLighter.Region)byPos.get(key(x + 1, z));
+         region.neighbors[2] = (RegionLighter.Region)byPos.get(key(x, z - 1));
+         region.neighbors[3] = (RegionLighter.Region)byPos.get(key(x, z + 1));
+      }
+
+      this.pool.invoke(new RegionLighter.Phase(PHASE_LIGHT, 0, this.regions.length));
+      this.rounds = 0;
+
+      boolean changed;
+      do {
+         this.pool.invoke(new RegionLighter.Phase(PHASE_PUBLISH, 0, this.regions.length));
+         this.pool.invoke(new RegionLighter.Phase(PHASE_EXCHANGE, 0, this.regions.length));
+         ++this.rounds;
+         changed = false;
+
+         for(int i = 0; i < this.regions.length; ++i) {
+            changed |= this.regions[i].changed;
+         }
+      } while(changed);
+
+      this.regions = null;
+   }
+
+   private static long key(int x, int z) {
+      return (long)x & 4294967295L | ((long)z & 4294967295L) << 32;
+   }
+
+   private static int edgeIndex(int side, int u, int y) {
+      switch(side) {
+      case 0:
+         return u << 7 | y;
+      case 1:
+         return 30720 | u << 7 | y;
+      case 2:
+         return u << 11 | y;
+      default:
+         return u << 11 | 1920 | y;
+      }
+   }
+
+   private class Phase extends RecursiveAction {
+      private final int phase;
+      private final int from;
+      private final int to;
+
+      public Phase(int phase, int from, int to) {
+         this.phase = phase;
+         this.from = from;
+         this.to = to;
+      }
+
+      protected void compute() {
+         if (this.to - this.from > REGIONS_PER_TASK) {
+            int mid = this.from + this.to >>> 1;
+            invokeAll(new RegionLighter.Phase(this.phase, this.from, mid), new RegionLighter.Phase(this.phase, mid, this.to));
+         } else {
+            for(int i = this.from; i < this.to; ++i) {
+               RegionLighter.Region region = RegionLighter.this.regions[i];
+               if (this.phase == PHASE_LIGHT) {
+                  region.light();
+               } else if (this.phase == PHASE_PUBLISH) {
+                  region.publish();
+               } else {
+                  region.exchange();
+               }
+            }
+
+         }
+      }
+   }
+
+   private class Region {
+      private final LevelChunk chunk;
+      private final byte[] data;
+      private final RegionLighter.Region[] neighbors = new RegionLighter.Region[4];
+      private final byte[][] planes = new byte[4][];
+      private final LightEngine.IntQueue queue = new LightEngine.IntQueue();
+      private boolean changed;
+
+      public Region(LevelChunk chunk) {
+         this.chunk = chunk;
+         this.data = RegionLighter.this.layer == LightLayer.Sky ? chunk.skyLight.data : chunk.blockLight.data;
+      }
+
+      private int get(int index) {
+         byte packed = this.data[index >> 1];
+         return (index & 1) == 0 ? packed & 15 : packed >> 4 & 15;
+      }
+
+      private void set(int index, int light) {
+         if ((index & 1) == 0) {
+            this.data[index >> 1] = (byte)(this.data[index >> 1] & 240 | light);
+         } else {
+            this.data[index >> 1] = (byte)(this.data[index >> 1] & 15 | light << 4);
+         }
+
+      }
+
+      private int opacity(int index) {
+         int block = Tile.lightBlock[this.chunk.blocks[index] & 255];
+         return block == 0 ? 1 : block;
+      }
+
+      private int baseLight(int index) {
+         int light;
+         if (RegionLighter.this.layer == LightLayer.Sky) {
+            light = (index & 127) >= (this.chunk.heightmap[(index >> 7 & 15) << 4 | index >> 11] & 255) ? 15 : 0;
+         } else {
+            light = Tile.lightEmission[this.chunk.blocks[index] & 255];
+         }
+
+         int y = index & 127;
+         if (y == 0 || y == 127) {
+            int outside = RegionLighter.this.layer.surrounding - this.opacity(index);
+            if (outside > light) {
+               light = outside;
+            }
+         }
+
+         return light;
+      }
+
+      public void light() {
+         for(int i = 0; i < this.data.length; ++i) {
+            this.data[i] = 0;
+         }
+
+         if (RegionLighter.this.layer == LightLayer.Sky) {
+            for(int x = 0; x < 16; ++x) {
+               for(int z = 0; z < 16; ++z) {
+                  int height = this.height(x, z);
+                  int top = Math.max(Math.max(this.height(x - 1, z), this.height(x + 1, z)), Math.max(this.height(x, z - 1), this.height(x, z + 1)));
+                  int column = x << 11 | z << 7;
+
+                  for(int y = height; y < 128; ++y) {
+                     this.set(column | y, 15);
+                     if (y == height || y < top) {
+                        this.queue.push(column | y);
+                     }
+                  }
+
+                  if (height > 0) {
+                     this.seed(column);
+                  }
+
+                  if (height > 127) {
+                     this.seed(column | 127);
+                  }
+               }
+            }
+         } else {
+            for(int index = 0; index < 32768; ++index) {
+               this.seed(index);
+            }
+         }
+
+         this.spread();
+         this.chunk.unsaved = true;
+      }
+
+      private int height(int x, int z) {
+         return x >= 0 && x < 16 && z >= 0 && z < 16 ? this.chunk.heightmap[z << 4 | x] & 255 : 0;
+      }
+
+      private void seed(int index) {
+         int light = this.baseLight(index);
+         if (light > 0) {
+            this.set(index, light);
+            if (light > 1) {
+               this.queue.push(index);
+            }
+         }
+
+      }
+
+      public void publish() {
+         for(int side = 0; side < 4; ++side) {
+            if (this.neighbors[side] != null) {
+               if (this.planes[side] == null) {
+                  this.planes[side] = new byte[2048];
+               }
+
+               byte[] plane = this.planes[side];
+
+               for(int u = 0; u < 16; ++u) {
+                  for(int y = 0; y < 128; ++y) {
+                     plane[u << 7 | y] = (byte)this.get(RegionLighter.edgeIndex(side, u, y));
+                  }
+               }
+            }
+         }
+
+      }
+
+      public void exchange() {
+         this.changed = false;
+
+         for(int side = 0; side < 4; ++side) {
+            RegionLighter.Region neighbor = this.neighbors[side];
+            if (neighbor != null) {
+               byte[] plane = neighbor.planes[side ^ 1];
+
+               for(int u = 0; u < 16; ++u) {
+                  for(int y = 0; y < 128; ++y) {
+                     int index = RegionLighter.edgeIndex(side, u, y);
+                     int light = plane[u << 7 | y] - this.opacity(index);
+                     if (light > this.get(index)) {
+                        this.set(index, light);
+                        this.changed = true;
+                        if (light > 1) {
+                           this.queue.push(index);
+                        }
+                     }
+                  }
+               }
+            }
+         }
+
+         this.spread();
+      }
+
+      private void spread() {
+         while(!this.queue.isEmpty()) {
+            int index = this.queue.pop();
+            int light = this.get(index);
+            if ((index & 127) != 0) {
+               this.spreadTo(index - 1, light);
+            }
+
+            if ((index & 127) != 127) {
+               this.spreadTo(index + 1, light);
+            }
+
+            if ((index & 30720) != 0) {
+               this.spreadTo(index - 2048, light);
+            }
+
+            if ((index & 30720) != 30720) {
+               this.spreadTo(index + 2048, light);
+            }
+
+            if ((index & 1920) != 0) {
+               this.spreadTo(index - 128, light);
+            }
+
+            if ((index & 1920) != 1920) {
+               this.spreadTo(index + 128, light);
+            }
+         }
+
+      }
+
+      private void spreadTo(int index, int light) {
+         int next = light - this.opacity(index);
+         if (next > this.get(index)) {
+            this.set(index, next);
+            if (next > 1) {
+               this.queue.push(index);
+            }
+         }
+
+      }
+   }
+}
@@ -0,0 +1,173 @@
+package net.minecraft.world.level;
+
+import java.util.Iterator;
+import net.minecraft.world.level.biome.BiomeSource;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.material.Material;
+import net.minecraft.world.level.tile.Tile;
+import net.minecraft.world.level.tile.entity.TileEntity;
+import util.IntHashMap;
+
+public class RegionSnapshot implements LevelSource {
+   private final int x0;
+   private final int y0;
+   private final int z0;
+   private final int x1;
+   private final int y1;
+   private final int z1;
+   private final int ys;
+   private final int zs;
+   private final byte[] tiles;
+   private final byte[] data;
+   private final byte[] light;
+   private IntHashMap<TileEntity> tileEntities;
+   private final float[] brightnessRamp;
+   private final int skyDarken;
+   private final BiomeSource biomeSource;
+   private final boolean hasSkyLight;
+
+   public RegionSnapshot(Level level, int x0, int y0, int z0, int x1, int y1, int z1) {
+      this.x0 = x0;
+      this.y0 = Math.max(y0, 0);
+      this.z0 = z0;
+      this.x1 = x1;
+      this.y1 = Math.min(y1, 127);
+      this.z1 = z1;
+      this.ys = Math.max(this.y1 - this.y0 + 1, 0);
+      this.zs = z1 - z0 + 1;
+      int size = (x1 - x0 + 1) * this.ys * this.zs;
+      this.tiles = new byte[size];
+      this.data = new byte[size];
+      this.light = new byte[size];
+      this.brightnessRamp = level.dimension.brightnessRamp;
+      this.skyDarken = level.skyDarken;
+      this.biomeSource = level.getBiomeSource();
+      boolean hasSkyLight = false;
+      if (size > 0) {
+         for(int xc = x0 >> 4; xc <= x1 >> 4; ++xc) {
+            for(int zc = z0 >> 4; zc <= z1 >> 4; ++zc) {
+               LevelChunk chunk = level.getChunk(xc, zc);
+               if (!chunk.isEmpty()) {
+                  hasSkyLight |= this.copy(chunk, Math.max(x0, xc << 4), Math.max(z0, zc << 4), Math.min(x1, (xc << 4) + 15), Math.min(z1, (zc << 4) + 15));
+               }
+            }
+         }
+      }
+
+      this.hasSkyLight = hasSkyLight;
+   }
+
+   private boolean copy(LevelChunk chunk, int fromX, int fromZ, int toX, int toZ) {
+      byte[] data = chunk.data.data;
+      byte[] skyLight = chunk.skyLight.data;
+      byte[] blockLight = chunk.blockLight.data;
+      boolean hasSkyLight = false;
+
+      for(int x = fromX; x <= toX; ++x) {
+         for(int z = fromZ; z <= toZ; ++z) {
+            int src = (x & 15) << 11 | (z & 15) << 7 | this.y0;
+            int dst = this.index(x, this.y0, z);
+            System.arraycopy(chunk.blocks, src, this.tiles, dst, this.ys);
+
+            for(int i = 0; i < this.ys; ++i) {
+               int shift = (src & 1) << 2;
+               int sky = skyLight[src >> 1] >> shift & 15;
+               hasSkyLight |= sky > 0;
+               this.data[dst] = (byte)(data[src >> 1] >> shift & 15);
+               this.light[dst] = (byte)(sky << 4 | blockLight[src >> 1] >> shift & 15);
+               ++src;
+               ++dst;
+            }
+         }
+      }
+
+      Iterator<TileEntity> it = chunk.tileEntities.values().iterator();
+
+      while(it.hasNext()) {
+         TileEntity tileEntity = (TileEntity)it.next();
+         if (this.contains(tileEntity.x, tileEntity.y, tileEntity.z)) {
+            if (this.tileEntities == null) {
+               this.tileEntities = new IntHashMap();
+            }
+
+            this.tileEntities.put(this.index(tileEntity.x, tileEntity.y, tileEntity.z), tileEntity);
+         }
+      }
+
+      return hasSkyLight;
+   }
+
+   public boolean contains(int x, int y, int z) {
+      return (x - this.x0 | y - this.y0 | z - this.z0 | this.x1 - x | this.y1 - y | this.z1 - z) >= 0;
+   }
+
+   private int index(int x, int y, int z) {
+      return ((x - this.x0) * this.zs + z - this.z0) * this.ys + y - this.y0;
+   }
+
+   public boolean hasSkyLight() {
+      return this.hasSkyLight;
+   }
+
+   public int getTile(int x, int y, int z) {
+      return this.contains(x, y, z) ? this.tiles[this.index(x, y, z)] & 255 : 0;
+   }
+
+   public TileEntity getTileEntity(int x, int y, int z) {
+      return this.tileEntities != null && this.contains(x, y, z) ? (TileEntity)this.tileEntities.get(this.index(x, y, z)) : null;
+   }
+
+   public float getBrightness(int x, int y, int z) {
+      return this.brightnessRamp[this.getRawBrightness(x, y, z)];
+   }
+
+   public int getRawBrightness(int x, int y, int z) {
+      return this.getRawBrightness(x, y, z, true);
+   }
+
+   public int getRawBrightness(int x, int y, int z, boolean neighbors) {
+      if (x >= -32000000 && z >= -32000000 && x < 32000000 && z <= 32000000) {
+         if (neighbors) {
+            int tile = this.getTile(x, y, z);
+            if (tile == Tile.stoneSlabHalf.id || tile == Tile.farmland.id) {
+               int br = this.getRawBrightness(x, y + 1, z, false);
+               br = Math.max(br, this.getRawBrightness(x + 1, y, z, false));
+               br = Math.max(br, this.getRawBrightness(x - 1, y, z, false));
+               br = Math.max(br, this.getRawBrightness(x, y, z + 1, false));
+               return Math.max(br, this.getRawBrightness(x, y, z - 1, false));
+            }
+         }
+
+         if (y < 0) {
+            return 0;
+         } else if (!this.contains(x, y, z)) {
+            return Math.max(15 - this.skyDarken, 0);
+         } else {
+            int light = this.light[this.index(x, y, z)];
+            int sky = (light >> 4 & 15) - this.skyDarken;
+            int block = light & 15;
+            return block > sky ? block : sky;
+         }
+      } else {
+         return 15;
+      }
+   }
+
+   public int getData(int x, int y, int z) {
+      return this.contains(x, y, z) ? this.data[this.index(x, y, z)] : 0;
+   }
+
+   public Material getMaterial(int x, int y, int z) {
+      int tile = this.getTile(x, y, z);
+      return tile == 0 ? Material.air : Tile.tiles[tile].material;
+   }
+
+   public boolean isSolidTile(int x, int y, int z) {
+      Tile tile = Tile.tiles[this.getTile(x, y, z)];
+      return tile == null ? false : tile.isSolidRender();
+   }
+
+   public BiomeSource getBiomeSource() {
+      return this.biomeSource;
+   }
+}
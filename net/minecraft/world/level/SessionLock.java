@@ -0,0 +1,73 @@
+package net.minecraft.world.level;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+public class SessionLock {
+   private final FileChannel channel;
+   private final FileLock lock;
+   private int users;
+
+   private SessionLock(FileChannel channel, FileLock lock) {
+      this.channel = channel;
+      this.lock = lock;
+      this.users = lock == null ? 0 : 1;
+   }
+
+   public static SessionLock acquire(File dir, long sessionId) throws IOException {
+      FileChannel channel = (new RandomAccessFile(new File(dir, "session.lock"), "rw")).getChannel();
+      FileLock lock;
+
+      try {
+         lock = channel.tryLock();
+      } catch (OverlappingFileLockException e) {
+         lock = null;
+      }
+
+      if (lock == null) {
+         channel.close();
+         return new SessionLock((FileChannel)null, (FileLock)null);
+      } else {
+         ByteBuffer id = ByteBuffer.allocate(8);
+         id.putLong(sessionId);
+         id.flip();
+         channel.truncate(0L);
+
+         while(id.hasRemaining()) {
+            channel.write(id, (long)id.position());
+         }
+
+         channel.force(true);
+         return new SessionLock(channel, lock);
+      }
+   }
+
+   public synchronized SessionLock share() {
+      if (this.users > 0) {
+         ++this.users;
+      }
+
+      return this;
+   }
+
+   public synchronized boolean isHeld() {
+      return this.users > 0;
+   }
+
+   public synchronized void release() {
+      if (this.users > 0 && --this.users == 0) {
+         try {
+            this.lock.release();
+            this.channel.close();
+         } catch (IOException e) {
+            e.printStackTrace();
+         }
+      }
+
+   }
+}
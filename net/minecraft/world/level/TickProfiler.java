@@ -0,0 +1,347 @@
+package net.minecraft.world.level;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.text.DateFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.tile.Tile;
+
+public class TickProfiler {
+   public static final int WINDOW = 200;
+   private static final int MAX_DEPTH = 32;
+   private static final double[] PERCENTILES = new double[]{0.5D, 0.9D, 0.99D};
+   private static DateFormat df = new SimpleDateFormat("yyyy-MM-dd_HH.mm.ss");
+   private boolean enabled;
+   private TickProfiler.Section root;
+   private final TickProfiler.Section[] stack = new TickProfiler.Section[MAX_DEPTH];
+   private final long[] starts = new long[MAX_DEPTH];
+   private int depth;
+   private final Map<Class<?>, long[]> entityTimes = new HashMap();
+   private final long[] tileNanos = new long[256];
+   private final long[] tileCounts = new long[256];
+   private boolean inTick;
+   private int ticks;
+   private int windowPos;
+
+   public TickProfiler() {
+      this.reset();
+   }
+
+   public boolean isEnabled() {
+      return this.enabled;
+   }
+
+   public void setEnabled(boolean enabled) {
+      this.enabled = enabled;
+      this.depth = 0;
+   }
+
+   public void reset() {
+      this.root = new TickProfiler.Section("tick");
+      this.depth = 0;
+      this.entityTimes.clear();
+      Arrays.fill(this.tileNanos, 0L);
+      Arrays.fill(this.tileCounts, 0L);
+      this.inTick = false;
+      this.ticks = 0;
+      this.windowPos = 0;
+   }
+
+   public int getTicks() {
+      return this.ticks;
+   }
+
+   public double getMeanTickMillis() {
+      return this.ticks == 0 ? 0.0D : (double)this.root.totalNanos / 1000000.0D / (double)this.ticks;
+   }
+
+   public void startTick() {
+      if (this.enabled) {
+         this.finishTick();
+         this.inTick = true;
+      }
+   }
+
+   public void finishTick() {
+      if (this.inTick) {
+         this.root.add(this.root.childNanos());
+         this.root.roll(this.windowPos);
+         this.windowPos = (this.windowPos + 1) % WINDOW;
+         ++this.ticks;
+         this.inTick = false;
+      }
+
+      this.depth = 0;
+   }
+
+   public void push(String name) {
+      if (this.enabled && this.depth < MAX_DEPTH) {
+         TickProfiler.Section parent = this.depth == 0 ? this.root : this.stack[this.depth - 1];
+         this.stack[this.depth] = parent.child(name);
+         this.starts[this.depth++] = System.nanoTime();
+      }
+   }
+
+   public void pop() {
+      if (this.enabled && this.depth > 0) {
+         --this.depth;
+         this.stack[this.depth].add(System.nanoTime() - this.starts[this.depth]);
+      }
+   }
+
+   public void popPush(String name) {
+      this.pop();
+      this.push(name);
+   }
+
+   public long begin() {
+      return this.enabled ? System.nanoTime() : 0L;
+   }
+
+   public void entityTicked(Entity entity, long start) {
+      if (start != 0L && this.enabled) {
+         long[] time = (long[])this.entityTimes.get(entity.getClass());
+         if (time == null) {
+            time = new long[2];
+            this.entityTimes.put(entity.getClass(), time);
+         }
+
+         time[0] += System.nanoTime() - start;
+         ++time[1];
+      }
+   }
+
+   public void tileTicked(int id, long start) {
+      if (start != 0L && this.enabled) {
+         this.tileNanos[id & 255] += System.nanoTime() - start;
+         ++this.tileCounts[id & 255];
+      }
+   }
+
+   public String toText() {
+      StringBuilder out = new StringBuilder();
+      int window = Math.min(this.ticks, WINDOW);
+      out.append("Tick profile: ").append(this.ticks).append(" ticks, percentiles over the last ").append(window).append("\n\n");
+      out.append(String.format("%-32s %10s %10s %9s %9s %9s %9s %9s%n", "section", "total ms", "calls", "ms/tick", "p50", "p90", "p99", "max"));
+      this.root.appendText(out, 0, this.ticks, window);
+      out.append("\n").append(String.format("%-32s %10s %10s %9s%n", "entity class", "total ms", "ticks", "us/tick"));
+      List<Map.Entry<Class<?>, long[]>> entities = this.sortedEntities();
+
+      for(int i = 0; i < entities.size(); ++i) {
+         Map.Entry<Class<?>, long[]> entry = (Map.Entry)entities.get(i);
+         long[] time = (long[])entry.getValue();
+         out.append(String.format("%-32s %10.3f %10d %9.3f%n", className((Class)entry.getKey()), (double)time[0] / 1000000.0D, time[1], (double)time[0] / 1000.0D / (double)time[1]));
+      }
+
+      out.append("\n").append(String.format("%-32s %10s %10s %9s%n", "tile", "total ms", "ticks", "us/tick"));
+      int[] tiles = this.sortedTiles();
+
+      for(int i = 0; i < tiles.length; ++i) {
+         int id = tiles[i];
+         out.append(String.format("%-32s %10.3f %10d %9.3f%n", tileName(id), (double)this.tileNanos[id] / 1000000.0D, this.tileCounts[id], (double)this.tileNanos[id] / 1000.0D / (double)this.tileCounts[id]));
+      }
+
+      return out.toString();
+   }
+
+   public String toJson() {
+      StringBuilder out = new StringBuilder();
+      int window = Math.min(this.ticks, WINDOW);
+      out.append("{\"ticks\":").append(this.ticks).append(",\"window\":").append(window).append(",\"sections\":");
+      this.root.appendJson(out, window);
+      out.append(",\"entities\":[");
+      List<Map.Entry<Class<?>, long[]>> entities = this.sortedEntities();
+
+      for(int i = 0; i < entities.size(); ++i) {
+         Map.Entry<Class<?>, long[]> entry = (Map.Entry)entities.get(i);
+         long[] time = (long[])entry.getValue();
+         out.append(i == 0 ? "" : ",").append("{\"class\":\"").append(((Class)entry.getKey()).getName()).append("\",\"nanos\":").append(time[0]).append(",\"ticks\":").append(time[1]).append("}");
+      }
+
+      out.append("],\"tiles\":[");
+      int[] tiles = this.sortedTiles();
+
+      for(int i = 0; i < tiles.length; ++i) {
+         int id = tiles[i];
+         out.append(i == 0 ? "" : ",").append("{\"id\":").append(id).append(",\"name\":\"").append(tileName(id)).append("\",\"nanos\":").append(this.tileNanos[id]).append(",\"ticks\":").append(this.tileCounts[id]).append("}");
+      }
+
+      out.append("]}");
+      return out.toString();
+   }
+
+   public String dump(File dir) {
+      this.finishTick();
+
+      try {
+         dir.mkdirs();
+         String name = "tick_" + df.format(new Date());
+         write(new File(dir, name + ".txt"), this.toText());
+         write(new File(dir, name + ".json"), this.toJson());
+         return "Saved tick profile as " + name;
+      } catch (IOException var3) {
+         return "Failed to save: " + var3;
+      }
+   }
+
+   private static void write(File file, String text) throws IOException {
+      Writer writer = new FileWriter(file);
+
+      try {
+         writer.write(text);
+      } finally {
+         writer.close();
+      }
+
+   }
+
+   private List<Map.Entry<Class<?>, long[]>> sortedEntities() {
+      List<Map.Entry<Class<?>, long[]>> entries = new ArrayList(this.entityTimes.entrySet());
+      Collections.sort(entries, new Comparator<Map.Entry<Class<?>, long[]>>() {
+         public int compare(Map.Entry<Class<?>, long[]> a, Map.Entry<Class<?>, long[]> b) {
+            return Long.compare(((long[])b.getValue())[0], ((long[])a.getValue())[0]);
+         }
+      });
+      return entries;
+   }
+
+   private int[] sortedTiles() {
+      int count = 0;
+
+      for(int id = 0; id < 256; ++id) {
+         if (this.tileCounts[id] > 0L) {
+            ++count;
+         }
+      }
+
+      int[] tiles = new int[count];
+      count = 0;
+
+      for(int id = 0; id < 256; ++id) {
+         if (this.tileCounts[id] > 0L) {
+            int i;
+            for(i = count++; i > 0 && this.tileNanos[tiles[i - 1]] < this.tileNanos[id]; --i) {
+               tiles[i] = tiles[i - 1];
+            }
+
+            tiles[i] = id;
+         }
+      }
+
+      return tiles;
+   }
+
+   private static String className(Class<?> type) {
+      String name = type.getSimpleName();
+      return name.length() == 0 ? type.getName() : name;
+   }
+
+   private static String tileName(int id) {
+      Tile tile = Tile.tiles[id];
+      return tile == null ? "#" + id : tile.getDescriptionId() + " (" + id + ")";
+   }
+
+   private static class Section {
+      private final String name;
+      private final List<TickProfiler.Section> children = new ArrayList();
+      private final long[] window = new long[TickProfiler.WINDOW];
+      private long totalNanos;
+      private long tickNanos;
+      private long calls;
+
+      public Section(String name) {
+         this.name = name;
+      }
+
+      public TickProfiler.Section child(String name) {
+         for(int i = 0; i < this.children.size(); ++i) {
+            TickProfiler.Section child = (TickProfiler.Section)this.children.get(i);
+            if (child.name == name || child.name.equals(name)) {
+               return child;
+            }
+         }
+
+         TickProfiler.Section child = new TickProfiler.Section(name);
+         this.children.add(child);
+         return child;
+      }
+
+      public void add(long nanos) {
+         this.totalNanos += nanos;
+         this.tickNanos += nanos;
+         ++this.calls;
+      }
+
+      public long childNanos() {
+         long nanos = 0L;
+
+         for(int i = 0; i < this.children.size(); ++i) {
+            nanos += ((TickProfiler.Section)this.children.get(i)).tickNanos;
+         }
+
+         return nanos;
+      }
+
+      public void roll(int pos) {
+         this.window[pos] = this.tickNanos;
+         this.tickNanos = 0L;
+
+         for(int i = 0; i < this.children.size(); ++i) {
+            ((TickProfiler.Section)this.children.get(i)).roll(pos);
+         }
+
+      }
+
+      private long[] percentiles(int window) {
+         long[] sorted = Arrays.copyOf(this.window, window);
+         Arrays.sort(sorted);
+         long[] result = new long[TickProfiler.PERCENTILES.length + 1];
+
+         for(int i = 0; i < TickProfiler.PERCENTILES.length; ++i) {
+            result[i] = window == 0 ? 0L : sorted[Math.min(window - 1, (int)(TickProfiler.PERCENTILES[i] * (double)window))];
+         }
+
+         result[TickProfiler.PERCENTILES.length] = window == 0 ? 0L : sorted[window - 1];
+         return result;
+      }
+
+      public void appendText(StringBuilder out, int indent, int ticks, int window) {
+         long[] p = this.percentiles(window);
+         char[] pad = new char[indent * 2];
+         Arrays.fill(pad, ' ');
+         out.append(String.format("%-32s %10.3f %10d %9.3f %9.3f %9.3f %9.3f %9.3f%n", new String(pad) + this.name, (double)this.totalNanos / 1000000.0D, this.calls, ticks == 0 ? 0.0D : (double)this.totalNanos / 1000000.0D / (double)ticks, (double)p[0] / 1000000.0D, (double)p[1] / 1000000.0D, (double)p[2] / 1000000.0D, (double)p[3] / 1000000.0D));
+
+         for(int i = 0; i < this.children.size(); ++i) {
+            ((TickProfiler.Section)this.children.get(i)).appendText(out, indent + 1, ticks, window);
+         }
+
+      }
+
+      public void appendJson(StringBuilder out, int window) {
+         long[] p = this.percentiles(window);
+         out.append("{\"name\":\"").append(this.name).append("\",\"nanos\":").append(this.totalNanos).append(",\"calls\":").append(this.calls);
+         out.append(",\"p50\":").append(p[0]).append(",\"p90\":").append(p[1]).append(",\"p99\":").append(p[2]).append(",\"max\":").append(p[3]).append(",\"children\":[");
+
+         for(int i = 0; i < this.children.size(); ++i) {
+            if (i > 0) {
+               out.append(",");
+            }
+
+            ((TickProfiler.Section)this.children.get(i)).appendJson(out, window);
+         }
+
+         out.append("]}");
+      }
+   }
+}
@@ -0,0 +1,304 @@
+package net.minecraft.world.level;
+
+import java.util.ArrayList;
+import java.util.List;
+import util.LongIntHashMap;
+
+public class TickScheduler {
+   public static final int WHEEL_BITS = 8;
+   private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+   private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+   private static final int OVERDUE = WHEEL_SIZE;
+   private static final int NONE = -1;
+   private final int[] wheelHead = new int[WHEEL_SIZE + 1];
+   private final int[] wheelTail = new int[WHEEL_SIZE + 1];
+   private final LongIntHashMap byPos = new LongIntHashMap();
+   private final LongIntHashMap byChunk = new LongIntHashMap();
+   private int[] xs;
+   private int[] ys;
+   private int[] zs;
+   private int[] tileIds;
+   private long[] dues;
+   private long[] orders;
+   private int[] slots;
+   private int[] prev;
+   private int[] next;
+   private int[] chunkPrev;
+   private int[] chunkNext;
+   private int[] posNext;
+   private int allocated;
+   private int free = NONE;
+   private int count;
+   private long nextOrder;
+   private long cursor;
+
+   public TickScheduler() {
+      for(int i = 0; i <= WHEEL_SIZE; ++i) {
+         this.wheelHead[i] = NONE;
+         this.wheelTail[i] = NONE;
+      }
+
+      this.grow(256);
+   }
+
+   public int size() {
+      return this.count;
+   }
+
+   public boolean schedule(int x, int y, int z, int tileId, long due) {
+      long pos = posKey(x, y, z);
+      int head = this.byPos.get(pos, NONE);
+
+      for(int node = head; node != NONE; node = this.posNext[node]) {
+         if (this.tileIds[node] == tileId) {
+            return false;
+         }
+      }
+
+      int node = this.allocate();
+      this.xs[node] = x;
+      this.ys[node] = y;
+      this.zs[node] = z;
+      this.tileIds[node] = tileId;
+      this.dues[node] = due;
+      this.orders[node] = this.nextOrder++;
+      int slot = due < this.cursor ? OVERDUE : (int)due & WHEEL_MASK;
+      int after = this.wheelTail[slot];
+      if (slot == OVERDUE) {
+         while(after != NONE && this.runsBefore(node, after)) {
+            after = this.prev[after];
+         }
+      }
+
+      this.slots[node] = slot;
+      this.prev[node] = after;
+      this.next[node] = after == NONE ? this.wheelHead[slot] : this.next[after];
+      if (after == NONE) {
+         this.wheelHead[slot] = node;
+      } else {
+         this.next[after] = node;
+      }
+
+      if (this.next[node] == NONE) {
+         this.wheelTail[slot] = node;
+      } else {
+         this.prev[this.next[node]] = node;
+      }
+
+      this.posNext[node] = head;
+      this.byPos.put(pos, node);
+      long chunk = chunkKey(x >> 4, z >> 4);
+      int first = this.byChunk.get(chunk, NONE);
+      this.chunkPrev[node] = NONE;
+      this.chunkNext[node] = first;
+      if (first != NONE) {
+         this.chunkPrev[first] = node;
+      }
+
+      this.byChunk.put(chunk, node);
+      ++this.count;
+      return true;
+   }
+
+   public boolean poll(long time, boolean force, TickNextTickData out) {
+      if (this.count == 0) {
+         this.cursor = time + 1L;
+         return false;
+      } else if (this.wheelHead[OVERDUE] != NONE) {
+         this.take(this.wheelHead[OVERDUE], out);
+         return true;
+      } else {
+         if (time - this.cursor >= (long)WHEEL_SIZE) {
+            this.cursor = Math.min(this.earliestDue(), time);
+         }
+
+         while(this.cursor <= time) {
+            int node = this.firstDue(this.cursor);
+            if (node != NONE) {
+               this.take(node, out);
+               return true;
+            }
+
+            ++this.cursor;
+         }
+
+         if (force) {
+            long tick = this.earliestDue();
+            this.take(this.firstDue(tick), out);
+            return true;
+         } else {
+            return false;
+         }
+      }
+   }
+
+   public List<TickNextTickData> getChunk(int chunkX, int chunkZ, long time, boolean remove) {
+      List<TickNextTickData> ticks = new ArrayList();
+      int found = 0;
+
+      for(int node = this.byChunk.get(chunkKey(chunkX, chunkZ), NONE); node != NONE; node = this.chunkNext[node]) {
+         ++found;
+      }
+
+      int[] nodes = new int[found];
+      found = 0;
+
+      for(int node = this.byChunk.get(chunkKey(chunkX, chunkZ), NONE); node != NONE; node = this.chunkNext[node]) {
+         int i;
+         for(i = found++; i > 0 && this.runsBefore(node, nodes[i - 1]); --i) {
+            nodes[i] = nodes[i - 1];
+         }
+
+         nodes[i] = node;
+      }
+
+      for(int i = 0; i < nodes.length; ++i) {
+         int node = nodes[i];
+         ticks.add((new TickNextTickData(this.xs[node], this.ys[node], this.zs[node], this.tileIds[node])).delay(this.dues[node] - time));
+         if (remove) {
+            this.remove(node);
+         }
+      }
+
+      return ticks;
+   }
+
+   private boolean runsBefore(int a, int b) {
+      return this.dues[a] < this.dues[b] || this.dues[a] == this.dues[b] && this.orders[a] < this.orders[b];
+   }
+
+   private int firstDue(long tick) {
+      for(int node = this.wheelHead[(int)tick & WHEEL_MASK]; node != NONE; node = this.next[node]) {
+         if (this.dues[node] == tick) {
+            return node;
+         }
+      }
+
+      return NONE;
+   }
+
+   private long earliestDue() {
+      long earliest = Long.MAX_VALUE;
+
+      for(int slot = 0; slot < WHEEL_SIZE; ++slot) {
+         for(int node = this.wheelHead[slot]; node != NONE; node = this.next[node]) {
+            if (this.dues[node] < earliest) {
+               earliest = this.dues[node];
+            }
+         }
+      }
+
+      return earliest;
+   }
+
+   private void take(int node, TickNextTickData out) {
+      out.x = this.xs[node];
+      out.y = this.ys[node];
+      out.z = this.zs[node];
+      out.tileId = this.tileIds[node];
+      out.delay = this.dues[node];
+      this.remove(node);
+   }
+
+   private void remove(int node) {
+      int slot = this.slots[node];
+      if (this.prev[node] == NONE) {
+         this.wheelHead[slot] = this.next[node];
+      } else {
+         this.next[this.prev[node]] = this.next[node];
+      }
+
+      if (this.next[node] == NONE) {
+         this.wheelTail[slot] = this.prev[node];
+      } else {
+         this.prev[this.next[node]] = this.prev[node];
+      }
+
+      long chunk = chunkKey(this.xs[node] >> 4, this.zs[node] >> 4);
+      if (this.chunkPrev[node] != NONE) {
+         this.chunkNext[this.chunkPrev[node]] = this.chunkNext[node];
+      } else if (this.chunkNext[node] != NONE) {
+         this.byChunk.put(chunk, this.chunkNext[node]);
+      } else {
+         this.byChunk.remove(chunk);
+      }
+
+      if (this.chunkNext[node] != NONE) {
+         this.chunkPrev[this.chunkNext[node]] = this.chunkPrev[node];
+      }
+
+      long pos = posKey(this.xs[node], this.ys[node], this.zs[node]);
+      int head = this.byPos.get(pos, NONE);
+      if (head == node) {
+         if (this.posNext[node] == NONE) {
+            this.byPos.remove(pos);
+         } else {
+            this.byPos.put(pos, this.posNext[node]);
+         }
+      } else {
+         int before = head;
+         while(this.posNext[before] != node) {
+            before = this.posNext[before];
+         }
+
+         this.posNext[before] = this.posNext[node];
+      }
+
+      this.next[node] = this.free;
+      this.free = node;
+      --this.count;
+   }
+
+   private int allocate() {
+      if (this.free == NONE) {
+         if (this.allocated == this.xs.length) {
+            this.grow(this.xs.length * 2);
+         }
+
+         return this.allocated++;
+      } else {
+         int node = this.free;
+         this.free = this.next[node];
+         return node;
+      }
+   }
+
+   private void grow(int capacity) {
+      this.xs = this.copy(this.xs, capacity);
+      this.ys = this.copy(this.ys, capacity);
+      this.zs = this.copy(this.zs, capacity);
+      this.tileIds = this.copy(this.tileIds, capacity);
+      this.prev = this.copy(this.prev, capacity);
+      this.next = this.copy(this.next, capacity);
+      this.chunkPrev = this.copy(this.chunkPrev, capacity);
+      this.chunkNext = this.copy(this.chunkNext, capacity);
+      this.posNext = this.copy(this.posNext, capacity);
+      long[] grownDues = new long[capacity];
+      long[] grownOrders = new long[capacity];
+      if (this.dues != null) {
+         System.arraycopy(this.dues, 0, grownDues, 0, this.allocated);
+         System.arraycopy(this.orders, 0, grownOrders, 0, this.allocated);
+      }
+
+      this.dues = grownDues;
+      this.orders = grownOrders;
+      this.slots = this.copy(this.slots, capacity);
+   }
+
+   private int[] copy(int[] array, int capacity) {
+      int[] grown = new int[capacity];
+      if (array != null) {
+         System.arraycopy(array, 0, grown, 0, this.allocated);
+      }
+
+      return grown;
+   }
+
+   private static long posKey(int x, int y, int z) {
+      return ((long)x & 67108863L) << 33 | ((long)z & 67108863L) << 7 | (long)(y & 127);
+   }
+
+   private static long chunkKey(int chunkX, int chunkZ) {
+      return (long)chunkX & 4294967295L | ((long)chunkZ & 4294967295L) << 32;
+   }
+}
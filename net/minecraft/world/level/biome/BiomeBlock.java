@@ -0,0 +1,33 @@
+package net.minecraft.world.level.biome;
+
+public class BiomeBlock {
+   public Biome[] biomes;
+   public double[] temperatures;
+   public double[] downfalls;
+   public double[] noises;
+
+   public BiomeBlock() {
+   }
+
+   public BiomeBlock(int size) {
+      this.biomes = new Biome[size];
+      this.temperatures = new double[size];
+      this.downfalls = new double[size];
+      this.noises = new double[size];
+   }
+
+   public void ensureCapacity(int size) {
+      if (this.biomes == null || this.biomes.length < size) {
+         this.biomes = new Biome[size];
+      }
+
+      if (this.temperatures == null || this.temperatures.length < size) {
+         this.temperatures = new double[size];
+      }
+
+      if (this.downfalls == null || this.downfalls.length < size) {
+         this.downfalls = new double[size];
+      }
+
+   }
+}
@@ -13,6 +13,7 @@ public class BiomeSource {
    public double[] downfalls;
    public double[] noises;
    public Biome[] biomes;
+   private BiomeBlock block = new BiomeBlock();
    private static final float zoom = 2.0F;
    private static final float tempScale = 0.025F;
    private static final float downfallScale = 0.05F;
@@ -87,44 +88,64 @@ public class BiomeSource {
    }
 
    public Biome[] getBiomeBlock(Biome[] var1, int var2, int var3, int var4, int var5) {
-      if (var1 == null || var1.length < var4 * var5) {
-         var1 = new Biome[var4 * var5];
+      this.block.biomes = var1;
+      this.block.temperatures = this.temperatures;
+      this.block.downfalls = this.downfalls;
+      this.block.noises = this.noises;
+      this.sampleBiomeBlock(this.block, var2, var3, var4, var5);
+      this.temperatures = this.block.temperatures;
+      this.downfalls = this.block.downfalls;
+      this.noises = this.block.noises;
+      return this.block.biomes;
+   }
+
+   public BiomeBlock sampleBiomeBlock(BiomeBlock var1, int var2, int var3, int var4, int var5) {
+      if (var1 == null) {
+         var1 = new BiomeBlock();
       }
 
-      this.temperatures = this.temperatureMap.getRegion(this.temperatures, (double)var2, (double)var3, var4, var4, 0.02500000037252903D, 0.02500000037252903D, 0.25D);
-      this.downfalls = this.downfallMap.getRegion(this.downfalls, (double)var2, (double)var3, var4, var4, 0.05000000074505806D, 0.05000000074505806D, 0.3333333333333333D);
-      this.noises = this.noiseMap.getRegion(this.noises, (double)var2, (double)var3, var4, var4, 0.25D, 0.25D, 0.5882352941176471D);
-      int var6 = 0;
+      if (var1.biomes == null || var1.biomes.length < var4 * var5) {
+         var1.biomes = new Biome[var4 * var5];
+      }
 
-      for(int var7 = 0; var7 < var4; ++var7) {
-         for(int var8 = 0; var8 < var5; ++var8) {
-            double var9 = this.noises[var6] * 1.1D + 0.5D;
-            double var11 = 0.01D;
-            double var13 = 1.0D - var11;
-            double var15 = (this.temperatures[var6] * 0.15D + 0.7D) * var13 + var9 * var11;
-            var11 = 0.002D;
-            var13 = 1.0D - var11;
-            double var17 = (this.downfalls[var6] * 0.15D + 0.5D) * var13 + var9 * var11;
-            var15 = 1.0D - (1.0D - var15) * (1.0D - var15);
-            if (var15 < 0.0D) {
-               var15 = 0.0D;
+      var1.temperatures = this.temperatureMap.getRegion(var1.temperatures, (double)var2, (double)var3, var4, var4, 0.02500000037252903D, 0.02500000037252903D, 0.25D);
+      var1.downfalls = this.downfallMap.getRegion(var1.downfalls, (double)var2, (double)var3, var4, var4, 0.05000000074505806D, 0.05000000074505806D, 0.3333333333333333D);
+      var1.noises = this.noiseMap.getRegion(var1.noises, (double)var2, (double)var3, var4, var4, 0.25D, 0.25D, 0.5882352941176471D);
+      double[] var6 = var1.temperatures;
+      double[] var7 = var1.downfalls;
+      double[] var8 = var1.noises;
+      Biome[] var9 = var1.biomes;
+      int var10 = 0;
+
+      for(int var11 = 0; var11 < var4; ++var11) {
+         for(int var12 = 0; var12 < var5; ++var12) {
+            double var13 = var8[var10] * 1.1D + 0.5D;
+            double var15 = 0.01D;
+            double var17 = 1.0D - var15;
+            double var19 = (var6[var10] * 0.15D + 0.7D) * var17 + var13 * var15;
+            var15 = 0.002D;
+            var17 = 1.0D - var15;
+            double var21 = (var7[var10] * 0.15D + 0.5D) * var17 + var13 * var15;
+            var19 = 1.0D - (1.0D - var19) * (1.0D - var19);
+            if (var19 < 0.0D) {
+               var19 = 0.0D;
             }
 
-            if (var17 < 0.0D) {
-               var17 = 0.0D;
+            if (var21 < 0.0D) {
+               var21 = 0.0D;
             }
 
-            if (var15 > 1.0D) {
-               var15 = 1.0D;
+            if (var19 > 1.0D) {
+               var19 = 1.0D;
             }
 
-            if (var17 > 1.0D) {
-               var17 = 1.0D;
+            if (var21 > 1.0D) {
+               var21 = 1.0D;
             }
 
-            this.temperatures[var6] = var15;
-            this.downfalls[var6] = var17;
-            var1[var6++] = Biome.getBiome(var15, var17);
+            var6[var10] = var19;
+            var7[var10] = var21;
+            var9[var10++] = Biome.getBiome(var19, var21);
          }
       }
 
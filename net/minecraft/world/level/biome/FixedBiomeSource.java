@@ -49,16 +49,15 @@ public class FixedBiomeSource extends BiomeSource {
       return var1;
    }
 
-   public Biome[] getBiomeBlock(Biome[] var1, int var2, int var3, int var4, int var5) {
-      if (var1 == null || var1.length < var4 * var5) {
-         var1 = new Biome[var4 * var5];
-         this.temperatures = new double[var4 * var5];
-         this.downfalls = new double[var4 * var5];
+   public BiomeBlock sampleBiomeBlock(BiomeBlock var1, int var2, int var3, int var4, int var5) {
+      if (var1 == null) {
+         var1 = new BiomeBlock();
       }
 
-      Arrays.fill(var1, 0, var4 * var5, this.biome);
-      Arrays.fill(this.downfalls, 0, var4 * var5, this.downfall);
-      Arrays.fill(this.temperatures, 0, var4 * var5, this.temperature);
+      var1.ensureCapacity(var4 * var5);
+      Arrays.fill(var1.biomes, 0, var4 * var5, this.biome);
+      Arrays.fill(var1.downfalls, 0, var4 * var5, this.downfall);
+      Arrays.fill(var1.temperatures, 0, var4 * var5, this.temperature);
       return var1;
    }
 }
@@ -1,39 +1,132 @@
 package net.minecraft.world.level.chunk;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.chunk.storage.ChunkStorage;
+import net.minecraft.world.level.chunk.storage.ThreadedChunkStorage;
+import net.minecraft.world.level.levelgen.RandomLevelSource;
+import util.LongHashMap;
 import util.ProgressListener;
 
 public class ChunkCache implements ChunkSource {
-   private static final int CHUNK_CACHE_WIDTH = 32;
+   private static final long CHUNK_BYTES = 82176L;
+   private static final int MAX_EVICTIONS_PER_TICK = 32;
+   public static final int DEFAULT_VIEW_RADIUS = 15;
+   public static final int MIN_VIEW_RADIUS = 8;
    private LevelChunk emptyChunk;
+   private byte[] emptyBlocks = new byte['耀'];
    private ChunkSource source;
    private ChunkStorage storage;
-   private LevelChunk[] chunks = new LevelChunk[1024];
+   private LongHashMap<LevelChunk> chunks = new LongHashMap();
+   private List<LevelChunk> loadedChunks = new ArrayList();
+   private List<ChunkCache.Ticket> tickets = new ArrayList();
+   private ChunkCache.Ticket centerTicket;
    private Level level;
    int xLast = -999999999;
    int zLast = -999999999;
    private LevelChunk last;
-   private int xCenter;
-   private int yCenter;
-   private static final int MAX_SAVES = 2;
+   private static final int PREFETCH_RADIUS = 8;
+   public int saveBudgetMicros = 1000;
+   public long memoryBudget = 134217728L;
+   private PriorityQueue<LevelChunk> saveQueue = new PriorityQueue(64, new Comparator<LevelChunk>() {
+      public int compare(LevelChunk var1, LevelChunk var2) {
+         return var1.lastSaveTime < var2.lastSaveTime ? -1 : (var1.lastSaveTime > var2.lastSaveTime ? 1 : 0);
+      }
+   });
+   private Set<LevelChunk> queuedForSave = new HashSet();
 
    public ChunkCache(Level var1, ChunkStorage var2, ChunkSource var3) {
-      this.emptyChunk = new EmptyLevelChunk(var1, new byte['耀'], 0, 0);
+      this.emptyChunk = new EmptyLevelChunk(var1, this.emptyBlocks, 0, 0);
       this.level = var1;
       this.storage = var2;
       this.source = var3;
+      this.centerTicket = this.addTicket(0, 0, DEFAULT_VIEW_RADIUS);
+   }
+
+   private static long key(int var0, int var1) {
+      return (long)var0 & 4294967295L | ((long)var1 & 4294967295L) << 32;
    }
 
    public void centerOn(int var1, int var2) {
-      this.xCenter = var1;
-      this.yCenter = var2;
+      this.moveTicket(this.centerTicket, var1, var2);
+   }
+
+   public void setViewRadius(int var1) {
+      if (var1 != this.centerTicket.radius) {
+         int var2 = this.centerTicket.radius;
+         this.centerTicket.radius = var1;
+         this.prefetch(this.centerTicket, this.centerTicket.x, this.centerTicket.z, var2);
+      }
+
+   }
+
+   public ChunkCache.Ticket addTicket(int var1, int var2, int var3) {
+      ChunkCache.Ticket var4 = new ChunkCache.Ticket(var1, var2, var3);
+      this.tickets.add(var4);
+      this.prefetch(var4, var1, var2, -1);
+      return var4;
+   }
+
+   public void retainTicket(ChunkCache.Ticket var1) {
+      ++var1.references;
+   }
+
+   public void releaseTicket(ChunkCache.Ticket var1) {
+      if (--var1.references == 0) {
+         this.tickets.remove(var1);
+      }
+
+   }
+
+   public void moveTicket(ChunkCache.Ticket var1, int var2, int var3) {
+      if (var2 != var1.x || var3 != var1.z) {
+         int var4 = var1.x;
+         int var5 = var1.z;
+         var1.x = var2;
+         var1.z = var3;
+         this.prefetch(var1, var4, var5, var1.radius);
+      }
+
+   }
+
+   private void prefetch(ChunkCache.Ticket var1, int var2, int var3, int var4) {
+      int var5 = Math.min(var1.radius, PREFETCH_RADIUS);
+      var4 = Math.min(var4, PREFETCH_RADIUS);
+
+      for(int var6 = var1.x - var5; var6 <= var1.x + var5; ++var6) {
+         for(int var7 = var1.z - var5; var7 <= var1.z + var5; ++var7) {
+            if (var6 < var2 - var4 || var6 > var2 + var4 || var7 < var3 - var4 || var7 > var3 + var4) {
+               this.prefetch(var6, var7);
+            }
+         }
+      }
+
+   }
+
+   public void prefetch(int var1, int var2) {
+      if (this.storage instanceof ThreadedChunkStorage && this.fits(var1, var2) && !this.hasChunk(var1, var2)) {
+         ((ThreadedChunkStorage)this.storage).prefetch(this.level, var1, var2);
+      }
+
    }
 
    public boolean fits(int var1, int var2) {
-      byte var3 = 15;
-      return var1 >= this.xCenter - var3 && var2 >= this.yCenter - var3 && var1 <= this.xCenter + var3 && var2 <= this.yCenter + var3;
+      for(int var3 = 0; var3 < this.tickets.size(); ++var3) {
+         if (((ChunkCache.Ticket)this.tickets.get(var3)).covers(var1, var2)) {
+            return true;
+         }
+      }
+
+      return false;
    }
 
    public boolean hasChunk(int var1, int var2) {
@@ -42,10 +135,7 @@ public class ChunkCache implements ChunkSource {
       } else if (var1 == this.xLast && var2 == this.zLast && this.last != null) {
          return true;
       } else {
-         int var3 = var1 & 31;
-         int var4 = var2 & 31;
-         int var5 = var3 + var4 * 32;
-         return this.chunks[var5] != null && (this.chunks[var5] == this.emptyChunk || this.chunks[var5].isAt(var1, var2));
+         return this.chunks.containsKey(key(var1, var2));
       }
    }
 
@@ -55,58 +145,151 @@ public class ChunkCache implements ChunkSource {
       } else if (!this.level.isFindingSpawn && !this.fits(var1, var2)) {
          return this.emptyChunk;
       } else {
-         int var3 = var1 & 31;
-         int var4 = var2 & 31;
-         int var5 = var3 + var4 * 32;
-         if (!this.hasChunk(var1, var2)) {
-            if (this.chunks[var5] != null) {
-               this.chunks[var5].unload();
-               this.save(this.chunks[var5]);
-               this.saveEntities(this.chunks[var5]);
-            }
-
-            LevelChunk var6 = this.load(var1, var2);
-            if (var6 == null) {
+         long var3 = key(var1, var2);
+         LevelChunk var5 = (LevelChunk)this.chunks.get(var3);
+         if (var5 == null) {
+            var5 = this.load(var1, var2);
+            if (var5 == null) {
                if (this.source == null) {
-                  var6 = this.emptyChunk;
+                  var5 = new EmptyLevelChunk(this.level, this.emptyBlocks, var1, var2);
                } else {
-                  var6 = this.source.getChunk(var1, var2);
+                  var5 = this.source.getChunk(var1, var2);
                }
             }
 
-            this.chunks[var5] = var6;
-            var6.lightLava();
-            if (this.chunks[var5] != null) {
-               this.chunks[var5].load();
-            }
+            this.add(var1, var2, var5);
+         }
 
-            if (!this.chunks[var5].terrainPopulated && this.hasChunk(var1 + 1, var2 + 1) && this.hasChunk(var1, var2 + 1) && this.hasChunk(var1 + 1, var2)) {
-               this.postProcess(this, var1, var2);
-            }
+         var5.lastUseTime = this.level.time;
+         this.xLast = var1;
+         this.zLast = var2;
+         this.last = var5;
+         return var5;
+      }
+   }
+
+   private void add(int var1, int var2, LevelChunk var3) {
+      this.chunks.put(key(var1, var2), var3);
+      this.loadedChunks.add(var3);
+      var3.lightLava();
+      var3.load();
+      if (!var3.terrainPopulated && this.hasChunk(var1 + 1, var2 + 1) && this.hasChunk(var1, var2 + 1) && this.hasChunk(var1 + 1, var2)) {
+         this.postProcess(this, var1, var2);
+      }
 
-            if (this.hasChunk(var1 - 1, var2) && !this.getChunk(var1 - 1, var2).terrainPopulated && this.hasChunk(var1 - 1, var2 + 1) && this.hasChunk(var1, var2 + 1) && this.hasChunk(var1 - 1, var2)) {
-               this.postProcess(this, var1 - 1, var2);
+      if (this.hasChunk(var1 - 1, var2) && !this.getChunk(var1 - 1, var2).terrainPopulated && this.hasChunk(var1 - 1, var2 + 1) && this.hasChunk(var1, var2 + 1) && this.hasChunk(var1 - 1, var2)) {
+         this.postProcess(this, var1 - 1, var2);
+      }
+
+      if (this.hasChunk(var1, var2 - 1) && !this.getChunk(var1, var2 - 1).terrainPopulated && this.hasChunk(var1 + 1, var2 - 1) && this.hasChunk(var1, var2 - 1) && this.hasChunk(var1 + 1, var2)) {
+         this.postProcess(this, var1, var2 - 1);
+      }
+
+      if (this.hasChunk(var1 - 1, var2 - 1) && !this.getChunk(var1 - 1, var2 - 1).terrainPopulated && this.hasChunk(var1 - 1, var2 - 1) && this.hasChunk(var1, var2 - 1) && this.hasChunk(var1 - 1, var2)) {
+         this.postProcess(this, var1 - 1, var2 - 1);
+      }
+
+   }
+
+   public List<LevelChunk> generateChunks(List<ChunkPos> var1, ForkJoinPool var2) {
+      List<ChunkPos> var3 = new ArrayList();
+
+      for(int var4 = 0; var4 < var1.size(); ++var4) {
+         ChunkPos var5 = (ChunkPos)var1.get(var4);
+         if (this.fits(var5.x, var5.z) && !this.chunks.containsKey(key(var5.x, var5.z))) {
+            LevelChunk var6 = this.load(var5.x, var5.z);
+            if (var6 != null) {
+               this.add(var5.x, var5.z, var6);
+            } else {
+               var3.add(var5);
             }
+         }
+      }
+
+      List<LevelChunk> var7 = new ArrayList(var3.size());
+      if (this.source instanceof RandomLevelSource && var2 != null) {
+         var7.addAll(((RandomLevelSource)this.source).getChunks(var3, var2));
+
+         for(int var8 = 0; var8 < var7.size(); ++var8) {
+            LevelChunk var9 = (LevelChunk)var7.get(var8);
+            this.add(var9.x, var9.z, var9);
+         }
+      } else {
+         for(int var10 = 0; var10 < var3.size(); ++var10) {
+            ChunkPos var11 = (ChunkPos)var3.get(var10);
+            var7.add(this.getChunk(var11.x, var11.z));
+         }
+      }
+
+      return var7;
+   }
+
+   private void unload(LevelChunk var1, long var2) {
+      if (this.queuedForSave.remove(var1)) {
+         this.saveQueue.remove(var1);
+      }
+
+      this.chunks.remove(var2);
+      this.loadedChunks.remove(var1);
+      if (this.last == var1) {
+         this.last = null;
+      }
 
-            if (this.hasChunk(var1, var2 - 1) && !this.getChunk(var1, var2 - 1).terrainPopulated && this.hasChunk(var1 + 1, var2 - 1) && this.hasChunk(var1, var2 - 1) && this.hasChunk(var1 + 1, var2)) {
-               this.postProcess(this, var1, var2 - 1);
+      if (!var1.dontSave) {
+         var1.unload();
+         this.save(var1);
+         this.saveEntities(var1);
+      }
+
+   }
+
+   private void evict() {
+      int var1 = (int)(this.memoryBudget / CHUNK_BYTES);
+      if (this.loadedChunks.size() > var1) {
+         List<LevelChunk> var2 = new ArrayList();
+
+         for(int var3 = 0; var3 < this.loadedChunks.size(); ++var3) {
+            LevelChunk var4 = (LevelChunk)this.loadedChunks.get(var3);
+            if (!this.fits(var4.x, var4.z)) {
+               var2.add(var4);
             }
+         }
 
-            if (this.hasChunk(var1 - 1, var2 - 1) && !this.getChunk(var1 - 1, var2 - 1).terrainPopulated && this.hasChunk(var1 - 1, var2 - 1) && this.hasChunk(var1, var2 - 1) && this.hasChunk(var1 - 1, var2)) {
-               this.postProcess(this, var1 - 1, var2 - 1);
+         Collections.sort(var2, new Comparator<LevelChunk>() {
+            public int compare(LevelChunk var1, LevelChunk var2) {
+               return var1.lastUseTime < var2.lastUseTime ? -1 : (var1.lastUseTime > var2.lastUseTime ? 1 : 0);
             }
+         });
+         int var5 = Math.min(Math.min(var2.size(), this.loadedChunks.size() - var1), MAX_EVICTIONS_PER_TICK);
+
+         for(int var6 = 0; var6 < var5; ++var6) {
+            LevelChunk var7 = (LevelChunk)var2.get(var6);
+            this.unload(var7, key(var7.x, var7.z));
          }
 
-         this.xLast = var1;
-         this.zLast = var2;
-         this.last = this.chunks[var5];
-         return this.chunks[var5];
       }
    }
 
+   public void unloadUnused() {
+      List<LevelChunk> var1 = new ArrayList();
+
+      for(int var2 = 0; var2 < this.loadedChunks.size(); ++var2) {
+         LevelChunk var3 = (LevelChunk)this.loadedChunks.get(var2);
+         if (!this.fits(var3.x, var3.z)) {
+            var1.add(var3);
+         }
+      }
+
+      for(int var4 = 0; var4 < var1.size(); ++var4) {
+         LevelChunk var5 = (LevelChunk)var1.get(var4);
+         this.unload(var5, key(var5.x, var5.z));
+      }
+
+   }
+
    private LevelChunk load(int var1, int var2) {
       if (this.storage == null) {
-         return this.emptyChunk;
+         return new EmptyLevelChunk(this.level, this.emptyBlocks, var1, var2);
       } else {
          try {
             LevelChunk var3 = this.storage.load(this.level, var1, var2);
@@ -117,7 +300,7 @@ public class ChunkCache implements ChunkSource {
             return var3;
          } catch (Exception var4) {
             var4.printStackTrace();
-            return this.emptyChunk;
+            return new EmptyLevelChunk(this.level, this.emptyBlocks, var1, var2);
          }
       }
    }
@@ -157,13 +340,47 @@ public class ChunkCache implements ChunkSource {
 
    }
 
+   private void queueSaves() {
+      for(int var1 = 0; var1 < this.loadedChunks.size(); ++var1) {
+         LevelChunk var2 = (LevelChunk)this.loadedChunks.get(var1);
+         if (!this.queuedForSave.contains(var2) && var2.shouldSave(false)) {
+            this.queuedForSave.add(var2);
+            this.saveQueue.add(var2);
+         }
+      }
+
+   }
+
+   private boolean saveQueued() {
+      long var1 = System.nanoTime() + (long)this.saveBudgetMicros * 1000L;
+      boolean var3 = false;
+
+      while(!this.saveQueue.isEmpty() && (!var3 || System.nanoTime() < var1)) {
+         LevelChunk var4 = (LevelChunk)this.saveQueue.poll();
+         this.queuedForSave.remove(var4);
+         if (this.chunks.get(key(var4.x, var4.z)) == var4 && var4.shouldSave(false)) {
+            this.save(var4);
+            var4.unsaved = false;
+            var3 = true;
+         }
+      }
+
+      return this.saveQueue.isEmpty();
+   }
+
    public boolean save(boolean var1, ProgressListener var2) {
-      int var3 = 0;
+      if (!var1) {
+         this.queueSaves();
+         return this.saveQueued();
+      }
+
+      this.saveQueue.clear();
+      this.queuedForSave.clear();
       int var4 = 0;
       int var5;
       if (var2 != null) {
-         for(var5 = 0; var5 < this.chunks.length; ++var5) {
-            if (this.chunks[var5] != null && this.chunks[var5].shouldSave(var1)) {
+         for(var5 = 0; var5 < this.loadedChunks.size(); ++var5) {
+            if (((LevelChunk)this.loadedChunks.get(var5)).shouldSave(var1)) {
                ++var4;
             }
          }
@@ -171,35 +388,25 @@ public class ChunkCache implements ChunkSource {
 
       var5 = 0;
 
-      for(int var6 = 0; var6 < this.chunks.length; ++var6) {
-         if (this.chunks[var6] != null) {
-            if (var1 && !this.chunks[var6].dontSave) {
-               this.saveEntities(this.chunks[var6]);
-            }
-
-            if (this.chunks[var6].shouldSave(var1)) {
-               this.save(this.chunks[var6]);
-               this.chunks[var6].unsaved = false;
-               ++var3;
-               if (var3 == 2 && !var1) {
-                  return false;
-               }
+      for(int var6 = 0; var6 < this.loadedChunks.size(); ++var6) {
+         LevelChunk var7 = (LevelChunk)this.loadedChunks.get(var6);
+         if (!var7.dontSave) {
+            this.saveEntities(var7);
+         }
 
-               if (var2 != null) {
-                  ++var5;
-                  if (var5 % 10 == 0) {
-                     var2.progressStagePercentage(var5 * 100 / var4);
-                  }
+         if (var7.shouldSave(var1)) {
+            this.save(var7);
+            var7.unsaved = false;
+            if (var2 != null) {
+               ++var5;
+               if (var5 % 10 == 0) {
+                  var2.progressStagePercentage(var5 * 100 / var4);
                }
             }
          }
       }
 
-      if (var1) {
-         if (this.storage == null) {
-            return true;
-         }
-
+      if (this.storage != null) {
          this.storage.flush();
       }
 
@@ -207,6 +414,12 @@ public class ChunkCache implements ChunkSource {
    }
 
    public boolean tick() {
+      if (!this.saveQueue.isEmpty()) {
+         this.saveQueued();
+      }
+
+      this.evict();
+
       if (this.storage != null) {
          this.storage.tick();
       }
@@ -218,7 +431,32 @@ public class ChunkCache implements ChunkSource {
       return true;
    }
 
+   public void close() {
+      if (this.storage instanceof ThreadedChunkStorage) {
+         ((ThreadedChunkStorage)this.storage).close();
+      }
+
+   }
+
    public String gatherStats() {
-      return "ChunkCache: " + this.chunks.length;
+      String var1 = "ChunkCache: " + this.loadedChunks.size() + "/" + this.memoryBudget / CHUNK_BYTES + ", tickets: " + this.tickets.size() + ", save backlog: " + this.saveQueue.size();
+      return this.storage instanceof ThreadedChunkStorage ? var1 + ", " + ((ThreadedChunkStorage)this.storage).gatherStats() : var1;
+   }
+
+   public static class Ticket {
+      private int x;
+      private int z;
+      private int radius;
+      private int references = 1;
+
+      private Ticket(int var1, int var2, int var3) {
+         this.x = var1;
+         this.z = var2;
+         this.radius = var3;
+      }
+
+      public boolean covers(int var1, int var2) {
+         return var1 >= this.x - this.radius && var2 >= this.z - this.radius && var1 <= this.x + this.radius && var2 <= this.z + this.radius;
+      }
    }
 }
@@ -37,6 +37,12 @@ public class EmptyLevelChunk extends LevelChunk {
    public void recalcHeightmap() {
    }
 
+   public void initHeightmap() {
+   }
+
+   public void lightGaps() {
+   }
+
    public void lightLava() {
    }
 
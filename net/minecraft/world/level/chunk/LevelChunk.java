@@ -8,6 +8,7 @@ import java.util.Random;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.TickNextTickData;
 import net.minecraft.world.level.TilePos;
 import net.minecraft.world.level.tile.EntityTile;
 import net.minecraft.world.level.tile.Tile;
@@ -34,6 +35,8 @@ public class LevelChunk {
    public boolean dontSave;
    public boolean lastSaveHadEntities;
    public long lastSaveTime;
+   public long lastUseTime;
+   public List<TickNextTickData> tileTicks;
 
    public LevelChunk(Level var1, int var2, int var3) {
       this.tileEntities = new HashMap();
@@ -94,6 +97,11 @@ public class LevelChunk {
    }
 
    public void recalcHeightmap() {
+      this.initHeightmap();
+      this.lightGaps();
+   }
+
+   public void initHeightmap() {
       int var1 = 127;
 
       int var2;
@@ -128,10 +136,13 @@ public class LevelChunk {
       }
 
       this.minHeight = var1;
+      this.unsaved = true;
+   }
 
-      for(var2 = 0; var2 < 16; ++var2) {
-         for(var3 = 0; var3 < 16; ++var3) {
-            this.lightGaps(var2, var3);
+   public void lightGaps() {
+      for(int var1 = 0; var1 < 16; ++var1) {
+         for(int var2 = 0; var2 < 16; ++var2) {
+            this.lightGaps(var1, var2);
          }
       }
 
@@ -150,7 +161,9 @@ public class LevelChunk {
             for(var5 = 0; var5 < 128; ++var5) {
                var6 = Tile.lightEmission[this.blocks[var4 + var5]];
                if (var6 > 0) {
+                  int var7 = this.blockLight.get(var2, var5, var3);
                   this.blockLight.set(var2, var5, var3, var6);
+                  this.level.lightWritten(LightLayer.Block, this.x * 16 + var2, var5, this.z * 16 + var3, var7);
                }
             }
 
@@ -235,26 +248,12 @@ public class LevelChunk {
             this.minHeight = var7;
          }
 
-         var7 = this.x * 16 + var1;
-         var8 = this.z * 16 + var3;
-         if (var5 < var4) {
-            for(var9 = var5; var9 < var4; ++var9) {
-               this.skyLight.set(var1, var9, var3, 15);
-            }
-         } else {
-            this.level.updateLight(LightLayer.Sky, var7, var4, var8, var7, var5, var8);
-
-            for(var9 = var4; var9 < var5; ++var9) {
-               this.skyLight.set(var1, var9, var3, 0);
-            }
-         }
-
          var9 = 15;
 
          int var10;
-         for(var10 = var5; var5 > 0 && var9 > 0; this.skyLight.set(var1, var5, var3, var9)) {
-            --var5;
-            int var11 = Tile.lightBlock[this.getTile(var1, var5, var3)];
+         for(var10 = var5; var10 > 0 && var9 > 0; this.writeSkyLight(var1, var10, var3, var9)) {
+            --var10;
+            int var11 = Tile.lightBlock[this.getTile(var1, var10, var3)];
             if (var11 == 0) {
                var11 = 1;
             }
@@ -265,18 +264,29 @@ public class LevelChunk {
             }
          }
 
-         while(var5 > 0 && Tile.lightBlock[this.getTile(var1, var5 - 1, var3)] == 0) {
-            --var5;
-         }
-
-         if (var5 != var10) {
-            this.level.updateLight(LightLayer.Sky, var7 - 1, var5, var8 - 1, var7 + 1, var10, var8 + 1);
+         if (var5 < var4) {
+            for(int var12 = var5; var12 < var4; ++var12) {
+               this.writeSkyLight(var1, var12, var3, 15);
+            }
+         } else {
+            for(int var13 = var4; var13 < var10; ++var13) {
+               this.writeSkyLight(var1, var13, var3, 0);
+            }
          }
 
          this.unsaved = true;
       }
    }
 
+   private void writeSkyLight(int var1, int var2, int var3, int var4) {
+      int var5 = this.skyLight.get(var1, var2, var3);
+      if (var5 != var4) {
+         this.skyLight.set(var1, var2, var3, var4);
+         this.level.lightWritten(LightLayer.Sky, this.x * 16 + var1, var2, this.z * 16 + var3, var5);
+      }
+
+   }
+
    public int getTile(int var1, int var2, int var3) {
       return this.blocks[var1 << 11 | var3 << 7 | var2];
    }
@@ -424,6 +434,10 @@ public class LevelChunk {
       var1.yChunk = var4;
       var1.zChunk = this.z;
       this.entityBlocks[var4].add(var1);
+      if (this.loaded) {
+         this.level.entityIndex.add(var1);
+      }
+
    }
 
    public void removeEntity(Entity var1) {
@@ -440,6 +454,7 @@ public class LevelChunk {
       }
 
       this.entityBlocks[var2].remove(var1);
+      this.level.entityIndex.remove(var1);
    }
 
    public boolean isSkyLit(int var1, int var2, int var3) {
@@ -515,6 +530,15 @@ public class LevelChunk {
 
       for(int var1 = 0; var1 < this.entityBlocks.length; ++var1) {
          this.level.addEntities(this.entityBlocks[var1]);
+
+         for(int var2 = 0; var2 < this.entityBlocks[var1].size(); ++var2) {
+            this.level.entityIndex.add((Entity)this.entityBlocks[var1].get(var2));
+         }
+      }
+
+      if (this.tileTicks != null) {
+         this.level.scheduleTicks(this.tileTicks);
+         this.tileTicks = null;
       }
 
    }
@@ -525,8 +549,17 @@ public class LevelChunk {
 
       for(int var1 = 0; var1 < this.entityBlocks.length; ++var1) {
          this.level.removeEntities(this.entityBlocks[var1]);
+
+         for(int var2 = 0; var2 < this.entityBlocks[var1].size(); ++var2) {
+            this.level.entityIndex.remove((Entity)this.entityBlocks[var1].get(var2));
+         }
       }
 
+      this.tileTicks = this.level.getTicksInChunk(this.x, this.z, true);
+   }
+
+   public List<TickNextTickData> getTileTicks() {
+      return this.loaded ? this.level.getTicksInChunk(this.x, this.z, false) : this.tileTicks;
    }
 
    public void markUnsaved() {
@@ -0,0 +1,15 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.nbt.CompoundTag;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+public class ChunkData {
+   public final LevelChunk chunk;
+   public final CompoundTag tag;
+   public boolean secondary = false;
+
+   public ChunkData(LevelChunk chunk, CompoundTag tag) {
+      this.chunk = chunk;
+      this.tag = tag;
+   }
+}
@@ -1,5 +1,6 @@
 package net.minecraft.world.level.chunk.storage;
 
+import com.mojang.nbt.CompoundTag;
 import java.io.IOException;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.chunk.LevelChunk;
@@ -14,4 +15,16 @@ public interface ChunkStorage {
    void tick();
 
    void flush();
+
+   ChunkData read(Level var1, int var2, int var3) throws IOException;
+
+   LevelChunk load(Level var1, ChunkData var2);
+
+   CompoundTag snapshot(Level var1, LevelChunk var2);
+
+   long write(int var1, int var2, CompoundTag var3) throws IOException;
+
+   CompoundTag snapshotEntities(Level var1, LevelChunk var2);
+
+   void writeEntities(int var1, int var2, CompoundTag var3) throws IOException;
 }
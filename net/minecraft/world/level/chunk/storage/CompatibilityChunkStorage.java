@@ -1,5 +1,6 @@
 package net.minecraft.world.level.chunk.storage;
 
+import com.mojang.nbt.CompoundTag;
 import java.io.IOException;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.chunk.LevelChunk;
@@ -15,6 +16,7 @@ public class CompatibilityChunkStorage implements ChunkStorage {
 
    public void flush() {
       this.primary.flush();
+      this.secondary.flush();
    }
 
    public LevelChunk load(Level var1, int var2, int var3) throws IOException {
@@ -35,9 +37,47 @@ public class CompatibilityChunkStorage implements ChunkStorage {
 
    public void tick() {
       this.primary.tick();
+      this.secondary.tick();
    }
 
    public void saveEntities(Level var1, LevelChunk var2) throws IOException {
       this.primary.saveEntities(var1, var2);
    }
+
+   public ChunkData read(Level var1, int var2, int var3) throws IOException {
+      ChunkData var4 = this.primary.read(var1, var2, var3);
+      if (var4 == null) {
+         var4 = this.secondary.read(var1, var2, var3);
+         if (var4 != null) {
+            var4.secondary = true;
+         }
+      }
+
+      return var4;
+   }
+
+   public LevelChunk load(Level var1, ChunkData var2) {
+      LevelChunk var3 = this.primary.load(var1, var2);
+      if (var3 != null && var2.secondary) {
+         var3.unsaved = true;
+      }
+
+      return var3;
+   }
+
+   public CompoundTag snapshot(Level var1, LevelChunk var2) {
+      return this.primary.snapshot(var1, var2);
+   }
+
+   public long write(int var1, int var2, CompoundTag var3) throws IOException {
+      return this.primary.write(var1, var2, var3);
+   }
+
+   public CompoundTag snapshotEntities(Level var1, LevelChunk var2) {
+      return this.primary.snapshotEntities(var1, var2);
+   }
+
+   public void writeEntities(int var1, int var2, CompoundTag var3) throws IOException {
+      this.primary.writeEntities(var1, var2, var3);
+   }
 }
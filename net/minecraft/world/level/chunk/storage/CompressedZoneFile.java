@@ -0,0 +1,245 @@
+package net.minecraft.world.level.chunk.storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.BitSet;
+
+public class CompressedZoneFile {
+   public static final int VERSION = 1;
+   public static final int SECTOR_SIZE = 4096;
+   public static final int HEADER_SECTORS = 2;
+   public static final int MAX_SECTORS_PER_SLOT = 255;
+   private static final int MAGIC_NUMBER = 326332416;
+   private final int[] locations = new int[1024];
+   private final int[] committed = new int[1024];
+   private final BitSet usedSectors = new BitSet();
+   private int sectorCount;
+   private boolean headerDirty = false;
+   private boolean dirty = false;
+   public long lastUse = 0L;
+   private final FileChannel channel;
+   public final Long key;
+   public final File file;
+   public NbtSlotFile entityFile;
+
+   public CompressedZoneFile(Long key, File file, File entityFile) throws IOException {
+      this.key = key;
+      this.file = file;
+
+      try {
+         this.entityFile = new NbtSlotFile(entityFile);
+      } catch (Exception e) {
+         System.out.println("Broken entity file: " + entityFile + " (" + e.toString() + "), replacing..");
+         entityFile.delete();
+         entityFile.createNewFile();
+         this.entityFile = new NbtSlotFile(entityFile);
+      }
+
+      this.channel = (new RandomAccessFile(file, "rw")).getChannel();
+
+      try {
+         this.readHeader();
+      } catch (Exception e) {
+         e.printStackTrace();
+         this.channel.close();
+         throw new IOException("Broken zone file: " + file + ": " + e);
+      }
+   }
+
+   private void readHeader() throws IOException {
+      this.usedSectors.set(0, HEADER_SECTORS);
+      this.sectorCount = HEADER_SECTORS;
+      if (this.channel.size() == 0L) {
+         this.writeHeader();
+         this.channel.force(false);
+         this.dirty = false;
+      } else {
+         ByteBuffer header = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE);
+         header.order(ZonedChunkStorage.BYTE_ORDER);
+         this.channel.read(header, 0L);
+         header.flip();
+         int magic = header.getInt();
+         if (magic != MAGIC_NUMBER) {
+            throw new IOException("Bad magic number: " + magic);
+         }
+
+         short version = header.getShort();
+         if (version != VERSION) {
+            throw new IOException("Bad version number: " + version);
+         }
+
+         header.getShort();
+         header.asIntBuffer().get(this.locations);
+         int fileSectors = (int)((this.channel.size() + (long)SECTOR_SIZE - 1L) / (long)SECTOR_SIZE);
+
+         for(int slot = 0; slot < this.locations.length; ++slot) {
+            int sector = this.locations[slot] >>> 8;
+            int count = this.locations[slot] & 255;
+            if (this.locations[slot] != 0) {
+               if (sector < HEADER_SECTORS || sector + count > fileSectors) {
+                  System.out.println("Zone " + this.file + " has a bad location for slot " + slot + ", dropping it");
+                  this.locations[slot] = 0;
+                  this.headerDirty = true;
+               } else {
+                  this.usedSectors.set(sector, sector + count);
+               }
+            }
+         }
+
+         this.sectorCount = Math.max(fileSectors, HEADER_SECTORS);
+         System.arraycopy(this.locations, 0, this.committed, 0, this.locations.length);
+      }
+   }
+
+   private void writeHeader() throws IOException {
+      for(int slot = 0; slot < this.locations.length; ++slot) {
+         int location = this.committed[slot];
+         if (location != 0 && location != this.locations[slot]) {
+            this.usedSectors.clear(location >>> 8, (location >>> 8) + (location & 255));
+         }
+
+         this.committed[slot] = this.locations[slot];
+      }
+
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SECTORS * SECTOR_SIZE);
+      header.order(ZonedChunkStorage.BYTE_ORDER);
+      header.putInt(MAGIC_NUMBER);
+      header.putShort((short)VERSION);
+      header.putShort((short)0);
+      header.asIntBuffer().put(this.locations);
+      header.clear();
+      this.channel.write(header, 0L);
+      this.headerDirty = false;
+      this.dirty = true;
+   }
+
+   public boolean containsSlot(int slot) {
+      return this.locations[slot] != 0;
+   }
+
+   public ByteBuffer read(int slot) throws IOException {
+      int location = this.locations[slot];
+      if (location == 0) {
+         return null;
+      } else {
+         long pos = (long)(location >>> 8) * (long)SECTOR_SIZE;
+         ByteBuffer length = ByteBuffer.allocate(4);
+         length.order(ZonedChunkStorage.BYTE_ORDER);
+         this.channel.read(length, pos);
+         length.flip();
+         int size = length.getInt();
+         if (size <= 0 || size + 4 > (location & 255) * SECTOR_SIZE) {
+            throw new IOException("Bad record length " + size + " in slot " + slot + " of " + this.file);
+         } else {
+            ByteBuffer record = ByteBuffer.allocate(size);
+            record.order(ZonedChunkStorage.BYTE_ORDER);
+
+            while(record.hasRemaining()) {
+               if (this.channel.read(record, pos + 4L + (long)record.position()) < 0) {
+                  throw new IOException("Truncated record in slot " + slot + " of " + this.file);
+               }
+            }
+
+            record.flip();
+            return record;
+         }
+      }
+   }
+
+   public void write(int slot, ByteBuffer record) throws IOException {
+      int count = (record.remaining() + SECTOR_SIZE - 1) / SECTOR_SIZE;
+      if (count > MAX_SECTORS_PER_SLOT) {
+         throw new IOException("Chunk record too large: " + record.remaining() + " bytes");
+      } else {
+         int location = this.locations[slot];
+         int sector = location >>> 8;
+         int oldCount = location & 255;
+         if (location == 0 || location == this.committed[slot] || count > oldCount) {
+            if (location != 0 && location != this.committed[slot]) {
+               this.usedSectors.clear(sector, sector + oldCount);
+            }
+
+            sector = this.allocate(count);
+         } else if (count < oldCount) {
+            this.usedSectors.clear(sector + count, sector + oldCount);
+         }
+
+         this.usedSectors.set(sector, sector + count);
+         long pos = (long)sector * (long)SECTOR_SIZE;
+
+         while(record.hasRemaining()) {
+            pos += (long)this.channel.write(record, pos);
+         }
+
+         int newLocation = sector << 8 | count;
+         if (newLocation != location) {
+            this.locations[slot] = newLocation;
+            this.headerDirty = true;
+         }
+
+         this.dirty = true;
+      }
+   }
+
+   private int allocate(int count) {
+      int sector = this.usedSectors.nextClearBit(HEADER_SECTORS);
+
+      while(sector < this.sectorCount) {
+         int end = this.usedSectors.nextSetBit(sector);
+         if (end < 0 || end > this.sectorCount) {
+            end = this.sectorCount;
+         }
+
+         if (end - sector >= count) {
+            return sector;
+         }
+
+         if (end == this.sectorCount) {
+            break;
+         }
+
+         sector = this.usedSectors.nextClearBit(end);
+      }
+
+      if (sector > this.sectorCount) {
+         sector = this.sectorCount;
+      }
+
+      if (sector + count > this.sectorCount) {
+         this.sectorCount = sector + count;
+      }
+
+      return sector;
+   }
+
+   public int getUsedSectors() {
+      return this.usedSectors.cardinality();
+   }
+
+   public boolean isDirty() {
+      return this.dirty || this.headerDirty;
+   }
+
+   public void sync() throws IOException {
+      if (this.headerDirty) {
+         this.channel.force(false);
+         this.writeHeader();
+      }
+
+      if (this.dirty) {
+         this.channel.force(false);
+         this.dirty = false;
+      }
+
+      this.entityFile.sync();
+   }
+
+   public void close() throws IOException {
+      this.sync();
+      this.channel.close();
+      this.entityFile.close();
+   }
+}
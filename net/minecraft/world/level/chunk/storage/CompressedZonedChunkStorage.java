@@ -0,0 +1,339 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.nbt.CompoundTag;
+import com.mojang.nbt.ListTag;
+import com.mojang.nbt.Tag;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.DataLayer;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.tile.entity.TileEntity;
+
+public class CompressedZonedChunkStorage implements ChunkStorage {
+   public static final int CODEC_RAW = 0;
+   public static final int CODEC_DEFLATE = 1;
+   public static final int RECORD_HEADER_SIZE = 24;
+   private static final String[] LAYER_NAMES = new String[]{"Blocks", "Data", "SkyLight", "BlockLight", "HeightMap"};
+   private static final int[] LAYER_SIZES = new int[]{32768, 16384, 16384, 16384, 256};
+   private File dir;
+   private Map<Long, CompressedZoneFile> zoneFiles = new HashMap();
+   private long tickCount = 0L;
+   private int syncInterval;
+   private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+   private final Inflater inflater = new Inflater();
+   private final ByteBuffer record = ByteBuffer.allocate(ZonedChunkStorage.CHUNK_SIZE_BYTES + LAYER_NAMES.length * 5 + 4);
+   private final byte[] compressed = new byte[ZonedChunkStorage.CHUNK_SIZE];
+
+   public CompressedZonedChunkStorage(File dir) {
+      this(dir, 100);
+   }
+
+   public CompressedZonedChunkStorage(File dir, int syncInterval) {
+      dir = new File(dir, "zones");
+      if (!dir.exists()) {
+         dir.mkdir();
+      }
+
+      this.dir = dir;
+      this.syncInterval = syncInterval;
+      this.record.order(ZonedChunkStorage.BYTE_ORDER);
+   }
+
+   public static boolean exists(File dir) {
+      return (new File(dir, "zones")).isDirectory();
+   }
+
+   public static ChunkStorage withFallback(File dir, ChunkStorage fallback) {
+      if ((new File(dir, "data")).isDirectory()) {
+         fallback = new CompatibilityChunkStorage(new ZonedChunkStorage(dir), fallback);
+      }
+
+      return new CompatibilityChunkStorage(new CompressedZonedChunkStorage(dir), fallback);
+   }
+
+   private int getSlot(int x, int z) {
+      return (x & 31) + (z & 31) * 32;
+   }
+
+   private CompressedZoneFile getZoneFile(int x, int z, boolean create) throws IOException {
+      int zoneX = x >> 5;
+      int zoneZ = z >> 5;
+      long key = (long)zoneX & 4294967295L | ((long)zoneZ & 4294967295L) << 32;
+      CompressedZoneFile zone = (CompressedZoneFile)this.zoneFiles.get(key);
+      if (zone == null) {
+         String name = Integer.toString(zoneX, 36) + "_" + Integer.toString(zoneZ, 36) + ".dat";
+         File file = new File(this.dir, "zone_" + name);
+         if (!file.exists()) {
+            if (!create) {
+               return null;
+            }
+
+            file.createNewFile();
+         }
+
+         zone = new CompressedZoneFile(key, file, new File(this.dir, "entities_" + name));
+         this.zoneFiles.put(key, zone);
+      }
+
+      zone.lastUse = this.tickCount;
+      return !zone.containsSlot(this.getSlot(x, z)) && !create ? null : zone;
+   }
+
+   public synchronized boolean contains(int x, int z) throws IOException {
+      return this.getZoneFile(x, z, false) != null;
+   }
+
+   public LevelChunk load(Level level, int x, int z) throws IOException {
+      ChunkData data = this.read(level, x, z);
+      return data == null ? null : this.load(level, data);
+   }
+
+   public synchronized ChunkData read(Level level, int x, int z) throws IOException {
+      CompressedZoneFile zone = this.getZoneFile(x, z, false);
+      if (zone == null) {
+         return null;
+      } else {
+         int slot = this.getSlot(x, z);
+         ByteBuffer record = zone.read(slot);
+         LevelChunk chunk = new LevelChunk(level, x, z);
+         record.getInt();
+         record.getInt();
+         record.getLong();
+         chunk.terrainPopulated = (record.getLong() & 1L) != 0L;
+         chunk.blocks = this.readLayer(record, LAYER_SIZES[0]);
+         chunk.data = new DataLayer(this.readLayer(record, LAYER_SIZES[1]));
+         chunk.skyLight = new DataLayer(this.readLayer(record, LAYER_SIZES[2]));
+         chunk.blockLight = new DataLayer(this.readLayer(record, LAYER_SIZES[3]));
+         chunk.heightmap = this.readLayer(record, LAYER_SIZES[4]);
+         ListTag entities = new ListTag();
+         ListTag tileEntities = new ListTag();
+         ListTag tileTicks = new ListTag();
+         List<CompoundTag> tags = zone.entityFile.readAll(slot);
+
+         for(int i = 0; i < tags.size(); ++i) {
+            CompoundTag entityTag = (CompoundTag)tags.get(i);
+            int type = entityTag.getInt("_TYPE");
+            if (type == 0) {
+               entities.add(entityTag);
+            } else if (type == 1) {
+               tileEntities.add(entityTag);
+            } else if (type == 2) {
+               tileTicks.add(entityTag);
+            }
+         }
+
+         CompoundTag tag = new CompoundTag();
+         tag.put("Entities", entities);
+         tag.put("TileEntities", tileEntities);
+         tag.put("TileTicks", tileTicks);
+         return new ChunkData(chunk, tag);
+      }
+   }
+
+   private byte[] readLayer(ByteBuffer record, int size) throws IOException {
+      int codec = record.get();
+      int length = record.getInt();
+      byte[] layer = new byte[size];
+      if (codec == CODEC_RAW) {
+         if (length != size) {
+            throw new IOException("Bad layer length: " + length + ", expected " + size);
+         }
+
+         record.get(layer);
+      } else {
+         if (codec != CODEC_DEFLATE) {
+            throw new IOException("Unknown layer codec: " + codec);
+         }
+
+         this.inflater.reset();
+         this.inflater.setInput(record.array(), record.arrayOffset() + record.position(), length);
+
+         try {
+            int read = 0;
+
+            while(read < size && !this.inflater.finished()) {
+               int n = this.inflater.inflate(layer, read, size - read);
+               if (n == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary())) {
+                  break;
+               }
+
+               read += n;
+            }
+
+            if (read != size) {
+               throw new IOException("Truncated layer: " + read + " of " + size + " bytes");
+            }
+         } catch (DataFormatException e) {
+            throw new IOException("Corrupt layer: " + e);
+         }
+
+         record.position(record.position() + length);
+      }
+
+      return layer;
+   }
+
+   public LevelChunk load(Level level, ChunkData data) {
+      LevelChunk chunk = OldChunkStorage.load(level, data.chunk, data.tag);
+      chunk.unsaved = false;
+      return chunk;
+   }
+
+   public void save(Level level, LevelChunk chunk) throws IOException {
+      CompoundTag root = new CompoundTag();
+      CompoundTag tag = new CompoundTag();
+      root.put("Level", tag);
+      OldChunkStorage.save(chunk, level, tag);
+      this.write(chunk.x, chunk.z, root);
+   }
+
+   public CompoundTag snapshot(Level level, LevelChunk chunk) {
+      return OldChunkStorage.createSnapshot(level, chunk);
+   }
+
+   public synchronized long write(int x, int z, CompoundTag root) throws IOException {
+      CompoundTag tag = root.getCompound("Level");
+      long flags = 0L;
+      if (tag.getBoolean("TerrainPopulated")) {
+         flags |= 1L;
+      }
+
+      this.record.clear();
+      this.record.putInt(0);
+      this.record.putInt(x);
+      this.record.putInt(z);
+      this.record.putLong(tag.getLong("LastUpdate"));
+      this.record.putLong(flags);
+
+      for(int i = 0; i < LAYER_NAMES.length; ++i) {
+         this.writeLayer(tag.getByteArray(LAYER_NAMES[i]), LAYER_SIZES[i]);
+      }
+
+      this.record.putInt(0, this.record.position() - 4);
+      this.record.flip();
+      CompressedZoneFile zone = this.getZoneFile(x, z, true);
+      int slot = this.getSlot(x, z);
+      int before = zone.getUsedSectors();
+      zone.write(slot, this.record);
+      this.writeEntities(x, z, tag);
+      return (long)(zone.getUsedSectors() - before) * (long)CompressedZoneFile.SECTOR_SIZE;
+   }
+
+   private void writeLayer(byte[] layer, int size) throws IOException {
+      if (layer.length != size) {
+         throw new IOException("Bad layer length: " + layer.length + ", expected " + size);
+      } else {
+         this.deflater.reset();
+         this.deflater.setInput(layer);
+         this.deflater.finish();
+         int length = this.deflater.deflate(this.compressed, 0, size);
+         if (this.deflater.finished() && length < size) {
+            this.record.put((byte)CODEC_DEFLATE);
+            this.record.putInt(length);
+            this.record.put(this.compressed, 0, length);
+         } else {
+            this.record.put((byte)CODEC_RAW);
+            this.record.putInt(size);
+            this.record.put(layer);
+         }
+
+      }
+   }
+
+   private void addEntityTags(List<CompoundTag> tags, ListTag<? extends Tag> list, int type) {
+      if (list != null) {
+         for(int i = 0; i < list.size(); ++i) {
+            CompoundTag tag = (CompoundTag)list.get(i);
+            tag.putInt("_TYPE", type);
+            tags.add(tag);
+         }
+
+      }
+   }
+
+   public synchronized void tick() {
+      ++this.tickCount;
+      if (this.tickCount % (long)this.syncInterval == 0L) {
+         this.sync();
+      }
+
+      if (this.tickCount % 200L == 4L) {
+         ArrayList<Long> idle = new ArrayList();
+         Iterator<CompressedZoneFile> it = this.zoneFiles.values().iterator();
+
+         while(it.hasNext()) {
+            CompressedZoneFile zone = (CompressedZoneFile)it.next();
+            if (this.tickCount - zone.lastUse > 1200L) {
+               idle.add(zone.key);
+            }
+         }
+
+         for(int i = 0; i < idle.size(); ++i) {
+            Long key = (Long)idle.get(i);
+
+            try {
+               System.out.println("Closing zone " + key);
+               ((CompressedZoneFile)this.zoneFiles.remove(key)).close();
+            } catch (IOException e) {
+               e.printStackTrace();
+            }
+         }
+      }
+
+   }
+
+   public synchronized void sync() {
+      Iterator<CompressedZoneFile> it = this.zoneFiles.values().iterator();
+
+      while(it.hasNext()) {
+         try {
+            ((CompressedZoneFile)it.next()).sync();
+         } catch (IOException e) {
+            e.printStackTrace();
+         }
+      }
+
+   }
+
+   public synchronized void flush() {
+      Iterator<CompressedZoneFile> it = this.zoneFiles.values().iterator();
+
+      while(it.hasNext()) {
+         try {
+            ((CompressedZoneFile)it.next()).close();
+         } catch (IOException e) {
+            e.printStackTrace();
+         }
+      }
+
+      this.zoneFiles.clear();
+   }
+
+   public void saveEntities(Level level, LevelChunk chunk) throws IOException {
+      this.writeEntities(chunk.x, chunk.z, this.snapshotEntities(level, chunk));
+   }
+
+   public CompoundTag snapshotEntities(Level level, LevelChunk chunk) {
+      return OldChunkStorage.createEntitySnapshot(chunk);
+   }
+
+   public synchronized void writeEntities(int x, int z, CompoundTag tag) throws IOException {
+      CompressedZoneFile zone = this.getZoneFile(x, z, true);
+      ArrayList<CompoundTag> tags = new ArrayList();
+      this.addEntityTags(tags, tag.getList("Entities"), 0);
+      this.addEntityTags(tags, tag.getList("TileEntities"), 1);
+      this.addEntityTags(tags, tag.getList("TileTicks"), 2);
+      zone.entityFile.replaceSlot(this.getSlot(x, z), tags);
+   }
+}
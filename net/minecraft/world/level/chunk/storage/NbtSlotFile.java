@@ -2,207 +2,530 @@ package net.minecraft.world.level.chunk.storage;
 
 import com.mojang.nbt.CompoundTag;
 import com.mojang.nbt.NbtIo;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
 
 public class NbtSlotFile {
-   private static final byte[] READ_BUFFER = new byte[1048576];
-   private static final int FILE_HEADER_SIZE = 1024;
    private static final int MAGIC_NUMBER = 326332417;
-   private static final int FILE_SLOT_HEADER_SIZE = 12;
-   private static final int FILE_SLOT_SIZE = 500;
-   private RandomAccessFile raf;
-   private List<Integer>[] fileSlotMap = new List[1024];
-   private List<Integer> freeFileSlots = new ArrayList();
-   private int totalFileSlots = 0;
-   private static long largest = 0L;
-   private List<Integer> toReplace;
-
-   public NbtSlotFile(File var1) throws IOException {
-      if (var1.exists() && var1.length() != 0L) {
-         this.raf = new RandomAccessFile(var1, "rw");
-      } else {
-         var1.createNewFile();
-         this.raf = new RandomAccessFile(var1, "rw");
-         this.writeHeader();
-      }
-
-      this.readHeader();
+   private static final int VERSION = 1;
+   private static final int FILE_HEADER_SIZE = 16;
+   private static final int RECORD_HEADER_SIZE = 10;
+   private static final int INDEX_SLOT = 32767;
+   private static final int INDEX_ENTRY_SIZE = 14;
+   private static final int SLOTS = 1024;
+   private static final int COMPACT_MIN_GARBAGE = 262144;
+   private static final int LEGACY_HEADER_SIZE = 1024;
+   private static final int LEGACY_SLOT_SIZE = 512;
+   private static final int LEGACY_SLOT_HEADER_SIZE = 12;
+   private static ExecutorService compactor;
+   private final File file;
+   private FileChannel channel;
+   private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+   private final long[] offsets = new long[SLOTS];
+   private final int[] lengths = new int[SLOTS];
+   private long end;
+   private long liveBytes;
+   private boolean indexDirty = false;
+   private boolean dirty = false;
+   private volatile boolean compacting = false;
+   private boolean closed = false;
 
-      int var2;
-      for(var2 = 0; var2 < this.fileSlotMap.length; ++var2) {
-         this.fileSlotMap[var2] = new ArrayList();
+   public NbtSlotFile(File file) throws IOException {
+      this.file = file;
+      if (!file.exists()) {
+         file.createNewFile();
       }
 
-      for(var2 = 0; var2 < this.totalFileSlots; ++var2) {
-         this.seekSlotHeader(var2);
-         short var3 = this.raf.readShort();
-         if (var3 == 0) {
-            this.freeFileSlots.add(var2);
-         } else if (var3 < 0) {
-            this.fileSlotMap[-var3 - 1].add(var2);
+      this.channel = (new RandomAccessFile(file, "rw")).getChannel();
+
+      try {
+         if (this.channel.size() == 0L) {
+            this.end = (long)FILE_HEADER_SIZE;
+            writeHeader(this.channel, 0L);
          } else {
-            this.fileSlotMap[var3 - 1].add(var2);
+            this.readHeader();
          }
+      } catch (IOException e) {
+         this.channel.close();
+         throw e;
       }
-
    }
 
    private void readHeader() throws IOException {
-      this.raf.seek(0L);
-      int var1 = this.raf.readInt();
-      if (var1 != 326332417) {
-         throw new IOException("Bad magic number: " + var1);
+      ByteBuffer header = readFully(this.channel, 0L, FILE_HEADER_SIZE);
+      int magic = header.getInt();
+      if (magic != MAGIC_NUMBER) {
+         throw new IOException("Bad magic number: " + magic);
       } else {
-         short var2 = this.raf.readShort();
-         if (var2 != 0) {
-            throw new IOException("Bad version number: " + var2);
+         short version = header.getShort();
+         if (version == 0) {
+            System.out.println("Converting entity file " + this.file + " to version " + VERSION);
+            this.rewrite(this.readLegacy());
+         } else if (version != VERSION) {
+            throw new IOException("Bad version number: " + version);
          } else {
-            this.totalFileSlots = this.raf.readInt();
+            header.getShort();
+            long indexPos = header.getLong();
+            long scanFrom = (long)FILE_HEADER_SIZE;
+            if (indexPos >= (long)FILE_HEADER_SIZE) {
+               try {
+                  scanFrom = this.readIndex(indexPos);
+               } catch (IOException e) {
+                  System.out.println("Bad index in " + this.file + " (" + e + "), scanning records");
+
+                  for(int slot = 0; slot < SLOTS; ++slot) {
+                     this.offsets[slot] = 0L;
+                     this.lengths[slot] = 0;
+                  }
+
+                  scanFrom = (long)FILE_HEADER_SIZE;
+               }
+            }
+
+            this.scan(scanFrom);
          }
       }
    }
 
-   private void writeHeader() throws IOException {
-      this.raf.seek(0L);
-      this.raf.writeInt(326332417);
-      this.raf.writeShort(0);
-      this.raf.writeInt(this.totalFileSlots);
-   }
+   private long readIndex(long pos) throws IOException {
+      ByteBuffer recordHeader = readFully(this.channel, pos, RECORD_HEADER_SIZE);
+      int slot = recordHeader.getShort() & 65535;
+      int length = recordHeader.getInt();
+      if (slot != INDEX_SLOT) {
+         throw new IOException("Not an index record: " + slot);
+      } else {
+         ByteBuffer index = ByteBuffer.wrap(this.readPayload(pos, RECORD_HEADER_SIZE + length));
+         int entries = index.getInt();
+
+         for(int i = 0; i < entries; ++i) {
+            int entrySlot = index.getShort();
+            if (entrySlot < 0 || entrySlot >= SLOTS) {
+               throw new IOException("Bad index slot: " + entrySlot);
+            }
+
+            this.offsets[entrySlot] = index.getLong();
+            this.lengths[entrySlot] = index.getInt();
+         }
 
-   private void seekSlotHeader(int var1) throws IOException {
-      int var2 = 1024 + var1 * 512;
-      this.raf.seek((long)var2);
+         return pos + (long)RECORD_HEADER_SIZE + (long)length;
+      }
    }
 
-   private void seekSlot(int var1) throws IOException {
-      int var2 = 1024 + var1 * 512;
-      this.raf.seek((long)(var2 + 12));
+   private void scan(long pos) throws IOException {
+      long size = this.channel.size();
+      boolean changed = false;
+
+      while(pos + (long)RECORD_HEADER_SIZE <= size) {
+         ByteBuffer recordHeader = readFully(this.channel, pos, RECORD_HEADER_SIZE);
+         int slot = recordHeader.getShort() & 65535;
+         int length = recordHeader.getInt();
+         if (slot >= SLOTS && slot != INDEX_SLOT || length < 0 || pos + (long)RECORD_HEADER_SIZE + (long)length > size) {
+            break;
+         }
+
+         try {
+            this.readPayload(pos, RECORD_HEADER_SIZE + length);
+         } catch (IOException e) {
+            break;
+         }
+
+         if (slot != INDEX_SLOT) {
+            this.offsets[slot] = length == 0 ? 0L : pos;
+            this.lengths[slot] = length == 0 ? 0 : RECORD_HEADER_SIZE + length;
+            changed = true;
+         }
+
+         pos += (long)RECORD_HEADER_SIZE + (long)length;
+      }
+
+      if (pos < size) {
+         System.out.println("Truncating " + (size - pos) + " bytes of broken records from " + this.file);
+         this.channel.truncate(pos);
+      }
+
+      this.end = pos;
+      this.liveBytes = 0L;
+
+      for(int slot = 0; slot < SLOTS; ++slot) {
+         this.liveBytes += (long)this.lengths[slot];
+      }
+
+      this.indexDirty = changed;
    }
 
-   public List<CompoundTag> readAll(int var1) throws IOException {
-      ArrayList var2 = new ArrayList();
-      List var3 = this.fileSlotMap[var1];
-      int var4 = 0;
+   private byte[][] readLegacy() throws IOException {
+      ByteBuffer header = readFully(this.channel, 0L, 10);
+      header.getInt();
+      header.getShort();
+      int fileSlots = header.getInt();
+      List<CompoundTag>[] tags = new List[SLOTS];
 
-      label34:
-      for(int var5 = 0; var5 < var3.size(); ++var5) {
-         int var6 = (Integer)var3.get(var5);
-         int var7 = 0;
-         boolean var8 = true;
-         int var9 = var1 + 1;
+      for(int fileSlot = 0; fileSlot < fileSlots; ++fileSlot) {
+         short slot = readFully(this.channel, (long)(LEGACY_HEADER_SIZE + fileSlot * LEGACY_SLOT_SIZE), LEGACY_SLOT_HEADER_SIZE).getShort();
+         if (slot > 0 && slot <= SLOTS) {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            int next = fileSlot;
 
-         int var13;
-         do {
-            this.seekSlotHeader(var6);
-            short var10 = this.raf.readShort();
-            short var11 = this.raf.readShort();
-            var13 = this.raf.readInt();
-            int var12 = this.raf.readInt();
-            this.seekSlot(var6);
-            if (var9 > 0 && var10 == -var9) {
-               ++var4;
-               continue label34;
+            for(int hops = 0; next >= 0 && hops < fileSlots; ++hops) {
+               ByteBuffer slotHeader = readFully(this.channel, (long)(LEGACY_HEADER_SIZE + next * LEGACY_SLOT_SIZE), LEGACY_SLOT_HEADER_SIZE);
+               slotHeader.getShort();
+               short length = slotHeader.getShort();
+               int continuation = slotHeader.getInt();
+               data.write(readFully(this.channel, (long)(LEGACY_HEADER_SIZE + next * LEGACY_SLOT_SIZE + LEGACY_SLOT_HEADER_SIZE), length).array(), 0, length);
+               next = continuation;
             }
 
-            if (var10 != var9) {
-               throw new IOException("Wrong slot! Got " + var10 + ", expected " + var9);
+            if (tags[slot - 1] == null) {
+               tags[slot - 1] = new ArrayList();
             }
 
-            this.raf.readFully(READ_BUFFER, var7, var11);
-            if (var13 >= 0) {
-               var7 += var11;
-               var6 = var13;
-               var9 = -var1 - 1;
-            }
-         } while(var13 >= 0);
+            tags[slot - 1].add(NbtIo.decompress(data.toByteArray()));
+         }
+      }
+
+      byte[][] records = new byte[SLOTS][];
 
-         var2.add(NbtIo.decompress(READ_BUFFER));
+      for(int slot = 0; slot < SLOTS; ++slot) {
+         if (tags[slot] != null) {
+            records[slot] = encode(tags[slot]);
+         }
       }
 
-      return var2;
+      return records;
    }
 
-   private int getFreeSlot() throws IOException {
-      int var1;
-      if (this.toReplace.size() > 0) {
-         var1 = (Integer)this.toReplace.remove(this.toReplace.size() - 1);
-      } else if (this.freeFileSlots.size() > 0) {
-         var1 = (Integer)this.freeFileSlots.remove(this.freeFileSlots.size() - 1);
+   private byte[] readPayload(long pos, int recordLength) throws IOException {
+      ByteBuffer record = readFully(this.channel, pos, recordLength);
+      record.getShort();
+      int length = record.getInt();
+      int checksum = record.getInt();
+      if (length != recordLength - RECORD_HEADER_SIZE) {
+         throw new IOException("Bad record length " + length + " at " + pos + " in " + this.file);
       } else {
-         var1 = this.totalFileSlots++;
-         this.writeHeader();
+         byte[] payload = new byte[length];
+         record.get(payload);
+         CRC32 crc = new CRC32();
+         crc.update(payload);
+         if ((int)crc.getValue() != checksum) {
+            throw new IOException("Bad record checksum at " + pos + " in " + this.file);
+         } else {
+            return payload;
+         }
+      }
+   }
+
+   public List<CompoundTag> readAll(int slot) throws IOException {
+      this.lock.readLock().lock();
+
+      byte[] payload;
+      try {
+         if (this.closed) {
+            throw new IOException("Entity file is closed: " + this.file);
+         }
+
+         if (this.offsets[slot] == 0L) {
+            return new ArrayList();
+         }
+
+         payload = this.readPayload(this.offsets[slot], this.lengths[slot]);
+      } finally {
+         this.lock.readLock().unlock();
       }
 
-      return var1;
+      return decode(payload);
    }
 
-   public void replaceSlot(int var1, List<CompoundTag> var2) throws IOException {
-      this.toReplace = this.fileSlotMap[var1];
-      this.fileSlotMap[var1] = new ArrayList();
+   public void replaceSlot(int slot, List<CompoundTag> tags) throws IOException {
+      byte[] payload = tags.isEmpty() ? null : encode(tags);
+      this.lock.writeLock().lock();
 
-      int var3;
-      for(var3 = 0; var3 < var2.size(); ++var3) {
-         CompoundTag var4 = (CompoundTag)var2.get(var3);
-         byte[] var5 = NbtIo.compress(var4);
-         if ((long)var5.length > largest) {
-            largest = (long)var5.length;
-            System.out.println("New largest: " + largest + " (" + var4.getString("id") + ")");
+      try {
+         if (this.closed) {
+            throw new IOException("Entity file is closed: " + this.file);
          }
 
-         int var6 = 0;
-         int var7 = var5.length;
-         if (var7 != 0) {
-            int var8 = this.getFreeSlot();
-            int var9 = var1 + 1;
-            int var10 = -1;
+         if (payload == null && this.offsets[slot] == 0L) {
+            return;
+         }
 
-            while(var7 > 0) {
-               int var11 = var8;
-               this.fileSlotMap[var1].add(var8);
-               int var12 = var7;
-               if (var7 > 500) {
-                  var12 = 500;
-               }
+         int written = writeRecord(this.channel, this.end, slot, payload == null ? new byte[0] : payload);
+         this.liveBytes -= (long)this.lengths[slot];
+         this.offsets[slot] = payload == null ? 0L : this.end;
+         this.lengths[slot] = payload == null ? 0 : written;
+         this.liveBytes += (long)this.lengths[slot];
+         this.end += (long)written;
+         this.indexDirty = true;
+         this.dirty = true;
+         long garbage = this.end - (long)FILE_HEADER_SIZE - this.liveBytes;
+         if (!this.compacting && garbage > (long)COMPACT_MIN_GARBAGE && garbage > this.liveBytes) {
+            this.compacting = true;
+            getCompactor().execute(new Runnable() {
+               public void run() {
+                  try {
+                     NbtSlotFile.this.compact();
+                  } catch (IOException e) {
+                     e.printStackTrace();
+                  } finally {
+                     NbtSlotFile.this.compacting = false;
+                  }
 
-               var7 -= var12;
-               if (var7 > 0) {
-                  var8 = this.getFreeSlot();
-               } else {
-                  var8 = -1;
                }
+            });
+         }
+      } finally {
+         this.lock.writeLock().unlock();
+      }
 
-               this.seekSlotHeader(var11);
-               this.raf.writeShort(var9);
-               this.raf.writeShort(var12);
-               this.raf.writeInt(var8);
-               this.raf.writeInt(var10);
-               this.seekSlot(var11);
-               this.raf.write(var5, var6, var12);
-               if (var7 > 0) {
-                  var10 = var11;
-                  var6 += var12;
-                  var9 = -var1 - 1;
-               }
+   }
+
+   private void compact() throws IOException {
+      long[] seenOffsets = new long[SLOTS];
+      byte[][] records = new byte[SLOTS][];
+      this.lock.readLock().lock();
+
+      try {
+         if (this.closed) {
+            return;
+         }
+
+         for(int slot = 0; slot < SLOTS; ++slot) {
+            seenOffsets[slot] = this.offsets[slot];
+            if (seenOffsets[slot] != 0L) {
+               records[slot] = this.readPayload(seenOffsets[slot], this.lengths[slot]);
+            }
+         }
+      } finally {
+         this.lock.readLock().unlock();
+      }
+
+      this.lock.writeLock().lock();
+
+      try {
+         if (this.closed) {
+            return;
+         }
+
+         for(int slot = 0; slot < SLOTS; ++slot) {
+            if (this.offsets[slot] != seenOffsets[slot]) {
+               records[slot] = this.offsets[slot] == 0L ? null : this.readPayload(this.offsets[slot], this.lengths[slot]);
+            }
+         }
+
+         this.rewrite(records);
+      } finally {
+         this.lock.writeLock().unlock();
+      }
+
+   }
+
+   private void rewrite(byte[][] records) throws IOException {
+      File tmp = new File(this.file.getPath() + ".tmp");
+      FileChannel out = (new RandomAccessFile(tmp, "rw")).getChannel();
+      long[] newOffsets = new long[SLOTS];
+      int[] newLengths = new int[SLOTS];
+      long pos = (long)FILE_HEADER_SIZE;
+      long live = 0L;
+
+      try {
+         out.truncate(0L);
+
+         for(int slot = 0; slot < SLOTS; ++slot) {
+            if (records[slot] != null) {
+               newOffsets[slot] = pos;
+               newLengths[slot] = writeRecord(out, pos, slot, records[slot]);
+               pos += (long)newLengths[slot];
+               live += (long)newLengths[slot];
             }
          }
+
+         long indexPos = pos;
+         pos += (long)writeRecord(out, pos, INDEX_SLOT, encodeIndex(newOffsets, newLengths));
+         writeHeader(out, indexPos);
+         out.force(true);
+      } finally {
+         out.close();
       }
 
-      for(var3 = 0; var3 < this.toReplace.size(); ++var3) {
-         Integer var13 = (Integer)this.toReplace.get(var3);
-         this.freeFileSlots.add(var13);
-         this.seekSlotHeader(var13);
-         this.raf.writeShort(0);
+      this.channel.close();
+      if (!tmp.renameTo(this.file)) {
+         this.file.delete();
+         if (!tmp.renameTo(this.file)) {
+            this.channel = (new RandomAccessFile(this.file, "rw")).getChannel();
+            throw new IOException("Failed to replace " + this.file);
+         }
+      }
+
+      this.channel = (new RandomAccessFile(this.file, "rw")).getChannel();
+      System.arraycopy(newOffsets, 0, this.offsets, 0, SLOTS);
+      System.arraycopy(newLengths, 0, this.lengths, 0, SLOTS);
+      this.end = pos;
+      this.liveBytes = live;
+      this.indexDirty = false;
+      this.dirty = false;
+   }
+
+   private static synchronized ExecutorService getCompactor() {
+      if (compactor == null) {
+         compactor = Executors.newSingleThreadExecutor(new ThreadedChunkStorage.IoThreadFactory("Entity file compactor"));
+      }
+
+      return compactor;
+   }
+
+   public void sync() throws IOException {
+      this.lock.writeLock().lock();
+
+      try {
+         if (!this.closed) {
+            this.syncLocked();
+         }
+      } finally {
+         this.lock.writeLock().unlock();
+      }
+
+   }
+
+   private void syncLocked() throws IOException {
+      if (this.indexDirty) {
+         long indexPos = this.end;
+         this.end += (long)writeRecord(this.channel, indexPos, INDEX_SLOT, encodeIndex(this.offsets, this.lengths));
+         this.channel.force(false);
+         writeHeader(this.channel, indexPos);
+         this.indexDirty = false;
+         this.dirty = true;
+      }
+
+      if (this.dirty) {
+         this.channel.force(false);
+         this.dirty = false;
       }
 
-      this.toReplace.clear();
    }
 
    public void close() throws IOException {
-      this.raf.getFD().sync();
-      this.raf.close();
+      this.lock.writeLock().lock();
+
+      try {
+         if (!this.closed) {
+            this.syncLocked();
+            this.closed = true;
+            this.channel.close();
+         }
+      } finally {
+         this.lock.writeLock().unlock();
+      }
+
+   }
+
+   private static void writeHeader(FileChannel channel, long indexPos) throws IOException {
+      ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+      header.putInt(MAGIC_NUMBER);
+      header.putShort((short)VERSION);
+      header.putShort((short)0);
+      header.putLong(indexPos);
+      header.flip();
+      writeFully(channel, 0L, header);
+   }
+
+   private static int writeRecord(FileChannel channel, long pos, int slot, byte[] payload) throws IOException {
+      CRC32 crc = new CRC32();
+      crc.update(payload);
+      ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+      record.putShort((short)slot);
+      record.putInt(payload.length);
+      record.putInt((int)crc.getValue());
+      record.put(payload);
+      record.flip();
+      writeFully(channel, pos, record);
+      return RECORD_HEADER_SIZE + payload.length;
+   }
+
+   private static byte[] encodeIndex(long[] offsets, int[] lengths) {
+      int entries = 0;
+
+      for(int slot = 0; slot < SLOTS; ++slot) {
+         if (offsets[slot] != 0L) {
+            ++entries;
+         }
+      }
+
+      ByteBuffer index = ByteBuffer.allocate(4 + entries * INDEX_ENTRY_SIZE);
+      index.putInt(entries);
+
+      for(int slot = 0; slot < SLOTS; ++slot) {
+         if (offsets[slot] != 0L) {
+            index.putShort((short)slot);
+            index.putLong(offsets[slot]);
+            index.putInt(lengths[slot]);
+         }
+      }
+
+      return index.array();
+   }
+
+   private static byte[] encode(List<CompoundTag> tags) throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, new Deflater(Deflater.BEST_SPEED)));
+      out.writeInt(tags.size());
+
+      for(int i = 0; i < tags.size(); ++i) {
+         NbtIo.write((CompoundTag)tags.get(i), out);
+      }
+
+      out.close();
+      return bytes.toByteArray();
+   }
+
+   private static List<CompoundTag> decode(byte[] payload) throws IOException {
+      DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(payload)));
+
+      try {
+         int count = in.readInt();
+         List<CompoundTag> tags = new ArrayList(count);
+
+         for(int i = 0; i < count; ++i) {
+            tags.add(NbtIo.read(in));
+         }
+
+         return tags;
+      } finally {
+         in.close();
+      }
+   }
+
+   private static ByteBuffer readFully(FileChannel channel, long pos, int size) throws IOException {
+      ByteBuffer buffer = ByteBuffer.allocate(size);
+
+      while(buffer.hasRemaining()) {
+         if (channel.read(buffer, pos + (long)buffer.position()) < 0) {
+            throw new IOException("Unexpected end of file at " + (pos + (long)buffer.position()));
+         }
+      }
+
+      buffer.flip();
+      return buffer;
+   }
+
+   private static void writeFully(FileChannel channel, long pos, ByteBuffer buffer) throws IOException {
+      while(buffer.hasRemaining()) {
+         channel.write(buffer, pos + (long)buffer.position());
+      }
+
    }
 }
@@ -2,14 +2,28 @@ package net.minecraft.world.level.chunk.storage;
 
 import com.mojang.nbt.CompoundTag;
 import com.mojang.nbt.ListTag;
-import com.mojang.nbt.NbtIo;
+import com.mojang.nbt.NbtReader;
+import com.mojang.nbt.NbtWriter;
+import com.mojang.nbt.Tag;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityIO;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.TickNextTickData;
 import net.minecraft.world.level.chunk.DataLayer;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.tile.entity.TileEntity;
@@ -50,67 +64,127 @@ public class OldChunkStorage implements ChunkStorage {
    }
 
    public LevelChunk load(Level var1, int var2, int var3) {
-      File var4 = this.getFile(var2, var3);
-      if (var4 != null && var4.exists()) {
-         try {
-            FileInputStream var5 = new FileInputStream(var4);
-            CompoundTag var6 = NbtIo.readCompressed(var5);
-            if (!var6.contains("Level")) {
-               System.out.println("Chunk file at " + var2 + "," + var3 + " is missing level data, skipping");
-               return null;
-            }
+      try {
+         ChunkData var4 = this.read(var1, var2, var3);
+         if (var4 != null) {
+            return this.load(var1, var4);
+         }
+      } catch (Exception var5) {
+         var5.printStackTrace();
+      }
 
-            if (!var6.getCompound("Level").contains("Blocks")) {
-               System.out.println("Chunk file at " + var2 + "," + var3 + " is missing block data, skipping");
-               return null;
-            }
+      return null;
+   }
 
-            LevelChunk var7 = load(var1, var6.getCompound("Level"));
-            if (!var7.isAt(var2, var3)) {
-               System.out.println("Chunk file at " + var2 + "," + var3 + " is in the wrong location; relocating. (Expected " + var2 + ", " + var3 + ", got " + var7.x + ", " + var7.z + ")");
-               var6.putInt("xPos", var2);
-               var6.putInt("zPos", var3);
-               var7 = load(var1, var6.getCompound("Level"));
-            }
+   public ChunkData read(Level var1, int var2, int var3) throws IOException {
+      File var4 = this.getFile(var2, var3);
+      if (var4 != null && var4.exists()) {
+         DataInputStream var5 = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(var4))));
 
-            return var7;
-         } catch (Exception var8) {
-            var8.printStackTrace();
+         ChunkData var6;
+         try {
+            var6 = readChunk(var1, var2, var3, var5);
+         } finally {
+            var5.close();
          }
+
+         return var6;
+      } else {
+         return null;
       }
+   }
 
-      return null;
+   public LevelChunk load(Level var1, ChunkData var2) {
+      return load(var1, var2.chunk, var2.tag);
    }
 
    public void save(Level var1, LevelChunk var2) {
       var1.checkSession();
-      File var3 = this.getFile(var2.x, var2.z);
-      if (var3.exists()) {
-         var1.sizeOnDisk -= var3.length();
+
+      try {
+         File var3 = new File(this.dir, "tmp_chunk.dat");
+         DataOutputStream var4 = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(var3))));
+
+         try {
+            writeChunk(var1, var2, var4);
+         } finally {
+            var4.close();
+         }
+
+         var1.sizeOnDisk += this.replace(var3, this.getFile(var2.x, var2.z));
+      } catch (Exception var9) {
+         var9.printStackTrace();
       }
 
+   }
+
+   public CompoundTag snapshot(Level var1, LevelChunk var2) {
+      return createSnapshot(var1, var2);
+   }
+
+   public long write(int var1, int var2, CompoundTag var3) throws IOException {
+      File var4 = new File(this.dir, "tmp_chunk.dat");
+      DataOutputStream var5 = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(var4))));
+
       try {
-         File var4 = new File(this.dir, "tmp_chunk.dat");
-         FileOutputStream var5 = new FileOutputStream(var4);
-         CompoundTag var6 = new CompoundTag();
-         CompoundTag var7 = new CompoundTag();
-         var6.put("Level", var7);
-         this.save(var2, var1, var7);
-         NbtIo.writeCompressed(var6, var5);
+         writeChunkTag(var3, var5);
+      } finally {
          var5.close();
-         if (var3.exists()) {
-            var3.delete();
-         }
+      }
+
+      return this.replace(var4, this.getFile(var1, var2));
+   }
+
+   private long replace(File var1, File var2) {
+      long var3 = 0L;
+      if (var2.exists()) {
+         var3 -= var2.length();
+         var2.delete();
+      }
+
+      var1.renameTo(var2);
+      return var3 + var2.length();
+   }
+
+   public CompoundTag snapshotEntities(Level var1, LevelChunk var2) {
+      return null;
+   }
+
+   public void writeEntities(int var1, int var2, CompoundTag var3) {
+   }
+
+   public static CompoundTag createEntitySnapshot(LevelChunk var0) {
+      CompoundTag var1 = new CompoundTag();
+      var1.put("Entities", toList(saveEntities(var0)));
+      var1.put("TileEntities", toList(saveTileEntities(var0)));
+      var1.put("TileTicks", toList(saveTileTicks(var0)));
+      return var1;
+   }
+
+   private static ListTag toList(List<CompoundTag> var0) {
+      ListTag var1 = new ListTag();
 
-         var4.renameTo(var3);
-         var1.sizeOnDisk += var3.length();
-      } catch (Exception var8) {
-         var8.printStackTrace();
+      for(int var2 = 0; var2 < var0.size(); ++var2) {
+         var1.add((Tag)var0.get(var2));
       }
 
+      return var1;
    }
 
-   public void save(LevelChunk var1, Level var2, CompoundTag var3) {
+   public static CompoundTag createSnapshot(Level var0, LevelChunk var1) {
+      CompoundTag var2 = new CompoundTag();
+      CompoundTag var3 = new CompoundTag();
+      var2.put("Level", var3);
+      save(var1, var0, var3);
+      var3.putByteArray("Blocks", (byte[])var1.blocks.clone());
+      var3.putByteArray("Data", (byte[])var1.data.data.clone());
+      var3.putByteArray("SkyLight", (byte[])var1.skyLight.data.clone());
+      var3.putByteArray("BlockLight", (byte[])var1.blockLight.data.clone());
+      var3.putByteArray("HeightMap", (byte[])var1.heightmap.clone());
+      return var2;
+   }
+
+   public static void save(LevelChunk var1, Level var2, CompoundTag var3) {
       var2.checkSession();
       var3.putInt("xPos", var1.x);
       var3.putInt("zPos", var1.z);
@@ -121,87 +195,275 @@ public class OldChunkStorage implements ChunkStorage {
       var3.putByteArray("BlockLight", var1.blockLight.data);
       var3.putByteArray("HeightMap", var1.heightmap);
       var3.putBoolean("TerrainPopulated", var1.terrainPopulated);
-      var1.lastSaveHadEntities = false;
       ListTag var4 = new ListTag();
+      List var5 = saveEntities(var1);
 
-      Iterator var6;
-      CompoundTag var8;
-      for(int var5 = 0; var5 < var1.entityBlocks.length; ++var5) {
-         var6 = var1.entityBlocks[var5].iterator();
+      for(int var6 = 0; var6 < var5.size(); ++var6) {
+         var4.add((Tag)var5.get(var6));
+      }
 
-         while(var6.hasNext()) {
-            Entity var7 = (Entity)var6.next();
-            var1.lastSaveHadEntities = true;
-            var8 = new CompoundTag();
-            if (var7.save(var8)) {
-               var4.add(var8);
+      var3.put("Entities", var4);
+      ListTag var8 = new ListTag();
+      List var7 = saveTileEntities(var1);
+
+      for(int var9 = 0; var9 < var7.size(); ++var9) {
+         var8.add((Tag)var7.get(var9));
+      }
+
+      var3.put("TileEntities", var8);
+      ListTag var10 = new ListTag();
+      List var11 = saveTileTicks(var1);
+
+      for(int var12 = 0; var12 < var11.size(); ++var12) {
+         var10.add((Tag)var11.get(var12));
+      }
+
+      var3.put("TileTicks", var10);
+   }
+
+   private static List<CompoundTag> saveEntities(LevelChunk var0) {
+      ArrayList var1 = new ArrayList();
+      var0.lastSaveHadEntities = false;
+
+      for(int var2 = 0; var2 < var0.entityBlocks.length; ++var2) {
+         Iterator var3 = var0.entityBlocks[var2].iterator();
+
+         while(var3.hasNext()) {
+            Entity var4 = (Entity)var3.next();
+            var0.lastSaveHadEntities = true;
+            CompoundTag var5 = new CompoundTag();
+            if (var4.save(var5)) {
+               var1.add(var5);
             }
          }
       }
 
-      var3.put("Entities", var4);
-      ListTag var9 = new ListTag();
-      var6 = var1.tileEntities.values().iterator();
+      return var1;
+   }
+
+   private static List<CompoundTag> saveTileEntities(LevelChunk var0) {
+      ArrayList var1 = new ArrayList();
+      Iterator var2 = var0.tileEntities.values().iterator();
 
-      while(var6.hasNext()) {
-         TileEntity var10 = (TileEntity)var6.next();
-         var8 = new CompoundTag();
-         var10.save(var8);
-         var9.add(var8);
+      while(var2.hasNext()) {
+         TileEntity var3 = (TileEntity)var2.next();
+         CompoundTag var4 = new CompoundTag();
+         var3.save(var4);
+         var1.add(var4);
       }
 
-      var3.put("TileEntities", var9);
+      return var1;
    }
 
-   public static LevelChunk load(Level var0, CompoundTag var1) {
-      int var2 = var1.getInt("xPos");
-      int var3 = var1.getInt("zPos");
-      LevelChunk var4 = new LevelChunk(var0, var2, var3);
-      var4.blocks = var1.getByteArray("Blocks");
-      var4.data = new DataLayer(var1.getByteArray("Data"));
-      var4.skyLight = new DataLayer(var1.getByteArray("SkyLight"));
-      var4.blockLight = new DataLayer(var1.getByteArray("BlockLight"));
-      var4.heightmap = var1.getByteArray("HeightMap");
-      var4.terrainPopulated = var1.getBoolean("TerrainPopulated");
-      if (!var4.data.isValid()) {
-         var4.data = new DataLayer(var4.blocks.length);
+   public static List<CompoundTag> saveTileTicks(LevelChunk var0) {
+      ArrayList var1 = new ArrayList();
+      List var2 = var0.getTileTicks();
+
+      for(int var3 = 0; var2 != null && var3 < var2.size(); ++var3) {
+         TickNextTickData var4 = (TickNextTickData)var2.get(var3);
+         CompoundTag var5 = new CompoundTag();
+         var5.putInt("i", var4.tileId);
+         var5.putInt("x", var4.x);
+         var5.putInt("y", var4.y);
+         var5.putInt("z", var4.z);
+         var5.putInt("t", (int)var4.delay);
+         var1.add(var5);
       }
 
-      if (var4.heightmap == null || !var4.skyLight.isValid()) {
-         var4.heightmap = new byte[256];
-         var4.skyLight = new DataLayer(var4.blocks.length);
-         var4.recalcHeightmap();
+      return var1;
+   }
+
+   public static void writeChunk(Level level, LevelChunk chunk, DataOutput output) throws IOException {
+      level.checkSession();
+      NbtWriter writer = new NbtWriter(output);
+      writer.beginCompound("");
+      writer.beginCompound("Level");
+      writer.writeInt("xPos", chunk.x);
+      writer.writeInt("zPos", chunk.z);
+      writer.writeLong("LastUpdate", level.time);
+      writer.writeByteArray("Blocks", chunk.blocks);
+      writer.writeByteArray("Data", chunk.data.data);
+      writer.writeByteArray("SkyLight", chunk.skyLight.data);
+      writer.writeByteArray("BlockLight", chunk.blockLight.data);
+      writer.writeByteArray("HeightMap", chunk.heightmap);
+      writer.writeBoolean("TerrainPopulated", chunk.terrainPopulated);
+      writeCompoundList(writer, "Entities", saveEntities(chunk));
+      writeCompoundList(writer, "TileEntities", saveTileEntities(chunk));
+      writeCompoundList(writer, "TileTicks", saveTileTicks(chunk));
+      writer.endCompound();
+      writer.endCompound();
+   }
+
+   public static void writeChunkTag(CompoundTag root, DataOutput output) throws IOException {
+      CompoundTag tag = root.getCompound("Level");
+      NbtWriter writer = new NbtWriter(output);
+      writer.beginCompound("");
+      writer.beginCompound("Level");
+      writer.writeInt("xPos", tag.getInt("xPos"));
+      writer.writeInt("zPos", tag.getInt("zPos"));
+      writer.writeLong("LastUpdate", tag.getLong("LastUpdate"));
+      writer.writeByteArray("Blocks", tag.getByteArray("Blocks"));
+      writer.writeByteArray("Data", tag.getByteArray("Data"));
+      writer.writeByteArray("SkyLight", tag.getByteArray("SkyLight"));
+      writer.writeByteArray("BlockLight", tag.getByteArray("BlockLight"));
+      writer.writeByteArray("HeightMap", tag.getByteArray("HeightMap"));
+      writer.writeBoolean("TerrainPopulated", tag.getBoolean("TerrainPopulated"));
+      writeCompoundList(writer, "Entities", tag.getList("Entities"));
+      writeCompoundList(writer, "TileEntities", tag.getList("TileEntities"));
+      writeCompoundList(writer, "TileTicks", tag.getList("TileTicks"));
+      writer.endCompound();
+      writer.endCompound();
+   }
+
+   private static void writeCompoundList(NbtWriter writer, String name, List<CompoundTag> tags) throws IOException {
+      writer.beginList(name, (byte)10, tags.size());
+
+      for(int i = 0; i < tags.size(); ++i) {
+         writer.writeListElement((Tag)tags.get(i));
       }
 
-      if (!var4.blockLight.isValid()) {
-         var4.blockLight = new DataLayer(var4.blocks.length);
-         var4.recalcBlockLights();
+   }
+
+   private static void writeCompoundList(NbtWriter writer, String name, ListTag<? extends Tag> list) throws IOException {
+      writer.beginList(name, (byte)10, list.size());
+
+      for(int i = 0; i < list.size(); ++i) {
+         writer.writeListElement(list.get(i));
       }
 
-      ListTag var5 = var1.getList("Entities");
-      if (var5 != null) {
-         for(int var6 = 0; var6 < var5.size(); ++var6) {
-            CompoundTag var7 = (CompoundTag)var5.get(var6);
-            Entity var8 = EntityIO.loadStatic(var7, var0);
-            var4.lastSaveHadEntities = true;
-            if (var8 != null) {
-               var4.addEntity(var8);
+   }
+
+   public static ChunkData readChunk(Level level, int x, int z, DataInput input) throws IOException {
+      NbtReader reader = new NbtReader(input);
+      reader.readRootCompound();
+      ChunkData data = null;
+      boolean found = false;
+
+      while(reader.next() != 0) {
+         if (reader.getType() == 10 && reader.getName().equals("Level")) {
+            found = true;
+            data = readLevel(level, x, z, reader);
+         } else {
+            reader.skip();
+         }
+      }
+
+      if (!found) {
+         System.out.println("Chunk file at " + x + "," + z + " is missing level data, skipping");
+      }
+
+      return data;
+   }
+
+   private static ChunkData readLevel(Level level, int x, int z, NbtReader reader) throws IOException {
+      LevelChunk chunk = new LevelChunk(level, x, z);
+      CompoundTag tag = new CompoundTag();
+      int xPos = x;
+      int zPos = z;
+
+      while(reader.next() != 0) {
+         String name = reader.getName();
+         byte type = reader.getType();
+         if (type == 3 && name.equals("xPos")) {
+            xPos = reader.readInt();
+         } else if (type == 3 && name.equals("zPos")) {
+            zPos = reader.readInt();
+         } else if (type == 7 && name.equals("Blocks")) {
+            chunk.blocks = reader.readByteArray();
+         } else if (type == 7 && name.equals("Data")) {
+            chunk.data = new DataLayer(reader.readByteArray());
+         } else if (type == 7 && name.equals("SkyLight")) {
+            chunk.skyLight = new DataLayer(reader.readByteArray());
+         } else if (type == 7 && name.equals("BlockLight")) {
+            chunk.blockLight = new DataLayer(reader.readByteArray());
+         } else if (type == 7 && name.equals("HeightMap")) {
+            chunk.heightmap = reader.readByteArray();
+         } else if (type == 1 && name.equals("TerrainPopulated")) {
+            chunk.terrainPopulated = reader.readByte() != 0;
+         } else if (type == 9 && (name.equals("Entities") || name.equals("TileEntities") || name.equals("TileTicks"))) {
+            tag.put(name, readCompoundList(reader));
+         } else {
+            reader.skip();
+         }
+      }
+
+      if (chunk.blocks == null) {
+         System.out.println("Chunk file at " + x + "," + z + " is missing block data, skipping");
+         return null;
+      } else {
+         if (xPos != x || zPos != z) {
+            System.out.println("Chunk file at " + x + "," + z + " is in the wrong location; relocating. (Expected " + x + ", " + z + ", got " + xPos + ", " + zPos + ")");
+         }
+
+         return new ChunkData(chunk, tag);
+      }
+   }
+
+   private static ListTag<CompoundTag> readCompoundList(NbtReader reader) throws IOException {
+      int count = reader.beginList();
+      ListTag<CompoundTag> list = new ListTag();
+
+      for(int i = 0; i < count; ++i) {
+         if (reader.getListType() == 10) {
+            list.add(reader.readCompound());
+         } else {
+            reader.skipListElement();
+         }
+      }
+
+      return list;
+   }
+
+   public static LevelChunk load(Level var0, LevelChunk var1, CompoundTag var2) {
+      if (var1.data == null || !var1.data.isValid()) {
+         var1.data = new DataLayer(var1.blocks.length);
+      }
+
+      if (var1.heightmap == null || var1.skyLight == null || !var1.skyLight.isValid()) {
+         var1.heightmap = new byte[256];
+         var1.skyLight = new DataLayer(var1.blocks.length);
+         var1.recalcHeightmap();
+      }
+
+      if (var1.blockLight == null || !var1.blockLight.isValid()) {
+         var1.blockLight = new DataLayer(var1.blocks.length);
+         var1.recalcBlockLights();
+      }
+
+      ListTag var3 = var2.getList("Entities");
+      if (var3 != null) {
+         for(int var4 = 0; var4 < var3.size(); ++var4) {
+            CompoundTag var5 = (CompoundTag)var3.get(var4);
+            Entity var6 = EntityIO.loadStatic(var5, var0);
+            var1.lastSaveHadEntities = true;
+            if (var6 != null) {
+               var1.addEntity(var6);
             }
          }
       }
 
-      ListTag var10 = var1.getList("TileEntities");
-      if (var10 != null) {
-         for(int var11 = 0; var11 < var10.size(); ++var11) {
-            CompoundTag var12 = (CompoundTag)var10.get(var11);
-            TileEntity var9 = TileEntity.loadStatic(var12);
-            if (var9 != null) {
-               var4.addTileEntity(var9);
+      ListTag var7 = var2.getList("TileEntities");
+      if (var7 != null) {
+         for(int var8 = 0; var8 < var7.size(); ++var8) {
+            CompoundTag var9 = (CompoundTag)var7.get(var8);
+            TileEntity var10 = TileEntity.loadStatic(var9);
+            if (var10 != null) {
+               var1.addTileEntity(var10);
             }
          }
       }
 
-      return var4;
+      ListTag var11 = var2.getList("TileTicks");
+      if (var11 != null && var11.size() > 0) {
+         var1.tileTicks = new ArrayList();
+
+         for(int var12 = 0; var12 < var11.size(); ++var12) {
+            CompoundTag var13 = (CompoundTag)var11.get(var12);
+            var1.tileTicks.add((new TickNextTickData(var13.getInt("x"), var13.getInt("y"), var13.getInt("z"), var13.getInt("i"))).delay((long)var13.getInt("t")));
+         }
+      }
+
+      return var1;
    }
 
    public void tick() {
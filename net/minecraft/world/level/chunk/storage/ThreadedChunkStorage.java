@@ -0,0 +1,308 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.nbt.CompoundTag;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+public class ThreadedChunkStorage implements ChunkStorage {
+   public static final int READ_THREADS = 2;
+   public static final int MAX_PENDING_READS = 256;
+   public static final int MAX_PENDING_WRITES = 1024;
+   public static final int MAX_DECODED = 256;
+   public static final int MAX_DECODES_PER_TICK = 8;
+   private static ExecutorService readers;
+   private static ExecutorService writer;
+   private static int open = 0;
+   private final ChunkStorage storage;
+   private final ConcurrentMap<Long, Future<ChunkData>> pendingReads = new ConcurrentHashMap();
+   private final ConcurrentMap<Long, Future<Long>> pendingWrites = new ConcurrentHashMap();
+   private final Map<Long, LevelChunk> decoded = new LinkedHashMap();
+   private final AtomicLong sizeOnDisk = new AtomicLong();
+   private Level level;
+   private boolean closed = false;
+
+   public ThreadedChunkStorage(ChunkStorage storage) {
+      this.storage = storage;
+      start();
+   }
+
+   private static synchronized void start() {
+      if (open++ == 0) {
+         readers = Executors.newFixedThreadPool(READ_THREADS, new ThreadedChunkStorage.IoThreadFactory("Chunk reader"));
+         writer = Executors.newSingleThreadExecutor(new ThreadedChunkStorage.IoThreadFactory("Chunk writer"));
+      }
+
+   }
+
+   private static synchronized void stop() {
+      if (--open == 0) {
+         readers.shutdownNow();
+         writer.shutdown();
+         readers = null;
+         writer = null;
+      }
+
+   }
+
+   private static long key(int x, int z) {
+      return (long)x & 4294967295L | ((long)z & 4294967295L) << 32;
+   }
+
+   public void prefetch(final Level level, final int x, final int z) {
+      this.level = level;
+      Long key = key(x, z);
+      if (!this.decoded.containsKey(key) && !this.pendingReads.containsKey(key) && this.pendingReads.size() < MAX_PENDING_READS) {
+         this.pendingReads.put(key, readers.submit(new Callable<ChunkData>() {
+            public ChunkData call() throws IOException {
+               return ThreadedChunkStorage.this.read(level, x, z);
+            }
+         }));
+      }
+   }
+
+   public boolean isPending(int x, int z) {
+      Long key = key(x, z);
+      return this.decoded.containsKey(key) || this.pendingReads.containsKey(key);
+   }
+
+   public LevelChunk load(Level level, int x, int z) throws IOException {
+      this.level = level;
+      this.updateSizeOnDisk();
+      Long key = key(x, z);
+      if (this.decoded.containsKey(key)) {
+         return (LevelChunk)this.decoded.remove(key);
+      } else {
+         Future<ChunkData> read = (Future)this.pendingReads.remove(key);
+         ChunkData data = read == null ? this.read(level, x, z) : (ChunkData)this.waitFor(read);
+         return data == null ? null : this.storage.load(level, data);
+      }
+   }
+
+   public ChunkData read(Level level, int x, int z) throws IOException {
+      Future<Long> write = (Future)this.pendingWrites.get(key(x, z));
+      if (write != null) {
+         this.waitForWrite(write);
+      }
+
+      return this.storage.read(level, x, z);
+   }
+
+   public LevelChunk load(Level level, ChunkData data) {
+      return this.storage.load(level, data);
+   }
+
+   public void save(Level level, LevelChunk chunk) throws IOException {
+      this.level = level;
+      this.updateSizeOnDisk();
+      final int x = chunk.x;
+      final int z = chunk.z;
+      final CompoundTag tag = this.storage.snapshot(level, chunk);
+      Long key = key(x, z);
+      this.decoded.remove(key);
+      this.pendingReads.remove(key);
+      this.queueWrite(key, new Callable<Long>() {
+         public Long call() throws IOException {
+            return ThreadedChunkStorage.this.storage.write(x, z, tag);
+         }
+      });
+   }
+
+   public void saveEntities(Level level, LevelChunk chunk) {
+      this.level = level;
+      final int x = chunk.x;
+      final int z = chunk.z;
+      final CompoundTag tag = this.storage.snapshotEntities(level, chunk);
+      if (tag != null) {
+         this.queueWrite(key(x, z), new Callable<Long>() {
+            public Long call() throws IOException {
+               ThreadedChunkStorage.this.storage.writeEntities(x, z, tag);
+               return 0L;
+            }
+         });
+      }
+
+   }
+
+   private void queueWrite(Long key, Callable<Long> write) {
+      ThreadedChunkStorage.WriteTask task = new ThreadedChunkStorage.WriteTask(key, write);
+      this.pendingWrites.put(key, task);
+      writer.execute(task);
+      if (this.pendingWrites.size() > MAX_PENDING_WRITES) {
+         this.waitForWrite(task);
+      }
+
+   }
+
+   public CompoundTag snapshot(Level level, LevelChunk chunk) {
+      return this.storage.snapshot(level, chunk);
+   }
+
+   public long write(int x, int z, CompoundTag tag) throws IOException {
+      return this.storage.write(x, z, tag);
+   }
+
+   public CompoundTag snapshotEntities(Level level, LevelChunk chunk) {
+      return this.storage.snapshotEntities(level, chunk);
+   }
+
+   public void writeEntities(int x, int z, CompoundTag tag) throws IOException {
+      this.storage.writeEntities(x, z, tag);
+   }
+
+   public void tick() {
+      int decodes = 0;
+      Iterator<Map.Entry<Long, Future<ChunkData>>> it = this.pendingReads.entrySet().iterator();
+
+      while(it.hasNext() && decodes < MAX_DECODES_PER_TICK && this.level != null) {
+         Map.Entry<Long, Future<ChunkData>> entry = (Map.Entry)it.next();
+         if (((Future)entry.getValue()).isDone()) {
+            it.remove();
+            long key = (Long)entry.getKey();
+
+            try {
+               ChunkData data = (ChunkData)this.waitFor((Future)entry.getValue());
+               this.decoded.put(key, data == null ? null : this.storage.load(this.level, data));
+               ++decodes;
+            } catch (IOException e) {
+            }
+         }
+      }
+
+      Iterator<Long> eldest = this.decoded.keySet().iterator();
+
+      while(this.decoded.size() > MAX_DECODED) {
+         eldest.next();
+         eldest.remove();
+      }
+
+      writer.execute(new Runnable() {
+         public void run() {
+            ThreadedChunkStorage.this.storage.tick();
+         }
+      });
+   }
+
+   public void flush() {
+      FutureTask<Object> flush = new FutureTask(new Runnable() {
+         public void run() {
+            ThreadedChunkStorage.this.storage.flush();
+         }
+      }, (Object)null);
+      writer.execute(flush);
+
+      try {
+         this.waitFor(flush);
+      } catch (IOException e) {
+         e.printStackTrace();
+      }
+
+      this.updateSizeOnDisk();
+   }
+
+   public void close() {
+      if (!this.closed) {
+         this.closed = true;
+         this.flush();
+         this.pendingReads.clear();
+         this.decoded.clear();
+         stop();
+      }
+
+   }
+
+   private void updateSizeOnDisk() {
+      if (this.level != null) {
+         this.level.sizeOnDisk += this.sizeOnDisk.getAndSet(0L);
+      }
+
+   }
+
+   private void waitForWrite(Future<Long> write) {
+      try {
+         this.waitFor(write);
+      } catch (IOException e) {
+      }
+
+   }
+
+   private Object waitFor(Future<?> future) throws IOException {
+      boolean interrupted = false;
+
+      try {
+         while(true) {
+            try {
+               return future.get();
+            } catch (InterruptedException e) {
+               interrupted = true;
+            } catch (ExecutionException e) {
+               Throwable cause = e.getCause();
+               if (cause instanceof IOException) {
+                  throw (IOException)cause;
+               }
+
+               throw new IOException("Chunk I/O failed", cause);
+            }
+         }
+      } finally {
+         if (interrupted) {
+            Thread.currentThread().interrupt();
+         }
+
+      }
+   }
+
+   public String gatherStats() {
+      return "reads: " + this.pendingReads.size() + ", decoded: " + this.decoded.size() + ", writes: " + this.pendingWrites.size();
+   }
+
+   private class WriteTask extends FutureTask<Long> {
+      private final Long key;
+
+      public WriteTask(Long key, Callable<Long> write) {
+         super(write);
+         this.key = key;
+      }
+
+      protected void done() {
+         ThreadedChunkStorage.this.pendingWrites.remove(this.key, this);
+         if (!this.isCancelled()) {
+            try {
+               ThreadedChunkStorage.this.sizeOnDisk.addAndGet((Long)ThreadedChunkStorage.this.waitFor(this));
+            } catch (IOException e) {
+               e.printStackTrace();
+            }
+         }
+
+      }
+   }
+
+   static class IoThreadFactory implements ThreadFactory {
+      private final String name;
+      private int count = 0;
+
+      public IoThreadFactory(String name) {
+         this.name = name;
+      }
+
+      public synchronized Thread newThread(Runnable runnable) {
+         Thread thread = new Thread(runnable, this.name + " #" + ++this.count);
+         thread.setDaemon(true);
+         thread.setPriority(4);
+         return thread;
+      }
+   }
+}
@@ -0,0 +1,227 @@
+package net.minecraft.world.level.chunk.storage;
+
+import com.mojang.nbt.CompoundTag;
+import com.mojang.nbt.NbtIo;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ZoneConverter {
+   public static final int READ_BATCH = 64;
+   public static final long REPORT_INTERVAL_MS = 2000L;
+   private final File dir;
+   private final ForkJoinPool pool;
+   private final AtomicInteger converted = new AtomicInteger();
+   private final AtomicInteger failed = new AtomicInteger();
+   private final AtomicInteger skipped = new AtomicInteger();
+   private final AtomicInteger zonesDone = new AtomicInteger();
+
+   public ZoneConverter(File dir, int threads) {
+      this.dir = dir;
+      this.pool = new ForkJoinPool(threads);
+   }
+
+   public Map<Long, List<ZoneConverter.OldChunk>> findChunks() {
+      Map<Long, List<ZoneConverter.OldChunk>> zones = new HashMap();
+      File[] xDirs = this.dir.listFiles();
+
+      for(int i = 0; xDirs != null && i < xDirs.length; ++i) {
+         File[] zDirs = xDirs[i].isDirectory() ? xDirs[i].listFiles() : null;
+
+         for(int j = 0; zDirs != null && j < zDirs.length; ++j) {
+            File[] files = zDirs[j].isDirectory() ? zDirs[j].listFiles() : null;
+
+            for(int k = 0; files != null && k < files.length; ++k) {
+               ZoneConverter.OldChunk chunk = ZoneConverter.OldChunk.parse(files[k]);
+               if (chunk != null) {
+                  long key = (long)(chunk.x >> 5) & 4294967295L | ((long)(chunk.z >> 5) & 4294967295L) << 32;
+                  List<ZoneConverter.OldChunk> zone = (List)zones.get(key);
+                  if (zone == null) {
+                     zone = new ArrayList();
+                     zones.put(key, zone);
+                  }
+
+                  zone.add(chunk);
+               }
+            }
+         }
+      }
+
+      return zones;
+   }
+
+   public int run() throws InterruptedException {
+      System.out.print("Scanning " + this.dir + "..");
+      Map<Long, List<ZoneConverter.OldChunk>> zones = this.findChunks();
+      int total = 0;
+      List<ZoneConverter.ConvertZone> tasks = new ArrayList();
+      Iterator<List<ZoneConverter.OldChunk>> it = zones.values().iterator();
+
+      while(it.hasNext()) {
+         List<ZoneConverter.OldChunk> zone = (List)it.next();
+         total += zone.size();
+         tasks.add(new ZoneConverter.ConvertZone(zone));
+      }
+
+      System.out.println(" " + total + " chunks in " + zones.size() + " zones");
+      long start = System.currentTimeMillis();
+      ForkJoinTask<Void> root = this.pool.submit(new ZoneConverter.ConvertAll(tasks));
+
+      while(true) {
+         try {
+            root.get(REPORT_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            break;
+         } catch (TimeoutException e) {
+            this.report(total, zones.size(), start);
+         } catch (ExecutionException e) {
+            e.getCause().printStackTrace();
+            break;
+         }
+      }
+
+      this.pool.shutdown();
+      long time = Math.max(System.currentTimeMillis() - start, 1L);
+      System.out.println("Converted " + this.converted.get() + " chunks (" + this.failed.get() + " failed, " + this.skipped.get() + " already converted) in " + time / 1000L + "." + time % 1000L / 100L + " s, " + (long)this.converted.get() * 1000L / time + " chunks/s");
+      return this.failed.get();
+   }
+
+   private void report(int total, int zones, long start) {
+      long time = Math.max(System.currentTimeMillis() - start, 1L);
+      int done = this.converted.get() + this.failed.get() + this.skipped.get();
+      long rate = (long)done * 1000L / time;
+      String eta = rate == 0L ? "?" : (long)(total - done) / rate + " s";
+      System.out.println("Converted " + done + "/" + total + " chunks, " + this.zonesDone.get() + "/" + zones + " zones, " + rate + " chunks/s, eta " + eta);
+   }
+
+   private class ConvertAll extends RecursiveAction {
+      private final List<ZoneConverter.ConvertZone> zones;
+
+      public ConvertAll(List<ZoneConverter.ConvertZone> zones) {
+         this.zones = zones;
+      }
+
+      protected void compute() {
+         invokeAll(this.zones);
+      }
+   }
+
+   private class ConvertZone extends RecursiveAction {
+      private final List<ZoneConverter.OldChunk> chunks;
+
+      public ConvertZone(List<ZoneConverter.OldChunk> chunks) {
+         this.chunks = chunks;
+      }
+
+      protected void compute() {
+         CompressedZonedChunkStorage storage = new CompressedZonedChunkStorage(ZoneConverter.this.dir, Integer.MAX_VALUE);
+
+         try {
+            for(int i = 0; i < this.chunks.size(); i += READ_BATCH) {
+               List<ZoneConverter.ReadChunk> reads = new ArrayList();
+
+               for(int j = i; j < this.chunks.size() && j < i + READ_BATCH; ++j) {
+                  ZoneConverter.OldChunk chunk = (ZoneConverter.OldChunk)this.chunks.get(j);
+
+                  try {
+                     if (storage.contains(chunk.x, chunk.z)) {
+                        ZoneConverter.this.skipped.incrementAndGet();
+                        continue;
+                     }
+                  } catch (IOException e) {
+                     System.out.println("Failed to open zone for chunk " + chunk.x + ", " + chunk.z + ": " + e);
+                     ZoneConverter.this.failed.incrementAndGet();
+                     continue;
+                  }
+
+                  ZoneConverter.ReadChunk read = ZoneConverter.this.new ReadChunk(chunk);
+                  read.fork();
+                  reads.add(read);
+               }
+
+               for(int j = 0; j < reads.size(); ++j) {
+                  ZoneConverter.ReadChunk read = (ZoneConverter.ReadChunk)reads.get(j);
+                  CompoundTag tag = (CompoundTag)read.join();
+                  if (tag == null) {
+                     ZoneConverter.this.failed.incrementAndGet();
+                  } else {
+                     try {
+                        storage.write(read.chunk.x, read.chunk.z, tag);
+                        ZoneConverter.this.converted.incrementAndGet();
+                     } catch (IOException e) {
+                        System.out.println("Failed to write chunk " + read.chunk.x + ", " + read.chunk.z + ": " + e);
+                        ZoneConverter.this.failed.incrementAndGet();
+                     }
+                  }
+               }
+            }
+         } finally {
+            storage.flush();
+            ZoneConverter.this.zonesDone.incrementAndGet();
+         }
+
+      }
+   }
+
+   private class ReadChunk extends RecursiveTask<CompoundTag> {
+      private final ZoneConverter.OldChunk chunk;
+
+      public ReadChunk(ZoneConverter.OldChunk chunk) {
+         this.chunk = chunk;
+      }
+
+      protected CompoundTag compute() {
+         try {
+            CompoundTag tag = NbtIo.readCompressed(new FileInputStream(this.chunk.file));
+            if (!tag.contains("Level") || !tag.getCompound("Level").contains("Blocks")) {
+               System.out.println("Chunk file " + this.chunk.file + " is missing level data, skipping");
+               return null;
+            } else {
+               return tag;
+            }
+         } catch (IOException e) {
+            System.out.println("Failed to read chunk file " + this.chunk.file + ": " + e);
+            return null;
+         }
+      }
+   }
+
+   public static class OldChunk {
+      public final File file;
+      public final int x;
+      public final int z;
+
+      public OldChunk(File file, int x, int z) {
+         this.file = file;
+         this.x = x;
+         this.z = z;
+      }
+
+      public static ZoneConverter.OldChunk parse(File file) {
+         String name = file.getName();
+         if (name.startsWith("c.") && name.endsWith(".dat") && file.isFile()) {
+            String[] parts = name.substring(2, name.length() - 4).split("\\.");
+            if (parts.length == 2) {
+               try {
+                  return new ZoneConverter.OldChunk(file, Integer.parseInt(parts[0], 36), Integer.parseInt(parts[1], 36));
+               } catch (NumberFormatException e) {
+               }
+            }
+         }
+
+         return null;
+      }
+   }
+}
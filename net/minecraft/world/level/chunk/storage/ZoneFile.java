@@ -4,15 +4,22 @@ import java.io.File;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 
 public class ZoneFile {
    public static final int FILE_HEADER_SIZE = 4096;
    private static final int MAGIC_NUMBER = 326332416;
+   private static final int MAP_GROWTH_SLOTS = 32;
    private short[] slots = new short[1024];
    private short slotCount;
    public long lastUse = 0L;
    private final FileChannel channel;
+   private MappedByteBuffer buffer;
+   private int mappedSlots = -1;
+   private boolean headerDirty = false;
+   private boolean dirty = false;
    public final Long key;
    public final File file;
    public NbtSlotFile entityFile;
@@ -40,41 +47,82 @@ public class ZoneFile {
       }
    }
 
+   private void map(int var1) throws IOException {
+      if (var1 > this.mappedSlots) {
+         int var2 = (var1 + MAP_GROWTH_SLOTS - 1) / MAP_GROWTH_SLOTS * MAP_GROWTH_SLOTS;
+         if (var2 > this.slots.length) {
+            var2 = this.slots.length;
+         }
+
+         long var3 = 4096L + (long)var2 * 98560L;
+         this.buffer = this.channel.map(MapMode.READ_WRITE, 0L, var3);
+         this.buffer.order(ZonedChunkStorage.BYTE_ORDER);
+         this.mappedSlots = var2;
+      }
+   }
+
    private void readHeader() throws IOException {
-      ZoneIo var1 = new ZoneIo(this.channel, 0L);
-      ByteBuffer var2 = var1.read(4096);
-      var2.flip();
-      if (var2.remaining() >= 5) {
+      boolean var1 = this.channel.size() >= 4096L;
+      this.map(0);
+      if (var1) {
+         ByteBuffer var2 = this.buffer.duplicate().order(ZonedChunkStorage.BYTE_ORDER);
          int var3 = var2.getInt();
-         if (var3 != 326332416) {
-            throw new IOException("Bad magic number: " + var3);
-         } else {
+         if (var3 != 0) {
+            if (var3 != 326332416) {
+               throw new IOException("Bad magic number: " + var3);
+            }
+
             short var4 = var2.getShort();
             if (var4 != 0) {
                throw new IOException("Bad version number: " + var4);
-            } else {
-               this.slotCount = var2.getShort();
-               var2.asShortBuffer().get(this.slots);
-               var2.position(var2.position() + this.slots.length * 2);
             }
+
+            this.slotCount = var2.getShort();
+            var2.asShortBuffer().get(this.slots);
+            this.map(this.slotCount);
          }
       }
+
+   }
+
+   private void writeHeader() {
+      ByteBuffer var1 = this.buffer.duplicate().order(ZonedChunkStorage.BYTE_ORDER);
+      var1.putInt(326332416);
+      var1.putShort((short)0);
+      var1.putShort(this.slotCount);
+      var1.asShortBuffer().put(this.slots);
+      this.headerDirty = false;
+      this.dirty = true;
+   }
+
+   void markDirty() {
+      this.dirty = true;
+   }
+
+   public boolean isDirty() {
+      return this.dirty || this.headerDirty;
    }
 
-   private void writeHeader() throws IOException {
-      ZoneIo var1 = new ZoneIo(this.channel, 0L);
-      ByteBuffer var2 = ByteBuffer.allocate(4096);
-      var2.order(ZonedChunkStorage.BYTE_ORDER);
-      var2.putInt(326332416);
-      var2.putShort((short)0);
-      var2.putShort(this.slotCount);
-      var2.asShortBuffer().put(this.slots);
-      var2.position(var2.position() + this.slots.length * 2);
-      var2.flip();
-      var1.write((ByteBuffer)var2, 4096);
+   public void sync() {
+      if (this.headerDirty) {
+         this.writeHeader();
+      }
+
+      if (this.dirty) {
+         this.buffer.force();
+         this.dirty = false;
+      }
+
+      try {
+         this.entityFile.sync();
+      } catch (IOException var2) {
+         var2.printStackTrace();
+      }
+
    }
 
    public void close() throws IOException {
+      this.sync();
       this.channel.force(true);
       this.channel.close();
       this.entityFile.close();
@@ -83,11 +131,12 @@ public class ZoneFile {
    public ZoneIo getZoneIo(int var1) throws IOException {
       if (this.slots[var1] == 0) {
          this.slots[var1] = ++this.slotCount;
-         this.writeHeader();
+         this.headerDirty = true;
       }
 
+      this.map(this.slots[var1]);
       int var2 = (this.slots[var1] - 1) * 98560 + 4096;
-      return new ZoneIo(this.channel, (long)var2);
+      return new ZoneIo(this, this.buffer, var2);
    }
 
    public boolean containsSlot(int var1) {
@@ -1,49 +1,48 @@
 package net.minecraft.world.level.chunk.storage;
 
-import java.io.IOException;
 import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
 
 public class ZoneIo {
-   private FileChannel channel;
-   private long pos;
+   private ZoneFile zone;
+   private ByteBuffer buffer;
+   private int pos;
 
-   public ZoneIo(FileChannel var1, long var2) {
-      this.channel = var1;
-      this.pos = var2;
+   public ZoneIo(ZoneFile var1, ByteBuffer var2, int var3) {
+      this.zone = var1;
+      this.buffer = var2;
+      this.pos = var3;
    }
 
-   public void write(byte[] var1, int var2) throws IOException {
-      ByteBuffer var3 = ByteBuffer.wrap(var1);
+   public void write(byte[] var1, int var2) {
       if (var1.length != var2) {
          throw new IllegalArgumentException("Expected " + var2 + " bytes, got " + var1.length);
       } else {
-         var3.order(ZonedChunkStorage.BYTE_ORDER);
-         var3.position(var1.length);
-         var3.flip();
-         this.write(var3, var2);
+         ByteBuffer var3 = this.buffer.duplicate();
+         var3.position(this.pos);
+         var3.put(var1);
+         this.pos += var2;
+         this.zone.markDirty();
       }
    }
 
-   public void write(ByteBuffer var1, int var2) throws IOException {
-      this.channel.position(this.pos);
-      this.channel.write(var1);
-      this.pos += (long)var2;
+   public void write(ByteBuffer var1, int var2) {
+      ByteBuffer var3 = this.buffer.duplicate();
+      var3.position(this.pos);
+      var3.put(var1);
+      this.pos += var2;
+      this.zone.markDirty();
    }
 
-   public ByteBuffer read(int var1) throws IOException {
-      byte[] var2 = new byte[var1];
-      this.channel.position(this.pos);
-      ByteBuffer var3 = ByteBuffer.wrap(var2);
-      var3.order(ZonedChunkStorage.BYTE_ORDER);
-      var3.position(var1);
-      var3.flip();
-      this.channel.read(var3);
-      this.pos += (long)var1;
-      return var3;
+   public ByteBuffer read(int var1) {
+      ByteBuffer var2 = this.buffer.duplicate();
+      var2.position(this.pos);
+      var2.limit(this.pos + var1);
+      this.pos += var1;
+      return var2.slice().order(ZonedChunkStorage.BYTE_ORDER);
    }
 
-   public void flush() throws IOException {
-      this.channel.force(false);
+   public byte[] read(byte[] var1) {
+      this.read(var1.length).get(var1);
+      return var1;
    }
 }
@@ -1,6 +1,8 @@
 package net.minecraft.world.level.chunk.storage;
 
 import com.mojang.nbt.CompoundTag;
+import com.mojang.nbt.ListTag;
+import com.mojang.nbt.Tag;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -13,6 +15,7 @@ import java.util.Map;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntityIO;
 import net.minecraft.world.level.Level;
+import net.minecraft.world.level.TickNextTickData;
 import net.minecraft.world.level.chunk.DataLayer;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.tile.entity.TileEntity;
@@ -30,14 +33,20 @@ public class ZonedChunkStorage implements ChunkStorage {
    private File dir;
    private Map<Long, ZoneFile> zoneFiles = new HashMap();
    private long tickCount = 0L;
+   private int syncInterval;
 
    public ZonedChunkStorage(File var1) {
+      this(var1, 100);
+   }
+
+   public ZonedChunkStorage(File var1, int var2) {
       var1 = new File(var1, "data");
       if (!var1.exists()) {
          var1.mkdir();
       }
 
       this.dir = var1;
+      this.syncInterval = var2;
    }
 
    private int getSlot(int var1, int var2) {
@@ -78,7 +87,7 @@ public class ZonedChunkStorage implements ChunkStorage {
       return var4 == null ? null : var4.getZoneIo(this.getSlot(var1, var2));
    }
 
-   public LevelChunk load(Level var1, int var2, int var3) throws IOException {
+   public synchronized LevelChunk load(Level var1, int var2, int var3) throws IOException {
       ZoneIo var4 = this.getBuffer(var2, var3, false);
       if (var4 == null) {
          return null;
@@ -86,12 +95,11 @@ public class ZonedChunkStorage implements ChunkStorage {
          LevelChunk var5 = new LevelChunk(var1, var2, var3);
          var5.unsaved = false;
          ByteBuffer var6 = var4.read(256);
-         var5.blocks = var4.read(32768).array();
-         var5.data = new DataLayer(var4.read(16384).array());
-         var5.skyLight = new DataLayer(var4.read(16384).array());
-         var5.blockLight = new DataLayer(var4.read(16384).array());
-         var5.heightmap = var4.read(256).array();
-         var6.flip();
+         var5.blocks = var4.read(new byte[32768]);
+         var5.data = new DataLayer(var4.read(new byte[16384]));
+         var5.skyLight = new DataLayer(var4.read(new byte[16384]));
+         var5.blockLight = new DataLayer(var4.read(new byte[16384]));
+         var4.read(var5.heightmap);
          int var7 = var6.getInt();
          int var8 = var6.getInt();
          long var9 = var6.getLong();
@@ -102,7 +110,7 @@ public class ZonedChunkStorage implements ChunkStorage {
       }
    }
 
-   public void save(Level var1, LevelChunk var2) throws IOException {
+   public synchronized void save(Level var1, LevelChunk var2) throws IOException {
       long var3 = 0L;
       if (var2.terrainPopulated) {
          var3 |= 1L;
@@ -122,11 +130,113 @@ public class ZonedChunkStorage implements ChunkStorage {
       var6.write((byte[])var2.skyLight.data, 16384);
       var6.write((byte[])var2.blockLight.data, 16384);
       var6.write((byte[])var2.heightmap, 256);
-      var6.flush();
    }
 
-   public void tick() {
+   public synchronized ChunkData read(Level var1, int var2, int var3) throws IOException {
+      ZoneIo var4 = this.getBuffer(var2, var3, false);
+      if (var4 == null) {
+         return null;
+      } else {
+         LevelChunk var5 = new LevelChunk(var1, var2, var3);
+         ByteBuffer var6 = var4.read(256);
+         var5.blocks = var4.read(new byte[32768]);
+         var5.data = new DataLayer(var4.read(new byte[16384]));
+         var5.skyLight = new DataLayer(var4.read(new byte[16384]));
+         var5.blockLight = new DataLayer(var4.read(new byte[16384]));
+         var4.read(var5.heightmap);
+         var6.getInt();
+         var6.getInt();
+         var6.getLong();
+         var5.terrainPopulated = (var6.getLong() & 1L) != 0L;
+         ListTag var7 = new ListTag();
+         ListTag var8 = new ListTag();
+         ListTag var9 = new ListTag();
+         List var10 = this.getZoneFile(var2, var3, true).entityFile.readAll(this.getSlot(var2, var3));
+
+         for(int var11 = 0; var11 < var10.size(); ++var11) {
+            CompoundTag var12 = (CompoundTag)var10.get(var11);
+            int var13 = var12.getInt("_TYPE");
+            if (var13 == 0) {
+               var7.add(var12);
+            } else if (var13 == 1) {
+               var8.add(var12);
+            } else if (var13 == 2) {
+               var9.add(var12);
+            }
+         }
+
+         CompoundTag var14 = new CompoundTag();
+         var14.put("Entities", var7);
+         var14.put("TileEntities", var8);
+         var14.put("TileTicks", var9);
+         return new ChunkData(var5, var14);
+      }
+   }
+
+   public LevelChunk load(Level var1, ChunkData var2) {
+      LevelChunk var3 = OldChunkStorage.load(var1, var2.chunk, var2.tag);
+      var3.unsaved = false;
+      return var3;
+   }
+
+   public CompoundTag snapshot(Level var1, LevelChunk var2) {
+      return OldChunkStorage.createSnapshot(var1, var2);
+   }
+
+   public synchronized long write(int var1, int var2, CompoundTag var3) throws IOException {
+      CompoundTag var4 = var3.getCompound("Level");
+      long var5 = 0L;
+      if (var4.getBoolean("TerrainPopulated")) {
+         var5 |= 1L;
+      }
+
+      ByteBuffer var7 = ByteBuffer.allocate(256);
+      var7.order(BYTE_ORDER);
+      var7.putInt(var1);
+      var7.putInt(var2);
+      var7.putLong(var4.getLong("LastUpdate"));
+      var7.putLong(var5);
+      var7.flip();
+      ZoneIo var8 = this.getBuffer(var1, var2, true);
+      var8.write((ByteBuffer)var7, 256);
+      var8.write((byte[])var4.getByteArray("Blocks"), 32768);
+      var8.write((byte[])var4.getByteArray("Data"), 16384);
+      var8.write((byte[])var4.getByteArray("SkyLight"), 16384);
+      var8.write((byte[])var4.getByteArray("BlockLight"), 16384);
+      var8.write((byte[])var4.getByteArray("HeightMap"), 256);
+      this.writeEntities(var1, var2, var4);
+      return 0L;
+   }
+
+   public CompoundTag snapshotEntities(Level var1, LevelChunk var2) {
+      return OldChunkStorage.createEntitySnapshot(var2);
+   }
+
+   public synchronized void writeEntities(int var1, int var2, CompoundTag var3) throws IOException {
+      ArrayList var4 = new ArrayList();
+      this.addEntityTags(var4, var3.getList("Entities"), 0);
+      this.addEntityTags(var4, var3.getList("TileEntities"), 1);
+      this.addEntityTags(var4, var3.getList("TileTicks"), 2);
+      this.getZoneFile(var1, var2, true).entityFile.replaceSlot(this.getSlot(var1, var2), var4);
+   }
+
+   private void addEntityTags(List<CompoundTag> var1, ListTag<? extends Tag> var2, int var3) {
+      if (var2 != null) {
+         for(int var4 = 0; var4 < var2.size(); ++var4) {
+            CompoundTag var5 = (CompoundTag)var2.get(var4);
+            var5.putInt("_TYPE", var3);
+            var1.add(var5);
+         }
+
+      }
+   }
+
+   public synchronized void tick() {
       ++this.tickCount;
+      if (this.tickCount % (long)this.syncInterval == 0L) {
+         this.sync();
+      }
+
       if (this.tickCount % 200L == 4L) {
          ArrayList var1 = new ArrayList();
          Iterator var2 = this.zoneFiles.values().iterator();
@@ -155,7 +265,16 @@ public class ZonedChunkStorage implements ChunkStorage {
 
    }
 
-   public void flush() {
+   public synchronized void sync() {
+      Iterator var1 = this.zoneFiles.values().iterator();
+
+      while(var1.hasNext()) {
+         ((ZoneFile)var1.next()).sync();
+      }
+
+   }
+
+   public synchronized void flush() {
       Iterator var1 = this.zoneFiles.values().iterator();
 
       while(var1.hasNext()) {
@@ -171,7 +290,7 @@ public class ZonedChunkStorage implements ChunkStorage {
       this.zoneFiles.clear();
    }
 
-   public void loadEntities(Level var1, LevelChunk var2) throws IOException {
+   public synchronized void loadEntities(Level var1, LevelChunk var2) throws IOException {
       int var3 = this.getSlot(var2.x, var2.z);
       ZoneFile var4 = this.getZoneFile(var2.x, var2.z, true);
       List var5 = var4.entityFile.readAll(var3);
@@ -189,12 +308,18 @@ public class ZonedChunkStorage implements ChunkStorage {
             if (var10 != null) {
                var2.addTileEntity(var10);
             }
+         } else if (var8 == 2) {
+            if (var2.tileTicks == null) {
+               var2.tileTicks = new ArrayList();
+            }
+
+            var2.tileTicks.add((new TickNextTickData(var7.getInt("x"), var7.getInt("y"), var7.getInt("z"), var7.getInt("i"))).delay((long)var7.getInt("t")));
          }
       }
 
    }
 
-   public void saveEntities(Level var1, LevelChunk var2) throws IOException {
+   public synchronized void saveEntities(Level var1, LevelChunk var2) throws IOException {
       int var3 = this.getSlot(var2.x, var2.z);
       ZoneFile var4 = this.getZoneFile(var2.x, var2.z, true);
       ArrayList var5 = new ArrayList();
@@ -221,6 +346,14 @@ public class ZonedChunkStorage implements ChunkStorage {
          var5.add(var13);
       }
 
+      List var14 = OldChunkStorage.saveTileTicks(var2);
+
+      for(int var15 = 0; var15 < var14.size(); ++var15) {
+         CompoundTag var16 = (CompoundTag)var14.get(var15);
+         var16.putInt("_TYPE", 2);
+         var5.add(var16);
+      }
+
       var4.entityFile.replaceSlot(var3, var5);
    }
 
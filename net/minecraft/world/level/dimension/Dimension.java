@@ -5,6 +5,7 @@ import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.BiomeSource;
 import net.minecraft.world.level.chunk.ChunkSource;
 import net.minecraft.world.level.chunk.storage.ChunkStorage;
+import net.minecraft.world.level.chunk.storage.CompressedZonedChunkStorage;
 import net.minecraft.world.level.chunk.storage.OldChunkStorage;
 import net.minecraft.world.level.levelgen.RandomLevelSource;
 import net.minecraft.world.level.tile.Tile;
@@ -47,7 +48,11 @@ public class Dimension {
    }
 
    public ChunkStorage createStorage(File var1) {
-      return new OldChunkStorage(var1, true);
+      return this.openStorage(var1);
+   }
+
+   protected ChunkStorage openStorage(File var1) {
+      return (ChunkStorage)(CompressedZonedChunkStorage.exists(var1) ? CompressedZonedChunkStorage.withFallback(var1, new OldChunkStorage(var1, false)) : new OldChunkStorage(var1, true));
    }
 
    public boolean isValidSpawn(int var1, int var2) {
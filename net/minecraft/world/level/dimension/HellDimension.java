@@ -5,7 +5,6 @@ import net.minecraft.world.level.biome.Biome;
 import net.minecraft.world.level.biome.FixedBiomeSource;
 import net.minecraft.world.level.chunk.ChunkSource;
 import net.minecraft.world.level.chunk.storage.ChunkStorage;
-import net.minecraft.world.level.chunk.storage.OldChunkStorage;
 import net.minecraft.world.level.levelgen.HellRandomLevelSource;
 import net.minecraft.world.level.tile.Tile;
 import net.minecraft.world.phys.Vec3;
@@ -40,7 +39,7 @@ public class HellDimension extends Dimension {
    public ChunkStorage createStorage(File var1) {
       File var2 = new File(var1, "DIM-1");
       var2.mkdirs();
-      return new OldChunkStorage(var2, true);
+      return this.openStorage(var2);
    }
 
    public boolean isValidSpawn(int var1, int var2) {
@@ -0,0 +1,19 @@
+package net.minecraft.world.level.levelgen;
+
+import java.util.Random;
+import net.minecraft.world.level.biome.BiomeBlock;
+
+public class GeneratorContext {
+   public final Random random = new Random();
+   public final LargeFeature caveFeature = new LargeCaveFeature();
+   public final BiomeBlock biomes = new BiomeBlock(256);
+   public double[] buffer;
+   public double[] sandBuffer = new double[256];
+   public double[] gravelBuffer = new double[256];
+   public double[] depthBuffer = new double[256];
+   public double[] pnr;
+   public double[] ar;
+   public double[] br;
+   public double[] sr;
+   public double[] dr;
+}
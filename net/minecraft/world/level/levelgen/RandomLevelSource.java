@@ -1,8 +1,14 @@
 package net.minecraft.world.level.levelgen;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.biome.Biome;
+import net.minecraft.world.level.biome.BiomeBlock;
 import net.minecraft.world.level.chunk.ChunkSource;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.levelgen.feature.CactusFeature;
@@ -27,6 +33,7 @@ public class RandomLevelSource implements ChunkSource {
    private static final boolean FLOATING_ISLANDS = false;
    public static final int CHUNK_HEIGHT = 8;
    public static final int CHUNK_WIDTH = 4;
+   public static final int CHUNKS_PER_TASK = 4;
    private Random random;
    private PerlinNoise lperlinNoise1;
    private PerlinNoise lperlinNoise2;
@@ -39,17 +46,7 @@ public class RandomLevelSource implements ChunkSource {
    private PerlinNoise floatingIslandNoise;
    public PerlinNoise forestNoise;
    private Level level;
-   private double[] buffer;
-   private double[] sandBuffer = new double[256];
-   private double[] gravelBuffer = new double[256];
-   private double[] depthBuffer = new double[256];
-   private LargeFeature caveFeature = new LargeCaveFeature();
-   private Biome[] biomes;
-   double[] pnr;
-   double[] ar;
-   double[] br;
-   double[] sr;
-   double[] dr;
+   private GeneratorContext context = new GeneratorContext();
    double[] fi;
    double[] fis;
    int[][] waterDepths = new int[32][32];
@@ -68,69 +65,69 @@ public class RandomLevelSource implements ChunkSource {
       this.forestNoise = new PerlinNoise(this.random, 8);
    }
 
-   public void prepareHeights(int var1, int var2, byte[] var3, Biome[] var4, double[] var5) {
-      byte var6 = 4;
-      byte var7 = 64;
-      int var8 = var6 + 1;
-      byte var9 = 17;
-      int var10 = var6 + 1;
-      this.buffer = this.getHeights(this.buffer, var1 * var6, 0, var2 * var6, var8, var9, var10);
-
-      for(int var11 = 0; var11 < var6; ++var11) {
-         for(int var12 = 0; var12 < var6; ++var12) {
-            for(int var13 = 0; var13 < 16; ++var13) {
-               double var14 = 0.125D;
-               double var16 = this.buffer[((var11 + 0) * var10 + var12 + 0) * var9 + var13 + 0];
-               double var18 = this.buffer[((var11 + 0) * var10 + var12 + 1) * var9 + var13 + 0];
-               double var20 = this.buffer[((var11 + 1) * var10 + var12 + 0) * var9 + var13 + 0];
-               double var22 = this.buffer[((var11 + 1) * var10 + var12 + 1) * var9 + var13 + 0];
-               double var24 = (this.buffer[((var11 + 0) * var10 + var12 + 0) * var9 + var13 + 1] - var16) * var14;
-               double var26 = (this.buffer[((var11 + 0) * var10 + var12 + 1) * var9 + var13 + 1] - var18) * var14;
-               double var28 = (this.buffer[((var11 + 1) * var10 + var12 + 0) * var9 + var13 + 1] - var20) * var14;
-               double var30 = (this.buffer[((var11 + 1) * var10 + var12 + 1) * var9 + var13 + 1] - var22) * var14;
-
-               for(int var32 = 0; var32 < 8; ++var32) {
-                  double var33 = 0.25D;
-                  double var35 = var16;
-                  double var37 = var18;
-                  double var39 = (var20 - var16) * var33;
-                  double var41 = (var22 - var18) * var33;
-
-                  for(int var43 = 0; var43 < 4; ++var43) {
-                     int var44 = var43 + var11 * 4 << 11 | 0 + var12 * 4 << 7 | var13 * 8 + var32;
-                     short var45 = 128;
-                     double var46 = 0.25D;
-                     double var48 = var35;
-                     double var50 = (var37 - var35) * var46;
-
-                     for(int var52 = 0; var52 < 4; ++var52) {
-                        double var53 = var5[(var11 * 4 + var43) * 16 + var12 * 4 + var52];
-                        int var55 = 0;
-                        if (var13 * 8 + var32 < var7) {
-                           if (var53 < 0.5D && var13 * 8 + var32 >= var7 - 1) {
-                              var55 = Tile.ice.id;
+   public void prepareHeights(GeneratorContext var1, int var2, int var3, byte[] var4, Biome[] var5, double[] var6) {
+      byte var7 = 4;
+      byte var8 = 64;
+      int var9 = var7 + 1;
+      byte var10 = 17;
+      int var11 = var7 + 1;
+      var1.buffer = this.getHeights(var1, var1.buffer, var2 * var7, 0, var3 * var7, var9, var10, var11);
+
+      for(int var12 = 0; var12 < var7; ++var12) {
+         for(int var13 = 0; var13 < var7; ++var13) {
+            for(int var14 = 0; var14 < 16; ++var14) {
+               double var15 = 0.125D;
+               double var17 = var1.buffer[((var12 + 0) * var11 + var13 + 0) * var10 + var14 + 0];
+               double var19 = var1.buffer[((var12 + 0) * var11 + var13 + 1) * var10 + var14 + 0];
+               double var21 = var1.buffer[((var12 + 1) * var11 + var13 + 0) * var10 + var14 + 0];
+               double var23 = var1.buffer[((var12 + 1) * var11 + var13 + 1) * var10 + var14 + 0];
+               double var25 = (var1.buffer[((var12 + 0) * var11 + var13 + 0) * var10 + var14 + 1] - var17) * var15;
+               double var27 = (var1.buffer[((var12 + 0) * var11 + var13 + 1) * var10 + var14 + 1] - var19) * var15;
+               double var29 = (var1.buffer[((var12 + 1) * var11 + var13 + 0) * var10 + var14 + 1] - var21) * var15;
+               double var31 = (var1.buffer[((var12 + 1) * var11 + var13 + 1) * var10 + var14 + 1] - var23) * var15;
+
+               for(int var33 = 0; var33 < 8; ++var33) {
+                  double var34 = 0.25D;
+                  double var36 = var17;
+                  double var38 = var19;
+                  double var40 = (var21 - var17) * var34;
+                  double var42 = (var23 - var19) * var34;
+
+                  for(int var44 = 0; var44 < 4; ++var44) {
+                     int var45 = var44 + var12 * 4 << 11 | 0 + var13 * 4 << 7 | var14 * 8 + var33;
+                     short var46 = 128;
+                     double var47 = 0.25D;
+                     double var49 = var36;
+                     double var51 = (var38 - var36) * var47;
+
+                     for(int var53 = 0; var53 < 4; ++var53) {
+                        double var54 = var6[(var12 * 4 + var44) * 16 + var13 * 4 + var53];
+                        int var56 = 0;
+                        if (var14 * 8 + var33 < var8) {
+                           if (var54 < 0.5D && var14 * 8 + var33 >= var8 - 1) {
+                              var56 = Tile.ice.id;
                            } else {
-                              var55 = Tile.calmWater.id;
+                              var56 = Tile.calmWater.id;
                            }
                         }
 
-                        if (var48 > 0.0D) {
-                           var55 = Tile.rock.id;
+                        if (var49 > 0.0D) {
+                           var56 = Tile.rock.id;
                         }
 
-                        var3[var44] = (byte)var55;
-                        var44 += var45;
-                        var48 += var50;
+                        var4[var45] = (byte)var56;
+                        var45 += var46;
+                        var49 += var51;
                      }
 
-                     var35 += var39;
-                     var37 += var41;
+                     var36 += var40;
+                     var38 += var42;
                   }
 
-                  var16 += var24;
-                  var18 += var26;
-                  var20 += var28;
-                  var22 += var30;
+                  var17 += var25;
+                  var19 += var27;
+                  var21 += var29;
+                  var23 += var31;
                }
             }
          }
@@ -138,69 +135,69 @@ public class RandomLevelSource implements ChunkSource {
 
    }
 
-   public void buildSurfaces(int var1, int var2, byte[] var3, Biome[] var4) {
-      byte var5 = 64;
-      double var6 = 0.03125D;
-      this.sandBuffer = this.perlinNoise2.getRegion(this.sandBuffer, (double)(var1 * 16), (double)(var2 * 16), 0.0D, 16, 16, 1, var6, var6, 1.0D);
-      this.gravelBuffer = this.perlinNoise2.getRegion(this.gravelBuffer, (double)(var2 * 16), 109.0134D, (double)(var1 * 16), 16, 1, 16, var6, 1.0D, var6);
-      this.depthBuffer = this.perlinNoise3.getRegion(this.depthBuffer, (double)(var1 * 16), (double)(var2 * 16), 0.0D, 16, 16, 1, var6 * 2.0D, var6 * 2.0D, var6 * 2.0D);
-
-      for(int var8 = 0; var8 < 16; ++var8) {
-         for(int var9 = 0; var9 < 16; ++var9) {
-            Biome var10 = var4[var8 + var9 * 16];
-            boolean var11 = this.sandBuffer[var8 + var9 * 16] + this.random.nextDouble() * 0.2D > 0.0D;
-            boolean var12 = this.gravelBuffer[var8 + var9 * 16] + this.random.nextDouble() * 0.2D > 3.0D;
-            int var13 = (int)(this.depthBuffer[var8 + var9 * 16] / 3.0D + 3.0D + this.random.nextDouble() * 0.25D);
-            int var14 = -1;
-            byte var15 = var10.topMaterial;
-            byte var16 = var10.material;
-
-            for(int var17 = 127; var17 >= 0; --var17) {
-               int var18 = (var8 * 16 + var9) * 128 + var17;
-               if (var17 <= 0 + this.random.nextInt(5)) {
-                  var3[var18] = (byte)Tile.unbreakable.id;
+   public void buildSurfaces(GeneratorContext var1, int var2, int var3, byte[] var4, Biome[] var5) {
+      byte var6 = 64;
+      double var7 = 0.03125D;
+      var1.sandBuffer = this.perlinNoise2.getRegion(var1.sandBuffer, (double)(var2 * 16), (double)(var3 * 16), 0.0D, 16, 16, 1, var7, var7, 1.0D);
+      var1.gravelBuffer = this.perlinNoise2.getRegion(var1.gravelBuffer, (double)(var3 * 16), 109.0134D, (double)(var2 * 16), 16, 1, 16, var7, 1.0D, var7);
+      var1.depthBuffer = this.perlinNoise3.getRegion(var1.depthBuffer, (double)(var2 * 16), (double)(var3 * 16), 0.0D, 16, 16, 1, var7 * 2.0D, var7 * 2.0D, var7 * 2.0D);
+
+      for(int var9 = 0; var9 < 16; ++var9) {
+         for(int var10 = 0; var10 < 16; ++var10) {
+            Biome var11 = var5[var9 + var10 * 16];
+            boolean var12 = var1.sandBuffer[var9 + var10 * 16] + var1.random.nextDouble() * 0.2D > 0.0D;
+            boolean var13 = var1.gravelBuffer[var9 + var10 * 16] + var1.random.nextDouble() * 0.2D > 3.0D;
+            int var14 = (int)(var1.depthBuffer[var9 + var10 * 16] / 3.0D + 3.0D + var1.random.nextDouble() * 0.25D);
+            int var15 = -1;
+            byte var16 = var11.topMaterial;
+            byte var17 = var11.material;
+
+            for(int var18 = 127; var18 >= 0; --var18) {
+               int var19 = (var9 * 16 + var10) * 128 + var18;
+               if (var18 <= 0 + var1.random.nextInt(5)) {
+                  var4[var19] = (byte)Tile.unbreakable.id;
                } else {
-                  byte var19 = var3[var18];
-                  if (var19 == 0) {
-                     var14 = -1;
-                  } else if (var19 == Tile.rock.id) {
-                     if (var14 == -1) {
-                        if (var13 <= 0) {
-                           var15 = 0;
-                           var16 = (byte)Tile.rock.id;
-                        } else if (var17 >= var5 - 4 && var17 <= var5 + 1) {
-                           var15 = var10.topMaterial;
-                           var16 = var10.material;
-                           if (var12) {
-                              var15 = 0;
+                  byte var20 = var4[var19];
+                  if (var20 == 0) {
+                     var15 = -1;
+                  } else if (var20 == Tile.rock.id) {
+                     if (var15 == -1) {
+                        if (var14 <= 0) {
+                           var16 = 0;
+                           var17 = (byte)Tile.rock.id;
+                        } else if (var18 >= var6 - 4 && var18 <= var6 + 1) {
+                           var16 = var11.topMaterial;
+                           var17 = var11.material;
+                           if (var13) {
+                              var16 = 0;
                            }
 
-                           if (var12) {
-                              var16 = (byte)Tile.gravel.id;
+                           if (var13) {
+                              var17 = (byte)Tile.gravel.id;
                            }
 
-                           if (var11) {
-                              var15 = (byte)Tile.sand.id;
+                           if (var12) {
+                              var16 = (byte)Tile.sand.id;
                            }
 
-                           if (var11) {
-                              var16 = (byte)Tile.sand.id;
+                           if (var12) {
+                              var17 = (byte)Tile.sand.id;
                            }
                         }
 
-                        if (var17 < var5 && var15 == 0) {
-                           var15 = (byte)Tile.calmWater.id;
+                        if (var18 < var6 && var16 == 0) {
+                           var16 = (byte)Tile.calmWater.id;
                         }
 
-                        var14 = var13;
-                        if (var17 >= var5 - 1) {
-                           var3[var18] = var15;
+                        var15 = var14;
+                        if (var18 >= var6 - 1) {
+                           var4[var19] = var16;
                         } else {
-                           var3[var18] = var16;
+                           var4[var19] = var17;
                         }
-                     } else if (var14 > 0) {
-                        --var14;
-                        var3[var18] = var16;
+                     } else if (var15 > 0) {
+                        --var15;
+                        var4[var19] = var17;
                      }
                   }
                }
@@ -211,116 +208,138 @@ public class RandomLevelSource implements ChunkSource {
    }
 
    public LevelChunk getChunk(int var1, int var2) {
-      this.random.setSeed((long)var1 * 341873128712L + (long)var2 * 132897987541L);
-      byte[] var3 = new byte['耀'];
-      LevelChunk var4 = new LevelChunk(this.level, var3, var1, var2);
-      this.biomes = this.level.getBiomeSource().getBiomeBlock(this.biomes, var1 * 16, var2 * 16, 16, 16);
-      double[] var5 = this.level.getBiomeSource().temperatures;
-      this.prepareHeights(var1, var2, var3, this.biomes, var5);
-      this.buildSurfaces(var1, var2, var3, this.biomes);
-      this.caveFeature.apply(this, this.level, var1, var2, var3);
-      var4.recalcHeightmap();
+      return this.getChunk(this.context, var1, var2);
+   }
+
+   public LevelChunk getChunk(GeneratorContext var1, int var2, int var3) {
+      LevelChunk var4 = this.generate(var1, var2, var3);
+      var4.lightGaps();
+      return var4;
+   }
+
+   public List<LevelChunk> getChunks(List<ChunkPos> var1, ForkJoinPool var2) {
+      LevelChunk[] var3 = new LevelChunk[var1.size()];
+      var2.invoke(new RandomLevelSource.Generate(var1, var3, 0, var3.length));
+      List<LevelChunk> var4 = new ArrayList(var3.length);
+
+      for(int var5 = 0; var5 < var3.length; ++var5) {
+         var3[var5].lightGaps();
+         var4.add(var3[var5]);
+      }
+
       return var4;
    }
 
-   private double[] getHeights(double[] var1, int var2, int var3, int var4, int var5, int var6, int var7) {
-      if (var1 == null) {
-         var1 = new double[var5 * var6 * var7];
-      }
-
-      double var8 = 684.412D;
-      double var10 = 684.412D;
-      double[] var12 = this.level.getBiomeSource().temperatures;
-      double[] var13 = this.level.getBiomeSource().downfalls;
-      this.sr = this.scaleNoise.getRegion(this.sr, var2, var4, var5, var7, 1.121D, 1.121D, 0.5D);
-      this.dr = this.depthNoise.getRegion(this.dr, var2, var4, var5, var7, 200.0D, 200.0D, 0.5D);
-      this.pnr = this.perlinNoise1.getRegion(this.pnr, (double)var2, (double)var3, (double)var4, var5, var6, var7, var8 / 80.0D, var10 / 160.0D, var8 / 80.0D);
-      this.ar = this.lperlinNoise1.getRegion(this.ar, (double)var2, (double)var3, (double)var4, var5, var6, var7, var8, var10, var8);
-      this.br = this.lperlinNoise2.getRegion(this.br, (double)var2, (double)var3, (double)var4, var5, var6, var7, var8, var10, var8);
-      int var14 = 0;
+   private LevelChunk generate(GeneratorContext var1, int var2, int var3) {
+      var1.random.setSeed((long)var2 * 341873128712L + (long)var3 * 132897987541L);
+      byte[] var4 = new byte['耀'];
+      LevelChunk var5 = new LevelChunk(this.level, var4, var2, var3);
+      BiomeBlock var6 = this.level.getBiomeSource().sampleBiomeBlock(var1.biomes, var2 * 16, var3 * 16, 16, 16);
+      this.prepareHeights(var1, var2, var3, var4, var6.biomes, var6.temperatures);
+      this.buildSurfaces(var1, var2, var3, var4, var6.biomes);
+      var1.caveFeature.apply(this, this.level, var2, var3, var4);
+      var5.initHeightmap();
+      return var5;
+   }
+
+   private double[] getHeights(GeneratorContext var1, double[] var2, int var3, int var4, int var5, int var6, int var7, int var8) {
+      if (var2 == null) {
+         var2 = new double[var6 * var7 * var8];
+      }
+
+      double var9 = 684.412D;
+      double var11 = 684.412D;
+      double[] var13 = var1.biomes.temperatures;
+      double[] var14 = var1.biomes.downfalls;
+      var1.sr = this.scaleNoise.getRegion(var1.sr, var3, var5, var6, var8, 1.121D, 1.121D, 0.5D);
+      var1.dr = this.depthNoise.getRegion(var1.dr, var3, var5, var6, var8, 200.0D, 200.0D, 0.5D);
+      var1.pnr = this.perlinNoise1.getRegion(var1.pnr, (double)var3, (double)var4, (double)var5, var6, var7, var8, var9 / 80.0D, var11 / 160.0D, var9 / 80.0D);
+      var1.ar = this.lperlinNoise1.getRegion(var1.ar, (double)var3, (double)var4, (double)var5, var6, var7, var8, var9, var11, var9);
+      var1.br = this.lperlinNoise2.getRegion(var1.br, (double)var3, (double)var4, (double)var5, var6, var7, var8, var9, var11, var9);
       int var15 = 0;
-      int var16 = 16 / var5;
-
-      for(int var17 = 0; var17 < var5; ++var17) {
-         int var18 = var17 * var16 + var16 / 2;
-
-         for(int var19 = 0; var19 < var7; ++var19) {
-            int var20 = var19 * var16 + var16 / 2;
-            double var21 = var12[var18 * 16 + var20];
-            double var23 = var13[var18 * 16 + var20] * var21;
-            double var25 = 1.0D - var23;
-            var25 *= var25;
-            var25 *= var25;
-            var25 = 1.0D - var25;
-            double var27 = (this.sr[var15] + 256.0D) / 512.0D;
-            var27 *= var25;
-            if (var27 > 1.0D) {
-               var27 = 1.0D;
+      int var16 = 0;
+      int var17 = 16 / var6;
+
+      for(int var18 = 0; var18 < var6; ++var18) {
+         int var19 = var18 * var17 + var17 / 2;
+
+         for(int var20 = 0; var20 < var8; ++var20) {
+            int var21 = var20 * var17 + var17 / 2;
+            double var22 = var13[var19 * 16 + var21];
+            double var24 = var14[var19 * 16 + var21] * var22;
+            double var26 = 1.0D - var24;
+            var26 *= var26;
+            var26 *= var26;
+            var26 = 1.0D - var26;
+            double var28 = (var1.sr[var16] + 256.0D) / 512.0D;
+            var28 *= var26;
+            if (var28 > 1.0D) {
+               var28 = 1.0D;
             }
 
-            double var29 = this.dr[var15] / 8000.0D;
-            if (var29 < 0.0D) {
-               var29 = -var29 * 0.3D;
+            double var30 = var1.dr[var16] / 8000.0D;
+            if (var30 < 0.0D) {
+               var30 = -var30 * 0.3D;
             }
 
-            var29 = var29 * 3.0D - 2.0D;
-            if (var29 < 0.0D) {
-               var29 /= 2.0D;
-               if (var29 < -1.0D) {
-                  var29 = -1.0D;
+            var30 = var30 * 3.0D - 2.0D;
+            if (var30 < 0.0D) {
+               var30 /= 2.0D;
+               if (var30 < -1.0D) {
+                  var30 = -1.0D;
                }
 
-               var29 /= 1.4D;
-               var29 /= 2.0D;
-               var27 = 0.0D;
+               var30 /= 1.4D;
+               var30 /= 2.0D;
+               var28 = 0.0D;
             } else {
-               if (var29 > 1.0D) {
-                  var29 = 1.0D;
+               if (var30 > 1.0D) {
+                  var30 = 1.0D;
                }
 
-               var29 /= 8.0D;
+               var30 /= 8.0D;
             }
 
-            if (var27 < 0.0D) {
-               var27 = 0.0D;
+            if (var28 < 0.0D) {
+               var28 = 0.0D;
             }
 
-            var27 += 0.5D;
-            var29 = var29 * (double)var6 / 16.0D;
-            double var31 = (double)var6 / 2.0D + var29 * 4.0D;
-            ++var15;
+            var28 += 0.5D;
+            var30 = var30 * (double)var7 / 16.0D;
+            double var32 = (double)var7 / 2.0D + var30 * 4.0D;
+            ++var16;
 
-            for(int var33 = 0; var33 < var6; ++var33) {
-               double var34 = 0.0D;
-               double var36 = ((double)var33 - var31) * 12.0D / var27;
-               if (var36 < 0.0D) {
-                  var36 *= 4.0D;
+            for(int var34 = 0; var34 < var7; ++var34) {
+               double var35 = 0.0D;
+               double var37 = ((double)var34 - var32) * 12.0D / var28;
+               if (var37 < 0.0D) {
+                  var37 *= 4.0D;
                }
 
-               double var38 = this.ar[var14] / 512.0D;
-               double var40 = this.br[var14] / 512.0D;
-               double var42 = (this.pnr[var14] / 10.0D + 1.0D) / 2.0D;
-               if (var42 < 0.0D) {
-                  var34 = var38;
-               } else if (var42 > 1.0D) {
-                  var34 = var40;
+               double var39 = var1.ar[var15] / 512.0D;
+               double var41 = var1.br[var15] / 512.0D;
+               double var43 = (var1.pnr[var15] / 10.0D + 1.0D) / 2.0D;
+               if (var43 < 0.0D) {
+                  var35 = var39;
+               } else if (var43 > 1.0D) {
+                  var35 = var41;
                } else {
-                  var34 = var38 + (var40 - var38) * var42;
+                  var35 = var39 + (var41 - var39) * var43;
                }
 
-               var34 -= var36;
-               if (var33 > var6 - 4) {
-                  double var44 = (double)((float)(var33 - (var6 - 4)) / 3.0F);
-                  var34 = var34 * (1.0D - var44) + -10.0D * var44;
+               var35 -= var37;
+               if (var34 > var7 - 4) {
+                  double var45 = (double)((float)(var34 - (var7 - 4)) / 3.0F);
+                  var35 = var35 * (1.0D - var45) + -10.0D * var45;
                }
 
-               var1[var14] = var34;
-               ++var14;
+               var2[var15] = var35;
+               ++var15;
             }
          }
       }
 
-      return var1;
+      return var2;
    }
 
    public boolean hasChunk(int var1, int var2) {
@@ -633,4 +652,33 @@ public class RandomLevelSource implements ChunkSource {
    public String gatherStats() {
       return "RandomLevelSource";
    }
+
+   private class Generate extends RecursiveAction {
+      private final List<ChunkPos> positions;
+      private final LevelChunk[] chunks;
+      private final int from;
+      private final int to;
+
+      public Generate(List<ChunkPos> var1, LevelChunk[] var2, int var3, int var4) {
+         this.positions = var1;
+         this.chunks = var2;
+         this.from = var3;
+         this.to = var4;
+      }
+
+      protected void compute() {
+         if (this.to - this.from > CHUNKS_PER_TASK) {
+            int var1 = this.from + this.to >>> 1;
+            invokeAll(RandomLevelSource.this.new Generate(this.positions, this.chunks, this.from, var1), RandomLevelSource.this.new Generate(this.positions, this.chunks, var1, this.to));
+         } else {
+            GeneratorContext var1 = new GeneratorContext();
+
+            for(int var2 = this.from; var2 < this.to; ++var2) {
+               ChunkPos var3 = (ChunkPos)this.positions.get(var2);
+               this.chunks[var2] = RandomLevelSource.this.generate(var1, var3.x, var3.z);
+            }
+
+         }
+      }
+   }
 }
@@ -4,6 +4,7 @@ import java.util.Random;
 import net.minecraft.world.level.GrassColor;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelSource;
+import net.minecraft.world.level.biome.BiomeBlock;
 import net.minecraft.world.level.material.Material;
 
 public class GrassTile extends Tile {
@@ -27,10 +28,12 @@ public class GrassTile extends Tile {
    }
 
    public int getColor(LevelSource var1, int var2, int var3, int var4) {
-      var1.getBiomeSource().getBiomeBlock(var2, var4, 1, 1);
-      double var5 = var1.getBiomeSource().temperatures[0];
-      double var7 = var1.getBiomeSource().downfalls[0];
-      return GrassColor.get(var5, var7);
+      return this.getColor(var1, var2, var3, var4, (BiomeBlock)null);
+   }
+
+   public int getColor(LevelSource var1, int var2, int var3, int var4, BiomeBlock var5) {
+      var5 = var1.getBiomeSource().sampleBiomeBlock(var5, var2, var4, 1, 1);
+      return GrassColor.get(var5.temperatures[0], var5.downfalls[0]);
    }
 
    public void tick(Level var1, int var2, int var3, int var4, Random var5) {
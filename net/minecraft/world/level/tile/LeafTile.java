@@ -5,6 +5,7 @@ import net.minecraft.world.entity.Entity;
 import net.minecraft.world.level.FoliageColor;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelSource;
+import net.minecraft.world.level.biome.BiomeBlock;
 import net.minecraft.world.level.material.Material;
 
 public class LeafTile extends TransparentTile {
@@ -24,16 +25,18 @@ public class LeafTile extends TransparentTile {
    }
 
    public int getColor(LevelSource var1, int var2, int var3, int var4) {
-      int var5 = var1.getData(var2, var3, var4);
-      if ((var5 & 1) == 1) {
+      return this.getColor(var1, var2, var3, var4, (BiomeBlock)null);
+   }
+
+   public int getColor(LevelSource var1, int var2, int var3, int var4, BiomeBlock var5) {
+      int var6 = var1.getData(var2, var3, var4);
+      if ((var6 & 1) == 1) {
          return FoliageColor.getEvergreenColor();
-      } else if ((var5 & 2) == 2) {
+      } else if ((var6 & 2) == 2) {
          return FoliageColor.getBirchColor();
       } else {
-         var1.getBiomeSource().getBiomeBlock(var2, var4, 1, 1);
-         double var6 = var1.getBiomeSource().temperatures[0];
-         double var8 = var1.getBiomeSource().downfalls[0];
-         return FoliageColor.get(var6, var8);
+         var5 = var1.getBiomeSource().sampleBiomeBlock(var5, var2, var4, 1, 1);
+         return FoliageColor.get(var5.temperatures[0], var5.downfalls[0]);
       }
    }
 
@@ -14,6 +14,7 @@ import net.minecraft.world.item.TileItem;
 import net.minecraft.world.item.TreeTileItem;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.LevelSource;
+import net.minecraft.world.level.biome.BiomeBlock;
 import net.minecraft.world.level.material.Material;
 import net.minecraft.world.level.tile.entity.SignTileEntity;
 import net.minecraft.world.phys.AABB;
@@ -568,6 +569,10 @@ public class Tile implements Descriptive<Tile> {
       return 16777215;
    }
 
+   public int getColor(LevelSource var1, int var2, int var3, int var4, BiomeBlock var5) {
+      return this.getColor(var1, var2, var3, var4);
+   }
+
    public final boolean getSignal(LevelSource var1, int var2, int var3, int var4) {
       return false;
    }
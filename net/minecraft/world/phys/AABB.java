@@ -1,11 +1,6 @@
 package net.minecraft.world.phys;
 
-import java.util.ArrayList;
-import java.util.List;
-
 public class AABB {
-   private static List<AABB> pool = new ArrayList();
-   private static int poolPointer = 0;
    public double x0;
    public double y0;
    public double z0;
@@ -18,15 +13,11 @@ public class AABB {
    }
 
    public static void resetPool() {
-      poolPointer = 0;
+      TempPool.get().resetAABBs();
    }
 
    public static AABB newTemp(double var0, double var2, double var4, double var6, double var8, double var10) {
-      if (poolPointer >= pool.size()) {
-         pool.add(newPermanent(0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D));
-      }
-
-      return ((AABB)pool.get(poolPointer++)).set(var0, var2, var4, var6, var8, var10);
+      return TempPool.get().nextAABB().set(var0, var2, var4, var6, var8, var10);
    }
 
    private AABB(double var1, double var3, double var5, double var7, double var9, double var11) {
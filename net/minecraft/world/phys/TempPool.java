@@ -0,0 +1,195 @@
+package net.minecraft.world.phys;
+
+public class TempPool {
+   public static final boolean DEBUG = Boolean.getBoolean("temppool.debug");
+   public static final double POISON = -1.0E9D;
+   private static final ThreadLocal<TempPool> LOCAL = new ThreadLocal<TempPool>() {
+      protected TempPool initialValue() {
+         return new TempPool(Thread.currentThread());
+      }
+   };
+   private static TempPool last;
+   private static int peakAabbs;
+   private static int peakVecs;
+   private final Thread owner;
+   private final TempPool.Slots aabbs = new TempPool.Slots("AABB") {
+      protected Object create() {
+         return AABB.newPermanent(0.0D, 0.0D, 0.0D, 0.0D, 0.0D, 0.0D);
+      }
+
+      protected void poison(Object object) {
+         ((AABB)object).set(POISON, POISON, POISON, POISON, POISON, POISON);
+      }
+
+      protected boolean isPoisoned(Object object) {
+         AABB box = (AABB)object;
+         return box.x0 == POISON && box.y0 == POISON && box.z0 == POISON && box.x1 == POISON && box.y1 == POISON && box.z1 == POISON;
+      }
+   };
+   private final TempPool.Slots vecs = new TempPool.Slots("Vec3") {
+      protected Object create() {
+         return Vec3.newPermanent(0.0D, 0.0D, 0.0D);
+      }
+
+      protected void poison(Object object) {
+         Vec3 vec = (Vec3)object;
+         vec.x = POISON;
+         vec.y = POISON;
+         vec.z = POISON;
+      }
+
+      protected boolean isPoisoned(Object object) {
+         Vec3 vec = (Vec3)object;
+         return vec.x == POISON && vec.y == POISON && vec.z == POISON;
+      }
+   };
+
+   private TempPool(Thread owner) {
+      this.owner = owner;
+   }
+
+   public static TempPool get() {
+      TempPool pool = last;
+      if (pool == null || pool.owner != Thread.currentThread()) {
+         pool = (TempPool)LOCAL.get();
+         last = pool;
+      }
+
+      return pool;
+   }
+
+   public static long markAll() {
+      return get().mark();
+   }
+
+   public static void releaseAll(long mark) {
+      get().release(mark);
+   }
+
+   public long mark() {
+      return (long)this.aabbs.top << 32 | (long)this.vecs.top & 4294967295L;
+   }
+
+   public void release(long mark) {
+      this.aabbs.release((int)(mark >>> 32));
+      this.vecs.release((int)mark);
+   }
+
+   public void resetAABBs() {
+      this.aabbs.release(0);
+      publishPeaks(this.aabbs.highWater, 0);
+   }
+
+   public void resetVecs() {
+      this.vecs.release(0);
+      publishPeaks(0, this.vecs.highWater);
+   }
+
+   public AABB nextAABB() {
+      return (AABB)this.aabbs.next();
+   }
+
+   public Vec3 nextVec3() {
+      return (Vec3)this.vecs.next();
+   }
+
+   public int getAABBHighWater() {
+      return this.aabbs.highWater;
+   }
+
+   public int getVec3HighWater() {
+      return this.vecs.highWater;
+   }
+
+   private static synchronized void publishPeaks(int aabbs, int vecs) {
+      if (aabbs > peakAabbs) {
+         peakAabbs = aabbs;
+      }
+
+      if (vecs > peakVecs) {
+         peakVecs = vecs;
+      }
+
+   }
+
+   public static synchronized int getPeakAABBs() {
+      return peakAabbs;
+   }
+
+   public static synchronized int getPeakVec3s() {
+      return peakVecs;
+   }
+
+   public static String gatherStats() {
+      TempPool pool = get();
+      return "Temp pool: " + pool.aabbs.highWater + "/" + getPeakAABBs() + " AABB, " + pool.vecs.highWater + "/" + getPeakVec3s() + " Vec3";
+   }
+
+   private abstract static class Slots {
+      private final String name;
+      private Object[] objects = new Object[64];
+      private Throwable[] sites;
+      private int created;
+      private int top;
+      private int highWater;
+
+      public Slots(String name) {
+         this.name = name;
+         if (TempPool.DEBUG) {
+            this.sites = new Throwable[64];
+         }
+
+      }
+
+      protected abstract Object create();
+
+      protected abstract void poison(Object object);
+
+      protected abstract boolean isPoisoned(Object object);
+
+      public Object next() {
+         if (this.top == this.created) {
+            if (this.created == this.objects.length) {
+               Object[] grown = new Object[this.objects.length * 2];
+               System.arraycopy(this.objects, 0, grown, 0, this.created);
+               this.objects = grown;
+               if (this.sites != null) {
+                  Throwable[] grownSites = new Throwable[grown.length];
+                  System.arraycopy(this.sites, 0, grownSites, 0, this.created);
+                  this.sites = grownSites;
+               }
+            }
+
+            this.objects[this.created++] = this.create();
+         } else if (this.sites != null && this.sites[this.top] != null && !this.isPoisoned(this.objects[this.top])) {
+            Throwable site = this.sites[this.top];
+            this.sites[this.top] = null;
+            throw new IllegalStateException("Temporary " + this.name + " was modified after its scope was released", site);
+         }
+
+         if (this.sites != null) {
+            this.sites[this.top] = new Throwable("Temporary " + this.name + " allocated here");
+         }
+
+         Object object = this.objects[this.top++];
+         if (this.top > this.highWater) {
+            this.highWater = this.top;
+         }
+
+         return object;
+      }
+
+      public void release(int mark) {
+         if (mark < this.top) {
+            if (this.sites != null) {
+               for(int i = mark; i < this.top; ++i) {
+                  this.poison(this.objects[i]);
+               }
+            }
+
+            this.top = mark;
+         }
+
+      }
+   }
+}
@@ -1,12 +1,8 @@
 package net.minecraft.world.phys;
 
-import java.util.ArrayList;
-import java.util.List;
 import util.Mth;
 
 public class Vec3 {
-   private static List<Vec3> pool = new ArrayList();
-   private static int poolPointer = 0;
    public double x;
    public double y;
    public double z;
@@ -16,15 +12,11 @@ public class Vec3 {
    }
 
    public static void resetPool() {
-      poolPointer = 0;
+      TempPool.get().resetVecs();
    }
 
    public static Vec3 newTemp(double var0, double var2, double var4) {
-      if (poolPointer >= pool.size()) {
-         pool.add(newPermanent(0.0D, 0.0D, 0.0D));
-      }
-
-      return ((Vec3)pool.get(poolPointer++)).set(var0, var2, var4);
+      return TempPool.get().nextVec3().set(var0, var2, var4);
    }
 
    private Vec3(double var1, double var3, double var5) {
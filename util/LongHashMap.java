@@ -1,26 +1,42 @@
 package util;
 
+import java.util.Arrays;
+
 public class LongHashMap<V> {
    private static final int DEFAULT_INITIAL_CAPACITY = 16;
    private static final int MAXIMUM_CAPACITY = 1073741824;
-   private static final float DEFAULT_LOAD_FACTOR = 0.75F;
-   private transient LongHashMap.Entry<V>[] table = new LongHashMap.Entry[16];
+   private static final float DEFAULT_LOAD_FACTOR = 0.5F;
+   private static final Object NULL_VALUE = new Object();
+   private transient long[] keys;
+   private transient Object[] values;
    private transient int size;
-   private int threshold = 12;
-   private final float loadFactor = 0.75F;
-   private transient volatile int modCount;
+   private int mask;
+   private int threshold;
 
-   private static int hash(long var0) {
-      return hash((int)(var0 ^ var0 >>> 32));
+   public LongHashMap() {
+      this(DEFAULT_INITIAL_CAPACITY);
    }
 
-   private static int hash(int var0) {
-      var0 ^= var0 >>> 20 ^ var0 >>> 12;
-      return var0 ^ var0 >>> 7 ^ var0 >>> 4;
+   public LongHashMap(int var1) {
+      int var2;
+      for(var2 = DEFAULT_INITIAL_CAPACITY; var2 < MAXIMUM_CAPACITY && (float)var2 * DEFAULT_LOAD_FACTOR < (float)var1; var2 <<= 1) {
+      }
+
+      this.allocate(var2);
    }
 
-   private static int indexFor(int var0, int var1) {
-      return var0 & var1 - 1;
+   private void allocate(int var1) {
+      this.keys = new long[var1 + 1];
+      this.values = new Object[var1 + 1];
+      this.mask = var1 - 1;
+      this.threshold = (int)((float)var1 * DEFAULT_LOAD_FACTOR);
+   }
+
+   private static int hash(long var0) {
+      var0 ^= var0 >>> 33;
+      var0 *= -49064778989728563L;
+      var0 ^= var0 >>> 33;
+      return (int)var0;
    }
 
    public int size() {
@@ -31,213 +47,156 @@ public class LongHashMap<V> {
       return this.size == 0;
    }
 
-   public V get(long var1) {
-      int var3 = hash(var1);
+   private int indexOf(long var1) {
+      if (var1 == 0L) {
+         return this.values[this.mask + 1] == null ? -1 : this.mask + 1;
+      } else {
+         int var3 = hash(var1) & this.mask;
 
-      for(LongHashMap.Entry var4 = this.table[indexFor(var3, this.table.length)]; var4 != null; var4 = var4.next) {
-         if (var4.key == var1) {
-            return var4.value;
+         while(true) {
+            long var4 = this.keys[var3];
+            if (var4 == var1) {
+               return var3;
+            }
+
+            if (var4 == 0L) {
+               return -1;
+            }
+
+            var3 = var3 + 1 & this.mask;
          }
       }
+   }
 
-      return null;
+   public V get(long var1) {
+      int var3 = this.indexOf(var1);
+      return var3 < 0 ? null : this.unmask(this.values[var3]);
    }
 
    public boolean containsKey(long var1) {
-      return this.getEntry(var1) != null;
+      return this.indexOf(var1) >= 0;
    }
 
-   final LongHashMap.Entry<V> getEntry(long var1) {
-      int var3 = hash(var1);
-
-      for(LongHashMap.Entry var4 = this.table[indexFor(var3, this.table.length)]; var4 != null; var4 = var4.next) {
-         if (var4.key == var1) {
-            return var4;
+   public void put(long var1, V var3) {
+      Object var4 = var3 == null ? NULL_VALUE : var3;
+      int var5;
+      if (var1 == 0L) {
+         var5 = this.mask + 1;
+      } else {
+         for(var5 = hash(var1) & this.mask; this.keys[var5] != 0L; var5 = var5 + 1 & this.mask) {
+            if (this.keys[var5] == var1) {
+               this.values[var5] = var4;
+               return;
+            }
          }
       }
 
-      return null;
-   }
-
-   public void put(long var1, V var3) {
-      int var4 = hash(var1);
-      int var5 = indexFor(var4, this.table.length);
-
-      for(LongHashMap.Entry var6 = this.table[var5]; var6 != null; var6 = var6.next) {
-         if (var6.key == var1) {
-            var6.value = var3;
-         }
+      boolean var6 = this.values[var5] == null;
+      this.keys[var5] = var1;
+      this.values[var5] = var4;
+      if (var6 && ++this.size > this.threshold) {
+         this.resize((this.mask + 1) * 2);
       }
 
-      ++this.modCount;
-      this.addEntry(var4, var1, var3, var5);
    }
 
    private void resize(int var1) {
-      LongHashMap.Entry[] var2 = this.table;
-      int var3 = var2.length;
-      if (var3 == 1073741824) {
-         this.threshold = Integer.MAX_VALUE;
+      if (this.mask + 1 == MAXIMUM_CAPACITY) {
+         throw new IllegalStateException("LongHashMap is full");
       } else {
-         LongHashMap.Entry[] var4 = new LongHashMap.Entry[var1];
-         this.transfer(var4);
-         this.table = var4;
-         this.threshold = (int)((float)var1 * this.loadFactor);
-      }
-   }
-
-   private void transfer(LongHashMap.Entry<V>[] var1) {
-      LongHashMap.Entry[] var2 = this.table;
-      int var3 = var1.length;
-
-      for(int var4 = 0; var4 < var2.length; ++var4) {
-         LongHashMap.Entry var5 = var2[var4];
-         if (var5 != null) {
-            var2[var4] = null;
+         long[] var2 = this.keys;
+         Object[] var3 = this.values;
+         int var4 = this.mask + 1;
+         this.allocate(var1);
+         this.values[this.mask + 1] = var3[var4];
+
+         for(int var5 = 0; var5 < var4; ++var5) {
+            if (var2[var5] != 0L) {
+               int var6;
+               for(var6 = hash(var2[var5]) & this.mask; this.keys[var6] != 0L; var6 = var6 + 1 & this.mask) {
+               }
 
-            LongHashMap.Entry var6;
-            do {
-               var6 = var5.next;
-               int var7 = indexFor(var5.hash, var3);
-               var5.next = var1[var7];
-               var1[var7] = var5;
-               var5 = var6;
-            } while(var6 != null);
+               this.keys[var6] = var2[var5];
+               this.values[var6] = var3[var5];
+            }
          }
-      }
 
+      }
    }
 
    public V remove(long var1) {
-      LongHashMap.Entry var3 = this.removeEntryForKey(var1);
-      return var3 == null ? null : var3.value;
-   }
-
-   final LongHashMap.Entry<V> removeEntryForKey(long var1) {
-      int var3 = hash(var1);
-      int var4 = indexFor(var3, this.table.length);
-      LongHashMap.Entry var5 = this.table[var4];
-
-      LongHashMap.Entry var6;
-      LongHashMap.Entry var7;
-      for(var6 = var5; var6 != null; var6 = var7) {
-         var7 = var6.next;
-         if (var6.key == var1) {
-            ++this.modCount;
-            --this.size;
-            if (var5 == var6) {
-               this.table[var4] = var7;
-            } else {
-               var5.next = var7;
-            }
+      int var3 = this.indexOf(var1);
+      if (var3 < 0) {
+         return null;
+      } else {
+         Object var4 = this.values[var3];
+         this.values[var3] = null;
+         --this.size;
+         if (var3 <= this.mask) {
+            int var5 = var3;
+
+            while(true) {
+               var5 = var5 + 1 & this.mask;
+               long var6 = this.keys[var5];
+               if (var6 == 0L) {
+                  this.keys[var3] = 0L;
+                  this.values[var3] = null;
+                  break;
+               }
 
-            return var6;
+               int var8 = hash(var6) & this.mask;
+               if ((var5 - var8 & this.mask) >= (var5 - var3 & this.mask)) {
+                  this.keys[var3] = var6;
+                  this.values[var3] = this.values[var5];
+                  var3 = var5;
+               }
+            }
          }
 
-         var5 = var6;
+         return this.unmask(var4);
       }
-
-      return var6;
    }
 
    public void clear() {
-      ++this.modCount;
-      LongHashMap.Entry[] var1 = this.table;
-
-      for(int var2 = 0; var2 < var1.length; ++var2) {
-         var1[var2] = null;
+      if (this.size > 0) {
+         Arrays.fill(this.keys, 0L);
+         Arrays.fill(this.values, (Object)null);
+         this.size = 0;
       }
 
-      this.size = 0;
    }
 
    public boolean containsValue(Object var1) {
-      if (var1 == null) {
-         return this.containsNullValue();
-      } else {
-         LongHashMap.Entry[] var2 = this.table;
+      Object var2 = var1 == null ? NULL_VALUE : var1;
 
-         for(int var3 = 0; var3 < var2.length; ++var3) {
-            for(LongHashMap.Entry var4 = var2[var3]; var4 != null; var4 = var4.next) {
-               if (var1.equals(var4.value)) {
-                  return true;
-               }
-            }
-         }
-
-         return false;
-      }
-   }
-
-   private boolean containsNullValue() {
-      LongHashMap.Entry[] var1 = this.table;
-
-      for(int var2 = 0; var2 < var1.length; ++var2) {
-         for(LongHashMap.Entry var3 = var1[var2]; var3 != null; var3 = var3.next) {
-            if (var3.value == null) {
-               return true;
-            }
+      for(int var3 = 0; var3 < this.values.length; ++var3) {
+         if (this.values[var3] != null && var2.equals(this.values[var3])) {
+            return true;
          }
       }
 
       return false;
    }
 
-   private void addEntry(int var1, long var2, V var4, int var5) {
-      LongHashMap.Entry var6 = this.table[var5];
-      this.table[var5] = new LongHashMap.Entry(var1, var2, var4, var6);
-      if (this.size++ >= this.threshold) {
-         this.resize(2 * this.table.length);
+   public int nextIndex(int var1) {
+      for(int var2 = var1 + 1; var2 < this.values.length; ++var2) {
+         if (this.values[var2] != null) {
+            return var2;
+         }
       }
 
+      return -1;
    }
 
-   private static class Entry<V> {
-      final long key;
-      V value;
-      LongHashMap.Entry<V> next;
-      final int hash;
-
-      Entry(int var1, long var2, V var4, LongHashMap.Entry<V> var5) {
-         this.value = var4;
-         this.next = var5;
-         this.key = var2;
-         this.hash = var1;
-      }
-
-      public final long getKey() {
-         return this.key;
-      }
-
-      public final V getValue() {
-         return this.value;
-      }
-
-      public final boolean equals(Object var1) {
-         if (!(var1 instanceof LongHashMap.Entry)) {
-            return false;
-         } else {
-            LongHashMap.Entry var2 = (LongHashMap.Entry)var1;
-            Long var3 = this.getKey();
-            Long var4 = var2.getKey();
-            if (var3 == var4 || var3 != null && var3.equals(var4)) {
-               Object var5 = this.getValue();
-               Object var6 = var2.getValue();
-               if (var5 == var6 || var5 != null && var5.equals(var6)) {
-                  return true;
-               }
-            }
-
-            return false;
-         }
-      }
+   public long keyAt(int var1) {
+      return this.keys[var1];
+   }
 
-      public final int hashCode() {
-         return LongHashMap.hash(this.key);
-      }
+   public V valueAt(int var1) {
+      return this.unmask(this.values[var1]);
+   }
 
-      public final String toString() {
-         return this.getKey() + "=" + this.getValue();
-      }
+   private V unmask(Object var1) {
+      return var1 == NULL_VALUE ? null : (V)var1;
    }
 }
@@ -0,0 +1,169 @@
+package util;
+
+import java.util.Arrays;
+
+public class LongIntHashMap {
+   private static final int DEFAULT_INITIAL_CAPACITY = 16;
+   private static final int MAXIMUM_CAPACITY = 1073741824;
+   private static final float DEFAULT_LOAD_FACTOR = 0.5F;
+   private long[] keys;
+   private int[] values;
+   private boolean hasZeroKey;
+   private int size;
+   private int mask;
+   private int threshold;
+
+   public LongIntHashMap() {
+      this(DEFAULT_INITIAL_CAPACITY);
+   }
+
+   public LongIntHashMap(int capacity) {
+      int tableSize;
+      for(tableSize = DEFAULT_INITIAL_CAPACITY; tableSize < MAXIMUM_CAPACITY && (float)tableSize * DEFAULT_LOAD_FACTOR < (float)capacity; tableSize <<= 1) {
+      }
+
+      this.allocate(tableSize);
+   }
+
+   private void allocate(int tableSize) {
+      this.keys = new long[tableSize + 1];
+      this.values = new int[tableSize + 1];
+      this.mask = tableSize - 1;
+      this.threshold = (int)((float)tableSize * DEFAULT_LOAD_FACTOR);
+   }
+
+   private static int hash(long key) {
+      key ^= key >>> 33;
+      key *= -49064778989728563L;
+      key ^= key >>> 33;
+      return (int)key;
+   }
+
+   public int size() {
+      return this.size;
+   }
+
+   public boolean isEmpty() {
+      return this.size == 0;
+   }
+
+   private int indexOf(long key) {
+      if (key == 0L) {
+         return this.hasZeroKey ? this.mask + 1 : -1;
+      } else {
+         int index = hash(key) & this.mask;
+
+         while(true) {
+            long found = this.keys[index];
+            if (found == key) {
+               return index;
+            }
+
+            if (found == 0L) {
+               return -1;
+            }
+
+            index = index + 1 & this.mask;
+         }
+      }
+   }
+
+   public int get(long key, int missing) {
+      int index = this.indexOf(key);
+      return index < 0 ? missing : this.values[index];
+   }
+
+   public boolean containsKey(long key) {
+      return this.indexOf(key) >= 0;
+   }
+
+   public void put(long key, int value) {
+      if (key == 0L) {
+         this.values[this.mask + 1] = value;
+         if (!this.hasZeroKey) {
+            this.hasZeroKey = true;
+            ++this.size;
+         }
+
+      } else {
+         int index;
+         for(index = hash(key) & this.mask; this.keys[index] != 0L; index = index + 1 & this.mask) {
+            if (this.keys[index] == key) {
+               this.values[index] = value;
+               return;
+            }
+         }
+
+         this.keys[index] = key;
+         this.values[index] = value;
+         if (++this.size > this.threshold) {
+            this.resize((this.mask + 1) * 2);
+         }
+
+      }
+   }
+
+   private void resize(int tableSize) {
+      if (this.mask + 1 == MAXIMUM_CAPACITY) {
+         throw new IllegalStateException("LongIntHashMap is full");
+      } else {
+         long[] oldKeys = this.keys;
+         int[] oldValues = this.values;
+         int oldSize = this.mask + 1;
+         this.allocate(tableSize);
+         this.values[this.mask + 1] = oldValues[oldSize];
+
+         for(int i = 0; i < oldSize; ++i) {
+            if (oldKeys[i] != 0L) {
+               int index;
+               for(index = hash(oldKeys[i]) & this.mask; this.keys[index] != 0L; index = index + 1 & this.mask) {
+               }
+
+               this.keys[index] = oldKeys[i];
+               this.values[index] = oldValues[i];
+            }
+         }
+
+      }
+   }
+
+   public boolean remove(long key) {
+      int index = this.indexOf(key);
+      if (index < 0) {
+         return false;
+      } else {
+         --this.size;
+         if (index > this.mask) {
+            this.hasZeroKey = false;
+            return true;
+         } else {
+            int next = index;
+
+            while(true) {
+               next = next + 1 & this.mask;
+               long moved = this.keys[next];
+               if (moved == 0L) {
+                  this.keys[index] = 0L;
+                  return true;
+               }
+
+               int home = hash(moved) & this.mask;
+               if ((next - home & this.mask) >= (next - index & this.mask)) {
+                  this.keys[index] = moved;
+                  this.values[index] = this.values[next];
+                  index = next;
+               }
+            }
+         }
+      }
+   }
+
+   public void clear() {
+      if (this.size > 0) {
+         Arrays.fill(this.keys, 0L);
+         this.hasZeroKey = false;
+         this.size = 0;
+      }
+
+   }
+}